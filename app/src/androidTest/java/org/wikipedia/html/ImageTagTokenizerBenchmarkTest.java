@@ -0,0 +1,123 @@
+package org.wikipedia.html;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.test.InstrumentationRegistry;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.Before;
+import org.junit.Test;
+import org.wikipedia.dataclient.restbase.page.RbPageLead;
+import org.wikipedia.util.FileUtil;
+import org.wikipedia.util.log.L;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.wikipedia.json.GsonUnmarshaller.unmarshal;
+
+/**
+ * Measures on the device the time to find the image tags of a page with the tokenizer against the
+ * Jsoup parse of the page it replaces. The page is the Parsoid lead section of the RESTBase
+ * fixture repeated as each section of a long page. As with the JSON benchmark, reading is
+ * repeated in rounds after a warm-up, the fastest rounds are compared, and the times are logged.
+ */
+public class ImageTagTokenizerBenchmarkTest {
+    private static final String FIXTURE = "raw/page_lead_rb.json";
+    private static final int SECTIONS = 50;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int READS_PER_ROUND = 10;
+
+    @NonNull private final ImageTagTokenizer tokenizer = new ImageTagTokenizer();
+    @NonNull private final List<String> sections = new ArrayList<>();
+
+    @Before public void setUp() throws Throwable {
+        InputStream in = InstrumentationRegistry.getContext().getAssets().open(FIXTURE);
+        String html;
+        try {
+            html = unmarshal(RbPageLead.class, FileUtil.readFile(in)).getLeadSectionContent();
+        } finally {
+            in.close();
+        }
+        for (int i = 0; i < SECTIONS; i++) {
+            sections.add(html);
+        }
+    }
+
+    @Test public void testTokenizerFaster() {
+        // Both find the same tags.
+        assertThat(tokenize(), is(parse()));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            timeTokenize();
+            timeParse();
+        }
+
+        long tokenized = Long.MAX_VALUE;
+        long parsed = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            tokenized = Math.min(tokenized, timeTokenize());
+            parsed = Math.min(parsed, timeParse());
+        }
+        L.i(String.format(Locale.ROOT, "%d us tokenized, %d us parsed per page of %d sections",
+                TimeUnit.NANOSECONDS.toMicros(tokenized / READS_PER_ROUND),
+                TimeUnit.NANOSECONDS.toMicros(parsed / READS_PER_ROUND), sections.size()));
+        assertThat(tokenized, lessThan(parsed));
+    }
+
+    private long timeTokenize() {
+        long start = System.nanoTime();
+        for (int i = 0; i < READS_PER_ROUND; i++) {
+            tokenize();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long timeParse() {
+        long start = System.nanoTime();
+        for (int i = 0; i < READS_PER_ROUND; i++) {
+            parse();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // As PageImageUrlParser finds the tags: section by section.
+    @NonNull private List<String> tokenize() {
+        final List<String> tags = new ArrayList<>();
+        ImageTagTokenizer.Callback callback = new ImageTagTokenizer.Callback() {
+            @Override public void onImageTag(@Nullable String src, @Nullable String srcSet) {
+                tags.add(src + "|" + srcSet);
+            }
+        };
+        for (String section : sections) {
+            tokenizer.tokenize(section, callback);
+        }
+        return tags;
+    }
+
+    // As PageImageUrlParser found the tags before the tokenizer: in a document of every section.
+    @NonNull private List<String> parse() {
+        StringBuilder html = new StringBuilder();
+        for (String section : sections) {
+            html.append(section);
+        }
+        List<String> tags = new ArrayList<>();
+        for (Element el : Jsoup.parseBodyFragment(html.toString()).getElementsByTag("img")) {
+            tags.add(attr(el, "src") + "|" + attr(el, "srcset"));
+        }
+        return tags;
+    }
+
+    // @return The attribute, or null when missing as reported by the tokenizer.
+    @Nullable private static String attr(@NonNull Element el, @NonNull String key) {
+        return el.hasAttr(key) ? el.attr(key) : null;
+    }
+}
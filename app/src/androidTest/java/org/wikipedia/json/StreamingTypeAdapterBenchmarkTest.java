@@ -0,0 +1,97 @@
+package org.wikipedia.json;
+
+import android.net.Uri;
+import android.support.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.dataclient.restbase.page.RbPageLead;
+import org.wikipedia.dataclient.restbase.page.RbPageRemaining;
+import org.wikipedia.page.Namespace;
+import org.wikipedia.util.log.L;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Measures on the device the time to read page payloads with the streaming adapters against the
+ * reflective adapters they replace, which is what the adapters are kept for. Reading is repeated
+ * in rounds after a warm-up and the fastest round of each is compared, the least disturbed by the
+ * rest of the system. The times are logged.
+ */
+public class StreamingTypeAdapterBenchmarkTest {
+    private static final int SECTIONS = 100;
+    private static final int SECTION_PARAGRAPHS = 20;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int READS_PER_ROUND = 20;
+
+    // The default Gson without the streaming adapters.
+    @NonNull private final Gson reflective = new GsonBuilder()
+            .registerTypeHierarchyAdapter(Uri.class, new UriTypeAdapter().nullSafe())
+            .registerTypeHierarchyAdapter(Namespace.class, new NamespaceTypeAdapter().nullSafe())
+            .registerTypeAdapter(WikiSite.class, new WikiSiteTypeAdapter().nullSafe())
+            .registerTypeAdapterFactory(new RequiredFieldsCheckOnReadTypeAdapterFactory())
+            .create();
+
+    @Test public void testRbPageLead() {
+        assertStreamedFaster(RbPageLead.class, "{\"id\": 1, \"revision\": 2, \"lastmodified\":"
+                + " \"2017-01-01T00:00:00Z\", \"displaytitle\": \"Ray Charles\", \"languagecount\": 3,"
+                + " \"editable\": true, \"description\": \"American musician\", \"sections\": "
+                + sections() + "}");
+    }
+
+    @Test public void testRbPageRemaining() {
+        assertStreamedFaster(RbPageRemaining.class, "{\"sections\": " + sections() + "}");
+    }
+
+    private <T> void assertStreamedFaster(@NonNull Class<T> clazz, @NonNull String json) {
+        Gson streaming = GsonUtil.getDefaultGson();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            time(streaming, clazz, json);
+            time(reflective, clazz, json);
+        }
+
+        long streamed = Long.MAX_VALUE;
+        long reflected = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            streamed = Math.min(streamed, time(streaming, clazz, json));
+            reflected = Math.min(reflected, time(reflective, clazz, json));
+        }
+        L.i(String.format(Locale.ROOT, "%s: %d us streamed, %d us reflected per read of %d chars",
+                clazz.getSimpleName(), TimeUnit.NANOSECONDS.toMicros(streamed / READS_PER_ROUND),
+                TimeUnit.NANOSECONDS.toMicros(reflected / READS_PER_ROUND), json.length()));
+        assertThat(streamed, lessThan(reflected));
+    }
+
+    private static <T> long time(@NonNull Gson gson, @NonNull Class<T> clazz, @NonNull String json) {
+        long start = System.nanoTime();
+        for (int i = 0; i < READS_PER_ROUND; i++) {
+            gson.fromJson(json, clazz);
+        }
+        return System.nanoTime() - start;
+    }
+
+    @NonNull private static String sections() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < SECTION_PARAGRAPHS; i++) {
+            text.append("<p>Ray Charles was an American singer, songwriter and pianist.</p>");
+        }
+        StringBuilder sections = new StringBuilder("[");
+        for (int i = 0; i < SECTIONS; i++) {
+            if (i > 0) {
+                sections.append(',');
+            }
+            sections.append("{\"id\": ").append(i).append(", \"toclevel\": 2, \"line\": \"Section ")
+                    .append(i).append("\", \"anchor\": \"Section_").append(i)
+                    .append("\", \"text\": \"").append(text).append("\"}");
+        }
+        return sections.append(']').toString();
+    }
+}
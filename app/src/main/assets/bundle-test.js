@@ -4,17 +4,84 @@ function Bridge() {
 
 var eventHandlers = {};
 
+// Messages in the order they were sent, each dispatched once its streamed fields are fetched and
+// all the messages before it are dispatched.
+var pendingMessages = [];
+
 // This is called directly from Java
 window.handleMessage = function( type, msgPointer ) {
-    var that = this;
-    var payload = JSON.parse( marshaller.getPayload( msgPointer ) );
-    if ( eventHandlers.hasOwnProperty( type ) ) {
-        eventHandlers[type].forEach( function( callback ) {
-            callback.call( that, payload );
-        } );
-    }
+    var message = { type: type, payload: JSON.parse( marshaller.getPayload( msgPointer ) ), resolved: false };
+    pendingMessages.push( message );
+    resolveStreamedFields( message.payload, function( error ) {
+        message.resolved = true;
+        message.error = error;
+        dispatchPendingMessages();
+    } );
 };
 
+function dispatchPendingMessages() {
+    while ( pendingMessages.length && pendingMessages[0].resolved ) {
+        var message = pendingMessages.shift();
+        if ( eventHandlers.hasOwnProperty( message.type ) ) {
+            eventHandlers[message.type].forEach( function( callback ) {
+                callback.call( window, message.payload, message.error );
+            } );
+        }
+    }
+}
+
+// Large string fields, such as section HTML, are served by the app under the URLs listed in the
+// "streamed" field of the payload, keyed by their dot separated path. Calls back once all are
+// fetched, with an Error naming the first field that failed, which is then left unset.
+function resolveStreamedFields( payload, callback ) {
+    var streamed = payload.streamed;
+    if ( !streamed ) {
+        callback();
+        return;
+    }
+    delete payload.streamed;
+    var paths = Object.keys( streamed );
+    var remaining = paths.length;
+    var error;
+    paths.forEach( function( path ) {
+        var request = new XMLHttpRequest();
+        request.open( "GET", streamed[path], true );
+        request.onload = function() {
+            if ( request.status === 200 ) {
+                setField( payload, path, request.responseText );
+            } else {
+                fail( "HTTP " + request.status );
+            }
+            done();
+        };
+        request.onerror = function() {
+            fail( "network error" );
+            done();
+        };
+        request.send();
+
+        function fail( reason ) {
+            console.error( "Failed to fetch streamed field " + path + ": " + reason );
+            error = error || new Error( "Failed to fetch streamed field " + path + ": " + reason );
+        }
+    } );
+
+    function done() {
+        if ( --remaining === 0 ) {
+            callback( error );
+        }
+    }
+}
+
+function setField( payload, path, value ) {
+    var keys = path.split( "." );
+    var obj = payload;
+    for ( var i = 0; i < keys.length - 1; i++ ) {
+        obj = obj[keys[i]];
+    }
+    obj[keys[keys.length - 1]] = value;
+}
+
 Bridge.prototype.registerListener = function( messageType, callback ) {
     if ( eventHandlers.hasOwnProperty( messageType ) ) {
         eventHandlers[messageType].push( callback );
@@ -85,16 +85,83 @@ function Bridge() {
 
 var eventHandlers = {};
 
+// Messages in the order they were sent, each dispatched once its streamed fields are fetched and
+// all the messages before it are dispatched.
+var pendingMessages = [];
+
 // This is called directly from Java
 window.handleMessage = function( type, msgPointer ) {
-    var that = this;
-    var payload = JSON.parse( marshaller.getPayload( msgPointer ) );
-    if ( eventHandlers.hasOwnProperty( type ) ) {
-        eventHandlers[type].forEach( function( callback ) {
-            callback.call( that, payload );
-        } );
+    var message = { type: type, payload: JSON.parse( marshaller.getPayload( msgPointer ) ), resolved: false };
+    pendingMessages.push( message );
+    resolveStreamedFields( message.payload, function( error ) {
+        message.resolved = true;
+        message.error = error;
+        dispatchPendingMessages();
+    } );
+};
+
+function dispatchPendingMessages() {
+    while ( pendingMessages.length && pendingMessages[0].resolved ) {
+        var message = pendingMessages.shift();
+        if ( eventHandlers.hasOwnProperty( message.type ) ) {
+            eventHandlers[message.type].forEach( function( callback ) {
+                callback.call( window, message.payload, message.error );
+            } );
+        }
     }
-};
+}
+
+// Large string fields, such as section HTML, are served by the app under the URLs listed in the
+// "streamed" field of the payload, keyed by their dot separated path. Calls back once all are
+// fetched, with an Error naming the first field that failed, which is then left unset.
+function resolveStreamedFields( payload, callback ) {
+    var streamed = payload.streamed;
+    if ( !streamed ) {
+        callback();
+        return;
+    }
+    delete payload.streamed;
+    var paths = Object.keys( streamed );
+    var remaining = paths.length;
+    var error;
+    paths.forEach( function( path ) {
+        var request = new XMLHttpRequest();
+        request.open( "GET", streamed[path], true );
+        request.onload = function() {
+            if ( request.status === 200 ) {
+                setField( payload, path, request.responseText );
+            } else {
+                fail( "HTTP " + request.status );
+            }
+            done();
+        };
+        request.onerror = function() {
+            fail( "network error" );
+            done();
+        };
+        request.send();
+
+        function fail( reason ) {
+            console.error( "Failed to fetch streamed field " + path + ": " + reason );
+            error = error || new Error( "Failed to fetch streamed field " + path + ": " + reason );
+        }
+    } );
+
+    function done() {
+        if ( --remaining === 0 ) {
+            callback( error );
+        }
+    }
+}
+
+function setField( payload, path, value ) {
+    var keys = path.split( "." );
+    var obj = payload;
+    for ( var i = 0; i < keys.length - 1; i++ ) {
+        obj = obj[keys[i]];
+    }
+    obj[keys[keys.length - 1]] = value;
+}
 
 Bridge.prototype.registerListener = function( messageType, callback ) {
     if ( eventHandlers.hasOwnProperty( messageType ) ) {
@@ -356,7 +423,10 @@ function setIssuesElement( parentNode ) {
     return issuesContainer;
 }
 
-bridge.registerListener( "displayLeadSection", function( payload ) {
+bridge.registerListener( "displayLeadSection", function( payload, error ) {
+    if ( reportLoadError( payload, error ) ) {
+        return;
+    }
     var lazyDocument;
 
     // This might be a refresh! Clear out all contents!
@@ -394,6 +464,17 @@ bridge.registerListener( "displayLeadSection", function( payload ) {
     scrolledOnLoad = false;
 });
 
+// Reports an error fetching the content of a page to the app, which shows its load error.
+function reportLoadError( payload, error ) {
+    if ( !error ) {
+        return false;
+    }
+    bridge.sendMessage( "pageLoadError", {
+      "sequence": payload.sequence,
+      "message": error.message });
+    return true;
+}
+
 function clearContents() {
     lazyLoadTransformer.deregister();
     document.getElementById( "content" ).innerHTML = "";
@@ -458,7 +539,26 @@ function applySectionTransforms( content, isLeadSection ) {
 
 var scrolledOnLoad = false;
 
-bridge.registerListener( "displaySection", function ( payload ) {
+bridge.registerListener( "displaySections", function ( payload, error ) {
+    if ( reportLoadError( payload, error ) ) {
+        return;
+    }
+    var contentWrapper = document.getElementById( "content" );
+    payload.sections.forEach( function( section ) {
+        elementsForSection(section).forEach(function (element) {
+            contentWrapper.appendChild(element);
+            // do we have a y-offset to scroll to?
+            if (payload.scrollY > 0 && payload.scrollY < element.offsetTop && !scrolledOnLoad) {
+                window.scrollTo( 0, payload.scrollY );
+                scrolledOnLoad = true;
+            }
+        });
+        // do we have a section to scroll to?
+        if ( typeof payload.fragment === "string" && payload.fragment.length > 0 && section.anchor === payload.fragment) {
+            scrollToSection( payload.fragment );
+        }
+    } );
+
     if ( payload.noMore ) {
         // if we still haven't scrolled to our target offset (if we have one),
         // then do it now.
@@ -471,26 +571,25 @@ bridge.registerListener( "displaySection", function ( payload ) {
         bridge.sendMessage( "pageLoadComplete", {
           "sequence": payload.sequence });
     } else {
-        var contentWrapper = document.getElementById( "content" );
-        elementsForSection(payload.section).forEach(function (element) {
-            contentWrapper.appendChild(element);
-            // do we have a y-offset to scroll to?
-            if (payload.scrollY > 0 && payload.scrollY < element.offsetTop && !scrolledOnLoad) {
-                window.scrollTo( 0, payload.scrollY );
-                scrolledOnLoad = true;
-            }
-        });
-        // do we have a section to scroll to?
-        if ( typeof payload.fragment === "string" && payload.fragment.length > 0 && payload.section.anchor === payload.fragment) {
-            scrollToSection( payload.fragment );
-        }
-        bridge.sendMessage( "requestSection", { "sequence": payload.sequence, "index": payload.section.id + 1 });
+        bridge.sendMessage( "requestSection", {
+          "sequence": payload.sequence,
+          "index": payload.index + payload.sections.length,
+          "viewportFilled": isViewportFilled( payload.scrollY ) });
     }
 });
 
+// Whether the sections rendered so far fill the viewport at the initial scroll position, after
+// which the app sends the remaining sections in larger chunks.
+function isViewportFilled( scrollY ) {
+    return document.body.scrollHeight >= Math.max( scrollY, window.scrollY ) + window.innerHeight;
+}
+
 // -- Begin custom processing of ZIM html data --
 
-bridge.registerListener( "displayFromZim", function( payload ) {
+bridge.registerListener( "displayFromZim", function( payload, error ) {
+    if ( reportLoadError( payload, error ) ) {
+        return;
+    }
     // This might be a refresh! Clear out all contents!
     clearContents();
     setWindowAttributes(payload);
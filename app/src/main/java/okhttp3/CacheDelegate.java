@@ -3,16 +3,63 @@ package okhttp3;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import org.wikipedia.dataclient.okhttp.cache.BlobInternalCache;
+import org.wikipedia.dataclient.okhttp.cache.BlobStore;
+import org.wikipedia.dataclient.okhttp.cache.CacheIndex;
+import org.wikipedia.dataclient.okhttp.cache.IndexedInternalCache;
+import org.wikipedia.dataclient.page.PageCache;
+
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
+import okhttp3.internal.Internal;
 import okhttp3.internal.Util;
 import okhttp3.internal.cache.DiskLruCache;
 import okhttp3.internal.cache.InternalCache;
-import okio.ByteString;
 
 public class CacheDelegate {
+    @NonNull private static final Map<Cache, CacheIndex> INDEXES = new HashMap<>();
+
+    /** @return An InternalCache for cache that keeps the index of cache current. */
     @NonNull public static InternalCache internalCache(@NonNull Cache cache) {
-        return cache.internalCache;
+        return new IndexedInternalCache(cache.internalCache, index(cache));
+    }
+
+    /** @return An InternalCache for cache that serves the bodies of interned responses from
+     *          blobs. */
+    @NonNull public static InternalCache internalCache(@NonNull Cache cache, @NonNull BlobStore blobs) {
+        return new BlobInternalCache(internalCache(cache), blobs);
+    }
+
+    /** Sets cache as the cache of builder in place of {@link OkHttpClient.Builder#cache}, which
+     * would bypass the index of cache. */
+    @NonNull public static OkHttpClient.Builder cache(@NonNull OkHttpClient.Builder builder,
+                                                      @NonNull Cache cache) {
+        Internal.instance.setCache(builder, internalCache(cache));
+        return builder;
+    }
+
+    /** @return The index of the entries of cache. */
+    @NonNull public static synchronized CacheIndex index(@NonNull Cache cache) {
+        CacheIndex index = INDEXES.get(cache);
+        if (index == null) {
+            index = new CacheIndex(cache.directory(), cache.maxSize());
+            INDEXES.put(cache, index);
+        }
+        return index;
+    }
+
+    /** Reads the index of cache on executor ahead of use, so that isCached() never reads the
+     * journal. */
+    public static void loadIndex(@NonNull Cache cache, @NonNull Executor executor) {
+        final CacheIndex index = index(cache);
+        executor.execute(new Runnable() {
+            @Override public void run() {
+                index.load();
+            }
+        });
     }
 
     @NonNull private final Cache cache;
@@ -32,42 +79,53 @@ public class CacheDelegate {
         return cache.cache;
     }
 
+    @NonNull public CacheIndex index() {
+        return index(cache);
+    }
+
+    // Calling this method modifies the Cache. If the URL is present, its cache entry is moved to
+    // the head of the LRU queue. This method performs file I/O
     @Nullable public DiskLruCache.Snapshot entry(@NonNull Request req) {
+        String key = IndexedInternalCache.key(req.url());
+        index().touch(key);
         try {
-            return cache.cache.get(key(req.url().toString()));
+            return cache.cache.get(key);
         } catch (IOException ignore) {
             return null;
         }
     }
 
-    // Copy of Cache.get(). Calling this method modifies the Cache. If the URL is present, it's
-    // cache entry is moved to the head of the LRU queue. This method performs file I/O
+    // Answered from the index of the cache. Once the index is loaded, this method performs no file
+    // I/O and leaves the LRU queue unchanged
     public boolean isCached(@NonNull String url) {
-        String key = key(url);
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            return false;
+        }
+        String key = IndexedInternalCache.key(httpUrl);
+        CacheIndex index = index();
+        if (index.isLoaded()) {
+            return index.contains(key);
+        }
+
+        // Until then, looked up in the cache rather than wait for the journal to be read. Calling
+        // this modifies the Cache as Cache.get() does and performs file I/O
         DiskLruCache.Snapshot snapshot;
         try {
             snapshot = cache.cache.get(key);
-            if (snapshot == null) {
-                return false;
-            }
         } catch (IOException e) {
-            // Give up because the cache cannot be read.
             return false;
         }
-
         Util.closeQuietly(snapshot);
-        return true;
+        return snapshot != null;
     }
 
     // Copy of Cache.remove(). This method performs file I/O
     public void remove(@NonNull Request req) {
+        PageCache.instance().invalidate(req.url().toString());
         try {
             cache.remove(req);
         } catch (IOException ignore) { }
-    }
-
-    // Copy of Cache.key()
-    @NonNull private String key(@NonNull String url) {
-        return ByteString.encodeUtf8(url).md5().hex();
+        index().remove(IndexedInternalCache.key(req.url()));
     }
 }
@@ -22,6 +22,9 @@ import com.squareup.otto.Bus;
 import org.wikipedia.analytics.FunnelManager;
 import org.wikipedia.analytics.SessionFunnel;
 import org.wikipedia.auth.AccountUtil;
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
+import org.wikipedia.concurrency.PriorityExecutor;
 import org.wikipedia.concurrency.ThreadSafeBus;
 import org.wikipedia.connectivity.NetworkConnectivityReceiver;
 import org.wikipedia.crash.CrashReporter;
@@ -33,6 +36,7 @@ import org.wikipedia.dataclient.WikiSite;
 import org.wikipedia.dataclient.mwapi.MwQueryResponse;
 import org.wikipedia.dataclient.okhttp.CacheableOkHttpNetworkFetcher;
 import org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory;
+import org.wikipedia.dataclient.page.PageCache;
 import org.wikipedia.edit.summaries.EditSummary;
 import org.wikipedia.events.ChangeTextSizeEvent;
 import org.wikipedia.events.ThemeChangeEvent;
@@ -42,12 +46,15 @@ import org.wikipedia.language.AppLanguageLookUpTable;
 import org.wikipedia.language.AppLanguageState;
 import org.wikipedia.login.UserIdClient;
 import org.wikipedia.notifications.NotificationPollBroadcastReceiver;
+import org.wikipedia.offline.OfflineContentCache;
 import org.wikipedia.onboarding.OnboardingStateMachine;
 import org.wikipedia.onboarding.PrefsOnboardingStateMachine;
+import org.wikipedia.page.tabs.TabStore;
 import org.wikipedia.pageimages.PageImage;
 import org.wikipedia.readinglist.database.ReadingListRow;
 import org.wikipedia.readinglist.page.ReadingListPageRow;
 import org.wikipedia.readinglist.page.database.ReadingListPageHttpRow;
+import org.wikipedia.readinglist.page.database.ReadingListPageListRow;
 import org.wikipedia.readinglist.page.database.disk.ReadingListPageDiskRow;
 import org.wikipedia.savedpages.SavedPage;
 import org.wikipedia.search.RecentSearch;
@@ -69,7 +76,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
+import okhttp3.CacheDelegate;
 import retrofit2.Call;
 
 import static org.apache.commons.lang3.StringUtils.defaultString;
@@ -171,6 +180,20 @@ public class WikipediaApp extends Application {
         registerConnectivityReceiver();
 
         listenForNotifications();
+
+        // Read ahead of the first screen, which shows the tabs or their count.
+        TabStore.instance().preload(null);
+        // Read ahead of the checks for saved content made on the main thread.
+        Executor io = PriorityExecutor.executor(Lane.IO, Priority.NORMAL);
+        CacheDelegate.loadIndex(OkHttpConnectionFactory.SAVE_CACHE, io);
+        CacheDelegate.loadIndex(OkHttpConnectionFactory.NET_CACHE, io);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        PageCache.instance().trimMemory(level);
+        OfflineContentCache.instance().trimMemory(level);
     }
 
     public RefWatcher getRefWatcher() {
@@ -318,6 +341,8 @@ public class WikipediaApp extends Application {
                 client = new DatabaseClient<>(this, ReadingListPageRow.HTTP_DATABASE_TABLE);
             } else if (cls.equals(ReadingListPageDiskRow.class)) {
                 client = new DatabaseClient<>(this, ReadingListPageRow.DISK_DATABASE_TABLE);
+            } else if (cls.equals(ReadingListPageListRow.class)) {
+                client = new DatabaseClient<>(this, ReadingListPageRow.LIST_DATABASE_TABLE);
             } else if (cls.equals(ReadingListRow.class)) {
                 client = new DatabaseClient<>(this, ReadingListRow.DATABASE_TABLE);
             } else {
@@ -4,6 +4,7 @@ import android.net.Uri;
 
 import org.json.JSONObject;
 import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.Priority;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.crash.RemoteLogException;
 import org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory;
@@ -50,6 +51,10 @@ public final class EventLoggingService {
             this.data = data;
         }
 
+        @Override protected Priority priority() {
+            return Priority.LOW;
+        }
+
         @Override
         public Integer performTask() throws Throwable {
             String dataURL = Uri.parse(EVENTLOG_URL)
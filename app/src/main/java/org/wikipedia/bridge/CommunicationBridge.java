@@ -5,6 +5,7 @@ import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.Log;
 import android.webkit.ConsoleMessage;
 import android.webkit.JavascriptInterface;
@@ -12,8 +13,10 @@ import android.webkit.JsPromptResult;
 import android.webkit.WebChromeClient;
 import android.webkit.WebView;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.wikipedia.util.log.L;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -26,12 +29,16 @@ import static org.wikipedia.util.UriUtil.decodeURL;
  * Two way communications bridge between JS in a WebView and Java.
  */
 public class CommunicationBridge {
+    @NonNull private static final String STREAMED_FIELDS = "streamed";
+
     private final WebView webView;
 
     private final Map<String, List<JSEventListener>> eventListeners;
 
     private final BridgeMarshaller marshaller;
 
+    @NonNull private final MessageTimings timings = new MessageTimings();
+
     private boolean isDOMReady = false;
     private final List<String> pendingJSMessages = new ArrayList<>();
 
@@ -64,6 +71,9 @@ public class CommunicationBridge {
     }
 
     public void cleanup() {
+        PayloadChannel.instance().releaseAll(this);
+        L.d("Bridge message timings\n" + timings);
+        timings.clear();
         eventListeners.clear();
         if (incomingMessageHandler != null) {
             incomingMessageHandler.removeCallbacksAndMessages(null);
@@ -81,8 +91,22 @@ public class CommunicationBridge {
         }
     }
 
-    public void sendMessage(String messageName, JSONObject messageData) {
-        String messagePointer =  marshaller.putPayload(messageData.toString());
+    @NonNull public MessageTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @param streamedFields Dot separated paths of string fields of messageData, such as
+     *                       "section.text" or "sections.0.text", which are served to JS separately through
+     *                       {@link PayloadChannel} when long rather than copied into the JSON
+     *                       payload. The fields are removed from messageData.
+     */
+    public void sendMessage(String messageName, JSONObject messageData, String... streamedFields) {
+        long start = System.nanoTime();
+        int streamedLength = streamFields(messageData, streamedFields);
+        String payload = messageData.toString();
+        String messagePointer =  marshaller.putPayload(payload);
+        timings.sent(messageName, System.nanoTime() - start, payload.length(), streamedLength);
 
         String jsString = "javascript:handleMessage( \"" + messageName + "\", \"" + messagePointer + "\" );";
         if (!isDOMReady) {
@@ -92,6 +116,57 @@ public class CommunicationBridge {
         }
     }
 
+    /** @return The total length of the fields streamed. */
+    private int streamFields(@NonNull JSONObject messageData, @NonNull String... fields) {
+        if (fields.length == 0 || !PayloadChannel.isSupported()) {
+            return 0;
+        }
+
+        int streamedLength = 0;
+        try {
+            JSONObject streamed = new JSONObject();
+            for (String field : fields) {
+                String[] path = field.split("\\.");
+                Object container = messageData;
+                for (int i = 0; container != null && i < path.length - 1; i++) {
+                    container = child(container, path[i]);
+                }
+                String key = path[path.length - 1];
+                String value = container instanceof JSONObject
+                        ? stringOrNull((JSONObject) container, key) : null;
+                if (value == null || value.length() < PayloadChannel.MIN_STREAMED_LENGTH) {
+                    continue;
+                }
+
+                streamed.put(field, PayloadChannel.instance().put(this, value));
+                ((JSONObject) container).remove(key);
+                streamedLength += value.length();
+            }
+            if (streamed.length() > 0) {
+                messageData.put(STREAMED_FIELDS, streamed);
+            }
+        } catch (JSONException e) {
+            throw new RuntimeException(e);
+        }
+        return streamedLength;
+    }
+
+    @Nullable private Object child(@NonNull Object container, @NonNull String key) {
+        if (container instanceof JSONArray) {
+            try {
+                return ((JSONArray) container).opt(Integer.parseInt(key));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return container instanceof JSONObject ? ((JSONObject) container).opt(key) : null;
+    }
+
+    @Nullable private String stringOrNull(@NonNull JSONObject obj, @NonNull String key) {
+        Object value = obj.opt(key);
+        return value instanceof String ? (String) value : null;
+    }
+
     private static final int MESSAGE_HANDLE_MESSAGE_FROM_JS = 1;
     private Handler incomingMessageHandler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
         @Override
@@ -101,10 +176,12 @@ public class CommunicationBridge {
             if (!eventListeners.containsKey(type)) {
                 throw new RuntimeException("No such message type registered: " + type);
             }
+            long start = System.nanoTime();
             List<JSEventListener> listeners = eventListeners.get(type);
             for (JSEventListener listener : listeners) {
                 listener.onMessage(type, messagePack.optJSONObject("payload"));
             }
+            timings.received(type, System.nanoTime() - start);
             return false;
         }
     });
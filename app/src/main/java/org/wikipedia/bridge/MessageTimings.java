@@ -0,0 +1,71 @@
+package org.wikipedia.bridge;
+
+import android.support.annotation.NonNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/** Time spent and bytes moved per bridge message type, for profiling page loads. */
+public class MessageTimings {
+    @NonNull private final Map<String, Timing> sent = new TreeMap<>();
+    @NonNull private final Map<String, Timing> received = new TreeMap<>();
+
+    /** Records the time spent serializing a message to JS and the size of its JSON envelope and
+     * of its streamed fields. */
+    synchronized void sent(@NonNull String type, long nanos, int inlineLength, int streamedLength) {
+        timing(sent, type).add(nanos, inlineLength, streamedLength);
+    }
+
+    /** Records the time spent by the listeners of a message from JS. */
+    synchronized void received(@NonNull String type, long nanos) {
+        timing(received, type).add(nanos, 0, 0);
+    }
+
+    synchronized void clear() {
+        sent.clear();
+        received.clear();
+    }
+
+    @Override public synchronized String toString() {
+        StringBuilder builder = new StringBuilder("sent:");
+        append(builder, sent);
+        builder.append("\nreceived:");
+        append(builder, received);
+        return builder.toString();
+    }
+
+    @NonNull private Timing timing(@NonNull Map<String, Timing> timings, @NonNull String type) {
+        Timing timing = timings.get(type);
+        if (timing == null) {
+            timing = new Timing();
+            timings.put(type, timing);
+        }
+        return timing;
+    }
+
+    private void append(@NonNull StringBuilder builder, @NonNull Map<String, Timing> timings) {
+        for (Map.Entry<String, Timing> entry : timings.entrySet()) {
+            Timing timing = entry.getValue();
+            builder.append("\n  ").append(entry.getKey())
+                    .append(": count=").append(timing.count)
+                    .append(" ms=").append(TimeUnit.NANOSECONDS.toMillis(timing.nanos))
+                    .append(" inline=").append(timing.inlineLength)
+                    .append(" streamed=").append(timing.streamedLength);
+        }
+    }
+
+    private static class Timing {
+        private int count;
+        private long nanos;
+        private long inlineLength;
+        private long streamedLength;
+
+        void add(long nanos, int inlineLength, int streamedLength) {
+            count++;
+            this.nanos += nanos;
+            this.inlineLength += inlineLength;
+            this.streamedLength += streamedLength;
+        }
+    }
+}
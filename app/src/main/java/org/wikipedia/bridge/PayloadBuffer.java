@@ -0,0 +1,72 @@
+package org.wikipedia.bridge;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference counted payload encoded in a pooled array. The channel holds a reference until the
+ * payload is requested and each stream opened on it holds another until closed. The array is
+ * returned to the pool of the channel when the last reference is released.
+ */
+class PayloadBuffer {
+    @NonNull private final PayloadChannel channel;
+    @NonNull private final Object owner;
+    @NonNull private final byte[] data;
+    private final int length;
+    @NonNull private final AtomicInteger refs = new AtomicInteger(1);
+
+    PayloadBuffer(@NonNull PayloadChannel channel, @NonNull Object owner, @NonNull byte[] data,
+                  int length) {
+        this.channel = channel;
+        this.owner = owner;
+        this.data = data;
+        this.length = length;
+    }
+
+    @NonNull Object owner() {
+        return owner;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /** @return A stream of the payload which must be closed, or null if the buffer was released. */
+    @Nullable InputStream open() {
+        if (!retain()) {
+            return null;
+        }
+        return new ByteArrayInputStream(data, 0, length) {
+            private boolean closed;
+
+            @Override public synchronized void close() {
+                if (!closed) {
+                    closed = true;
+                    release();
+                }
+            }
+        };
+    }
+
+    void release() {
+        if (refs.decrementAndGet() == 0) {
+            channel.recycle(data);
+        }
+    }
+
+    private boolean retain() {
+        while (true) {
+            int count = refs.get();
+            if (count <= 0) {
+                return false;
+            }
+            if (refs.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+}
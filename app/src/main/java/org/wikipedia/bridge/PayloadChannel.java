@@ -0,0 +1,163 @@
+package org.wikipedia.bridge;
+
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.RequiresApi;
+import android.webkit.WebResourceResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves large bridge message fields to JS from memory under synthetic URLs, intercepted by
+ * {@link org.wikipedia.dataclient.okhttp.OkHttpWebViewClient}, instead of copying them through
+ * the JSON payload of the message. Each payload may be requested once. Payload arrays are pooled
+ * since a page sends many sections of similar size in quick succession.
+ *
+ * Serving a payload requires a CORS header which WebResourceResponse only supports on Lollipop
+ * and newer. Older devices send all fields inline.
+ */
+public final class PayloadChannel {
+    @NonNull public static final String URL_PREFIX = "https://payload.bridge.invalid/";
+    /** Fields shorter than this many chars are cheaper to send inline. */
+    public static final int MIN_STREAMED_LENGTH = 16 * 1024;
+
+    private static final int MAX_POOLED_BUFFERS = 4;
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NOT_FOUND = 404;
+    @NonNull private static final String MIME_TYPE = "text/plain";
+    @NonNull private static final String ENCODING = "utf-8";
+    @NonNull private static final Charset UTF_8 = Charset.forName(ENCODING);
+    @NonNull private static final Map<String, String> HEADERS
+            = Collections.singletonMap("Access-Control-Allow-Origin", "*");
+
+    @NonNull private static final PayloadChannel INSTANCE = new PayloadChannel();
+
+    @NonNull private final Map<String, PayloadBuffer> buffers = new HashMap<>();
+    @NonNull private final List<byte[]> pool = new ArrayList<>();
+    @NonNull private final AtomicInteger counter = new AtomicInteger();
+
+    @NonNull public static PayloadChannel instance() {
+        return INSTANCE;
+    }
+
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    public static boolean isPayloadUrl(@NonNull String url) {
+        return url.startsWith(URL_PREFIX);
+    }
+
+    /** @return The URL text is served under until requested or released with owner. */
+    @NonNull public String put(@NonNull Object owner, @NonNull String text) {
+        int length = utf8Length(text);
+        byte[] data = acquire(length);
+        ByteBuffer out = ByteBuffer.wrap(data, 0, length);
+        CharsetEncoder encoder = UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        encoder.encode(CharBuffer.wrap(text), out, true);
+        encoder.flush(out);
+
+        String url = URL_PREFIX + counter.incrementAndGet();
+        synchronized (this) {
+            buffers.put(url, new PayloadBuffer(this, owner, data, length));
+        }
+        return url;
+    }
+
+    /** Called on a WebView thread. @return The response for url, which is no longer served. */
+    @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
+    @NonNull public WebResourceResponse serve(@NonNull String url) {
+        PayloadBuffer buffer;
+        synchronized (this) {
+            buffer = buffers.remove(url);
+        }
+
+        InputStream stream = null;
+        if (buffer != null) {
+            stream = buffer.open();
+            buffer.release();
+        }
+        return stream == null
+                ? response(HTTP_NOT_FOUND, "Not Found", new ByteArrayInputStream(new byte[0]))
+                : response(HTTP_OK, "OK", stream);
+    }
+
+    /** Releases the payloads put by owner which have not been requested. */
+    public void releaseAll(@NonNull Object owner) {
+        List<PayloadBuffer> released = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<PayloadBuffer> it = buffers.values().iterator(); it.hasNext();) {
+                PayloadBuffer buffer = it.next();
+                if (buffer.owner() == owner) {
+                    it.remove();
+                    released.add(buffer);
+                }
+            }
+        }
+        for (PayloadBuffer buffer : released) {
+            buffer.release();
+        }
+    }
+
+    synchronized void recycle(@NonNull byte[] data) {
+        if (pool.size() < MAX_POOLED_BUFFERS) {
+            pool.add(data);
+        }
+    }
+
+    /** @return The smallest pooled array of at least length bytes or a new array. */
+    @NonNull private synchronized byte[] acquire(int length) {
+        int best = -1;
+        for (int i = 0; i < pool.size(); i++) {
+            int size = pool.get(i).length;
+            if (size >= length && (best < 0 || size < pool.get(best).length)) {
+                best = i;
+            }
+        }
+        return best < 0 ? new byte[length] : pool.remove(best);
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
+    @NonNull private WebResourceResponse response(int status, @NonNull String reason,
+                                                  @NonNull InputStream stream) {
+        return new WebResourceResponse(MIME_TYPE, ENCODING, status, reason, HEADERS, stream);
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static int utf8Length(@NonNull String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                // Unpaired surrogates are encoded as a one byte replacement.
+                length += c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE ? 1 : 3;
+            }
+        }
+        return length;
+    }
+
+    private PayloadChannel() { }
+}
@@ -1,11 +1,14 @@
 package org.wikipedia.concurrency;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import org.wikipedia.util.log.L;
 
-public class CallbackTask<T> extends SaneAsyncTask<T> {
+/** Executes a task on a {@link Lane} and delivers its result to the callback on the main thread. */
+public class CallbackTask<T> implements Runnable {
     public interface Callback<T> {
         void success(T result);
         void failure(Throwable caught);
@@ -15,36 +18,79 @@ public class CallbackTask<T> extends SaneAsyncTask<T> {
         T execute() throws Throwable;
     }
 
+    @NonNull private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
     @NonNull private final Task<T> task;
+    @NonNull private final CancellationToken token;
     @Nullable private Callback<T> callback;
 
-    public static <T> void execute(@NonNull Task<T> task) {
-        execute(task, null);
+    public static <T> CancellationToken execute(@NonNull Task<T> task) {
+        return execute(task, null);
+    }
+
+    public static <T> CancellationToken execute(@NonNull Task<T> task,
+                                                @Nullable Callback<T> callback) {
+        return execute(Lane.DB, Priority.NORMAL, task, callback);
     }
 
-    public static <T> void execute(@NonNull Task<T> task, @Nullable Callback<T> callback) {
-        new CallbackTask<>(task, callback).execute();
+    public static <T> CancellationToken execute(@NonNull Lane lane, @NonNull Priority priority,
+                                                @NonNull Task<T> task,
+                                                @Nullable Callback<T> callback) {
+        CancellationToken token = new CancellationToken();
+        PriorityExecutor.execute(lane, priority, token, new CallbackTask<>(task, callback, token));
+        return token;
     }
 
-    CallbackTask(@NonNull Task<T> task, @Nullable Callback<T> callback) {
+    CallbackTask(@NonNull Task<T> task, @Nullable Callback<T> callback,
+                 @NonNull CancellationToken token) {
         this.task = task;
         this.callback = callback;
+        this.token = token;
     }
 
-    @Override public T performTask() throws Throwable {
-        return task.execute();
+    @Override public void run() {
+        T result = null;
+        Throwable thrown = null;
+        try {
+            result = task.execute();
+        } catch (Throwable t) {
+            thrown = t;
+        }
+
+        final T finalResult = result;
+        final Throwable finalThrown = thrown;
+        MAIN_HANDLER.post(new Runnable() {
+            @Override public void run() {
+                deliver(finalResult, finalThrown);
+            }
+        });
+    }
+
+    private void deliver(@Nullable T result, @Nullable Throwable thrown) {
+        if (token.isCancelled()) {
+            return;
+        }
+        if (thrown != null) {
+            L.i(thrown);
+            onCatch(thrown);
+        } else {
+            try {
+                onFinish(result);
+            } catch (Exception e) {
+                L.i(e);
+                onCatch(e);
+            }
+        }
     }
 
-    @Override public void onFinish(T result) {
-        super.onFinish(result);
+    private void onFinish(T result) {
         if (callback != null) {
             callback.success(result);
             callback = null;
         }
     }
 
-    @Override public void onCatch(Throwable caught) {
-        super.onCatch(caught);
+    private void onCatch(Throwable caught) {
         if (callback != null) {
             callback.failure(caught);
             callback = null;
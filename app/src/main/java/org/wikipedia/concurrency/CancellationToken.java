@@ -0,0 +1,15 @@
+package org.wikipedia.concurrency;
+
+/** Cancels a task queued on {@link PriorityExecutor}. A task cancelled before it is started is
+ * skipped and the results of a task cancelled while running are not delivered. */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,14 @@
+package org.wikipedia.concurrency;
+
+/**
+ * The thread pool a background task runs on. Each lane has its own threads and queue so that, for
+ * example, a slow network request never delays a database write queued behind it.
+ */
+public enum Lane {
+    /** Blocking network and file system work. */
+    IO,
+    /** Database and content provider reads and writes. */
+    DB,
+    /** Computation that does not block, such as parsing and highlighting. */
+    CPU
+}
@@ -0,0 +1,120 @@
+package org.wikipedia.concurrency;
+
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.wikipedia.util.log.L;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed number of threads serving an unbounded queue ordered by {@link Priority}. Tasks are never
+ * rejected. Instead, once more than capacity tasks are waiting, background threads queueing
+ * another task block until the queue drains below capacity. The main thread and the lane's own
+ * threads never block as they could stall the UI or deadlock the lane.
+ */
+class LaneExecutor {
+    private static final int KEEP_ALIVE_SECONDS = 1;
+
+    @NonNull private final String name;
+    private final int capacity;
+    @NonNull private final ThreadPoolExecutor executor;
+    @NonNull private final AtomicLong sequence = new AtomicLong();
+    private int queued;
+
+    LaneExecutor(@NonNull final String name, int threads, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger(1);
+            @Override public Thread newThread(@NonNull Runnable runnable) {
+                return new LaneThread(runnable, name + " #" + count.getAndIncrement());
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    void execute(@NonNull Priority priority, @Nullable CancellationToken token,
+                 @NonNull Runnable runnable) {
+        awaitCapacity();
+        executor.execute(new LaneTask(priority, sequence.getAndIncrement(), token, runnable));
+    }
+
+    synchronized int queued() {
+        return queued;
+    }
+
+    private synchronized void awaitCapacity() {
+        boolean waited = false;
+        while (queued >= capacity && mayBlock()) {
+            if (!waited) {
+                L.d(name + " is full. Waiting for " + queued + " queued tasks");
+                waited = true;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        queued++;
+    }
+
+    private synchronized void onStart() {
+        queued--;
+        if (queued < capacity) {
+            notifyAll();
+        }
+    }
+
+    private boolean mayBlock() {
+        return !(Thread.currentThread() instanceof LaneThread)
+                && Looper.myLooper() != Looper.getMainLooper();
+    }
+
+    private static class LaneThread extends Thread {
+        LaneThread(@NonNull Runnable runnable, @NonNull String name) {
+            super(runnable, name);
+        }
+    }
+
+    private class LaneTask implements Runnable, Comparable<LaneTask> {
+        @NonNull private final Priority priority;
+        private final long sequence;
+        @Nullable private final CancellationToken token;
+        @NonNull private final Runnable runnable;
+
+        LaneTask(@NonNull Priority priority, long sequence, @Nullable CancellationToken token,
+                 @NonNull Runnable runnable) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.token = token;
+            this.runnable = runnable;
+        }
+
+        @Override public void run() {
+            onStart();
+            if (token == null || !token.isCancelled()) {
+                runnable.run();
+            }
+        }
+
+        @Override public int compareTo(@NonNull LaneTask other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            if (sequence != other.sequence) {
+                return sequence < other.sequence ? -1 : 1;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.wikipedia.concurrency;
+
+/** The order in which queued tasks of a {@link Lane} are started. Tasks of the same priority are
+ * started in the order they were queued. */
+public enum Priority {
+    /** Work the user is waiting on. */
+    HIGH,
+    NORMAL,
+    /** Work the user will not notice if delayed, such as logging and prefetching. */
+    LOW
+}
@@ -0,0 +1,48 @@
+package org.wikipedia.concurrency;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/** Runs background tasks on the threads of a {@link Lane} in {@link Priority} order. */
+public final class PriorityExecutor {
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int IO_THREADS = 4;
+    // SQLite serializes writes so more threads only contend for the database lock.
+    private static final int DB_THREADS = 2;
+    private static final int CPU_THREADS = Math.max(2, CPU_COUNT);
+    private static final int CAPACITY = 128;
+
+    @NonNull private static final Map<Lane, LaneExecutor> LANES = new EnumMap<>(Lane.class);
+    static {
+        LANES.put(Lane.IO, new LaneExecutor("IO", IO_THREADS, CAPACITY));
+        LANES.put(Lane.DB, new LaneExecutor("DB", DB_THREADS, CAPACITY));
+        LANES.put(Lane.CPU, new LaneExecutor("CPU", CPU_THREADS, CAPACITY));
+    }
+
+    public static void execute(@NonNull Lane lane, @NonNull Priority priority,
+                               @NonNull Runnable runnable) {
+        execute(lane, priority, null, runnable);
+    }
+
+    public static void execute(@NonNull Lane lane, @NonNull Priority priority,
+                               @Nullable CancellationToken token, @NonNull Runnable runnable) {
+        LANES.get(lane).execute(priority, token, runnable);
+    }
+
+    /** @return An Executor queueing tasks on lane with priority, such as for
+     *          {@link android.os.AsyncTask#executeOnExecutor}. */
+    @NonNull public static Executor executor(@NonNull final Lane lane,
+                                             @NonNull final Priority priority) {
+        return new Executor() {
+            @Override public void execute(@NonNull Runnable runnable) {
+                PriorityExecutor.execute(lane, priority, runnable);
+            }
+        };
+    }
+
+    private PriorityExecutor() { }
+}
@@ -1,8 +1,11 @@
 package org.wikipedia.database;
 
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentResolver;
 import android.content.ContentValues;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteQueryBuilder;
@@ -14,11 +17,17 @@ import org.wikipedia.WikipediaApp;
 import org.wikipedia.database.contract.AppContentProviderContract;
 import org.wikipedia.util.log.L;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class AppContentProvider extends ContentProvider {
     private static final boolean LOG = false;
 
+    // Changes made by a batch on the current thread, which are notified once it is committed.
+    @NonNull private final ThreadLocal<Set<Uri>> batchChanges = new ThreadLocal<>();
+
     @Override public boolean onCreate() {
         @SuppressWarnings("UnnecessaryLocalVariable") final boolean loaded = true;
         return loaded;
@@ -99,7 +108,68 @@ public class AppContentProvider extends ContentProvider {
         return rows;
     }
 
+    /** Applies all operations in a single transaction. */
+    @NonNull @Override
+    public ContentProviderResult[] applyBatch(@NonNull ArrayList<ContentProviderOperation> operations)
+            throws OperationApplicationException {
+        SQLiteDatabase db = beginBatch();
+        boolean successful = false;
+        try {
+            ContentProviderResult[] results = super.applyBatch(operations);
+            db.setTransactionSuccessful();
+            successful = true;
+            return results;
+        } finally {
+            endBatch(db, successful);
+        }
+    }
+
+    /** Inserts all values in a single transaction. */
+    @Override public int bulkInsert(@NonNull Uri uri, @NonNull ContentValues[] values) {
+        SQLiteDatabase db = beginBatch();
+        boolean successful = false;
+        try {
+            int rows = super.bulkInsert(uri, values);
+            db.setTransactionSuccessful();
+            successful = true;
+            return rows;
+        } finally {
+            endBatch(db, successful);
+        }
+    }
+
+    @NonNull private SQLiteDatabase beginBatch() {
+        SQLiteDatabase db = writableDatabase();
+        db.beginTransaction();
+        if (batchChanges.get() == null) {
+            batchChanges.set(new LinkedHashSet<Uri>());
+        }
+        return db;
+    }
+
+    private void endBatch(@NonNull SQLiteDatabase db, boolean successful) {
+        db.endTransaction();
+        if (db.inTransaction()) {
+            // Nested in an outer batch which notifies.
+            return;
+        }
+
+        Set<Uri> changes = batchChanges.get();
+        batchChanges.remove();
+        if (successful && changes != null) {
+            for (Uri uri : changes) {
+                notifyChange(uri);
+            }
+        }
+    }
+
     private void notifyChange(@NonNull Uri uri) {
+        Set<Uri> changes = batchChanges.get();
+        if (changes != null) {
+            changes.add(uri);
+            return;
+        }
+
         boolean notify = uri.getBooleanQueryParameter(AppContentProviderContract.NOTIFY, true);
         if (getContentResolver() == null || !notify) {
             return;
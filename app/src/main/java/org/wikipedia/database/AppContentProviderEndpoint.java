@@ -28,6 +28,11 @@ public enum AppContentProviderEndpoint implements EnumCode {
             EditHistoryContract.Summary.PROJECTION),
     HISTORY_SEARCH_QUERY(104, SearchHistoryContract.Query.PATH, SearchHistoryContract.Query.TABLES,
             SearchHistoryContract.Query.PROJECTION),
+    HISTORY_PAGE_WITH_IMAGE_SEARCH(105, PageHistoryContract.PageWithImageSearch.PATH,
+            PageHistoryContract.PageWithImageSearch.TABLES,
+            PageHistoryContract.PageWithImageSearch.PROJECTION),
+    HISTORY_SEARCH_QUERY_SEARCH(106, SearchHistoryContract.QuerySearch.PATH,
+            SearchHistoryContract.QuerySearch.TABLES, SearchHistoryContract.QuerySearch.PROJECTION),
 
     USER_OPTION(300, UserOptionContract.AUTHORITY, UserOptionContract.Option.PATH,
             UserOptionContract.Option.TABLES, UserOptionContract.Option.PROJECTION),
@@ -55,7 +60,14 @@ public enum AppContentProviderEndpoint implements EnumCode {
             ReadingListContract.List.PROJECTION),
     READING_LIST_WITH_PAGES_AND_DISK(407, ReadingListContract.ListWithPagesAndDisk.PATH,
             ReadingListContract.ListWithPagesAndDisk.TABLES,
-            ReadingListContract.ListWithPagesAndDisk.PROJECTION);
+            ReadingListContract.ListWithPagesAndDisk.PROJECTION),
+    READING_LIST_PAGE_LIST(408, ReadingListPageContract.PageList.PATH,
+            ReadingListPageContract.PageList.TABLES, ReadingListPageContract.PageList.PROJECTION),
+    READING_LIST_PAGE_SEARCH(409, ReadingListPageContract.PageSearch.PATH,
+            ReadingListPageContract.PageSearch.TABLES, ReadingListPageContract.PageSearch.PROJECTION),
+    READING_LIST_PAGE_IN_LIST_WITH_DISK(410, ReadingListPageContract.ListPageWithDisk.PATH,
+            ReadingListPageContract.ListPageWithDisk.TABLES,
+            ReadingListPageContract.ListPageWithDisk.PROJECTION);
 
     private static final EnumCodeMap<AppContentProviderEndpoint> CODE_TO_ENUM = new EnumCodeMap<>(AppContentProviderEndpoint.class);
     private static final UriMatcher URI_TO_CODE = newUriToCode();
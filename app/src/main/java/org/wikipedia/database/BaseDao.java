@@ -22,7 +22,17 @@ public abstract class BaseDao<T> {
         client.persist(row);
     }
 
+    protected synchronized void upsert(@NonNull Collection<T> rows) {
+        client.persistAll(rows);
+    }
+
     @Nullable protected T queryPrimaryKey(@NonNull T row) {
+        DatabaseBatch batch = DatabaseBatch.current();
+        if (batch != null && batch.contains(client, row)) {
+            // Written but not yet committed.
+            return batch.row(client, row);
+        }
+
         String[] selectionArgs = client().getPrimaryKeySelectionArgs(row);
         String selection = client().getPrimaryKeySelection(row, selectionArgs);
         Collection<T> rows = query(selection, selectionArgs);
@@ -17,7 +17,7 @@ import org.wikipedia.util.log.L;
 
 public class Database extends SQLiteOpenHelper {
     private static final String DATABASE_NAME = "wikipedia.db";
-    private static final int DATABASE_VERSION = 17;
+    private static final int DATABASE_VERSION = 20;
 
     private final DatabaseTable<?>[] databaseTables = {
             HistoryEntry.DATABASE_TABLE,
@@ -33,6 +33,8 @@ public class Database extends SQLiteOpenHelper {
 
             ReadingListPageRow.DISK_DATABASE_TABLE,
             ReadingListPageRow.HTTP_DATABASE_TABLE,
+            // Order matters. ReadingListPageTable populates this table when upgrading.
+            ReadingListPageRow.LIST_DATABASE_TABLE,
             ReadingListPageRow.DATABASE_TABLE,
 
             ReadingListRow.DATABASE_TABLE
@@ -42,6 +44,13 @@ public class Database extends SQLiteOpenHelper {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
     }
 
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Fire delete triggers for rows replaced on conflict so that full-text indexes drop them.
+        db.execSQL("PRAGMA recursive_triggers = ON");
+    }
+
     @Override
     public void onCreate(SQLiteDatabase sqLiteDatabase) {
         for (DatabaseTable<?> table : databaseTables) {
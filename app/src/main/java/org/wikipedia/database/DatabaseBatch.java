@@ -0,0 +1,176 @@
+package org.wikipedia.database;
+
+import android.content.ContentProviderOperation;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.wikipedia.database.contract.AppContentProviderContract;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the rows persisted, upserted, and deleted through any {@link DatabaseClient} of
+ * {@link AppContentProvider} on the current thread and commits them in a single SQLite transaction
+ * instead of one transaction per row. Usage mirrors SQLiteDatabase transactions:
+ *
+ * <pre>
+ * DatabaseBatch batch = DatabaseBatch.begin();
+ * try {
+ *     ...
+ *     batch.commit();
+ * } finally {
+ *     batch.end();
+ * }
+ * </pre>
+ *
+ * A batch begun while another is open on the same thread joins it and only the outermost batch
+ * commits. Until the batch is committed, rows written to it are returned by
+ * {@link BaseDao#queryPrimaryKey} so that read-modify-write operations see their own writes. Such
+ * rows must not be modified until then.
+ */
+public final class DatabaseBatch {
+    @NonNull private static final ThreadLocal<DatabaseBatch> CURRENT = new ThreadLocal<>();
+
+    @NonNull private final ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+    // Primary key of each row written to the row or null if deleted.
+    @NonNull private final Map<String, Object> rows = new HashMap<>();
+    // Key prefixes of the tables with rows deleted by selection.
+    @NonNull private final Set<String> selectionDeletes = new HashSet<>();
+    @Nullable private DatabaseClient<?> client;
+    private int depth;
+
+    @NonNull public static DatabaseBatch begin() {
+        DatabaseBatch batch = CURRENT.get();
+        if (batch == null) {
+            batch = new DatabaseBatch();
+            CURRENT.set(batch);
+        } else {
+            batch.depth++;
+        }
+        return batch;
+    }
+
+    @Nullable static DatabaseBatch current() {
+        return CURRENT.get();
+    }
+
+    /** Applies the writes of the batch unless it was joined to an outer batch. Writes made after
+     * the outermost batch is committed are not batched. */
+    public void commit() {
+        if (depth > 0) {
+            return;
+        }
+
+        CURRENT.remove();
+        if (client != null && !operations.isEmpty()) {
+            client.applyBatch(operations);
+        }
+        clear();
+    }
+
+    /** Discards the writes of the batch if the outermost batch was not committed. */
+    public void end() {
+        if (depth > 0) {
+            depth--;
+            return;
+        }
+
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        clear();
+    }
+
+    boolean accepts(@NonNull DatabaseClient<?> client) {
+        return AppContentProviderContract.AUTHORITY.equals(client.uri().getAuthority());
+    }
+
+    <T> void persist(@NonNull DatabaseClient<T> client, @NonNull T row) {
+        add(client, client.persistOperation(row));
+        rows.put(key(client, row), row);
+    }
+
+    <T> void delete(@NonNull DatabaseClient<T> client, @NonNull T row,
+                    @NonNull String[] selectionArgs) {
+        add(client, client.deleteOperation(row, selectionArgs));
+        rows.put(key(client, row), null);
+    }
+
+    /** Updates the row with the primary key of row, or inserts row if there is none. Whether there
+     * is one is known from the writes of the batch or, failing that, queried from the table. */
+    <T> void upsert(@NonNull DatabaseClient<T> client, @NonNull T row,
+                    @NonNull String[] selectionArgs) {
+        String key = key(client, row);
+        if (rows.containsKey(key)) {
+            add(client, rows.get(key) == null
+                    ? client.persistOperation(row)
+                    : client.updateOperation(row, selectionArgs));
+        } else if (selectionDeletes.contains(keyPrefix(client))) {
+            // A stored row may or may not be deleted by then. Either way, only row remains.
+            add(client, client.deleteOperation(row, selectionArgs));
+            add(client, client.persistOperation(row));
+        } else {
+            add(client, client.exists(row, selectionArgs)
+                    ? client.updateOperation(row, selectionArgs)
+                    : client.persistOperation(row));
+        }
+        rows.put(key, row);
+    }
+
+    /** Rows of the table written earlier in the batch are no longer returned by {@link #row} as
+     * it is unknown whether the selection matched them. */
+    <T> void deleteWhere(@NonNull DatabaseClient<T> client, @Nullable String selection,
+                         @Nullable String[] selectionArgs) {
+        add(client, client.deleteWhereOperation(selection, selectionArgs));
+        String prefix = keyPrefix(client);
+        selectionDeletes.add(prefix);
+        for (Iterator<String> it = rows.keySet().iterator(); it.hasNext();) {
+            if (it.next().startsWith(prefix)) {
+                it.remove();
+            }
+        }
+    }
+
+    <T> boolean contains(@NonNull DatabaseClient<T> client, @NonNull T row) {
+        return rows.containsKey(key(client, row));
+    }
+
+    /** @return The last row written to the batch with the primary key of row or null if it was
+     *          deleted. */
+    @SuppressWarnings("unchecked") @Nullable <T> T row(@NonNull DatabaseClient<T> client,
+                                                      @NonNull T row) {
+        return (T) rows.get(key(client, row));
+    }
+
+    private void add(@NonNull DatabaseClient<?> client, @NonNull ContentProviderOperation operation) {
+        if (this.client == null) {
+            this.client = client;
+        }
+        operations.add(operation);
+    }
+
+    private void clear() {
+        operations.clear();
+        rows.clear();
+        selectionDeletes.clear();
+        client = null;
+    }
+
+    @NonNull private <T> String key(@NonNull DatabaseClient<T> client, @NonNull T row) {
+        // Arrays.toString() begins with a bracket so the prefix of one table is never the key of
+        // another.
+        return client.uri() + Arrays.toString(client.getPrimaryKeySelectionArgs(row));
+    }
+
+    @NonNull private String keyPrefix(@NonNull DatabaseClient<?> client) {
+        return client.uri() + "[";
+    }
+
+    private DatabaseBatch() { }
+}
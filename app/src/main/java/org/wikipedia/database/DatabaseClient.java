@@ -1,14 +1,19 @@
 package org.wikipedia.database;
 
 import android.content.ContentProviderClient;
+import android.content.ContentProviderOperation;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.RemoteException;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+
 public class DatabaseClient<T> {
     @NonNull private final ContentProviderClient client;
     @NonNull private final DatabaseTable<T> databaseTable;
@@ -25,6 +30,12 @@ public class DatabaseClient<T> {
     }
 
     public void persist(T obj) {
+        DatabaseBatch batch = batch();
+        if (batch != null) {
+            batch.persist(this, obj);
+            return;
+        }
+
         try {
             client.insert(uri(), toContentValues(obj));
         } catch (RemoteException e) {
@@ -32,6 +43,28 @@ public class DatabaseClient<T> {
         }
     }
 
+    /** Persists all rows in a single transaction. */
+    public void persistAll(@NonNull Collection<T> objs) {
+        DatabaseBatch batch = batch();
+        if (batch != null) {
+            for (T obj : objs) {
+                batch.persist(this, obj);
+            }
+            return;
+        }
+
+        ContentValues[] values = new ContentValues[objs.size()];
+        int i = 0;
+        for (T obj : objs) {
+            values[i++] = toContentValues(obj);
+        }
+        try {
+            client.bulkInsert(uri(), values);
+        } catch (RemoteException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public Cursor select(@Nullable String selection, @Nullable String[] selectionArgs,
                          @Nullable String sortOrder) {
         return select(uri(), selection, selectionArgs, sortOrder);
@@ -51,6 +84,12 @@ public class DatabaseClient<T> {
     }
 
     public void deleteWhere(String selection, String[] selectionArgs) {
+        DatabaseBatch batch = batch();
+        if (batch != null) {
+            batch.deleteWhere(this, selection, selectionArgs);
+            return;
+        }
+
         try {
             client.delete(uri(), selection, selectionArgs);
         } catch (RemoteException e) {
@@ -59,6 +98,12 @@ public class DatabaseClient<T> {
     }
 
     public void delete(@NonNull T obj, @NonNull String[] selectionArgs) {
+        DatabaseBatch batch = batch();
+        if (batch != null) {
+            batch.delete(this, obj, selectionArgs);
+            return;
+        }
+
         try {
             client.delete(
                     uri(),
@@ -72,6 +117,12 @@ public class DatabaseClient<T> {
 
     // TODO: migrate old tables to use unique constraints and just call insertWithOnConflict.
     public void upsert(@NonNull T obj, @NonNull String[] selectionArgs) {
+        DatabaseBatch batch = batch();
+        if (batch != null) {
+            batch.upsert(this, obj, selectionArgs);
+            return;
+        }
+
         try {
             int rowsUpdated = client.update(
                     uri(),
@@ -104,6 +155,61 @@ public class DatabaseClient<T> {
         return databaseTable.getPrimaryKeySelectionArgs(obj);
     }
 
+    @NonNull ContentProviderOperation persistOperation(@NonNull T obj) {
+        return ContentProviderOperation.newInsert(uri())
+                .withValues(toContentValues(obj))
+                .build();
+    }
+
+    @NonNull ContentProviderOperation updateOperation(@NonNull T obj,
+                                                      @NonNull String[] selectionArgs) {
+        return ContentProviderOperation.newUpdate(uri())
+                .withValues(toContentValues(obj))
+                .withSelection(getPrimaryKeySelection(obj, selectionArgs),
+                        getPrimaryKeySelectionArgs(obj))
+                .build();
+    }
+
+    @NonNull ContentProviderOperation deleteOperation(@NonNull T obj,
+                                                      @NonNull String[] selectionArgs) {
+        return ContentProviderOperation.newDelete(uri())
+                .withSelection(getPrimaryKeySelection(obj, selectionArgs),
+                        getPrimaryKeySelectionArgs(obj))
+                .build();
+    }
+
+    @NonNull ContentProviderOperation deleteWhereOperation(@Nullable String selection,
+                                                           @Nullable String[] selectionArgs) {
+        return ContentProviderOperation.newDelete(uri())
+                .withSelection(selection, selectionArgs)
+                .build();
+    }
+
+    /** @return True if a row with the primary key of obj is stored, regardless of any batch. */
+    boolean exists(@NonNull T obj, @NonNull String[] selectionArgs) {
+        Cursor cursor = select(getPrimaryKeySelection(obj, selectionArgs),
+                getPrimaryKeySelectionArgs(obj), null);
+        try {
+            return cursor.getCount() > 0;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    void applyBatch(@NonNull ArrayList<ContentProviderOperation> operations) {
+        try {
+            client.applyBatch(operations);
+        } catch (RemoteException | OperationApplicationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** @return The batch open on the current thread that writes to this table, if any. */
+    @Nullable private DatabaseBatch batch() {
+        DatabaseBatch batch = DatabaseBatch.current();
+        return batch != null && batch.accepts(this) ? batch : null;
+    }
+
     protected Uri uri() {
         return databaseTable.getBaseContentURI();
     }
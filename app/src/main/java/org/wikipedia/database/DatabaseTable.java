@@ -7,6 +7,7 @@ import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
 import org.wikipedia.database.column.Column;
@@ -82,6 +83,11 @@ public abstract class DatabaseTable<T> {
         return 0;
     }
 
+    /** @return The full-text index of the table, created and dropped with it, or null if none. */
+    @Nullable public FtsTable getFtsTable() {
+        return null;
+    }
+
     public void upgradeSchema(@NonNull SQLiteDatabase db, int fromVersion, int toVersion) {
         if (fromVersion < getDBVersionIntroducedAt()) {
             createTables(db);
@@ -102,6 +108,10 @@ public abstract class DatabaseTable<T> {
             }
 
             upgradeSchema(db, ver);
+
+            if (getFtsTable() != null && ver == getFtsTable().getDBVersionIntroducedAt()) {
+                getFtsTable().create(db);
+            }
         }
     }
 
@@ -119,6 +129,9 @@ public abstract class DatabaseTable<T> {
     }
 
     private void dropTable(@NonNull SQLiteDatabase db) {
+        if (getFtsTable() != null) {
+            getFtsTable().drop(db);
+        }
         db.execSQL("DROP TABLE IF EXISTS " + getTableName());
         L.i("Dropped table=" + getTableName());
     }
@@ -0,0 +1,133 @@
+package org.wikipedia.database;
+
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
+import org.wikipedia.database.column.Column;
+import org.wikipedia.util.log.L;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An FTS4 full-text index of text columns of a table. The index holds only the tokens and reads
+ * the text from the indexed table by rowid. It is kept in sync by triggers on the indexed table,
+ * so every write, whether made through {@link AppContentProvider} or directly on the database,
+ * updates it.
+ *
+ * Rows replaced on conflict are only removed from the index when recursive triggers are enabled,
+ * see {@link Database#onConfigure}.
+ */
+public class FtsTable {
+    // Folds case and diacritics of all scripts but is unavailable before SQLite 3.7.13. The simple
+    // tokenizer folds the case of ASCII letters only.
+    private static final String TOKENIZER = "unicode61";
+
+    @NonNull private final String name;
+    @NonNull private final String contentTable;
+    @NonNull private final Column<?>[] columns;
+    private final int dbVersionIntroducedAt;
+
+    /**
+     * @param name The name of the index table, which is also the name of its hidden column used
+     *             on the left of MATCH.
+     * @param contentTable The name of the indexed table.
+     * @param columns The indexed columns of contentTable. The first is the most relevant.
+     */
+    public FtsTable(@NonNull String name, @NonNull String contentTable, int dbVersionIntroducedAt,
+                    @NonNull Column<?>... columns) {
+        this.name = name;
+        this.contentTable = contentTable;
+        this.dbVersionIntroducedAt = dbVersionIntroducedAt;
+        this.columns = columns;
+    }
+
+    /**
+     * @return A query matching the rows with a token starting with each word of text, in any
+     *         column and order, or an empty query matching no rows if text has no words. For
+     *         example, "ray ch" matches "Ray_Charles" and "Charles, Ray".
+     */
+    @NonNull public static String matchQuery(@NonNull String text) {
+        List<String> terms = new ArrayList<>();
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                // Lowercase so that words like OR and NOT are not read as operators. Only ASCII is
+                // folded as the simple tokenizer leaves other letters as they are.
+                term.append(c >= 'A' && c <= 'Z' ? Character.toLowerCase(c) : c);
+            } else if (term.length() > 0) {
+                terms.add(term + "*");
+                term.setLength(0);
+            }
+        }
+        return TextUtils.join(" ", terms);
+    }
+
+    /**
+     * @return An expression, for the projection of a query matching the index, that ranks rows
+     *         whose most relevant column starts with a word of the query first (0), then rows
+     *         matching in the most relevant column (1), then the rest (2).
+     */
+    @NonNull public static String rank(@NonNull String name, @NonNull String alias) {
+        // Each match is listed by offsets() as "column term byteOffset byteSize", ordered by
+        // column.
+        return ("(case when offsets(:tbl) like '0 _ 0 %' then 0 "
+                + "when offsets(:tbl) like '0 %' then 1 else 2 end) as :alias")
+                .replaceAll(":tbl", name)
+                .replaceAll(":alias", alias);
+    }
+
+    @NonNull public String getName() {
+        return name;
+    }
+
+    public int getDBVersionIntroducedAt() {
+        return dbVersionIntroducedAt;
+    }
+
+    /** Creates the index, its triggers and indexes the existing rows. */
+    public void create(@NonNull SQLiteDatabase db) {
+        L.i("Creating table=" + name);
+        String names = DbUtil.namesCsv(columns);
+        String create = "CREATE VIRTUAL TABLE " + name + " USING fts4(content=\"" + contentTable
+                + "\", " + names;
+        try {
+            db.execSQL(create + ", tokenize=" + TOKENIZER + ")");
+        } catch (SQLException e) {
+            L.w("Falling back to the simple tokenizer for " + name, e);
+            db.execSQL(create + ")");
+        }
+
+        // The old text must be removed from the index before the indexed row changes.
+        String delete = "DELETE FROM " + name + " WHERE docid = old.rowid;";
+        String insert = "INSERT INTO " + name + " (docid, " + names + ") VALUES (new.rowid, "
+                + newValues() + ");";
+        db.execSQL("CREATE TRIGGER " + name + "_bu BEFORE UPDATE OF " + names + " ON "
+                + contentTable + " BEGIN " + delete + " END");
+        db.execSQL("CREATE TRIGGER " + name + "_bd BEFORE DELETE ON " + contentTable + " BEGIN "
+                + delete + " END");
+        db.execSQL("CREATE TRIGGER " + name + "_au AFTER UPDATE OF " + names + " ON "
+                + contentTable + " BEGIN " + insert + " END");
+        db.execSQL("CREATE TRIGGER " + name + "_ai AFTER INSERT ON " + contentTable + " BEGIN "
+                + insert + " END");
+
+        db.execSQL("INSERT INTO " + name + " (" + name + ") VALUES ('rebuild')");
+    }
+
+    /** Drops the index. The triggers are dropped with the indexed table. */
+    public void drop(@NonNull SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS " + name);
+        L.i("Dropped table=" + name);
+    }
+
+    @NonNull private String newValues() {
+        List<String> values = new ArrayList<>();
+        for (Column<?> column : columns) {
+            values.add("new." + column.getName());
+        }
+        return TextUtils.join(", ", values);
+    }
+}
@@ -14,10 +14,11 @@ public abstract class AsyncDao<Status extends EnumCode, Dat, Row extends AsyncRo
         super(client);
     }
 
-    public void startTransaction(@NonNull Collection<Row> rows) {
+    public synchronized void startTransaction(@NonNull Collection<Row> rows) {
         for (Row row : rows) {
-            startTransaction(row);
+            row.startTransaction();
         }
+        upsert(rows);
     }
 
     public void completeTransaction(@NonNull Row row) {
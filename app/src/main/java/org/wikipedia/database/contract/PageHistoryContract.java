@@ -3,7 +3,9 @@ package org.wikipedia.database.contract;
 import android.net.Uri;
 import android.provider.BaseColumns;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.wikipedia.database.DbUtil;
+import org.wikipedia.database.FtsTable;
 import org.wikipedia.database.column.DateColumn;
 import org.wikipedia.database.column.IntColumn;
 import org.wikipedia.database.column.LongColumn;
@@ -12,6 +14,7 @@ import org.wikipedia.database.column.StrColumn;
 @SuppressWarnings("checkstyle:interfaceistype")
 public final class PageHistoryContract {
     public static final String TABLE = "history";
+    public static final String TABLE_FTS = "historyfts";
     private static final String PATH = "history";
 
     public interface Col {
@@ -54,5 +57,28 @@ public final class PageHistoryContract {
                 SOURCE, TIME_SPENT, IMAGE_NAME);
     }
 
+    /** Pages whose title matches the {@link FtsTable#matchQuery} bound to SELECTION. */
+    public interface PageWithImageSearch extends PageWithImage {
+        String TABLES = (":ftsTbl join :tbl on (:ftsTbl.docid = :tbl.id) "
+                      + "left outer join :pageImagesTbl "
+                      + "on (:tbl.site = :pageImagesTbl.site and :tbl.title = :pageImagesTbl.title)")
+                .replaceAll(":tbl.id", ID.qualifiedName())
+                .replaceAll(":tbl.site", SITE.qualifiedName())
+                .replaceAll(":pageImagesTbl.site", PageImageHistoryContract.Col.SITE.qualifiedName())
+                .replaceAll(":tbl.title", TITLE.qualifiedName())
+                .replaceAll(":pageImagesTbl.title", PageImageHistoryContract.Col.TITLE.qualifiedName())
+                .replaceAll(":ftsTbl", TABLE_FTS)
+                .replaceAll(":tbl", PageHistoryContract.TABLE)
+                .replaceAll(":pageImagesTbl", PageImageHistoryContract.TABLE);
+
+        String PATH = PageWithImage.PATH + "/search";
+        Uri URI = Uri.withAppendedPath(AppContentProviderContract.AUTHORITY_BASE, PATH);
+
+        String RANK = "rank";
+        String[] PROJECTION = ArrayUtils.add(PageWithImage.PROJECTION, FtsTable.rank(TABLE_FTS, RANK));
+        String SELECTION = TABLE_FTS + " match ?";
+        String ORDER_RANK = RANK + ", " + ORDER_MRU;
+    }
+
     private PageHistoryContract() { }
 }
@@ -62,16 +62,31 @@ public interface ReadingListContract {
         public static final StrColumn PAGE_DISK_FILENAME = ReadingListPageContract.DiskCol.FILENAME;
 
         public static final String TABLES = (
-                  ":tbl left join :pageTbl on (',' || :pageTbl.listKeysCol || ',') like ('%,' || :tbl.keyCol || ',%') "
+                  ":tbl left join :pageListTbl on :pageListTbl.listKeyCol = :tbl.keyCol "
+                + "left join :pageTbl on :pageTbl.keyCol = :pageListTbl.pageKeyCol "
                 + "left join :diskTbl on :diskTbl.keyCol = :pageTbl.keyCol")
                 .replaceAll(":tbl.keyCol", KEY.qualifiedName())
-                .replaceAll(":pageTbl.listKeysCol", PAGE_LIST_KEYS.qualifiedName())
+                .replaceAll(":pageListTbl.listKeyCol", ReadingListPageContract.PageListCol.LIST_KEY.qualifiedName())
+                .replaceAll(":pageListTbl.pageKeyCol", ReadingListPageContract.PageListCol.PAGE_KEY.qualifiedName())
                 .replaceAll(":diskTbl.keyCol", PAGE_DISK_KEY.qualifiedName())
                 .replaceAll(":pageTbl.keyCol", PAGE_KEY.qualifiedName())
                 .replaceAll(":tbl", TABLE)
+                .replaceAll(":pageListTbl", ReadingListPageContract.TABLE_PAGE_LIST)
                 .replaceAll(":pageTbl", ReadingListPageContract.TABLE_PAGE)
                 .replaceAll(":diskTbl", ReadingListPageContract.TABLE_DISK);
 
+        // Lists with a page matching the FtsTable.matchQuery() bound to the selection argument.
+        public static final String SELECTION_PAGE_SEARCH = (":tbl.keyCol in (select :pageListTbl.listKeyCol "
+                + "from :pageSearchTbls join :pageListTbl on :pageListTbl.pageKeyCol = :pageTbl.keyCol "
+                + "where :pageSearchSelection)")
+                .replaceAll(":tbl.keyCol", KEY.qualifiedName())
+                .replaceAll(":pageListTbl.listKeyCol", ReadingListPageContract.PageListCol.LIST_KEY.qualifiedName())
+                .replaceAll(":pageListTbl.pageKeyCol", ReadingListPageContract.PageListCol.PAGE_KEY.qualifiedName())
+                .replaceAll(":pageTbl.keyCol", PAGE_KEY.qualifiedName())
+                .replaceAll(":pageSearchTbls", ReadingListPageContract.PageSearch.MATCH_TABLES)
+                .replaceAll(":pageSearchSelection", ReadingListPageContract.PageSearch.SELECTION)
+                .replaceAll(":pageListTbl", ReadingListPageContract.TABLE_PAGE_LIST);
+
         public static final String[] PROJECTION;
         static {
             PROJECTION = new String[ALL.length + ReadingListPageContract.PageCol.CONTENT.length + ReadingListPageContract.DiskCol.CONTENT.length];
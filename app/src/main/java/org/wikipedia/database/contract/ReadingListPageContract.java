@@ -4,7 +4,9 @@ import android.net.Uri;
 import android.support.annotation.NonNull;
 import android.support.v4.util.ArraySet;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.wikipedia.database.DbUtil;
+import org.wikipedia.database.FtsTable;
 import org.wikipedia.database.column.CodeEnumColumn;
 import org.wikipedia.database.column.CsvColumn;
 import org.wikipedia.database.column.IdColumn;
@@ -26,13 +28,27 @@ public final class ReadingListPageContract {
     public static final String TABLE_PAGE = "readinglistpage";
     public static final String TABLE_HTTP = "readinglistpagehttp";
     public static final String TABLE_DISK = "readinglistpagedisk";
+    public static final String TABLE_PAGE_LIST = "readinglistpagelist";
+    public static final String TABLE_PAGE_FTS = "readinglistpagefts";
     private static final String PATH = "readinglist";
 
     public interface PageCol {
         IdColumn ID = new IdColumn(TABLE_PAGE);
         StrColumn KEY = new StrColumn(TABLE_PAGE, "key", "text not null unique");
-        CsvColumn<Set<String>> LIST_KEYS = new CsvColumn<Set<String>>(TABLE_PAGE, "listKeys",
-                "text not null") {
+        // The keys of the lists containing the page. Not a column of the page table but a
+        // subquery of the page list table correlated on the page key, whose index drives it, and
+        // projected by the views of pages. List keys are Base64 encoded and never contain a comma.
+        CsvColumn<Set<String>> LIST_KEYS = new CsvColumn<Set<String>>(TABLE_PAGE, "listKeys", "text") {
+            @NonNull @Override public String qualifiedName() {
+                return ("(select group_concat(:pageListTbl.listKeyCol) from :pageListTbl "
+                        + "where :pageListTbl.pageKeyCol = :tbl.keyCol) as :listKeys")
+                        .replaceAll(":pageListTbl.listKeyCol", PageListCol.LIST_KEY.qualifiedName())
+                        .replaceAll(":pageListTbl.pageKeyCol", PageListCol.PAGE_KEY.qualifiedName())
+                        .replaceAll(":pageListTbl", TABLE_PAGE_LIST)
+                        .replaceAll(":tbl.keyCol", KEY.qualifiedName())
+                        .replaceAll(":listKeys", getName());
+            }
+
             @NonNull @Override protected Set<String> val(@NonNull Collection<String> strs) {
                 return new ArraySet<>(strs);
             }
@@ -94,6 +110,14 @@ public final class ReadingListPageContract {
                 DISK_PAGE_REV, MTIME, ATIME, THUMBNAIL_URL, DESCRIPTION, PHYSICAL_SIZE, LOGICAL_SIZE);
     }
 
+    public interface PageListCol {
+        IdColumn ID = new IdColumn(TABLE_PAGE_LIST);
+        StrColumn PAGE_KEY = new StrColumn(TABLE_PAGE_LIST, "pageKey", "text not null");
+        StrColumn LIST_KEY = new StrColumn(TABLE_PAGE_LIST, "listKey", "text not null");
+
+        String[] SELECTION = DbUtil.qualifiedNames(PAGE_KEY, LIST_KEY);
+    }
+
     public static final HttpColumns<ReadingListPageRow> HTTP_COLS = new HttpColumns<>(TABLE_HTTP);
     public interface HttpCol {
         IdColumn ID = HTTP_COLS.id();
@@ -114,13 +138,15 @@ public final class ReadingListPageContract {
         public static final LongColumn TIMESTAMP = DISK_COLS.timestamp();
         public static final LongColumn TRANSACTION_ID = DISK_COLS.transactionId();
         public static final StrColumn FILENAME = new StrColumn(TABLE_DISK, "filename", "text");
+        public static final CsvColumn<Set<String>> MANIFEST = DISK_COLS.manifest();
 
         public static final String[] SELECTION = DISK_COLS.selection();
         public static final String[] CONTENT;
         static {
-            CONTENT = new String[DISK_COLS.content().length + 1];
+            CONTENT = new String[DISK_COLS.content().length + 2];
             System.arraycopy(DISK_COLS.content(), 0, CONTENT, 0, DISK_COLS.content().length);
             CONTENT[DISK_COLS.content().length] = FILENAME.qualifiedName();
+            CONTENT[DISK_COLS.content().length + 1] = MANIFEST.qualifiedName();
         }
     }
 
@@ -128,12 +154,39 @@ public final class ReadingListPageContract {
         String TABLES = TABLE_PAGE;
         String PATH = ReadingListPageContract.PATH + "/page";
         Uri URI = Uri.withAppendedPath(AppContentProviderContract.AUTHORITY_BASE, PATH);
-        String[] PROJECTION = null;
+        String[] PROJECTION = ALL;
 
         String ORDER_MRU = ":atimeCol desc".replaceAll(":atimeCol", ATIME.qualifiedName());
         String ORDER_ALPHABETICAL = ":titleCol asc".replaceAll(":titleCol", TITLE.qualifiedName());
     }
 
+    /**
+     * Pages whose title or description matches the {@link FtsTable#matchQuery} bound to
+     * SELECTION. Title matches rank first.
+     */
+    public interface PageSearch extends Page {
+        // The matching pages without their list keys.
+        String MATCH_TABLES = ":ftsTbl join :tbl on (:ftsTbl.docid = :tbl.id)"
+                .replaceAll(":tbl.id", ID.qualifiedName())
+                .replaceAll(":ftsTbl", TABLE_PAGE_FTS)
+                .replaceAll(":tbl", TABLE_PAGE);
+        String TABLES = MATCH_TABLES;
+        String PATH = Page.PATH + "/search";
+        Uri URI = Uri.withAppendedPath(AppContentProviderContract.AUTHORITY_BASE, PATH);
+
+        String RANK = "rank";
+        String[] PROJECTION = ArrayUtils.add(ALL, FtsTable.rank(TABLE_PAGE_FTS, RANK));
+        String SELECTION = TABLE_PAGE_FTS + " match ?";
+        String ORDER_RANK = RANK + ", " + ORDER_MRU;
+    }
+
+    public interface PageList extends PageListCol {
+        String TABLES = TABLE_PAGE_LIST;
+        String PATH = Page.PATH + "/list";
+        Uri URI = Uri.withAppendedPath(AppContentProviderContract.AUTHORITY_BASE, PATH);
+        String[] PROJECTION = null;
+    }
+
     public interface Http extends HttpCol {
         String TABLES = TABLE_HTTP;
 
@@ -243,5 +296,27 @@ public final class ReadingListPageContract {
         private PageWithDisk() { }
     }
 
+    /** The pages of the list bound to SELECTION. */
+    public static final class ListPageWithDisk implements Page {
+        public static final String TABLES = (":pageListTbl join :tbl on (:tbl.keyCol = :pageListTbl.pageKeyCol) "
+                + "join :diskTbl on (:tbl.keyCol = :diskTbl.keyCol)")
+                .replaceAll(":tbl.keyCol", KEY.qualifiedName())
+                .replaceAll(":pageListTbl.pageKeyCol", PageListCol.PAGE_KEY.qualifiedName())
+                .replaceAll(":diskTbl.keyCol", DiskCol.KEY.qualifiedName())
+                .replaceAll(":pageListTbl", TABLE_PAGE_LIST)
+                .replaceAll(":diskTbl", TABLE_DISK)
+                .replaceAll(":tbl", TABLE_PAGE);
+
+        public static final String PATH = PageWithDisk.PATH + "/in_list";
+        public static final Uri URI = Uri.withAppendedPath(AppContentProviderContract.AUTHORITY_BASE, PATH);
+
+        public static final String SELECTION = ":pageListTbl.listKeyCol = ?"
+                .replaceAll(":pageListTbl.listKeyCol", PageListCol.LIST_KEY.qualifiedName());
+
+        public static final String[] PROJECTION = PageWithDisk.PROJECTION;
+
+        private ListPageWithDisk() { }
+    }
+
     private ReadingListPageContract() { }
 }
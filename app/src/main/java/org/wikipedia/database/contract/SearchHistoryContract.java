@@ -3,7 +3,9 @@ package org.wikipedia.database.contract;
 import android.net.Uri;
 import android.provider.BaseColumns;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.wikipedia.database.DbUtil;
+import org.wikipedia.database.FtsTable;
 import org.wikipedia.database.column.DateColumn;
 import org.wikipedia.database.column.LongColumn;
 import org.wikipedia.database.column.StrColumn;
@@ -11,6 +13,7 @@ import org.wikipedia.database.column.StrColumn;
 @SuppressWarnings("checkstyle:interfaceistype")
 public interface SearchHistoryContract {
     String TABLE = "recentsearches";
+    String TABLE_FTS = "recentsearchesfts";
 
     interface Col {
         LongColumn ID = new LongColumn(TABLE, BaseColumns._ID, "integer primary key");
@@ -27,4 +30,20 @@ public interface SearchHistoryContract {
         String[] PROJECTION = null;
         String ORDER_MRU = TIMESTAMP.qualifiedName() + " desc";
     }
+
+    /** Searches whose text matches the {@link FtsTable#matchQuery} bound to SELECTION. */
+    interface QuerySearch extends Query {
+        String TABLES = ":ftsTbl join :tbl on (:ftsTbl.docid = :tbl.id)"
+                .replaceAll(":tbl.id", ID.qualifiedName())
+                .replaceAll(":ftsTbl", TABLE_FTS)
+                .replaceAll(":tbl", TABLE);
+        String PATH = Query.PATH + "/search";
+        Uri URI = Uri.withAppendedPath(AppContentProviderContract.AUTHORITY_BASE, PATH);
+
+        String RANK = "rank";
+        String[] PROJECTION = ArrayUtils.add(DbUtil.qualifiedNames(ID, TEXT, TIMESTAMP),
+                FtsTable.rank(TABLE_FTS, RANK));
+        String SELECTION = TABLE_FTS + " match ?";
+        String ORDER_RANK = RANK + ", " + ORDER_MRU;
+    }
 }
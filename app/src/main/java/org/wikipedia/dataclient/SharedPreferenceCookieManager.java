@@ -17,13 +17,35 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
+/**
+ * Keeps cookies in memory and in preferences. Lookups read an immutable snapshot of the cookies,
+ * which is replaced on each change, without locking, and the Cookie header of each host is built
+ * once per snapshot. Changes are written to preferences in batches on a thread of their own, so
+ * that a write is never queued behind other work. Changes to the login cookies are written at
+ * once, so that a login is not lost if the process dies before the batch is written.
+ */
 public final class SharedPreferenceCookieManager extends CookieManager {
     private static final String DELIMITER = ";";
     private static final String CENTRALAUTH_PREFIX = "centralauth_";
-    private final Map<String, Map<String, String>> cookieJar = new HashMap<>();
+    private static final String WIKIDATA_HOST = "www.wikidata.org";
+    private static final String SESSION_SUFFIX = "session";
+
+    @NonNull private static final Executor SAVE_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // Replaced, never modified, under the lock of this instance.
+    @NonNull private volatile Snapshot snapshot;
+    // The domains changed since the snapshot was last written to preferences, guarded by this.
+    @NonNull private final Set<String> unsavedDomains = new HashSet<>();
 
     private static SharedPreferenceCookieManager INSTANCE;
 
@@ -36,55 +58,49 @@ public final class SharedPreferenceCookieManager extends CookieManager {
     }
 
     private SharedPreferenceCookieManager() {
+        Map<String, Map<String, String>> cookieJar = new HashMap<>();
         List<String> domains = Prefs.getCookieDomainsAsList();
         for (String domain: domains) {
             String cookies = Prefs.getCookiesForDomain(domain);
             cookieJar.put(domain, makeCookieMap(makeList(cookies)));
         }
+        snapshot = new Snapshot(cookieJar);
     }
 
     @Override
-    public synchronized Map<String, List<String>> get(URI uri, Map<String, List<String>> requestHeaders) throws IOException {
+    public Map<String, List<String>> get(URI uri, Map<String, List<String>> requestHeaders) throws IOException {
         if (uri == null || requestHeaders == null) {
             throw new IllegalArgumentException("Argument is null");
         }
-
-        Map<String, List<String>> cookieMap = new HashMap<>();
-        List<String> cookiesList = new ArrayList<>();
-
-        String domain = uri.getAuthority();
-
-        for (String domainSpec: cookieJar.keySet()) {
-            // For sites outside the wikipedia.org domain, like wikidata.org,
-            // transfer the centralauth cookies from wikipedia.org, too, if the user is logged in
-            if (AccountUtil.isLoggedIn()
-                    && domain.equals("www.wikidata.org") && domainSpec.endsWith("wikipedia.org")) {
-                cookiesList.addAll(makeCookieList(cookieJar.get(domainSpec), CENTRALAUTH_PREFIX));
-            }
-
-            // Very weak domain matching.
-            // Primarily to make sure that cookies set for .wikipedia.org are sent for
-            // en.wikipedia.org and *.wikimedia.org
-            // FIXME: Whitelist the domains we accept cookies from/send cookies to. SECURITY!!!1
-            if (domain.endsWith(domainSpec)
-                    || (domain.endsWith(".wikimedia.org") && domainSpec.endsWith("wikipedia.org"))) {
-                cookiesList.addAll(makeCookieList(cookieJar.get(domainSpec)));
-            }
-        }
-
-        cookieMap.put("Cookie", cookiesList);
-
-        return Collections.unmodifiableMap(cookieMap);
+        return snapshot.headers(uri.getAuthority());
     }
 
     @Override
-    public synchronized void put(URI uri, Map<String, List<String>> responseHeaders) throws IOException {
+    public void put(URI uri, Map<String, List<String>> responseHeaders) throws IOException {
         // pre-condition check
         if (uri == null || responseHeaders == null) {
             throw new IllegalArgumentException("Argument is null");
         }
 
-        ArraySet<String> domainsModified = new ArraySet<>();
+        boolean schedule;
+        synchronized (this) {
+            schedule = putCookies(uri, responseHeaders);
+        }
+        if (schedule) {
+            SAVE_EXECUTOR.execute(new Runnable() {
+                @Override public void run() {
+                    save();
+                }
+            });
+        }
+    }
+
+    // Called holding the lock of this instance. @return True if a save must be scheduled.
+    private boolean putCookies(@NonNull URI uri, @NonNull Map<String, List<String>> responseHeaders) {
+        // Copied on the first change only, as most responses set no cookies.
+        Map<String, Map<String, String>> cookieJar = null;
+        Set<String> domainsModified = new ArraySet<>();
+        boolean authModified = false;
 
         for (String headerKey : responseHeaders.keySet()) {
             if (headerKey == null || !headerKey.equalsIgnoreCase("Set-Cookie")) {
@@ -95,6 +111,10 @@ public final class SharedPreferenceCookieManager extends CookieManager {
                 try {
                     List<HttpCookie> cookies = HttpCookie.parse(headerValue);
                     for (HttpCookie cookie : cookies) {
+                        if (cookieJar == null) {
+                            cookieJar = snapshot.copyJar();
+                        }
+
                         // Default to the URI's domain if domain is not explicitly set
                         String domainSpec = cookie.getDomain() == null ? uri.getAuthority() : cookie.getDomain();
                         if (!cookieJar.containsKey(domainSpec)) {
@@ -107,6 +127,7 @@ public final class SharedPreferenceCookieManager extends CookieManager {
                             cookieJar.get(domainSpec).put(cookie.getName(), cookie.getValue());
                         }
                         domainsModified.add(domainSpec);
+                        authModified |= isAuthCookie(cookie.getName());
                     }
                 } catch (IllegalArgumentException e) {
                     // invalid set-cookie header string
@@ -115,11 +136,19 @@ public final class SharedPreferenceCookieManager extends CookieManager {
             }
         }
 
-        Prefs.setCookieDomains(makeString(cookieJar.keySet()));
+        if (cookieJar == null) {
+            return false;
+        }
+        snapshot = new Snapshot(cookieJar);
 
-        for (String domain : domainsModified) {
-            Prefs.setCookiesForDomain(domain, makeString(makeCookieList(cookieJar.get(domain))));
+        boolean scheduled = !unsavedDomains.isEmpty();
+        unsavedDomains.addAll(domainsModified);
+        if (authModified) {
+            // A save already scheduled finds nothing left to write.
+            save();
+            return false;
         }
+        return !scheduled;
     }
 
     @Override
@@ -128,12 +157,14 @@ public final class SharedPreferenceCookieManager extends CookieManager {
         throw new UnsupportedOperationException("We poor. We no have CookieStore");
     }
 
+    // Written at once rather than in a batch so that no cookie outlives a log out.
     public synchronized void clearAllCookies() {
-        for (String domain: cookieJar.keySet()) {
+        for (String domain: snapshot.cookieJar.keySet()) {
             Prefs.removeCookiesForDomain(domain);
         }
         Prefs.setCookieDomains(null);
-        cookieJar.clear();
+        snapshot = new Snapshot(Collections.<String, Map<String, String>>emptyMap());
+        unsavedDomains.clear();
     }
 
     public static List<String> makeList(String str) {
@@ -141,18 +172,40 @@ public final class SharedPreferenceCookieManager extends CookieManager {
     }
 
     @Nullable
-    public synchronized String getCookieByName(@NonNull String name) {
-        for (String domainSpec: cookieJar.keySet()) {
-            for (String cookie : cookieJar.get(domainSpec).keySet()) {
-                if (cookie.equals(name)) {
-                    return cookieJar.get(domainSpec).get(cookie);
-                }
+    public String getCookieByName(@NonNull String name) {
+        for (Map<String, String> cookies : snapshot.cookieJar.values()) {
+            if (cookies.containsKey(name)) {
+                return cookies.get(name);
             }
         }
         return null;
     }
 
-    private Map<String, String> makeCookieMap(@NonNull List<String> cookies) {
+    // Writes the domains changed since the last save to preferences.
+    private synchronized void save() {
+        // Cleared since the save was scheduled.
+        if (unsavedDomains.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, String>> cookieJar = snapshot.cookieJar;
+        Prefs.setCookieDomains(makeString(cookieJar.keySet()));
+        for (String domain : unsavedDomains) {
+            Map<String, String> cookies = cookieJar.get(domain);
+            if (cookies == null) {
+                Prefs.removeCookiesForDomain(domain);
+            } else {
+                Prefs.setCookiesForDomain(domain, makeString(makeCookieList(cookies)));
+            }
+        }
+        unsavedDomains.clear();
+    }
+
+    private static boolean isAuthCookie(@NonNull String name) {
+        return name.startsWith(CENTRALAUTH_PREFIX)
+                || name.toLowerCase(Locale.ROOT).endsWith(SESSION_SUFFIX);
+    }
+
+    private static Map<String, String> makeCookieMap(@NonNull List<String> cookies) {
         Map<String, String> cookiesMap = new HashMap<>();
         for (String cookie : cookies) {
             if (!cookie.contains("=")) {
@@ -164,12 +217,12 @@ public final class SharedPreferenceCookieManager extends CookieManager {
         return cookiesMap;
     }
 
-    private List<String> makeCookieList(@NonNull Map<String, String> cookies) {
+    private static List<String> makeCookieList(@NonNull Map<String, String> cookies) {
         return makeCookieList(cookies, null);
     }
 
-    private List<String> makeCookieList(@NonNull Map<String, String> cookies,
-                                        @Nullable String prefixFilter) {
+    private static List<String> makeCookieList(@NonNull Map<String, String> cookies,
+                                               @Nullable String prefixFilter) {
         List<String> cookiesList = new ArrayList<>();
         for (Map.Entry<String, String> entry: cookies.entrySet()) {
             if (prefixFilter == null || entry.getKey().startsWith(prefixFilter)) {
@@ -179,7 +232,63 @@ public final class SharedPreferenceCookieManager extends CookieManager {
         return cookiesList;
     }
 
-    private String makeString(@NonNull Iterable<String> list) {
+    private static String makeString(@NonNull Iterable<String> list) {
         return TextUtils.join(DELIMITER, list);
     }
+
+    /** The cookies at a point in time and the request headers for them, built on first use. */
+    private static final class Snapshot {
+        @NonNull private final Map<String, Map<String, String>> cookieJar;
+        @NonNull private final ConcurrentMap<String, Map<String, List<String>>> headers
+                = new ConcurrentHashMap<>();
+
+        Snapshot(@NonNull Map<String, Map<String, String>> cookieJar) {
+            Map<String, Map<String, String>> jar = new HashMap<>();
+            for (Map.Entry<String, Map<String, String>> entry : cookieJar.entrySet()) {
+                jar.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<>(entry.getValue())));
+            }
+            this.cookieJar = Collections.unmodifiableMap(jar);
+        }
+
+        @NonNull Map<String, Map<String, String>> copyJar() {
+            Map<String, Map<String, String>> jar = new HashMap<>();
+            for (Map.Entry<String, Map<String, String>> entry : cookieJar.entrySet()) {
+                jar.put(entry.getKey(), new HashMap<>(entry.getValue()));
+            }
+            return jar;
+        }
+
+        @NonNull Map<String, List<String>> headers(@NonNull String domain) {
+            // Only the headers of Wikidata depend on whether the user is logged in.
+            boolean centralAuth = domain.equals(WIKIDATA_HOST) && AccountUtil.isLoggedIn();
+            String key = centralAuth ? CENTRALAUTH_PREFIX + domain : domain;
+            Map<String, List<String>> cached = headers.get(key);
+            if (cached == null) {
+                cached = Collections.singletonMap("Cookie", cookies(domain, centralAuth));
+                headers.putIfAbsent(key, cached);
+            }
+            return cached;
+        }
+
+        @NonNull private List<String> cookies(@NonNull String domain, boolean centralAuth) {
+            List<String> cookiesList = new ArrayList<>();
+            for (String domainSpec: cookieJar.keySet()) {
+                // For sites outside the wikipedia.org domain, like wikidata.org,
+                // transfer the centralauth cookies from wikipedia.org, too, if the user is logged in
+                if (centralAuth && domainSpec.endsWith("wikipedia.org")) {
+                    cookiesList.addAll(makeCookieList(cookieJar.get(domainSpec), CENTRALAUTH_PREFIX));
+                }
+
+                // Very weak domain matching.
+                // Primarily to make sure that cookies set for .wikipedia.org are sent for
+                // en.wikipedia.org and *.wikimedia.org
+                // FIXME: Whitelist the domains we accept cookies from/send cookies to. SECURITY!!!1
+                if (domain.endsWith(domainSpec)
+                        || (domain.endsWith(".wikimedia.org") && domainSpec.endsWith("wikipedia.org"))) {
+                    cookiesList.addAll(makeCookieList(cookieJar.get(domainSpec)));
+                }
+            }
+            return Collections.unmodifiableList(cookiesList);
+        }
+    }
 }
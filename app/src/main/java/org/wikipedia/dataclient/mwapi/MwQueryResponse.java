@@ -1,10 +1,19 @@
 package org.wikipedia.dataclient.mwapi;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
+import org.wikipedia.json.StreamingTypeAdapter;
+
+import java.io.IOException;
 import java.util.Map;
 
 public class MwQueryResponse extends MwResponse {
@@ -35,5 +44,44 @@ public class MwQueryResponse extends MwResponse {
         this.query = query;
     }
 
+    @NonNull public static TypeAdapterFactory typeAdapterFactory() {
+        return StreamingTypeAdapter.factory(MwQueryResponse.class, new StreamingTypeAdapter.Creator<MwQueryResponse>() {
+            @NonNull @Override public StreamingTypeAdapter<MwQueryResponse> create(@NonNull Gson gson,
+                                                                                   @NonNull TypeAdapter<MwQueryResponse> delegate) {
+                return new QueryAdapter(gson, delegate);
+            }
+        });
+    }
+
+    private static final class QueryAdapter extends Adapter<MwQueryResponse> {
+        @NonNull private final TypeAdapter<Map<String, String>> continuationAdapter;
+        @NonNull private final TypeAdapter<MwQueryResult> queryAdapter;
 
+        QueryAdapter(@NonNull Gson gson, @NonNull TypeAdapter<MwQueryResponse> delegate) {
+            super(gson, delegate);
+            continuationAdapter = gson.getAdapter(new TypeToken<Map<String, String>>() { });
+            queryAdapter = gson.getAdapter(MwQueryResult.class);
+        }
+
+        @NonNull @Override protected MwQueryResponse newInstance() {
+            return new MwQueryResponse();
+        }
+
+        @Override protected boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                              @NonNull MwQueryResponse value) throws IOException {
+            switch (name) {
+                case "batchcomplete":
+                    value.batchComplete = nextBoolean(in, value.batchComplete);
+                    return true;
+                case "continue":
+                    value.continuation = continuationAdapter.read(in);
+                    return true;
+                case "query":
+                    value.query = queryAdapter.read(in);
+                    return true;
+                default:
+                    return super.readField(in, name, value);
+            }
+        }
+    }
 }
@@ -3,10 +3,16 @@ package org.wikipedia.dataclient.mwapi;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
+import org.wikipedia.json.StreamingTypeAdapter;
 import org.wikipedia.model.BaseModel;
 
+import java.io.IOException;
 import java.util.Map;
 
 public abstract class MwResponse extends BaseModel {
@@ -41,6 +47,35 @@ public abstract class MwResponse extends BaseModel {
         return error != null && error.badToken();
     }
 
+    /** Reads the fields common to all responses. Subclasses read their own fields first. */
+    protected abstract static class Adapter<T extends MwResponse> extends StreamingTypeAdapter<T> {
+        @NonNull private final TypeAdapter<MwServiceError> errorAdapter;
+        @NonNull private final TypeAdapter<Map<String, Warning>> warningsAdapter;
+
+        protected Adapter(@NonNull Gson gson, @NonNull TypeAdapter<T> delegate) {
+            super(delegate);
+            errorAdapter = gson.getAdapter(MwServiceError.class);
+            warningsAdapter = gson.getAdapter(new TypeToken<Map<String, Warning>>() { });
+        }
+
+        @Override protected boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                              @NonNull T value) throws IOException {
+            switch (name) {
+                case "error":
+                    ((MwResponse) value).error = errorAdapter.read(in);
+                    return true;
+                case "warnings":
+                    ((MwResponse) value).warnings = warningsAdapter.read(in);
+                    return true;
+                case "servedby":
+                    ((MwResponse) value).servedBy = nextString(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
     private class Warning {
         @SuppressWarnings("unused,NullableProblems") @NonNull private String warnings;
     }
@@ -5,13 +5,19 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
 import org.wikipedia.dataclient.WikiSite;
 import org.wikipedia.dataclient.mwapi.MwServiceError;
 import org.wikipedia.dataclient.page.PageLead;
 import org.wikipedia.dataclient.page.PageLeadProperties;
 import org.wikipedia.dataclient.page.Protection;
+import org.wikipedia.json.StreamingTypeAdapter;
 import org.wikipedia.page.Namespace;
 import org.wikipedia.page.Page;
 import org.wikipedia.page.PageProperties;
@@ -19,6 +25,8 @@ import org.wikipedia.page.PageTitle;
 import org.wikipedia.page.Section;
 import org.wikipedia.util.log.L;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -55,8 +63,9 @@ public class MwMobileViewPageLead implements PageLead {
     /** Note: before using this check that #getMobileview != null */
     @Override
     public Page toPage(@NonNull PageTitle title) {
+        // The page adds the remaining sections to its list. Copy it to leave this lead unmodified.
         return new Page(adjustPageTitle(title),
-                mobileview.getSections(),
+                new ArrayList<>(mobileview.getSections()),
                 mobileview.toPageProperties(title.getWikiSite()));
     }
 
@@ -111,6 +120,133 @@ public class MwMobileViewPageLead implements PageLead {
         return mobileview;
     }
 
+    @NonNull public static TypeAdapterFactory typeAdapterFactory() {
+        return StreamingTypeAdapter.factory(MwMobileViewPageLead.class, new StreamingTypeAdapter.Creator<MwMobileViewPageLead>() {
+            @NonNull @Override public StreamingTypeAdapter<MwMobileViewPageLead> create(@NonNull Gson gson,
+                                                                                        @NonNull TypeAdapter<MwMobileViewPageLead> delegate) {
+                return new Adapter(gson, delegate);
+            }
+        });
+    }
+
+    @NonNull public static TypeAdapterFactory mobileviewTypeAdapterFactory() {
+        return StreamingTypeAdapter.factory(Mobileview.class, new StreamingTypeAdapter.Creator<Mobileview>() {
+            @NonNull @Override public StreamingTypeAdapter<Mobileview> create(@NonNull Gson gson,
+                                                                              @NonNull TypeAdapter<Mobileview> delegate) {
+                return new MobileviewAdapter(gson, delegate);
+            }
+        });
+    }
+
+    private static final class Adapter extends StreamingTypeAdapter<MwMobileViewPageLead> {
+        @NonNull private final TypeAdapter<MwServiceError> errorAdapter;
+        @NonNull private final TypeAdapter<Mobileview> mobileviewAdapter;
+
+        Adapter(@NonNull Gson gson, @NonNull TypeAdapter<MwMobileViewPageLead> delegate) {
+            super(delegate);
+            errorAdapter = gson.getAdapter(MwServiceError.class);
+            mobileviewAdapter = gson.getAdapter(Mobileview.class);
+        }
+
+        @NonNull @Override protected MwMobileViewPageLead newInstance() {
+            return new MwMobileViewPageLead();
+        }
+
+        @Override protected boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                              @NonNull MwMobileViewPageLead value) throws IOException {
+            switch (name) {
+                case "error":
+                    value.error = errorAdapter.read(in);
+                    return true;
+                case "mobileview":
+                    value.mobileview = mobileviewAdapter.read(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class MobileviewAdapter extends StreamingTypeAdapter<Mobileview> {
+        @NonNull private final TypeAdapter<PageImage> pageImageAdapter;
+        @NonNull private final TypeAdapter<PageImageThumb> leadImageAdapter;
+        @NonNull private final TypeAdapter<Protection> protectionAdapter;
+        @NonNull private final TypeAdapter<List<Section>> sectionsAdapter;
+        @NonNull private final TypeAdapter<PageProps> pagePropsAdapter;
+
+        MobileviewAdapter(@NonNull Gson gson, @NonNull TypeAdapter<Mobileview> delegate) {
+            super(delegate);
+            pageImageAdapter = gson.getAdapter(PageImage.class);
+            leadImageAdapter = gson.getAdapter(PageImageThumb.class);
+            protectionAdapter = gson.getAdapter(Protection.class);
+            sectionsAdapter = gson.getAdapter(new TypeToken<List<Section>>() { });
+            pagePropsAdapter = gson.getAdapter(PageProps.class);
+        }
+
+        @NonNull @Override protected Mobileview newInstance() {
+            return new Mobileview();
+        }
+
+        @Override protected boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                              @NonNull Mobileview value) throws IOException {
+            switch (name) {
+                case "id":
+                    value.id = nextInt(in, value.id);
+                    return true;
+                case "namespace":
+                    value.namespace = nextInt(in, value.namespace);
+                    return true;
+                case "revision":
+                    value.revision = nextLong(in, value.revision);
+                    return true;
+                case "lastmodified":
+                    value.lastmodified = nextString(in);
+                    return true;
+                case "displaytitle":
+                    value.displaytitle = nextString(in);
+                    return true;
+                case "redirected":
+                    value.redirected = nextString(in);
+                    return true;
+                case "normalizedtitle":
+                    value.normalizedtitle = nextString(in);
+                    return true;
+                case "languagecount":
+                    value.languagecount = nextInt(in, value.languagecount);
+                    return true;
+                case "editable":
+                    value.editable = nextBoolean(in, value.editable);
+                    return true;
+                case "mainpage":
+                    value.mainpage = nextBoolean(in, value.mainpage);
+                    return true;
+                case "disambiguation":
+                    value.disambiguation = nextBoolean(in, value.disambiguation);
+                    return true;
+                case "description":
+                    value.description = nextString(in);
+                    return true;
+                case "pageImage":
+                    value.pageImage = pageImageAdapter.read(in);
+                    return true;
+                case "thumb":
+                    value.leadImage = leadImageAdapter.read(in);
+                    return true;
+                case "protection":
+                    value.protection = protectionAdapter.read(in);
+                    return true;
+                case "sections":
+                    value.sections = sectionsAdapter.read(in);
+                    return true;
+                case "pageprops":
+                    value.pageprops = pagePropsAdapter.read(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
 
     /**
      * Almost everything is in this inner class.
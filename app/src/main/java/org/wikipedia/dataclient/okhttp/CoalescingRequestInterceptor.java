@@ -0,0 +1,359 @@
+package org.wikipedia.dataclient.okhttp;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.Util;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+
+/**
+ * Coalesces identical GET requests made at the same time, such as a page image requested by both
+ * the WebView and Fresco. The first request, the leader, proceeds down the chain. Requests with the
+ * same URL and headers made before the leader's response body is read to the end, the followers,
+ * receive a copy of the leader's response and read its body from a buffer shared with the leader,
+ * so only one connection is made and only the leader's response is written to the caches.
+ *
+ * The shared buffer retains the body from its start so that followers may join until the body
+ * exceeds a limit. After that, no more followers join and the buffer only retains the bytes not
+ * yet read by every reader. If the leader fails to receive a response, its followers proceed on
+ * their own but if reading the body fails, it fails for every reader.
+ *
+ * Waits are bounded by the read timeout of the client. A follower waiting longer for the leader's
+ * response proceeds on its own, so a cancelled follower call fails then, as OkHttp 3.8 gives
+ * interceptors no access to the call. A reader idle for the read timeout that holds more than the
+ * join limit in the buffer is detached and fails on its next read, so that an abandoned body does
+ * not retain the whole response.
+ */
+public class CoalescingRequestInterceptor implements Interceptor {
+    private static final long MAX_JOIN_LENGTH = 1024 * 1024;
+    private static final long SEGMENT_LENGTH = 8192;
+
+    @NonNull private final Map<String, Flight> flights = new HashMap<>();
+    @NonNull private final AtomicInteger requests = new AtomicInteger();
+    @NonNull private final AtomicInteger coalesced = new AtomicInteger();
+    private final long maxJoinLength;
+    private final long readTimeoutMillis;
+
+    /** @param readTimeoutMillis The read timeout of the client, or 0 for none. */
+    public CoalescingRequestInterceptor(long readTimeoutMillis) {
+        this(MAX_JOIN_LENGTH, readTimeoutMillis);
+    }
+
+    @VisibleForTesting CoalescingRequestInterceptor(long maxJoinLength, long readTimeoutMillis) {
+        this.maxJoinLength = maxJoinLength;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override public Response intercept(Chain chain) throws IOException {
+        Request req = chain.request();
+        if (!"GET".equals(req.method())) {
+            return chain.proceed(req);
+        }
+        requests.incrementAndGet();
+
+        String key = key(req);
+        Flight flight;
+        FlightSource reader;
+        boolean leader = false;
+        synchronized (flights) {
+            flight = flights.get(key);
+            reader = flight == null ? null : flight.join();
+            if (reader == null) {
+                flight = new Flight(key);
+                reader = flight.join();
+                flights.put(key, flight);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            Response rsp = null;
+            try {
+                rsp = flight.awaitResponse();
+            } finally {
+                if (rsp == null) {
+                    reader.close();
+                }
+            }
+            if (rsp == null) {
+                // The leader failed or did not respond within the read timeout. Its failure may be
+                // specific to its call, such as cancellation.
+                return chain.proceed(req);
+            }
+            coalesced.incrementAndGet();
+            return rsp.newBuilder().request(req).body(reader.body(rsp)).build();
+        }
+
+        Response rsp = null;
+        try {
+            rsp = chain.proceed(req);
+        } finally {
+            flight.respond(rsp);
+        }
+        return rsp.newBuilder().body(reader.body(rsp)).build();
+    }
+
+    /** @return The number of GET requests intercepted. */
+    public int requestCount() {
+        return requests.get();
+    }
+
+    /** @return The number of GET requests served by the response of an identical request. */
+    public int coalescedCount() {
+        return coalesced.get();
+    }
+
+    @NonNull private String key(@NonNull Request req) {
+        return req.url() + "\n" + req.headers();
+    }
+
+    private void remove(@NonNull Flight flight) {
+        synchronized (flights) {
+            if (flights.get(flight.key) == flight) {
+                flights.remove(flight.key);
+            }
+        }
+    }
+
+    private class Flight {
+        @NonNull private final String key;
+        @NonNull private final List<FlightSource> readers = new ArrayList<>();
+        // Bytes of the body from offset base.
+        @NonNull private final Buffer buffer = new Buffer();
+        @Nullable private Response response;
+        @Nullable private BufferedSource upstream;
+        @Nullable private IOException error;
+        private volatile boolean joinable = true;
+        private boolean responded;
+        private boolean fetching;
+        private boolean exhausted;
+        private long base;
+
+        Flight(@NonNull String key) {
+            this.key = key;
+        }
+
+        @Nullable synchronized FlightSource join() {
+            if (!joinable) {
+                return null;
+            }
+            FlightSource reader = new FlightSource(this, readTimeoutMillis);
+            readers.add(reader);
+            return reader;
+        }
+
+        /** @param rsp The response of the leader or null if it failed. */
+        void respond(@Nullable Response rsp) {
+            synchronized (this) {
+                responded = true;
+                response = rsp;
+                if (rsp == null) {
+                    joinable = false;
+                    readers.clear();
+                } else {
+                    upstream = rsp.body() == null ? new Buffer() : rsp.body().source();
+                }
+                notifyAll();
+            }
+            removeIfClosed();
+        }
+
+        /** @return The response of the leader or null if it failed or did not respond within the
+         *          read timeout. */
+        @Nullable synchronized Response awaitResponse() throws InterruptedIOException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeoutMillis);
+            while (!responded) {
+                long remaining = deadline - System.nanoTime();
+                if (readTimeoutMillis > 0 && remaining <= 0) {
+                    return null;
+                }
+                await(readTimeoutMillis > 0 ? remaining : 0);
+            }
+            return response;
+        }
+
+        long read(@NonNull FlightSource reader, @NonNull Buffer sink, long byteCount) throws IOException {
+            while (true) {
+                synchronized (this) {
+                    while (fetching && reader.offset == end() && !reader.detached) {
+                        reader.timeout.waitUntilNotified(this);
+                    }
+                    if (reader.closed) {
+                        throw new IllegalStateException("closed");
+                    }
+                    if (reader.detached) {
+                        throw new IOException("Coalesced response reader was idle");
+                    }
+                    reader.lastReadNanos = System.nanoTime();
+                    if (reader.offset < end()) {
+                        long count = Math.min(byteCount, end() - reader.offset);
+                        buffer.copyTo(sink, reader.offset - base, count);
+                        reader.offset += count;
+                        trim();
+                        return count;
+                    }
+                    if (error != null) {
+                        throw new IOException("Coalesced response failed", error);
+                    }
+                    if (exhausted) {
+                        return -1;
+                    }
+                    fetching = true;
+                }
+                fetch();
+            }
+        }
+
+        synchronized void close(@NonNull FlightSource reader) {
+            if (reader.closed) {
+                return;
+            }
+            reader.closed = true;
+            leave(reader);
+            trim();
+        }
+
+        private void leave(@NonNull FlightSource reader) {
+            readers.remove(reader);
+            if (readers.isEmpty()) {
+                joinable = false;
+                Util.closeQuietly(upstream);
+                buffer.clear();
+            }
+        }
+
+        void removeIfClosed() {
+            if (!joinable) {
+                remove(this);
+            }
+        }
+
+        private void fetch() {
+            Buffer chunk = new Buffer();
+            long count = -1;
+            IOException failure = null;
+            try {
+                //noinspection ConstantConditions
+                count = upstream.read(chunk, SEGMENT_LENGTH);
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                synchronized (this) {
+                    fetching = false;
+                    if (failure != null) {
+                        error = failure;
+                    } else if (count < 0) {
+                        exhausted = true;
+                    } else {
+                        buffer.write(chunk, count);
+                    }
+
+                    if (error != null || exhausted || end() > maxJoinLength) {
+                        joinable = false;
+                    }
+                    if (error != null || exhausted) {
+                        Util.closeQuietly(upstream);
+                    }
+                    trim();
+                    notifyAll();
+                }
+                removeIfClosed();
+            }
+        }
+
+        /** Discards the bytes read by every reader once no more readers may join. */
+        private void trim() {
+            if (joinable) {
+                return;
+            }
+            detachIdleReaders();
+            long offset = end();
+            for (FlightSource reader : readers) {
+                offset = Math.min(offset, reader.offset);
+            }
+            buffer.skip(offset - base);
+            base = offset;
+        }
+
+        // Readers holding back more than the join limit that were not read for the read timeout.
+        private void detachIdleReaders() {
+            if (readTimeoutMillis == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (FlightSource reader : new ArrayList<>(readers)) {
+                if (end() - reader.offset > maxJoinLength
+                        && now - reader.lastReadNanos > TimeUnit.MILLISECONDS.toNanos(readTimeoutMillis)) {
+                    reader.detached = true;
+                    leave(reader);
+                    notifyAll();
+                }
+            }
+        }
+
+        private long end() {
+            return base + buffer.size();
+        }
+
+        private void await(long nanos) throws InterruptedIOException {
+            try {
+                wait(TimeUnit.NANOSECONDS.toMillis(nanos), (int) (nanos % TimeUnit.MILLISECONDS.toNanos(1)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    private static class FlightSource implements Source {
+        @NonNull private final Flight flight;
+        @NonNull private final Timeout timeout = new Timeout();
+        private long offset;
+        private long lastReadNanos = System.nanoTime();
+        private boolean closed;
+        private boolean detached;
+
+        FlightSource(@NonNull Flight flight, long readTimeoutMillis) {
+            this.flight = flight;
+            timeout.timeout(readTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @NonNull ResponseBody body(@NonNull Response rsp) {
+            ResponseBody body = rsp.body();
+            return body == null
+                    ? ResponseBody.create(null, 0, Okio.buffer(this))
+                    : ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(this));
+        }
+
+        @Override public long read(@NonNull Buffer sink, long byteCount) throws IOException {
+            return flight.read(this, sink, byteCount);
+        }
+
+        @Override public Timeout timeout() {
+            return timeout;
+        }
+
+        @Override public void close() {
+            flight.close(this);
+            flight.removeIfClosed();
+        }
+    }
+}
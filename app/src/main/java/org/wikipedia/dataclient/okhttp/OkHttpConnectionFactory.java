@@ -5,10 +5,12 @@ import android.support.annotation.VisibleForTesting;
 
 import org.wikipedia.WikipediaApp;
 import org.wikipedia.dataclient.SharedPreferenceCookieManager;
+import org.wikipedia.dataclient.okhttp.cache.BlobStore;
 import org.wikipedia.settings.Prefs;
 import org.wikipedia.settings.RbSwitch;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.Cache;
 import okhttp3.CacheDelegate;
@@ -20,36 +22,53 @@ import okhttp3.logging.HttpLoggingInterceptor;
 
 public final class OkHttpConnectionFactory {
     private static final String CACHE_DIR_NAME = "okhttp-cache";
+    private static final String BLOB_DIR_NAME = "okhttp-cache-blobs";
     private static final long NET_CACHE_SIZE = 64 * 1024 * 1024;
     @VisibleForTesting @NonNull public static final Cache NET_CACHE = new Cache(new File(WikipediaApp.getInstance().getCacheDir(),
             CACHE_DIR_NAME), NET_CACHE_SIZE);
+    // Saved pages must never be evicted by the cache. The storage budget is enforced by
+    // SavedPageStorage instead.
     private static final long SAVED_PAGE_CACHE_SIZE = NET_CACHE_SIZE * 1024;
     @NonNull public static final Cache SAVE_CACHE = new Cache(new File(WikipediaApp.getInstance().getFilesDir(),
             CACHE_DIR_NAME), SAVED_PAGE_CACHE_SIZE);
+    // Deduplicated response bodies of SAVE_CACHE. Kept outside of the cache directory, which
+    // DiskLruCache may clear.
+    @NonNull public static final BlobStore SAVE_BLOBS = new BlobStore(new File(WikipediaApp.getInstance().getFilesDir(),
+            BLOB_DIR_NAME), new CacheDelegate(SAVE_CACHE));
 
+    private static final long READ_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    @NonNull private static final CoalescingRequestInterceptor COALESCING_INTERCEPTOR
+            = new CoalescingRequestInterceptor(READ_TIMEOUT_MILLIS);
     @NonNull private static final OkHttpClient CLIENT = createClient();
 
     @NonNull public static OkHttpClient getClient() {
         return CLIENT;
     }
 
+    @NonNull public static CoalescingRequestInterceptor getCoalescingInterceptor() {
+        return COALESCING_INTERCEPTOR;
+    }
+
     @NonNull
     private static OkHttpClient createClient() {
         SharedPreferenceCookieManager cookieManager = WikipediaApp.getInstance().getCookieManager();
         // TODO: consider using okhttp3.CookieJar implementation instead of JavaNetCookieJar wrapper
         CookieJar cookieJar = new JavaNetCookieJar(cookieManager);
 
-        return new OkHttpClient.Builder()
+        // The network cache is set through CacheDelegate so that its index is kept current.
+        return CacheDelegate.cache(new OkHttpClient.Builder(), NET_CACHE)
                 .cookieJar(cookieJar)
-                .cache(NET_CACHE)
+                .readTimeout(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
                 .addInterceptor(new HttpLoggingInterceptor().setLevel(Prefs.getRetrofitLogLevel()))
                 .addInterceptor(new UnsuccessfulResponseInterceptor())
                 .addInterceptor(new StatusResponseInterceptor(RbSwitch.INSTANCE))
                 .addNetworkInterceptor(new StripMustRevalidateResponseInterceptor())
                 .addInterceptor(new CommonHeaderRequestInterceptor())
                 .addInterceptor(new DefaultMaxStaleRequestInterceptor())
+                // Coalesce before the caches so that only one response is written to them.
+                .addInterceptor(COALESCING_INTERCEPTOR)
                 .addInterceptor(new CacheIfErrorInterceptor())
-                .addInterceptor(new CacheDelegateInterceptor(CacheDelegate.internalCache(SAVE_CACHE), CacheDelegate.internalCache(NET_CACHE)))
+                .addInterceptor(new CacheDelegateInterceptor(CacheDelegate.internalCache(SAVE_CACHE, SAVE_BLOBS), CacheDelegate.internalCache(NET_CACHE)))
                 .addInterceptor(new WikipediaZeroResponseInterceptor(WikipediaApp.getInstance().getWikipediaZeroHandler()))
                 .build();
     }
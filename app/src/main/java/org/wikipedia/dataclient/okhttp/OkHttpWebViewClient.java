@@ -11,6 +11,7 @@ import android.webkit.WebView;
 import android.webkit.WebViewClient;
 
 import org.apache.commons.lang3.StringUtils;
+import org.wikipedia.bridge.PayloadChannel;
 import org.wikipedia.util.log.L;
 
 import java.io.BufferedReader;
@@ -59,6 +60,9 @@ public class OkHttpWebViewClient extends WebViewClient {
     @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
     @Override public WebResourceResponse shouldInterceptRequest(WebView view,
                                                                 WebResourceRequest request) {
+        if (PayloadChannel.isPayloadUrl(request.getUrl().toString())) {
+            return PayloadChannel.instance().serve(request.getUrl().toString());
+        }
         if (!SUPPORTED_SCHEMES.contains(request.getUrl().getScheme())) {
             return null;
         }
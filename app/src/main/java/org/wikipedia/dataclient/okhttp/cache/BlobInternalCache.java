@@ -0,0 +1,106 @@
+package org.wikipedia.dataclient.okhttp.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.cache.CacheRequest;
+import okhttp3.internal.cache.CacheStrategy;
+import okhttp3.internal.cache.InternalCache;
+import okio.BufferedSource;
+import okio.Okio;
+
+import static okhttp3.internal.Util.closeQuietly;
+
+/** An {@link InternalCache} that serves the bodies of interned responses from a
+ * {@link BlobStore}. All other operations are forwarded to the underlying cache. */
+public class BlobInternalCache implements InternalCache {
+    @NonNull private final InternalCache cache;
+    @NonNull private final BlobStore blobs;
+
+    public BlobInternalCache(@NonNull InternalCache cache, @NonNull BlobStore blobs) {
+        this.cache = cache;
+        this.blobs = blobs;
+    }
+
+    @Nullable @Override public Response get(@NonNull Request request) throws IOException {
+        Response response = cache.get(request);
+        if (response == null) {
+            return null;
+        }
+
+        File blob = blobs.blob(request.url());
+        if (blob == null) {
+            return response;
+        }
+
+        MediaType contentType = response.body() == null ? null : response.body().contentType();
+        closeQuietly(response.body());
+        try {
+            ResponseBody body = new BlobResponseBody(contentType, blob.length(),
+                    Okio.buffer(Okio.source(blob)));
+            return response.newBuilder().body(body).build();
+        } catch (FileNotFoundException e) {
+            // The blob is gone. Treat the response as a cache miss.
+            return null;
+        }
+    }
+
+    @Nullable @Override public CacheRequest put(@NonNull Response response) throws IOException {
+        blobs.invalidate(response.request().url());
+        return cache.put(response);
+    }
+
+    @Override public void remove(@NonNull Request request) throws IOException {
+        blobs.invalidate(request.url());
+        cache.remove(request);
+    }
+
+    @Override public void update(@NonNull Response cached, @NonNull Response network) {
+        // The underlying cache can only update responses it created itself. Interned responses
+        // keep their original headers.
+        if (!(cached.body() instanceof BlobResponseBody)) {
+            cache.update(cached, network);
+        }
+    }
+
+    @Override public void trackConditionalCacheHit() {
+        cache.trackConditionalCacheHit();
+    }
+
+    @Override public void trackResponse(@NonNull CacheStrategy cacheStrategy) {
+        cache.trackResponse(cacheStrategy);
+    }
+
+    private static class BlobResponseBody extends ResponseBody {
+        @Nullable private final MediaType contentType;
+        private final long contentLength;
+        @NonNull private final BufferedSource source;
+
+        BlobResponseBody(@Nullable MediaType contentType, long contentLength,
+                         @NonNull BufferedSource source) {
+            this.contentType = contentType;
+            this.contentLength = contentLength;
+            this.source = source;
+        }
+
+        @Nullable @Override public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override public long contentLength() {
+            return contentLength;
+        }
+
+        @NonNull @Override public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package org.wikipedia.dataclient.okhttp.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.wikipedia.util.log.L;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import okhttp3.CacheDelegate;
+import okhttp3.HttpUrl;
+import okhttp3.internal.Util;
+import okhttp3.internal.cache.DiskLruCache;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.HashingSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Content addressed storage for response bodies of a {@link okhttp3.Cache}. Interning a cached
+ * response moves its body into a blob file named by the SHA-1 of its contents and leaves only the
+ * response metadata in the cache, so identical bodies requested under different URLs are stored
+ * once. Each interned URL is referenced by one or more owners, such as saved pages, and a blob is
+ * deleted when the last URL referencing it is released.
+ *
+ * References are persisted to an append-only journal in the blob directory which is replayed on
+ * first use and compacted when mostly redundant.
+ */
+public class BlobStore {
+    /** The outcome of releasing a URL. */
+    public enum Release {
+        /** No owner references the URL anymore and its cache entry may be removed. */
+        UNREFERENCED,
+        /** The URL is still referenced by another owner and its cache entry must be kept. */
+        REFERENCED,
+        /** No owner ever referenced the URL, such as a response saved before the journal existed.
+         * Nothing records whether its cache entry is needed. */
+        UNKNOWN
+    }
+
+    private static final String JOURNAL_FILE = "journal";
+    private static final String JOURNAL_FILE_TMP = "journal.tmp";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String SEPARATOR = "\t";
+
+    /** An owner references a URL and the URL's body is stored in a blob, if any: R owner key
+     * [hash]. */
+    private static final String OP_REF = "R";
+    /** An owner no longer references a URL: U owner key. */
+    private static final String OP_UNREF = "U";
+    /** The cache entry for a URL was replaced and no longer refers to a blob: D key. */
+    private static final String OP_DETACH = "D";
+
+    private static final int OKHTTP_RAW_BODY_FILE_INDEX = 1;
+    private static final int COMPACT_THRESHOLD = 2000;
+
+    @NonNull private final File directory;
+    @NonNull private final CacheDelegate cache;
+
+    // Cache key to the blob and owners of the URL.
+    @NonNull private final Map<String, Entry> entries = new HashMap<>();
+    // Blob hash to the cache keys of the URLs referring to it.
+    @NonNull private final Map<String, Set<String>> blobKeys = new HashMap<>();
+
+    @Nullable private BufferedSink journal;
+    private boolean initialized;
+    private int redundantOps;
+    // The total size of the blob files.
+    private long size;
+
+    public BlobStore(@NonNull File directory, @NonNull CacheDelegate cache) {
+        this.directory = directory;
+        this.cache = cache;
+    }
+
+    /** @return The blob holding the body of the cached response for url, or null if the response
+     *          is not interned. */
+    @Nullable public synchronized File blob(@NonNull HttpUrl url) {
+        initialize();
+        Entry entry = entries.get(key(url));
+        return entry == null || entry.hash == null ? null : blobFile(entry.hash);
+    }
+
+    /** @return The total size of the blobs. Each is counted once, however many URLs and owners
+     *          refer to it. */
+    public synchronized long size() {
+        initialize();
+        return size;
+    }
+
+    /**
+     * Adds a reference from owner to the cached response for url and moves the response body into
+     * its blob if it is not already there. The body is copied without holding the store so that
+     * large responses do not stall other callers.
+     *
+     * @return The number of body bytes newly attributable to owner: the size of the blob when owner
+     *         did not yet reference it under any URL, zero when it already did, or the size of the
+     *         body left in the cache when the response could not be interned. Each owner is charged
+     *         once for each blob it references, whether or not other owners share it.
+     */
+    public long intern(@NonNull String owner, @NonNull HttpUrl url) throws IOException {
+        String key = key(url);
+        synchronized (this) {
+            initialize();
+            Entry entry = entries.get(key);
+            if (entry != null && entry.hash != null) {
+                return addOwner(owner, key, entry);
+            }
+        }
+
+        DiskLruCache.Snapshot snapshot = cache.diskLruCache().get(key);
+        if (snapshot == null) {
+            return 0;
+        }
+
+        try {
+            long bodySize = snapshot.getLength(OKHTTP_RAW_BODY_FILE_INDEX);
+            DiskLruCache.Editor editor = snapshot.edit();
+            if (editor == null) {
+                // The entry is being written concurrently. Leave it in the cache.
+                reference(owner, key);
+                return bodySize;
+            }
+
+            File tmp = new File(directory, key + TMP_SUFFIX);
+            String hash;
+            try {
+                hash = writeTmp(tmp, snapshot.getSource(OKHTTP_RAW_BODY_FILE_INDEX));
+            } catch (IOException e) {
+                editor.abort();
+                deleteQuietly(tmp);
+                reference(owner, key);
+                throw e;
+            }
+            return attach(owner, key, hash, tmp, editor);
+        } finally {
+            Util.closeQuietly(snapshot);
+        }
+    }
+
+    /**
+     * Drops the reference from owner to url. The blob is deleted when no URL refers to it anymore.
+     *
+     * @return {@link Release#UNREFERENCED} if owner was the last to reference url,
+     *         {@link Release#REFERENCED} if another owner still references it, whether or not owner
+     *         did, or {@link Release#UNKNOWN} if no owner references it.
+     */
+    @NonNull public synchronized Release release(@NonNull String owner, @NonNull HttpUrl url) {
+        initialize();
+        String key = key(url);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Release.UNKNOWN;
+        }
+        if (!entry.owners.remove(owner)) {
+            return Release.REFERENCED;
+        }
+
+        journal(OP_UNREF, owner, key);
+        if (entry.owners.isEmpty()) {
+            entries.remove(key);
+            detach(key, entry, true);
+            return Release.UNREFERENCED;
+        }
+        return Release.REFERENCED;
+    }
+
+    /** Called when the cache entry for url is replaced or removed. The owners of url are kept but
+     * the entry no longer refers to a blob. */
+    public synchronized void invalidate(@NonNull HttpUrl url) {
+        initialize();
+        String key = key(url);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.hash != null) {
+            detach(key, entry, true);
+            journal(OP_DETACH, key);
+        }
+    }
+
+    // Moves the copied body into its blob and leaves only the metadata in the cache. If the URL
+    // was interned by another caller in the meantime, the copy is discarded.
+    private synchronized long attach(@NonNull String owner, @NonNull String key,
+                                     @NonNull String hash, @NonNull File tmp,
+                                     @NonNull DiskLruCache.Editor editor) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.hash != null) {
+            editor.abort();
+            deleteQuietly(tmp);
+            return addOwner(owner, key, entry);
+        }
+
+        try {
+            File blob = blobFile(hash);
+            if (blob.exists()) {
+                deleteQuietly(tmp);
+            } else {
+                long length = tmp.length();
+                if (!tmp.renameTo(blob)) {
+                    throw new IOException("Failed to rename " + tmp + " to " + blob);
+                }
+                size += length;
+            }
+            // Only the metadata remains in the cache. Reads are served from the blob.
+            editor.newSink(OKHTTP_RAW_BODY_FILE_INDEX).close();
+            editor.commit();
+            cache.index().commit(key);
+        } catch (IOException e) {
+            editor.abort();
+            deleteQuietly(tmp);
+            reference(owner, key);
+            throw e;
+        }
+
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+        attach(key, entry, hash);
+        return addOwner(owner, key, entry);
+    }
+
+    // @return The size of the blob of entry if owner did not yet reference it under any URL.
+    private long addOwner(@NonNull String owner, @NonNull String key, @NonNull Entry entry) {
+        //noinspection ConstantConditions
+        boolean charged = ownsBlob(owner, entry.hash);
+        if (entry.owners.add(owner)) {
+            journal(OP_REF, owner, key, entry.hash);
+        }
+        return charged ? 0 : blobFile(entry.hash).length();
+    }
+
+    // Records a reference to a response that was left in the cache so that its release is
+    // honored.
+    private synchronized void reference(@NonNull String owner, @NonNull String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+        if (entry.owners.add(owner)) {
+            journal(OP_REF, owner, key);
+        }
+    }
+
+    private boolean ownsBlob(@NonNull String owner, @NonNull String hash) {
+        Set<String> keys = blobKeys.get(hash);
+        if (keys != null) {
+            for (String key : keys) {
+                if (entries.get(key).owners.contains(owner)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // @return The hash of body, copied to tmp.
+    @NonNull private static String writeTmp(@NonNull File tmp,
+                                            @NonNull Source body) throws IOException {
+        HashingSink hashingSink = HashingSink.sha1(Okio.sink(tmp));
+        BufferedSink sink = Okio.buffer(hashingSink);
+        try {
+            sink.writeAll(body);
+        } finally {
+            sink.close();
+        }
+        return hashingSink.hash().hex();
+    }
+
+    private void attach(@NonNull String key, @NonNull Entry entry, @NonNull String hash) {
+        entry.hash = hash;
+        Set<String> keys = blobKeys.get(hash);
+        if (keys == null) {
+            keys = new HashSet<>();
+            blobKeys.put(hash, keys);
+        }
+        keys.add(key);
+    }
+
+    private void detach(@NonNull String key, @NonNull Entry entry, boolean deleteUnreferenced) {
+        if (entry.hash == null) {
+            return;
+        }
+
+        Set<String> keys = blobKeys.get(entry.hash);
+        if (keys != null) {
+            keys.remove(key);
+        }
+        if (keys == null || keys.isEmpty()) {
+            blobKeys.remove(entry.hash);
+            if (deleteUnreferenced) {
+                File blob = blobFile(entry.hash);
+                size -= blob.length();
+                deleteQuietly(blob);
+            }
+        }
+        entry.hash = null;
+    }
+
+    private void initialize() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            L.w("Failed to create blob directory " + directory);
+        }
+
+        int ops = readJournal();
+        redundantOps = ops - liveOps();
+        deleteUnreferencedFiles();
+        for (String hash : blobKeys.keySet()) {
+            size += blobFile(hash).length();
+        }
+
+        try {
+            if (redundantOps >= COMPACT_THRESHOLD && redundantOps >= liveOps()) {
+                rebuildJournal();
+            } else {
+                journal = Okio.buffer(Okio.appendingSink(journalFile()));
+            }
+        } catch (IOException e) {
+            L.e("Failed to open blob journal", e);
+        }
+    }
+
+    /** @return The number of operations replayed. */
+    private int readJournal() {
+        int ops = 0;
+        BufferedSource source = null;
+        try {
+            source = Okio.buffer(Okio.source(journalFile()));
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                replay(line.split(SEPARATOR));
+                ops++;
+            }
+        } catch (FileNotFoundException ignore) {
+            // No journal yet.
+        } catch (IOException e) {
+            L.e("Failed to read blob journal", e);
+        } finally {
+            Util.closeQuietly(source);
+        }
+        return ops;
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private void replay(@NonNull String[] op) {
+        if (OP_REF.equals(op[0]) && (op.length == 3 || op.length == 4)) {
+            Entry entry = entries.get(op[2]);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(op[2], entry);
+            }
+            if (op.length == 4 && !op[3].equals(entry.hash)) {
+                // Blobs are never deleted while replaying. A later operation may refer to a blob
+                // again and unreferenced files are swept afterward.
+                detach(op[2], entry, false);
+                attach(op[2], entry, op[3]);
+            }
+            entry.owners.add(op[1]);
+        } else if (OP_UNREF.equals(op[0]) && op.length == 3) {
+            Entry entry = entries.get(op[2]);
+            if (entry != null) {
+                entry.owners.remove(op[1]);
+                if (entry.owners.isEmpty()) {
+                    entries.remove(op[2]);
+                    detach(op[2], entry, false);
+                }
+            }
+        } else if (OP_DETACH.equals(op[0]) && op.length == 2) {
+            Entry entry = entries.get(op[1]);
+            if (entry != null) {
+                detach(op[1], entry, false);
+            }
+        }
+    }
+
+    private void deleteUnreferencedFiles() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.equals(JOURNAL_FILE) && !blobKeys.containsKey(name)) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private void rebuildJournal() throws IOException {
+        Util.closeQuietly(journal);
+
+        File tmp = new File(directory, JOURNAL_FILE_TMP);
+        BufferedSink sink = Okio.buffer(Okio.sink(tmp));
+        try {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                String hash = entry.getValue().hash;
+                for (String owner : entry.getValue().owners) {
+                    sink.writeUtf8(hash == null
+                            ? join(OP_REF, owner, entry.getKey())
+                            : join(OP_REF, owner, entry.getKey(), hash));
+                }
+            }
+        } finally {
+            sink.close();
+        }
+
+        if (!tmp.renameTo(journalFile())) {
+            throw new IOException("Failed to rename " + tmp);
+        }
+        redundantOps = 0;
+        journal = Okio.buffer(Okio.appendingSink(journalFile()));
+    }
+
+    private void journal(@NonNull String... op) {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.writeUtf8(join(op));
+            journal.flush();
+        } catch (IOException e) {
+            L.e("Failed to write blob journal", e);
+        }
+
+        if (!OP_REF.equals(op[0])) {
+            redundantOps++;
+        }
+        if (redundantOps >= COMPACT_THRESHOLD && redundantOps >= liveOps()) {
+            try {
+                rebuildJournal();
+            } catch (IOException e) {
+                L.e("Failed to compact blob journal", e);
+            }
+        }
+    }
+
+    private int liveOps() {
+        int ops = 0;
+        for (Entry entry : entries.values()) {
+            ops += entry.owners.size();
+        }
+        return ops;
+    }
+
+    @NonNull private String join(@NonNull String... strs) {
+        StringBuilder builder = new StringBuilder();
+        for (String str : strs) {
+            if (builder.length() > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(str);
+        }
+        return builder.append('\n').toString();
+    }
+
+    @NonNull private File blobFile(@NonNull String hash) {
+        return new File(directory, hash);
+    }
+
+    @NonNull private File journalFile() {
+        return new File(directory, JOURNAL_FILE);
+    }
+
+    private void deleteQuietly(@NonNull File file) {
+        if (file.exists() && !file.delete()) {
+            L.w("Failed to delete " + file);
+        }
+    }
+
+    // Copy of Cache.key()
+    @NonNull private static String key(@NonNull HttpUrl url) {
+        return ByteString.encodeUtf8(url.toString()).md5().hex();
+    }
+
+    private static class Entry {
+        @NonNull private final Set<String> owners = new HashSet<>();
+        @Nullable private String hash;
+    }
+}
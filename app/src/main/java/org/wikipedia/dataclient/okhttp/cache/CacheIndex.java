@@ -0,0 +1,221 @@
+package org.wikipedia.dataclient.okhttp.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import org.wikipedia.util.log.L;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import okhttp3.internal.Util;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * In-memory copy of the keys and sizes of the committed entries of an OkHttp cache's
+ * DiskLruCache. Unlike DiskLruCache.get(), membership checks perform no I/O and do not reorder the
+ * LRU queue or append to the journal.
+ *
+ * The index is read from the DiskLruCache journal by load(), ahead of use on a background thread,
+ * or else on first use, and kept current by the cache operations made through
+ * {@link okhttp3.CacheDelegate}. Entries are kept in the same least recently used order as the
+ * DiskLruCache and evicted at the same size so that entries the DiskLruCache trims are dropped here
+ * too.
+ */
+public class CacheIndex {
+    // Copies of DiskLruCache constants.
+    private static final String JOURNAL_FILE = "journal";
+    private static final String JOURNAL_FILE_BACKUP = "journal.bkp";
+    private static final int JOURNAL_HEADER_LINES = 5;
+    private static final String CLEAN = "CLEAN";
+    private static final String DIRTY = "DIRTY";
+    private static final String REMOVE = "REMOVE";
+    private static final String READ = "READ";
+    private static final String CLEAN_FILE_SUFFIX = ".";
+    private static final int VALUE_COUNT = 2;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    @NonNull private final File directory;
+    private final long maxSize;
+    // Key to entry size in least recently used order.
+    @NonNull private final LinkedHashMap<String, Long> entries
+            = new LinkedHashMap<>(0, LOAD_FACTOR, true);
+    private long size;
+    private boolean loaded;
+    // Held while the journal is read, outside the lock of the index so that isLoaded() never
+    // waits for the read.
+    @NonNull private final Object loadLock = new Object();
+
+    public CacheIndex(@NonNull File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /** @return True once the journal is read, after which no method of the index performs I/O. */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean contains(@NonNull String key) {
+        load();
+        synchronized (this) {
+            // Unlike get(), containsKey() is not an access and leaves the order unchanged.
+            return entries.containsKey(key);
+        }
+    }
+
+    /** @return The total size of the entries' files in bytes. */
+    public long size() {
+        load();
+        synchronized (this) {
+            return size;
+        }
+    }
+
+    /** Mirrors a read or edit of the entry, which moves it to the head of the LRU queue. */
+    public void touch(@NonNull String key) {
+        load();
+        synchronized (this) {
+            entries.get(key);
+        }
+    }
+
+    /** Records an entry committed to the cache. The size is read from its files. */
+    public void commit(@NonNull String key) {
+        long length = 0;
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            length += new File(directory, key + CLEAN_FILE_SUFFIX + i).length();
+        }
+        put(key, length);
+    }
+
+    @VisibleForTesting void put(@NonNull String key, long length) {
+        load();
+        synchronized (this) {
+            removeEntry(key);
+            entries.put(key, length);
+            size += length;
+            trimToSize();
+        }
+    }
+
+    public void remove(@NonNull String key) {
+        load();
+        synchronized (this) {
+            removeEntry(key);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+        loaded = true;
+    }
+
+    /**
+     * Reads the journal unless already read, replaying it as DiskLruCache.readJournal() and
+     * processJournal() do. Called on a background thread ahead of use; the other methods of the
+     * index call it otherwise.
+     */
+    public void load() {
+        synchronized (loadLock) {
+            if (isLoaded()) {
+                return;
+            }
+            LinkedHashMap<String, Long> replayed = new LinkedHashMap<>(0, LOAD_FACTOR, true);
+            readJournal(replayed);
+
+            synchronized (this) {
+                if (loaded) {
+                    // Cleared while read.
+                    return;
+                }
+                entries.putAll(replayed);
+                for (Long length : entries.values()) {
+                    size += length;
+                }
+                trimToSize();
+                loaded = true;
+            }
+        }
+    }
+
+    private void removeEntry(@NonNull String key) {
+        Long length = entries.remove(key);
+        if (length != null) {
+            size -= length;
+        }
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            size -= it.next().getValue();
+            it.remove();
+        }
+    }
+
+    private void readJournal(@NonNull LinkedHashMap<String, Long> replayed) {
+        File journal = new File(directory, JOURNAL_FILE);
+        if (!journal.exists()) {
+            journal = new File(directory, JOURNAL_FILE_BACKUP);
+        }
+
+        Set<String> dirty = new HashSet<>();
+        BufferedSource source = null;
+        try {
+            source = Okio.buffer(Okio.source(journal));
+            for (int i = 0; i < JOURNAL_HEADER_LINES; i++) {
+                source.readUtf8LineStrict();
+            }
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                replay(line.split(" "), replayed, dirty);
+            }
+        } catch (FileNotFoundException ignore) {
+            // No journal yet.
+        } catch (IOException e) {
+            L.w("Failed to read cache journal in " + directory, e);
+        } finally {
+            Util.closeQuietly(source);
+        }
+
+        // Entries still being edited are deleted when the DiskLruCache is opened.
+        for (String key : dirty) {
+            replayed.remove(key);
+        }
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private void replay(@NonNull String[] op, @NonNull LinkedHashMap<String, Long> replayed,
+                        @NonNull Set<String> dirty) {
+        if (op.length < 2) {
+            return;
+        }
+        String key = op[1];
+        if (REMOVE.equals(op[0])) {
+            replayed.remove(key);
+            dirty.remove(key);
+        } else if (CLEAN.equals(op[0]) && op.length == 2 + VALUE_COUNT) {
+            try {
+                replayed.put(key, Long.parseLong(op[2]) + Long.parseLong(op[3]));
+                dirty.remove(key);
+            } catch (NumberFormatException e) {
+                L.w("Invalid cache journal line for " + key);
+            }
+        } else if (DIRTY.equals(op[0])) {
+            replayed.get(key);
+            dirty.add(key);
+        } else if (READ.equals(op[0])) {
+            replayed.get(key);
+        }
+    }
+}
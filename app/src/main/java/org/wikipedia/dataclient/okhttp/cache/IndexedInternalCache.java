@@ -0,0 +1,96 @@
+package org.wikipedia.dataclient.okhttp.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.internal.cache.CacheRequest;
+import okhttp3.internal.cache.CacheStrategy;
+import okhttp3.internal.cache.InternalCache;
+import okhttp3.internal.http.HttpMethod;
+import okio.ByteString;
+import okio.ForwardingSink;
+import okio.Sink;
+
+/** An {@link InternalCache} that keeps a {@link CacheIndex} of the underlying cache current. All
+ * operations are forwarded to the underlying cache. */
+public class IndexedInternalCache implements InternalCache {
+    @NonNull private final InternalCache cache;
+    @NonNull private final CacheIndex index;
+
+    public IndexedInternalCache(@NonNull InternalCache cache, @NonNull CacheIndex index) {
+        this.cache = cache;
+        this.index = index;
+    }
+
+    @Nullable @Override public Response get(@NonNull Request request) throws IOException {
+        Response response = cache.get(request);
+        index.touch(key(request.url()));
+        return response;
+    }
+
+    @Nullable @Override public CacheRequest put(@NonNull Response response) throws IOException {
+        String key = key(response.request().url());
+        CacheRequest cacheRequest = cache.put(response);
+        if (HttpMethod.invalidatesCache(response.request().method())) {
+            index.remove(key);
+        }
+        if (cacheRequest == null) {
+            return null;
+        }
+        index.touch(key);
+        return new IndexedCacheRequest(cacheRequest, key);
+    }
+
+    @Override public void remove(@NonNull Request request) throws IOException {
+        cache.remove(request);
+        index.remove(key(request.url()));
+    }
+
+    @Override public void update(@NonNull Response cached, @NonNull Response network) {
+        cache.update(cached, network);
+        index.commit(key(cached.request().url()));
+    }
+
+    @Override public void trackConditionalCacheHit() {
+        cache.trackConditionalCacheHit();
+    }
+
+    @Override public void trackResponse(@NonNull CacheStrategy cacheStrategy) {
+        cache.trackResponse(cacheStrategy);
+    }
+
+    // Copy of Cache.key()
+    @NonNull public static String key(@NonNull HttpUrl url) {
+        return ByteString.encodeUtf8(url.toString()).md5().hex();
+    }
+
+    private class IndexedCacheRequest implements CacheRequest {
+        @NonNull private final CacheRequest cacheRequest;
+        @NonNull private final String key;
+
+        IndexedCacheRequest(@NonNull CacheRequest cacheRequest, @NonNull String key) {
+            this.cacheRequest = cacheRequest;
+            this.key = key;
+        }
+
+        @Override public Sink body() throws IOException {
+            Sink body = cacheRequest.body();
+            return body == null ? null : new ForwardingSink(body) {
+                @Override public void close() throws IOException {
+                    // The entry is committed when the body is closed.
+                    super.close();
+                    index.commit(key);
+                }
+            };
+        }
+
+        @Override public void abort() {
+            cacheRequest.abort();
+        }
+    }
+}
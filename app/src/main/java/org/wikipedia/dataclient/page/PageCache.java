@@ -0,0 +1,164 @@
+package org.wikipedia.dataclient.page;
+
+import android.content.ComponentCallbacks2;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.text.format.DateUtils;
+import android.util.LruCache;
+
+import org.wikipedia.page.PageTitle;
+import org.wikipedia.page.Section;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Memory cache of deserialized page content in front of the OkHttp disk caches so that a page
+ * viewed moments ago, such as when navigating back, is displayed without reading and parsing its
+ * cached responses again. Leads are keyed by title and lead image width and the remaining sections
+ * by title and the revision of the lead so that a lead and sections of different revisions are
+ * never mixed.
+ *
+ * Entries expire after a few minutes as they are not revalidated and are invalidated with the
+ * disk cache entry of their response. Cached models must not be modified.
+ */
+public final class PageCache {
+    private static final long MAX_AGE_MILLIS = 10 * DateUtils.MINUTE_IN_MILLIS;
+    private static final int MAX_SIZE_BYTES = (int) Math.min(Runtime.getRuntime().maxMemory() / 16,
+            8 * 1024 * 1024);
+
+    @NonNull private static final PageCache INSTANCE = new PageCache(MAX_SIZE_BYTES);
+
+    @NonNull private final LruCache<String, Entry> entries;
+    @NonNull private final AtomicInteger hits = new AtomicInteger();
+    @NonNull private final AtomicInteger misses = new AtomicInteger();
+
+    @NonNull public static PageCache instance() {
+        return INSTANCE;
+    }
+
+    @Nullable public PageLead lead(@NonNull PageTitle title, int leadImageWidth, boolean noImages) {
+        return (PageLead) get(leadKey(title, leadImageWidth, noImages));
+    }
+
+    /** @param url The URL of the response lead was parsed from. */
+    public void putLead(@NonNull PageTitle title, int leadImageWidth, boolean noImages,
+                        @NonNull String url, @NonNull PageLead lead) {
+        entries.put(leadKey(title, leadImageWidth, noImages),
+                new Entry(url, lead, lead.getLeadSectionContent().length()));
+    }
+
+    @Nullable public PageRemaining sections(@NonNull PageTitle title, long revision,
+                                            boolean noImages) {
+        return (PageRemaining) get(sectionsKey(title, revision, noImages));
+    }
+
+    /** @param url The URL of the response sections was parsed from. */
+    public void putSections(@NonNull PageTitle title, long revision, boolean noImages,
+                            @NonNull String url, @NonNull PageRemaining sections) {
+        int length = 0;
+        for (Section section : sections.sections()) {
+            length += section.getContent().length();
+        }
+        entries.put(sectionsKey(title, revision, noImages), new Entry(url, sections, length));
+    }
+
+    /** Removes the content parsed from the response for url. */
+    public void invalidate(@NonNull String url) {
+        for (Map.Entry<String, Entry> entry : entries.snapshot().entrySet()) {
+            if (url.equals(entry.getValue().url)) {
+                entries.remove(entry.getKey());
+            }
+        }
+    }
+
+    /** Removes the leads and sections of title, such as when the page was edited. */
+    public void invalidate(@NonNull PageTitle title) {
+        String leadPrefix = leadKey(title, "");
+        String sectionsPrefix = sectionsKey(title, "");
+        for (String key : entries.snapshot().keySet()) {
+            if (key.startsWith(leadPrefix) || key.startsWith(sectionsPrefix)) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    /** @param level A ComponentCallbacks2 trim memory level. */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            entries.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            entries.trimToSize(entries.maxSize() / 2);
+        }
+    }
+
+    public int hitCount() {
+        return hits.get();
+    }
+
+    public int missCount() {
+        return misses.get();
+    }
+
+    @VisibleForTesting int size() {
+        return entries.size();
+    }
+
+    @VisibleForTesting PageCache(int maxSizeBytes) {
+        entries = new LruCache<String, Entry>(maxSizeBytes) {
+            @Override protected int sizeOf(String key, Entry value) {
+                return value.size;
+            }
+        };
+    }
+
+    @Nullable private Object get(@NonNull String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.currentTimeMillis() - entry.timestamp > MAX_AGE_MILLIS) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.model;
+    }
+
+    @NonNull private String leadKey(@NonNull PageTitle title, int leadImageWidth, boolean noImages) {
+        return leadKey(title, leadImageWidth + "|" + noImages);
+    }
+
+    @NonNull private String sectionsKey(@NonNull PageTitle title, long revision, boolean noImages) {
+        return sectionsKey(title, revision + "|" + noImages);
+    }
+
+    // Titles never contain a pipe so the key of a title is not a prefix of another's.
+    @NonNull private String leadKey(@NonNull PageTitle title, @NonNull String variant) {
+        return "lead|" + title.getWikiSite().url() + "|" + title.getPrefixedText() + "|" + variant;
+    }
+
+    @NonNull private String sectionsKey(@NonNull PageTitle title, @NonNull String variant) {
+        return "sections|" + title.getWikiSite().url() + "|" + title.getPrefixedText() + "|"
+                + variant;
+    }
+
+    private static class Entry {
+        @NonNull private final String url;
+        @NonNull private final Object model;
+        private final long timestamp = System.currentTimeMillis();
+        private final int size;
+
+        // Content is stored as UTF-16 and dominates the size of a page.
+        Entry(@NonNull String url, @NonNull Object model, int length) {
+            this.url = url;
+            this.model = model;
+            size = Math.max(1, length * 2);
+        }
+    }
+}
@@ -4,8 +4,13 @@ import android.location.Location;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
 import org.wikipedia.auth.AccountUtil;
 import org.wikipedia.dataclient.WikiSite;
@@ -13,6 +18,7 @@ import org.wikipedia.dataclient.page.PageLead;
 import org.wikipedia.dataclient.page.PageLeadProperties;
 import org.wikipedia.dataclient.page.Protection;
 import org.wikipedia.dataclient.restbase.RbServiceError;
+import org.wikipedia.json.StreamingTypeAdapter;
 import org.wikipedia.page.GeoTypeAdapter;
 import org.wikipedia.page.Namespace;
 import org.wikipedia.page.Page;
@@ -22,6 +28,8 @@ import org.wikipedia.page.Section;
 import org.wikipedia.util.UriUtil;
 import org.wikipedia.util.log.L;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -73,8 +81,9 @@ public class RbPageLead implements PageLead, PageLeadProperties {
     /** Note: before using this check that #getMobileview != null */
     @Override
     public Page toPage(PageTitle title) {
+        // The page adds the remaining sections to its list. Copy it to leave this lead unmodified.
         return new Page(adjustPageTitle(title),
-                getSections(),
+                new ArrayList<>(getSections()),
                 toPageProperties(title.getWikiSite()));
     }
 
@@ -220,6 +229,15 @@ public class RbPageLead implements PageLead, PageLeadProperties {
         return sections == null ? Collections.<Section>emptyList() : sections;
     }
 
+    @NonNull public static TypeAdapterFactory typeAdapterFactory() {
+        return StreamingTypeAdapter.factory(RbPageLead.class, new StreamingTypeAdapter.Creator<RbPageLead>() {
+            @NonNull @Override public StreamingTypeAdapter<RbPageLead> create(@NonNull Gson gson,
+                                                                              @NonNull TypeAdapter<RbPageLead> delegate) {
+                return new Adapter(gson, delegate);
+            }
+        });
+    }
+
     // TODO: remove this method and #getNamespace() WikiSite dependency when T135141 is fixed.
     @NonNull private Namespace guessNamespace(@NonNull WikiSite wiki, @NonNull String title) {
         String[] parts = title.split(":", -1);
@@ -227,6 +245,90 @@ public class RbPageLead implements PageLead, PageLeadProperties {
         return Namespace.fromLegacyString(wiki, name);
     }
 
+    private static final class Adapter extends StreamingTypeAdapter<RbPageLead> {
+        @NonNull private final TypeAdapter<RbServiceError> errorAdapter;
+        @NonNull private final TypeAdapter<TitlePronunciation> titlePronunciationAdapter;
+        @NonNull private final TypeAdapter<Location> geoAdapter = new GeoTypeAdapter().nullSafe();
+        @NonNull private final TypeAdapter<Image> imageAdapter;
+        @NonNull private final TypeAdapter<Protection> protectionAdapter;
+        @NonNull private final TypeAdapter<List<Section>> sectionsAdapter;
+
+        Adapter(@NonNull Gson gson, @NonNull TypeAdapter<RbPageLead> delegate) {
+            super(delegate);
+            errorAdapter = gson.getAdapter(RbServiceError.class);
+            titlePronunciationAdapter = gson.getAdapter(TitlePronunciation.class);
+            imageAdapter = gson.getAdapter(Image.class);
+            protectionAdapter = gson.getAdapter(Protection.class);
+            sectionsAdapter = gson.getAdapter(new TypeToken<List<Section>>() { });
+        }
+
+        @NonNull @Override protected RbPageLead newInstance() {
+            return new RbPageLead();
+        }
+
+        @Override protected boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                              @NonNull RbPageLead value) throws IOException {
+            switch (name) {
+                case "error":
+                    value.error = errorAdapter.read(in);
+                    return true;
+                case "id":
+                    value.id = nextInt(in, value.id);
+                    return true;
+                case "revision":
+                    value.revision = nextLong(in, value.revision);
+                    return true;
+                case "lastmodified":
+                    value.lastmodified = nextString(in);
+                    return true;
+                case "displaytitle":
+                    value.displaytitle = nextString(in);
+                    return true;
+                case "redirected":
+                    value.redirected = nextString(in);
+                    return true;
+                case "normalizedtitle":
+                    value.normalizedtitle = nextString(in);
+                    return true;
+                case "wikibase_item":
+                    value.wikiBaseItem = nextString(in);
+                    return true;
+                case "pronunciation":
+                    value.titlePronunciation = titlePronunciationAdapter.read(in);
+                    return true;
+                case "geo":
+                    value.geo = geoAdapter.read(in);
+                    return true;
+                case "languagecount":
+                    value.languagecount = nextInt(in, value.languagecount);
+                    return true;
+                case "editable":
+                    value.editable = nextBoolean(in, value.editable);
+                    return true;
+                case "mainpage":
+                    value.mainpage = nextBoolean(in, value.mainpage);
+                    return true;
+                case "disambiguation":
+                    value.disambiguation = nextBoolean(in, value.disambiguation);
+                    return true;
+                case "description":
+                    value.description = nextString(in);
+                    return true;
+                case "image":
+                    value.image = imageAdapter.read(in);
+                    return true;
+                case "protection":
+                    value.protection = protectionAdapter.read(in);
+                    return true;
+                case "sections":
+                    value.sections = sectionsAdapter.read(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
     /**
      * For the lead image File: page name
      */
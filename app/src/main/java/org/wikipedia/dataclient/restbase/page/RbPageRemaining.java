@@ -3,10 +3,18 @@ package org.wikipedia.dataclient.restbase.page;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
 import org.wikipedia.dataclient.page.PageRemaining;
+import org.wikipedia.json.StreamingTypeAdapter;
 import org.wikipedia.page.Page;
 import org.wikipedia.page.Section;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -26,4 +34,35 @@ public class RbPageRemaining implements PageRemaining {
         }
         return sections;
     }
+
+    @NonNull public static TypeAdapterFactory typeAdapterFactory() {
+        return StreamingTypeAdapter.factory(RbPageRemaining.class, new StreamingTypeAdapter.Creator<RbPageRemaining>() {
+            @NonNull @Override public StreamingTypeAdapter<RbPageRemaining> create(@NonNull Gson gson,
+                                                                                   @NonNull TypeAdapter<RbPageRemaining> delegate) {
+                return new Adapter(gson, delegate);
+            }
+        });
+    }
+
+    private static final class Adapter extends StreamingTypeAdapter<RbPageRemaining> {
+        @NonNull private final TypeAdapter<List<Section>> sectionsAdapter;
+
+        Adapter(@NonNull Gson gson, @NonNull TypeAdapter<RbPageRemaining> delegate) {
+            super(delegate);
+            sectionsAdapter = gson.getAdapter(new TypeToken<List<Section>>() { });
+        }
+
+        @NonNull @Override protected RbPageRemaining newInstance() {
+            return new RbPageRemaining();
+        }
+
+        @Override protected boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                              @NonNull RbPageRemaining value) throws IOException {
+            if (name.equals("sections")) {
+                value.sections = sectionsAdapter.read(in);
+                return true;
+            }
+            return false;
+        }
+    }
 }
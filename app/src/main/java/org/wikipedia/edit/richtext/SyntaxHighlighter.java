@@ -3,6 +3,7 @@ package org.wikipedia.edit.richtext;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.text.Editable;
@@ -11,6 +12,8 @@ import android.text.TextWatcher;
 import android.text.format.DateUtils;
 import android.widget.EditText;
 
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.util.log.L;
 
@@ -140,6 +143,14 @@ public class SyntaxHighlighter {
 
         private Editable text;
 
+        @NonNull @Override protected Lane lane() {
+            return Lane.CPU;
+        }
+
+        @NonNull @Override protected Priority priority() {
+            return Priority.HIGH;
+        }
+
         @Override
         public List<SpanExtents> performTask() throws Throwable {
             Stack<SpanExtents> spanStack = new Stack<>();
@@ -1,11 +1,14 @@
 package org.wikipedia.feed;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import org.wikipedia.dataclient.WikiSite;
 import org.wikipedia.feed.dataclient.FeedClient;
+import org.wikipedia.feed.dataclient.SnapshotFeedClient;
 import org.wikipedia.feed.model.Card;
 import org.wikipedia.feed.offline.OfflineCard;
 import org.wikipedia.feed.progress.ProgressCard;
@@ -19,9 +22,14 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public abstract class FeedCoordinatorBase {
     private static final int MAX_HIDDEN_CARDS = 100;
+    // A client that has not responded by then is skipped so that it does not hold back the cards
+    // of the clients after it.
+    private static final long CLIENT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(15);
 
     public interface FeedUpdateListener {
         void insert(Card card, int pos);
@@ -30,12 +38,15 @@ public abstract class FeedCoordinatorBase {
     }
 
     @NonNull private Context context;
-    @Nullable private WikiSite wiki;
     @Nullable private FeedUpdateListener updateListener;
     @NonNull private final List<Card> cards = new ArrayList<>();
     private int currentAge;
-    private List<FeedClient> pendingClients = new ArrayList<>();
-    private FeedClient.Callback callback = new ClientRequestCallback();
+    // The clients whose cards are not yet inserted, in script order. All are requested at once and
+    // the cards of each are inserted once those of the clients before it are.
+    @NonNull private final List<PendingClient> pendingClients = new ArrayList<>();
+    @NonNull private final Handler handler = new Handler(Looper.getMainLooper());
+    private boolean offline;
+    private long requestStartNanos;
     private Card progressCard = new ProgressCard();
 
     private Set<String> hiddenCards = Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
@@ -60,18 +71,16 @@ public abstract class FeedCoordinatorBase {
     }
 
     public void reset() {
-        wiki = null;
         currentAge = 0;
-        for (FeedClient client : pendingClients) {
+        for (PendingClient client : pendingClients) {
             client.cancel();
         }
         pendingClients.clear();
+        offline = false;
         cards.clear();
     }
 
     public void more(@NonNull WikiSite wiki) {
-        this.wiki = wiki;
-
         if (cards.size() == 0) {
             insertCard(progressCard, 0);
         }
@@ -80,8 +89,17 @@ public abstract class FeedCoordinatorBase {
             currentAge++;
         }
 
+        int scriptStart = pendingClients.size();
         buildScript(currentAge);
-        requestCard(wiki);
+        requestStartNanos = System.nanoTime();
+        List<PendingClient> script = new ArrayList<>(pendingClients.subList(scriptStart,
+                pendingClients.size()));
+        if (currentAge == 0) {
+            for (PendingClient client : script) {
+                client.requestSnapshot(wiki);
+            }
+        }
+        request(wiki, script);
     }
 
     public boolean finished() {
@@ -109,36 +127,74 @@ public abstract class FeedCoordinatorBase {
     void retryFromOffline(@NonNull WikiSite wiki) {
         // swap a progress card in where the offline card was
         swapCard(progressCard, cards.size() - 1);
-        requestCard(wiki);
+        offline = false;
+
+        List<PendingClient> failed = new ArrayList<>();
+        for (PendingClient client : pendingClients) {
+            if (client.isOffline()) {
+                failed.add(client);
+            }
+        }
+        requestStartNanos = System.nanoTime();
+        request(wiki, failed);
     }
 
     protected abstract void buildScript(int age);
 
     void addPendingClient(FeedClient client) {
-        pendingClients.add(client);
+        pendingClients.add(new PendingClient(client, currentAge));
     }
 
     void conditionallyAddPendingClient(FeedClient client, boolean condition) {
         if (condition) {
-            pendingClients.add(client);
+            addPendingClient(client);
         }
     }
 
-    // Call to kick off the request chain or to retry a failed request.  To move to the next pending
-    // client, call requestNextCard.
-    private void requestCard(@NonNull WikiSite wiki) {
-        if (pendingClients.isEmpty()) {
-            removeProgressCard();
-            return;
+    private void request(@NonNull WikiSite wiki, @NonNull List<PendingClient> clients) {
+        for (PendingClient client : clients) {
+            // A client may respond within request() and a card inserted then may lead the feed to
+            // be reset.
+            if (pendingClients.contains(client)) {
+                client.request(wiki);
+            }
         }
-        pendingClients.get(0).request(context, wiki, currentAge, callback);
+        insertResponses();
     }
 
-    private void requestNextCard(@NonNull WikiSite wiki) {
-        if (!pendingClients.isEmpty()) {
+    // Inserts the cards of the leading clients that have responded, in script order.
+    private void insertResponses() {
+        while (!pendingClients.isEmpty() && pendingClients.get(0).responded()) {
+            PendingClient client = pendingClients.get(0);
+            if (client.isOffline()) {
+                // The clients after it wait for a retry.
+                if (!offline) {
+                    offline = true;
+                    setOfflineState();
+                }
+                return;
+            }
+
             pendingClients.remove(0);
+            if (client.caught != null) {
+                // The snapshot cards, if any, are kept in place of the cards of the response.
+                L.w(client.caught);
+                continue;
+            }
+            //noinspection ConstantConditions
+            for (Card card : client.cards) {
+                if (!isCardHidden(card)) {
+                    client.replaceSnapshotCard(card);
+                }
+            }
+            client.removeSnapshotCards();
+        }
+
+        if (pendingClients.isEmpty()) {
+            removeProgressCard();
+            L.d("Feed age " + currentAge + " loaded in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestStartNanos) + " ms");
         }
-        requestCard(wiki);
     }
 
     private void removeProgressCard() {
@@ -151,34 +207,166 @@ public abstract class FeedCoordinatorBase {
 
     private void setOfflineState() {
         removeProgressCard();
-        appendCard(new OfflineCard());
+        insertCard(new OfflineCard(), cards.size());
     }
 
-    private class ClientRequestCallback implements FeedClient.Callback {
-        @Override public void success(@NonNull List<? extends Card> cardList) {
-            for (Card card : cardList) {
-                if (!isCardHidden(card)) {
-                    appendCard(card);
-                }
+    /** A client of the script and its response, which is held until it can be inserted. */
+    private class PendingClient implements FeedClient.Callback, Runnable {
+        @NonNull private final FeedClient client;
+        private final int age;
+        private long startNanos;
+        @Nullable private List<? extends Card> cards;
+        @Nullable private Throwable caught;
+        // The cards of a snapshot shown until those of the response replace them.
+        @NonNull private final List<Card> snapshotCards = new ArrayList<>();
+
+        PendingClient(@NonNull FeedClient client, int age) {
+            this.client = client;
+            this.age = age;
+        }
+
+        void request(@NonNull WikiSite wiki) {
+            cards = null;
+            caught = null;
+            startNanos = System.nanoTime();
+            handler.postDelayed(this, CLIENT_TIMEOUT_MILLIS);
+            client.request(context, wiki, age, this);
+        }
+
+        void requestSnapshot(@NonNull WikiSite wiki) {
+            if (client instanceof SnapshotFeedClient) {
+                ((SnapshotFeedClient) client).requestSnapshot(context, wiki, age, new SnapshotCallback());
             }
-            //noinspection ConstantConditions
-            requestNextCard(wiki);
+        }
+
+        void cancel() {
+            handler.removeCallbacks(this);
+            client.cancel();
+        }
+
+        boolean responded() {
+            return cards != null || caught != null;
+        }
+
+        boolean isOffline() {
+            return ThrowableUtil.isOffline(caught);
+        }
+
+        @Override public void success(@NonNull List<? extends Card> cards) {
+            respond(cards, null);
         }
 
         @Override public void error(@NonNull Throwable caught) {
-            if (ThrowableUtil.isOffline(caught)) {
-                setOfflineState();
-            } else {
-                //noinspection ConstantConditions
-                requestNextCard(wiki);
-                L.w(caught);
+            respond(null, caught);
+        }
+
+        // Timed out.
+        @Override public void run() {
+            client.cancel();
+            respond(null, new TimeoutException(name() + " timed out"));
+        }
+
+        private void respond(@Nullable List<? extends Card> cards, @Nullable Throwable caught) {
+            // Ignore a response after a time out or a reset.
+            if (responded() || !pendingClients.contains(this)) {
+                return;
+            }
+            handler.removeCallbacks(this);
+            this.cards = cards;
+            this.caught = caught;
+            L.d(name() + " responded in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+            insertResponses();
+        }
+
+        @NonNull private String name() {
+            return client.getClass().getSimpleName();
+        }
+
+        boolean isSnapshotCard(@NonNull Card card) {
+            for (Card snapshotCard : snapshotCards) {
+                if (snapshotCard == card) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Swaps card in for the first snapshot card of the same type, or appends it if there is
+        // none, so that the feed does not move as the response replaces the snapshot.
+        void replaceSnapshotCard(@NonNull Card card) {
+            for (Card snapshotCard : snapshotCards) {
+                int pos = indexOfInstance(snapshotCard);
+                if (snapshotCard.type() == card.type() && pos >= 0) {
+                    snapshotCards.remove(snapshotCard);
+                    swapCard(card, pos);
+                    return;
+                }
+            }
+            appendCard(card);
+        }
+
+        void removeSnapshotCards() {
+            for (Card snapshotCard : snapshotCards) {
+                int pos = indexOfInstance(snapshotCard);
+                if (pos >= 0) {
+                    removeCard(snapshotCard, pos);
+                }
+            }
+            snapshotCards.clear();
+        }
+
+        private class SnapshotCallback implements FeedClient.Callback {
+            @Override public void success(@NonNull List<? extends Card> cards) {
+                // The response or a reset came first.
+                if (responded() || !pendingClients.contains(PendingClient.this)) {
+                    return;
+                }
+                L.d(name() + " snapshot read in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+                int pos = appendPosition();
+                for (Card card : cards) {
+                    if (!isCardHidden(card)) {
+                        insertCard(card, pos++);
+                        snapshotCards.add(card);
+                    }
+                }
+            }
+
+            @Override public void error(@NonNull Throwable caught) {
+                L.d(name() + " has no snapshot: " + caught.getMessage());
             }
         }
     }
 
+    // Inserts card after the cards of the responses and before the snapshot cards of the clients
+    // yet to respond and the progress card.
     private void appendCard(@NonNull Card card) {
-        int progressPos = cards.indexOf(progressCard);
-        insertCard(card, progressPos >= 0 ? progressPos : cards.size());
+        insertCard(card, appendPosition());
+    }
+
+    private int appendPosition() {
+        for (int i = 0; i < cards.size(); i++) {
+            Card card = cards.get(i);
+            if (card == progressCard) {
+                return i;
+            }
+            for (PendingClient client : pendingClients) {
+                if (client.isSnapshotCard(card)) {
+                    return i;
+                }
+            }
+        }
+        return cards.size();
+    }
+
+    private int indexOfInstance(@NonNull Card card) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (cards.get(i) == card) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     private void insertCard(@NonNull Card card, int position) {
@@ -189,8 +377,7 @@ public abstract class FeedCoordinatorBase {
     }
 
     private void swapCard(@NonNull Card card, int position) {
-        cards.remove(cards.get(position));
-        cards.add(position, card);
+        cards.set(position, card);
         if (updateListener != null) {
             updateListener.swap(card, position);
         }
@@ -34,7 +34,7 @@ import org.wikipedia.feed.view.FeedView;
 import org.wikipedia.feed.view.HorizontalScrollingListCardItemView;
 import org.wikipedia.history.HistoryEntry;
 import org.wikipedia.offline.LocalCompilationsActivity;
-import org.wikipedia.settings.Prefs;
+import org.wikipedia.page.tabs.TabStore;
 import org.wikipedia.settings.SettingsActivity;
 import org.wikipedia.util.FeedbackUtil;
 import org.wikipedia.util.ResourceUtil;
@@ -91,6 +91,13 @@ public class FeedFragment extends Fragment implements BackPressedHandler {
         coordinator = new FeedCoordinator(app);
         coordinator.more(app.getWikiSite());
         funnel = new FeedFunnel(app);
+        TabStore.instance().preload(new Runnable() {
+            @Override public void run() {
+                if (isAdded()) {
+                    getActivity().supportInvalidateOptionsMenu();
+                }
+            }
+        });
     }
 
     @Nullable @Override public View onCreateView(LayoutInflater inflater,
@@ -225,7 +232,7 @@ public class FeedFragment extends Fragment implements BackPressedHandler {
             searchItem.setVisible(searchIconVisible);
         }
         if (tabsItem != null) {
-            int tabCount = Prefs.getTabCount();
+            int tabCount = TabStore.instance().count();
             tabsItem.setIcon(ResourceUtil.getTabListIcon(tabCount));
             tabsItem.setVisible(tabCount > 0);
         }
@@ -1,17 +1,25 @@
 package org.wikipedia.feed.aggregated;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
 import org.wikipedia.feed.image.FeaturedImage;
 import org.wikipedia.feed.model.FeedPageSummary;
 import org.wikipedia.feed.mostread.MostReadArticles;
 import org.wikipedia.feed.news.NewsItem;
+import org.wikipedia.json.StreamingTypeAdapter;
 
+import java.io.IOException;
 import java.util.List;
 
-class AggregatedFeedContent {
+public class AggregatedFeedContent {
     @SuppressWarnings("unused") @Nullable private FeedPageSummary tfa;
     @SuppressWarnings("unused") @Nullable private List<NewsItem> news;
     @SuppressWarnings("unused") @SerializedName("mostread") @Nullable private MostReadArticles mostRead;
@@ -36,4 +44,52 @@ class AggregatedFeedContent {
     FeaturedImage potd() {
         return image;
     }
+
+    @NonNull public static TypeAdapterFactory typeAdapterFactory() {
+        return StreamingTypeAdapter.factory(AggregatedFeedContent.class, new StreamingTypeAdapter.Creator<AggregatedFeedContent>() {
+            @NonNull @Override public StreamingTypeAdapter<AggregatedFeedContent> create(@NonNull Gson gson,
+                                                                                         @NonNull TypeAdapter<AggregatedFeedContent> delegate) {
+                return new Adapter(gson, delegate);
+            }
+        });
+    }
+
+    private static final class Adapter extends StreamingTypeAdapter<AggregatedFeedContent> {
+        @NonNull private final TypeAdapter<FeedPageSummary> tfaAdapter;
+        @NonNull private final TypeAdapter<List<NewsItem>> newsAdapter;
+        @NonNull private final TypeAdapter<MostReadArticles> mostReadAdapter;
+        @NonNull private final TypeAdapter<FeaturedImage> imageAdapter;
+
+        Adapter(@NonNull Gson gson, @NonNull TypeAdapter<AggregatedFeedContent> delegate) {
+            super(delegate);
+            tfaAdapter = gson.getAdapter(FeedPageSummary.class);
+            newsAdapter = gson.getAdapter(new TypeToken<List<NewsItem>>() { });
+            mostReadAdapter = gson.getAdapter(MostReadArticles.class);
+            imageAdapter = gson.getAdapter(FeaturedImage.class);
+        }
+
+        @NonNull @Override protected AggregatedFeedContent newInstance() {
+            return new AggregatedFeedContent();
+        }
+
+        @Override protected boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                              @NonNull AggregatedFeedContent value) throws IOException {
+            switch (name) {
+                case "tfa":
+                    value.tfa = tfaAdapter.read(in);
+                    return true;
+                case "news":
+                    value.news = newsAdapter.read(in);
+                    return true;
+                case "mostread":
+                    value.mostRead = mostReadAdapter.read(in);
+                    return true;
+                case "image":
+                    value.image = imageAdapter.read(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
 }
@@ -4,9 +4,16 @@ import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.CallbackTask;
+import org.wikipedia.concurrency.CancellationToken;
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
+import org.wikipedia.concurrency.PriorityExecutor;
 import org.wikipedia.dataclient.WikiSite;
 import org.wikipedia.dataclient.retrofit.RetrofitFactory;
-import org.wikipedia.feed.dataclient.FeedClient;
+import org.wikipedia.feed.dataclient.FeedSnapshotStore;
+import org.wikipedia.feed.dataclient.SnapshotFeedClient;
 import org.wikipedia.feed.featured.FeaturedArticleCard;
 import org.wikipedia.feed.image.FeaturedImageCard;
 import org.wikipedia.feed.model.Card;
@@ -17,6 +24,9 @@ import org.wikipedia.settings.Prefs;
 import org.wikipedia.util.DateUtil;
 import org.wikipedia.util.log.L;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -30,24 +40,80 @@ import retrofit2.http.Path;
 
 import static org.wikipedia.Constants.ACCEPT_HEADER_PREFIX;
 
-public class AggregatedFeedContentClient implements FeedClient {
+public class AggregatedFeedContentClient implements SnapshotFeedClient {
+    // The content of today is snapshot and shown at the next cold start, or that of yesterday if
+    // the app was last used then.
+    private static final int MAX_SNAPSHOT_AGE = 1;
+    @NonNull private static final FeedSnapshotStore SNAPSHOTS = new FeedSnapshotStore(
+            new File(WikipediaApp.getInstance().getCacheDir(), "feed"), "aggregated");
 
     @Nullable private Call<AggregatedFeedContent> call;
+    @Nullable private CancellationToken snapshotToken;
 
     @Override
     public void request(@NonNull Context context, @NonNull WikiSite wiki, int age, @NonNull Callback cb) {
-        cancel();
+        cancelCall();
         UtcDate date = DateUtil.getUtcRequestDateFor(age);
         String endpoint = String.format(Locale.ROOT, Prefs.getRestbaseUriFormat(), wiki.scheme(),
                 wiki.authority());
         Retrofit retrofit = RetrofitFactory.newInstance(endpoint, wiki);
         AggregatedFeedContentClient.Service service = retrofit.create(Service.class);
         call = service.get(date.year(), date.month(), date.date());
-        call.enqueue(new CallbackAdapter(cb, wiki, age));
+        call.enqueue(new CallbackAdapter(cb, wiki, age, date));
+    }
+
+    @Override
+    public void requestSnapshot(@NonNull Context context, @NonNull final WikiSite wiki, final int age,
+                                @NonNull final Callback cb) {
+        cancelSnapshot();
+        snapshotToken = CallbackTask.execute(Lane.IO, Priority.HIGH, new CallbackTask.Task<List<Card>>() {
+            @Override public List<Card> execute() throws Throwable {
+                for (int snapshotAge = age; snapshotAge <= age + MAX_SNAPSHOT_AGE; snapshotAge++) {
+                    AggregatedFeedContent content = SNAPSHOTS.read(wiki,
+                            DateUtil.getUtcRequestDateFor(snapshotAge), AggregatedFeedContent.class);
+                    if (content != null) {
+                        return toCards(content, snapshotAge, wiki);
+                    }
+                }
+                throw new FileNotFoundException("No snapshot for " + wiki.authority());
+            }
+        }, new CallbackTask.Callback<List<Card>>() {
+            @Override public void success(List<Card> cards) {
+                cb.success(cards);
+            }
+
+            @Override public void failure(Throwable caught) {
+                cb.error(caught);
+            }
+        });
     }
 
     @Override
     public void cancel() {
+        cancelCall();
+        cancelSnapshot();
+    }
+
+    @NonNull private static List<Card> toCards(@NonNull AggregatedFeedContent content, int age,
+                                               @NonNull WikiSite wiki) {
+        List<Card> cards = new ArrayList<>();
+        // todo: remove age check when news endpoint provides dated content, T139481.
+        if (age == 0 && content.news() != null) {
+            cards.add(new NewsListCard(content.news(), age, wiki));
+        }
+        if (content.tfa() != null) {
+            cards.add(new FeaturedArticleCard(content.tfa(), age, wiki));
+        }
+        if (content.mostRead() != null) {
+            cards.add(new MostReadListCard(content.mostRead(), wiki));
+        }
+        if (content.potd() != null) {
+            cards.add(new FeaturedImageCard(content.potd(), age, wiki));
+        }
+        return cards;
+    }
+
+    private void cancelCall() {
         if (call == null) {
             return;
         }
@@ -55,6 +121,14 @@ public class AggregatedFeedContentClient implements FeedClient {
         call = null;
     }
 
+    private void cancelSnapshot() {
+        if (snapshotToken == null) {
+            return;
+        }
+        snapshotToken.cancel();
+        snapshotToken = null;
+    }
+
     private interface Service {
 
         /**
@@ -76,31 +150,30 @@ public class AggregatedFeedContentClient implements FeedClient {
         @NonNull private final Callback cb;
         @NonNull private final WikiSite wiki;
         private final int age;
+        @NonNull private final UtcDate date;
 
-        CallbackAdapter(@NonNull Callback cb, @NonNull WikiSite wiki, int age) {
+        CallbackAdapter(@NonNull Callback cb, @NonNull WikiSite wiki, int age, @NonNull UtcDate date) {
             this.cb = cb;
             this.wiki = wiki;
             this.age = age;
+            this.date = date;
         }
 
         @Override public void onResponse(Call<AggregatedFeedContent> call,
                                          Response<AggregatedFeedContent> response) {
-            List<Card> cards = new ArrayList<>();
-            AggregatedFeedContent content = response.body();
-            // todo: remove age check when news endpoint provides dated content, T139481.
-            if (age == 0 && content.news() != null) {
-                cards.add(new NewsListCard(content.news(), age, wiki));
-            }
-            if (content.tfa() != null) {
-                cards.add(new FeaturedArticleCard(content.tfa(), age, wiki));
-            }
-            if (content.mostRead() != null) {
-                cards.add(new MostReadListCard(content.mostRead(), wiki));
-            }
-            if (content.potd() != null) {
-                cards.add(new FeaturedImageCard(content.potd(), age, wiki));
+            final AggregatedFeedContent content = response.body();
+            if (age == 0 && content != null) {
+                PriorityExecutor.execute(Lane.IO, Priority.LOW, new Runnable() {
+                    @Override public void run() {
+                        try {
+                            SNAPSHOTS.write(wiki, date, content);
+                        } catch (IOException e) {
+                            L.w(e);
+                        }
+                    }
+                });
             }
-            cb.success(cards);
+            cb.success(toCards(content, age, wiki));
         }
 
         @Override public void onFailure(Call<AggregatedFeedContent> call, Throwable caught) {
@@ -10,6 +10,7 @@ import android.support.annotation.Nullable;
 import android.text.format.DateUtils;
 
 import org.wikipedia.R;
+import org.wikipedia.concurrency.Lane;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.database.contract.PageHistoryContract;
 import org.wikipedia.database.contract.PageImageHistoryContract;
@@ -29,6 +30,10 @@ public class LastPageReadTask extends SaneAsyncTask<HistoryEntry> {
         earlierThanTime = new Date().getTime() - (minDaysOld * DateUtils.DAY_IN_MILLIS);
     }
 
+    @NonNull @Override protected Lane lane() {
+        return Lane.DB;
+    }
+
     @Nullable @Override public HistoryEntry performTask() throws Throwable {
         Cursor cursor = queryLastPage(earlierThanTime);
         if (cursor == null) {
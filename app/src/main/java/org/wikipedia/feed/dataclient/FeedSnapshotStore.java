@@ -0,0 +1,109 @@
+package org.wikipedia.feed.dataclient;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.gson.JsonParseException;
+
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.feed.model.UtcDate;
+import org.wikipedia.json.GsonUtil;
+import org.wikipedia.util.log.L;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Keeps the latest response of a feed client for each wiki on disk, as JSON, so that a cold start
+ * can show the feed from a single file read while the client is requested. Each snapshot is named
+ * by the UTC day of the feed it is for, and writing one deletes those of earlier days.
+ */
+public class FeedSnapshotStore {
+    private static final String UTF_8 = "UTF-8";
+    private static final String EXTENSION = ".json";
+
+    @NonNull private final File dir;
+    @NonNull private final String name;
+
+    /** @param name The name of the client, which prefixes the names of its snapshots in dir. */
+    public FeedSnapshotStore(@NonNull File dir, @NonNull String name) {
+        this.dir = dir;
+        this.name = name;
+    }
+
+    /**
+     * @return The snapshot for wiki and date, or null if there is none or it cannot be read, such
+     *         as when its model has changed since it was written.
+     */
+    @Nullable public synchronized <T> T read(@NonNull WikiSite wiki, @NonNull UtcDate date,
+                                             @NonNull Class<T> clazz) {
+        File file = file(wiki, date);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+            try {
+                return GsonUtil.getDefaultGson().fromJson(reader, clazz);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | JsonParseException e) {
+            L.w("Discarding unreadable snapshot " + file.getName(), e);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return null;
+        }
+    }
+
+    /** Replaces the snapshot for wiki and date and deletes the snapshots of wiki of other dates. */
+    public synchronized void write(@NonNull WikiSite wiki, @NonNull UtcDate date,
+                                   @NonNull Object snapshot) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+
+        // Written aside and renamed so that a snapshot is never read half written.
+        File file = file(wiki, date);
+        File tmp = new File(dir, file.getName() + ".tmp");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), UTF_8));
+        try {
+            GsonUtil.getDefaultGson().toJson(snapshot, writer);
+        } finally {
+            writer.close();
+        }
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        String prefix = prefix(wiki);
+        for (File other : files) {
+            if (other.getName().startsWith(prefix) && !other.equals(file)) {
+                //noinspection ResultOfMethodCallIgnored
+                other.delete();
+            }
+        }
+    }
+
+    @NonNull private File file(@NonNull WikiSite wiki, @NonNull UtcDate date) {
+        return new File(dir, prefix(wiki) + date.year() + date.month() + date.date() + EXTENSION);
+    }
+
+    @NonNull private String prefix(@NonNull WikiSite wiki) {
+        return name + "-" + wiki.authority() + "-";
+    }
+}
@@ -0,0 +1,20 @@
+package org.wikipedia.feed.dataclient;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import org.wikipedia.dataclient.WikiSite;
+
+/**
+ * A client whose cards can be shown from a snapshot of an earlier response while it is requested.
+ * The cards of a snapshot are replaced by those of the response once it arrives.
+ */
+public interface SnapshotFeedClient extends FeedClient {
+    /**
+     * Calls back on the main thread with the cards of the latest snapshot for wiki, which may be
+     * of an earlier day than age, or with an error if there is none. Cancelled by
+     * {@link #cancel}.
+     */
+    void requestSnapshot(@NonNull Context context, @NonNull WikiSite wiki, int age,
+                         @NonNull Callback cb);
+}
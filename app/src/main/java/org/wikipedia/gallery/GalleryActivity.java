@@ -34,6 +34,8 @@ import org.wikipedia.WikipediaApp;
 import org.wikipedia.activity.ThemedActionBarActivity;
 import org.wikipedia.analytics.GalleryFunnel;
 import org.wikipedia.concurrency.CallbackTask;
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
 import org.wikipedia.dataclient.WikiSite;
 import org.wikipedia.feed.image.FeaturedImage;
 import org.wikipedia.history.HistoryEntry;
@@ -489,7 +491,7 @@ public class GalleryActivity extends ThemedActionBarActivity implements LinkPrev
         }
         updateProgressBar(true, true, 0);
 
-        CallbackTask.execute(new CallbackTask.Task<Map<String, ImageInfo>>() {
+        CallbackTask.execute(Lane.IO, Priority.HIGH, new CallbackTask.Task<Map<String, ImageInfo>>() {
             @Override public Map<String, ImageInfo> execute() throws Throwable {
                 return client.request(pageTitle.getWikiSite(), pageTitle, false);
             }
@@ -3,6 +3,7 @@ package org.wikipedia.history;
 import android.content.Context;
 
 import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.Lane;
 import org.wikipedia.concurrency.SaneAsyncTask;
 
 /** AsyncTask to clear out article history entries. */
@@ -13,6 +14,10 @@ public class DeleteAllHistoryTask extends SaneAsyncTask<Void> {
         app = (WikipediaApp) context.getApplicationContext();
     }
 
+    @Override protected Lane lane() {
+        return Lane.DB;
+    }
+
     @Override
     public Void performTask() throws Throwable {
         app.getDatabaseClient(HistoryEntry.class).deleteAll();
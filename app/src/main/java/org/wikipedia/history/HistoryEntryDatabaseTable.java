@@ -6,6 +6,7 @@ import android.database.sqlite.SQLiteDatabase;
 import android.support.annotation.NonNull;
 
 import org.wikipedia.database.DatabaseTable;
+import org.wikipedia.database.FtsTable;
 import org.wikipedia.database.column.Column;
 import org.wikipedia.database.contract.PageHistoryContract;
 import org.wikipedia.database.contract.PageHistoryContract.Col;
@@ -20,6 +21,10 @@ public class HistoryEntryDatabaseTable extends DatabaseTable<HistoryEntry> {
     private static final int DB_VER_NORMALIZED_TITLES = 8;
     private static final int DB_VER_LANG_ADDED = 10;
     private static final int DB_VER_TIME_SPENT_ADDED = 15;
+    private static final int DB_VER_FTS_ADDED = 20;
+
+    private static final FtsTable FTS_TABLE = new FtsTable(PageHistoryContract.TABLE_FTS,
+            PageHistoryContract.TABLE, DB_VER_FTS_ADDED, Col.TITLE);
 
     public HistoryEntryDatabaseTable() {
         super(PageHistoryContract.TABLE, PageHistoryContract.Page.URI);
@@ -85,6 +90,11 @@ public class HistoryEntryDatabaseTable extends DatabaseTable<HistoryEntry> {
         return INITIAL_DB_VERSION;
     }
 
+    @Override
+    public FtsTable getFtsTable() {
+        return FTS_TABLE;
+    }
+
     @Override
     protected void upgradeSchema(@NonNull SQLiteDatabase db, int toVersion) {
         switch (toVersion) {
@@ -30,6 +30,7 @@ import org.wikipedia.R;
 import org.wikipedia.WikipediaApp;
 import org.wikipedia.activity.FragmentUtil;
 import org.wikipedia.database.DatabaseClient;
+import org.wikipedia.database.FtsTable;
 import org.wikipedia.database.contract.PageHistoryContract;
 import org.wikipedia.page.PageTitle;
 import org.wikipedia.util.FeedbackUtil;
@@ -292,18 +293,17 @@ public class HistoryFragment extends Fragment implements BackPressedHandler {
     private class LoaderCallback implements LoaderManager.LoaderCallbacks<Cursor> {
         @Override
         public Loader<Cursor> onCreateLoader(int id, Bundle args) {
-            String titleCol = PageHistoryContract.PageWithImage.TITLE.qualifiedName();
+            Uri uri = PageHistoryContract.PageWithImage.URI;
             String selection = null;
             String[] selectionArgs = null;
-            String searchStr = currentSearchQuery;
-            if (!TextUtils.isEmpty(searchStr)) {
-                searchStr = searchStr.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
-                selection = "UPPER(" + titleCol + ") LIKE UPPER(?) ESCAPE '\\'";
-                selectionArgs = new String[]{"%" + searchStr + "%"};
+            if (!TextUtils.isEmpty(currentSearchQuery)) {
+                uri = PageHistoryContract.PageWithImageSearch.URI;
+                selection = PageHistoryContract.PageWithImageSearch.SELECTION;
+                selectionArgs = new String[]{FtsTable.matchQuery(currentSearchQuery)};
             }
 
-            Uri uri = PageHistoryContract.PageWithImage.URI;
             final String[] projection = null;
+            // Most recent first rather than by rank so that entries stay grouped by date.
             String order = PageHistoryContract.PageWithImage.ORDER_MRU;
             return new CursorLoader(getContext().getApplicationContext(),
                     uri, projection, selection, selectionArgs, order);
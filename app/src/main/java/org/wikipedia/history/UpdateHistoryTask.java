@@ -4,6 +4,7 @@ import android.database.Cursor;
 import android.support.annotation.NonNull;
 
 import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.Lane;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.database.DatabaseClient;
 import org.wikipedia.database.contract.PageHistoryContract;
@@ -21,6 +22,10 @@ public class UpdateHistoryTask extends SaneAsyncTask<Void> {
         this.app = app;
     }
 
+    @NonNull @Override protected Lane lane() {
+        return Lane.DB;
+    }
+
     @Override
     public Void performTask() throws Throwable {
         DatabaseClient<HistoryEntry> client = app.getDatabaseClient(HistoryEntry.class);
@@ -11,6 +11,8 @@ import java.util.Map;
 
 public class ImageElement {
     private static final PixelDensityDescriptor DESCRIPTOR_DEFAULT = null;
+    // The density implied by src when no descriptor is given.
+    private static final float DENSITY_DEFAULT = 1;
 
     @NonNull private final Map<PixelDensityDescriptor, String> srcs;
     // todo: add support for width descriptors which require parsing sizes
@@ -34,4 +36,26 @@ public class ImageElement {
     @Nullable public String src(@Nullable PixelDensityDescriptor descriptor) {
         return srcs.get(descriptor);
     }
+
+    /** @return The source best suited to a display of the given density: the lowest density
+     *          source at or above it, or the highest density source below it if there is none. */
+    @Nullable public String bestSrc(float density) {
+        String best = null;
+        float bestDensity = 0;
+        for (Map.Entry<PixelDensityDescriptor, String> entry : srcs.entrySet()) {
+            float candidate = entry.getKey() == null ? DENSITY_DEFAULT : entry.getKey().density();
+            if (best == null || isBetter(candidate, bestDensity, density)) {
+                best = entry.getValue();
+                bestDensity = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isBetter(float candidate, float best, float target) {
+        if (candidate >= target) {
+            return best < target || candidate < best;
+        }
+        return best < target && candidate > best;
+    }
 }
@@ -24,8 +24,11 @@ public class ImageTagParser {
 
     @NonNull public ImageElement parse(@NonNull PixelDensityDescriptorParser descriptorParser,
                                        @NonNull Element el) {
-        String src = el.attr(ATTR_SRC);
-        String srcSet = el.attr(ATTR_SRC_SET);
+        return parse(descriptorParser, el.attr(ATTR_SRC), el.attr(ATTR_SRC_SET));
+    }
+
+    @NonNull public ImageElement parse(@NonNull PixelDensityDescriptorParser descriptorParser,
+                                       @Nullable String src, @Nullable String srcSet) {
         return new ImageElement(src, parseSrcSet(descriptorParser, srcSet));
     }
 
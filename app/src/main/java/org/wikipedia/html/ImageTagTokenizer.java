@@ -0,0 +1,160 @@
+package org.wikipedia.html;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.jsoup.parser.Parser;
+
+/**
+ * Streaming scanner for the img tags of an HTML fragment. Unlike a DOM parse, nothing but the src
+ * and srcset attribute values of each img tag is allocated so image URLs can be extracted from long
+ * pages a section at a time. Tags within comments and raw text elements, such as script, are
+ * ignored as they are by Jsoup.
+ */
+public class ImageTagTokenizer {
+    public interface Callback {
+        void onImageTag(@Nullable String src, @Nullable String srcSet);
+    }
+
+    @NonNull private static final String TAG_NAME = "img";
+    @NonNull private static final String ATTR_SRC = "src";
+    @NonNull private static final String ATTR_SRC_SET = "srcset";
+    @NonNull private static final String COMMENT_OPEN = "<!--";
+    @NonNull private static final String COMMENT_CLOSE = "-->";
+    @NonNull private static final String END_TAG_OPEN = "</";
+    @NonNull private static final String[] RAW_TEXT_TAG_NAMES = {"script", "style", "textarea", "title"};
+
+    public void tokenize(@NonNull String html, @NonNull Callback callback) {
+        int pos = html.indexOf('<');
+        while (pos >= 0) {
+            pos = html.indexOf('<', tag(html, pos, callback));
+        }
+    }
+
+    /** @return The position following the markup at start. */
+    private int tag(@NonNull String html, int start, @NonNull Callback callback) {
+        if (html.startsWith(COMMENT_OPEN, start)) {
+            int end = html.indexOf(COMMENT_CLOSE, start + COMMENT_OPEN.length());
+            return end < 0 ? html.length() : end + COMMENT_CLOSE.length();
+        }
+
+        int pos = start + 1;
+        if (isTagName(html, pos, TAG_NAME)) {
+            return attributes(html, pos + TAG_NAME.length(), callback);
+        }
+
+        for (String name : RAW_TEXT_TAG_NAMES) {
+            if (isTagName(html, pos, name)) {
+                return skipRawText(html, pos + name.length(), name);
+            }
+        }
+
+        return pos;
+    }
+
+    private int attributes(@NonNull String html, int start, @NonNull Callback callback) {
+        String src = null;
+        String srcSet = null;
+        int len = html.length();
+        int pos = start;
+        while (pos < len) {
+            char c = html.charAt(pos);
+            if (c == '>') {
+                callback.onImageTag(src, srcSet);
+                return pos + 1;
+            }
+            if (isWhitespace(c) || c == '/') {
+                pos++;
+                continue;
+            }
+
+            int nameStart = pos;
+            while (pos < len && !isAttributeNameEnd(html.charAt(pos))) {
+                pos++;
+            }
+            int nameEnd = pos;
+
+            int valueStart = pos;
+            int valueEnd = pos;
+            pos = skipWhitespace(html, pos);
+            if (pos < len && html.charAt(pos) == '=') {
+                pos = skipWhitespace(html, pos + 1);
+                char quote = pos < len ? html.charAt(pos) : 0;
+                if (quote == '"' || quote == '\'') {
+                    valueStart = pos + 1;
+                    valueEnd = html.indexOf(quote, valueStart);
+                    if (valueEnd < 0) {
+                        break;
+                    }
+                    pos = valueEnd + 1;
+                } else {
+                    valueStart = pos;
+                    while (pos < len && !isWhitespace(html.charAt(pos)) && html.charAt(pos) != '>') {
+                        pos++;
+                    }
+                    valueEnd = pos;
+                }
+            }
+
+            // As in the HTML spec, the first of any duplicate attributes wins.
+            if (src == null && isAttributeName(html, nameStart, nameEnd, ATTR_SRC)) {
+                src = value(html, valueStart, valueEnd);
+            } else if (srcSet == null && isAttributeName(html, nameStart, nameEnd, ATTR_SRC_SET)) {
+                srcSet = value(html, valueStart, valueEnd);
+            }
+        }
+
+        // The tag is unterminated and discarded.
+        return len;
+    }
+
+    private int skipRawText(@NonNull String html, int start, @NonNull String name) {
+        int pos = html.indexOf('>', start);
+        while (pos >= 0) {
+            pos = html.indexOf(END_TAG_OPEN, pos);
+            if (pos < 0) {
+                break;
+            }
+            pos += END_TAG_OPEN.length();
+            if (isTagName(html, pos, name)) {
+                return pos + name.length();
+            }
+        }
+        return html.length();
+    }
+
+    @NonNull private String value(@NonNull String html, int start, int end) {
+        String value = html.substring(start, end);
+        return value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, true);
+    }
+
+    private boolean isTagName(@NonNull String html, int pos, @NonNull String name) {
+        int end = pos + name.length();
+        return html.regionMatches(true, pos, name, 0, name.length())
+                && (end == html.length() || isTagNameEnd(html.charAt(end)));
+    }
+
+    private boolean isAttributeName(@NonNull String html, int start, int end, @NonNull String name) {
+        return end - start == name.length() && html.regionMatches(true, start, name, 0, name.length());
+    }
+
+    private int skipWhitespace(@NonNull String html, int start) {
+        int pos = start;
+        while (pos < html.length() && isWhitespace(html.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private boolean isTagNameEnd(char c) {
+        return isWhitespace(c) || c == '/' || c == '>';
+    }
+
+    private boolean isAttributeNameEnd(char c) {
+        return isTagNameEnd(c) || c == '=';
+    }
+
+    private boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+    }
+}
@@ -7,7 +7,13 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.dataclient.mwapi.MwQueryResponse;
+import org.wikipedia.dataclient.mwapi.page.MwMobileViewPageLead;
+import org.wikipedia.dataclient.restbase.page.RbPageLead;
+import org.wikipedia.dataclient.restbase.page.RbPageRemaining;
+import org.wikipedia.feed.aggregated.AggregatedFeedContent;
 import org.wikipedia.page.Namespace;
+import org.wikipedia.page.Section;
 import org.wikipedia.readinglist.sync.RemoteReadingListPageTypeAdapter;
 import org.wikipedia.zero.ZeroConfig;
 
@@ -23,6 +29,14 @@ public final class GsonUtil {
             .registerTypeAdapter(WikiSite.class, new WikiSiteTypeAdapter().nullSafe())
             .registerTypeAdapter(ZeroConfig.class, new ZeroConfigTypeAdapter().nullSafe())
             .registerTypeAdapter(RemoteReadingListPage.class, new RemoteReadingListPageTypeAdapter().nullSafe())
+            // The largest and most frequently read responses are streamed rather than reflected.
+            .registerTypeAdapterFactory(RbPageLead.typeAdapterFactory())
+            .registerTypeAdapterFactory(RbPageRemaining.typeAdapterFactory())
+            .registerTypeAdapterFactory(MwMobileViewPageLead.typeAdapterFactory())
+            .registerTypeAdapterFactory(MwMobileViewPageLead.mobileviewTypeAdapterFactory())
+            .registerTypeAdapterFactory(MwQueryResponse.typeAdapterFactory())
+            .registerTypeAdapterFactory(AggregatedFeedContent.typeAdapterFactory())
+            .registerTypeAdapterFactory(Section.typeAdapterFactory())
             .registerTypeAdapterFactory(new RequiredFieldsCheckOnReadTypeAdapterFactory());
 
     private static final Gson DEFAULT_GSON = DEFAULT_GSON_BUILDER.create();
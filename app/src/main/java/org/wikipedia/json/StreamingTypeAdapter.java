@@ -0,0 +1,139 @@
+package org.wikipedia.json;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A TypeAdapter that reads a model field by field from the stream, for large and frequently read
+ * responses. Unlike the reflective adapter, no field is looked up or set reflectively. Unknown
+ * names are skipped and missing names leave the field as initialized by the model's constructor,
+ * as with the reflective adapter. Writing is delegated to the reflective adapter.
+ *
+ * Subclasses are nested in their model to set its private fields and are registered in
+ * {@link GsonUtil} with {@link #factory}.
+ */
+public abstract class StreamingTypeAdapter<T> extends TypeAdapter<T> {
+    public interface Creator<T> {
+        @NonNull StreamingTypeAdapter<T> create(@NonNull Gson gson, @NonNull TypeAdapter<T> delegate);
+    }
+
+    @NonNull private final TypeAdapter<T> delegate;
+
+    /** @return A factory of the adapter for exactly type. Subclasses of type are read reflectively. */
+    @NonNull public static <T> TypeAdapterFactory factory(@NonNull final Class<T> type,
+                                                          @NonNull final Creator<T> creator) {
+        return new TypeAdapterFactory() {
+            @SuppressWarnings("unchecked") @Nullable @Override
+            public <U> TypeAdapter<U> create(@NonNull Gson gson, @NonNull TypeToken<U> typeToken) {
+                if (typeToken.getRawType() != type) {
+                    return null;
+                }
+                TypeAdapter<T> delegate = (TypeAdapter<T>) gson.getDelegateAdapter(this, typeToken);
+                return (TypeAdapter<U>) creator.create(gson, delegate);
+            }
+        };
+    }
+
+    /** @param delegate The reflective adapter, to which writing is delegated. */
+    protected StreamingTypeAdapter(@NonNull TypeAdapter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override public void write(JsonWriter out, T value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Nullable @Override public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        T value = newInstance();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!readField(in, in.nextName(), value)) {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return check(value);
+    }
+
+    @NonNull protected abstract T newInstance();
+
+    /**
+     * Reads the value of the named field into value.
+     *
+     * @return False if name is not a field of the model, in which case the value is skipped.
+     */
+    protected abstract boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                         @NonNull T value) throws IOException;
+
+    /**
+     * Checks the fields of value once read, in place of
+     * {@link RequiredFieldsCheckOnReadTypeAdapterFactory} which does not see streamed models.
+     *
+     * @return value, or null if a required field is missing.
+     */
+    @Nullable protected T check(@NonNull T value) {
+        return value;
+    }
+
+    // The helpers below read primitives as Gson's built-in adapters do, in which a null leaves a
+    // primitive field unchanged and strings and numbers are converted.
+
+    @Nullable protected static String nextString(@NonNull JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return token == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString();
+    }
+
+    protected static int nextInt(@NonNull JsonReader in, int defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    protected static long nextLong(@NonNull JsonReader in, long defaultValue) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    protected static boolean nextBoolean(@NonNull JsonReader in, boolean defaultValue)
+            throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return defaultValue;
+        }
+        return token == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+    }
+}
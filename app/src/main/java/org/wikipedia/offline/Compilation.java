@@ -15,7 +15,9 @@ import org.wikipedia.util.log.L;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLDecoder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -25,6 +27,8 @@ import static org.apache.commons.lang3.StringUtils.defaultString;
 public class Compilation {
     public static final String MIME_TYPE = "application/zim";
     private static final int COMPRESSION_DICT_SIZE = 2 * 1024 * 1024;
+    // Each reader allocates its own LZMA dictionary while decompressing.
+    private static final int MAX_READERS = 3;
 
     @Nullable private String name;
     @Nullable private Uri uri;
@@ -40,7 +44,10 @@ public class Compilation {
 
     @Nullable private String path;
     @Nullable private transient ZimFile file;
-    @Nullable private transient ZimReader reader;
+    @Nullable private transient ZimReaderPool<ZimReader> readers;
+    @Nullable private transient volatile TitleIndex titleIndex;
+    private transient long openedSize;
+    private transient long openedLastModified;
 
     public enum MediaContent {
         ALL, IMAGES, NONE
@@ -49,15 +56,19 @@ public class Compilation {
     Compilation(@NonNull File file) throws IOException {
         path = file.getAbsolutePath();
         this.file = new ZimFile(path);
-        reader = new ZimReader(this.file);
+        openedSize = this.file.length();
+        openedLastModified = this.file.lastModified();
+        ZimReader reader = new ZimReader(this.file);
         reader.setLzmaDictSize(COMPRESSION_DICT_SIZE);
+        readers = new ZimReaderPool<>(new ReaderFactory(path), MAX_READERS, reader);
     }
 
     @VisibleForTesting
     Compilation(@NonNull File file, LruCache titleCache, LruCache urlCache) throws Exception {
         path = file.getAbsolutePath();
         this.file = new ZimFile(path);
-        reader = new ZimReader(this.file, titleCache, urlCache);
+        ZimReader reader = new ZimReader(this.file, titleCache, urlCache);
+        readers = new ZimReaderPool<>(new ReaderFactory(path), MAX_READERS, reader);
     }
 
     // TODO: Constructor for development/testing only, remove when no longer needed
@@ -92,6 +103,12 @@ public class Compilation {
         timestamp = other.timestamp();
     }
 
+    /** @return True if the compilation was opened from other and other has not changed since. */
+    boolean isOpenedFrom(@NonNull File other) {
+        return readers != null && path().equals(other.getAbsolutePath())
+                && openedSize == other.length() && openedLastModified == other.lastModified();
+    }
+
     public boolean pathNameMatchesUri(@Nullable Uri otherUri) {
         if (file == null || otherUri == null) {
             return false;
@@ -107,9 +124,10 @@ public class Compilation {
     }
 
     public void close() {
+        OfflineContentCache.instance().removeAll(cacheKey(""));
         try {
-            if (reader != null) {
-                reader.close();
+            if (readers != null) {
+                readers.close();
             }
         } catch (IOException e) {
             // close silently
@@ -146,8 +164,12 @@ public class Compilation {
     @NonNull
     public String name() {
         try {
-            if (reader != null && TextUtils.isEmpty(name)) {
-                return reader.getZimTitle();
+            if (readers != null && TextUtils.isEmpty(name)) {
+                return readers.read(new ZimReaderPool.Read<ZimReader, String>() {
+                    @Override public String read(@NonNull ZimReader reader) throws IOException {
+                        return reader.getZimTitle();
+                    }
+                });
             }
         } catch (IOException e) {
             L.e(e);
@@ -158,8 +180,12 @@ public class Compilation {
     @NonNull
     public String description() {
         try {
-            if (reader != null && TextUtils.isEmpty(description)) {
-                return reader.getZimDescription();
+            if (readers != null && TextUtils.isEmpty(description)) {
+                return readers.read(new ZimReaderPool.Read<ZimReader, String>() {
+                    @Override public String read(@NonNull ZimReader reader) throws IOException {
+                        return reader.getZimDescription();
+                    }
+                });
             }
         } catch (IOException e) {
             L.e(e);
@@ -201,20 +227,69 @@ public class Compilation {
         return media;
     }
 
+    /** @return Up to maxResults titles starting with prefix in {@link TitleIndex#ORDER}. */
     @NonNull
-    List<String> searchByPrefix(@NonNull String prefix, int maxResults) throws IOException {
-        return reader != null ? reader.searchByPrefix(prefix, maxResults) : Collections.<String>emptyList();
+    List<String> searchByPrefix(@NonNull final String prefix, final int maxResults) throws IOException {
+        TitleIndex index = titleIndex;
+        if (index != null) {
+            return index.searchByPrefix(prefix, maxResults);
+        }
+        if (readers == null) {
+            return Collections.emptyList();
+        }
+        List<String> results = new ArrayList<>(readers.read(new ZimReaderPool.Read<ZimReader, List<String>>() {
+            @Override public List<String> read(@NonNull ZimReader reader) throws IOException {
+                return reader.searchByPrefix(prefix, maxResults);
+            }
+        }));
+        Collections.sort(results, TitleIndex.ORDER);
+        return results;
     }
 
     boolean titleExists(@NonNull String title) {
-        return !TextUtils.isEmpty(getNormalizedTitle(title));
+        // The index holds every title so a title it does not hold does not exist.
+        TitleIndex index = titleIndex;
+        return index != null ? index.contains(title) : !TextUtils.isEmpty(getNormalizedTitle(title));
+    }
+
+    /** Opens the title index of the compilation in directory, building it first if it is missing
+     * or was built from a different version of the compilation. Until it is open, the compilation
+     * is searched through the reader. */
+    void openTitleIndex(@NonNull File directory) throws IOException {
+        if (readers == null || titleIndex != null) {
+            return;
+        }
+        File compilation = new File(path());
+        File file = new File(directory, compilation.getName() + "-"
+                + Integer.toHexString(path().hashCode()) + ".idx");
+        long size = compilation.length();
+        long lastModified = compilation.lastModified();
+
+        TitleIndex index = TitleIndex.open(file, size, lastModified);
+        if (index == null) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Failed to create " + directory);
+            }
+            ZimTitleReader titles = new ZimTitleReader(compilation);
+            try {
+                TitleIndex.write(file, size, lastModified, titles);
+            } finally {
+                titles.close();
+            }
+            index = TitleIndex.open(file, size, lastModified);
+        }
+        titleIndex = index;
     }
 
     @Nullable
-    public String getNormalizedTitle(@NonNull String title) {
+    public String getNormalizedTitle(@NonNull final String title) {
         try {
-            if (reader != null) {
-                return reader.getNormalizedTitle(title);
+            if (readers != null) {
+                return readers.read(new ZimReaderPool.Read<ZimReader, String>() {
+                    @Override public String read(@NonNull ZimReader reader) throws IOException {
+                        return reader.getNormalizedTitle(title);
+                    }
+                });
             }
         } catch (Exception e) {
             L.e(e);
@@ -222,27 +297,93 @@ public class Compilation {
         return null;
     }
 
+    /** @return A stream of the content, which may be read from the cache. */
     @Nullable
-    ByteArrayOutputStream getDataForTitle(@NonNull String title) throws IOException {
-        return reader == null ? null : reader.getDataForTitle(title);
+    InputStream getDataForTitle(@NonNull final String title) throws IOException {
+        return readCached(cacheKey("title|" + title), new ZimReaderPool.Read<ZimReader, ByteArrayOutputStream>() {
+            @Override public ByteArrayOutputStream read(@NonNull ZimReader reader) throws IOException {
+                return reader.getDataForTitle(title);
+            }
+        });
     }
 
+    /** @return A stream of the content, which may be read from the cache. */
     @Nullable
-    ByteArrayOutputStream getDataForUrl(@NonNull String url) throws IOException {
+    InputStream getDataForUrl(@NonNull String url) throws IOException {
         if (url.startsWith("A/") || url.startsWith("I/")) {
             url = url.substring(2);
         }
-        return reader == null ? null : reader.getDataForUrl(URLDecoder.decode(url, "utf-8"));
+        final String decodedUrl = URLDecoder.decode(url, "utf-8");
+        return readCached(cacheKey("url|" + decodedUrl), new ZimReaderPool.Read<ZimReader, ByteArrayOutputStream>() {
+            @Override public ByteArrayOutputStream read(@NonNull ZimReader reader) throws IOException {
+                return reader.getDataForUrl(decodedUrl);
+            }
+        });
     }
 
     @NonNull
     String getRandomTitle() throws IOException {
-        return reader.getRandomTitle();
+        return readers().read(new ZimReaderPool.Read<ZimReader, String>() {
+            @Override public String read(@NonNull ZimReader reader) throws IOException {
+                return reader.getRandomTitle();
+            }
+        });
     }
 
     @NonNull
     String getMainPageTitle() throws IOException {
-        return reader.getMainPageTitle();
+        return readers().read(new ZimReaderPool.Read<ZimReader, String>() {
+            @Override public String read(@NonNull ZimReader reader) throws IOException {
+                return reader.getMainPageTitle();
+            }
+        });
+    }
+
+    @Nullable
+    private InputStream readCached(@NonNull String key,
+                                   @NonNull ZimReaderPool.Read<ZimReader, ByteArrayOutputStream> read)
+            throws IOException {
+        if (readers == null) {
+            return null;
+        }
+        InputStream cached = OfflineContentCache.instance().get(key);
+        if (cached != null) {
+            return cached;
+        }
+        ByteArrayOutputStream data = readers.read(read);
+        return data == null ? null : OfflineContentCache.instance().put(key, data.toByteArray());
+    }
+
+    @NonNull
+    private ZimReaderPool<ZimReader> readers() throws IOException {
+        if (readers == null) {
+            throw new IOException("Compilation not opened: " + name());
+        }
+        return readers;
+    }
+
+    @NonNull
+    private String cacheKey(@NonNull String key) {
+        return path() + "|" + key;
+    }
+
+    private static class ReaderFactory implements ZimReaderPool.Factory<ZimReader> {
+        @NonNull private final String path;
+
+        ReaderFactory(@NonNull String path) {
+            this.path = path;
+        }
+
+        @NonNull @Override public ZimReader open() throws IOException {
+            // Each reader seeks its own file handle.
+            ZimReader reader = new ZimReader(new ZimFile(path));
+            reader.setLzmaDictSize(COMPRESSION_DICT_SIZE);
+            return reader;
+        }
+
+        @Override public void close(@NonNull ZimReader reader) throws IOException {
+            reader.close();
+        }
     }
 
     public static class Image {
@@ -0,0 +1,155 @@
+package org.wikipedia.offline;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import com.google.gson.JsonParseException;
+
+import org.wikipedia.json.GsonMarshaller;
+import org.wikipedia.json.GsonUnmarshaller;
+import org.wikipedia.util.FileUtil;
+import org.wikipedia.util.log.L;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A persisted record of the listing of each directory searched for compilations, with the
+ * modification time of the directory when it was listed. Adding, removing or renaming an entry
+ * of a directory updates its modification time, so an unchanged directory is not listed again
+ * and a search of a large volume costs one stat per directory rather than a listing of every
+ * directory and a stat of every file.
+ *
+ * A listing made within {@link #RACY_MILLIS} of the directory's modification time is not trusted,
+ * as the directory may have been modified again within the file system's time granularity.
+ */
+class CompilationDirectoryIndex {
+    // FAT, common on removable storage, records modification times to two seconds.
+    @VisibleForTesting static final long RACY_MILLIS = 2000;
+    private static final String ZIM_EXTENSION = ".zim";
+
+    @NonNull private final File file;
+    @NonNull private final Map<String, Listing> listings;
+    @NonNull private final Set<String> visited = new HashSet<>();
+    private int listedCount;
+
+    /** @return The index persisted in file, or an empty index if file is missing or invalid. */
+    @NonNull static CompilationDirectoryIndex load(@NonNull File file) {
+        Map<String, Listing> listings = null;
+        try {
+            Index index = GsonUnmarshaller.unmarshal(Index.class,
+                    FileUtil.readFile(new FileInputStream(file)));
+            listings = index == null ? null : index.listings;
+        } catch (FileNotFoundException ignore) {
+            // Not searched yet.
+        } catch (IOException | JsonParseException e) {
+            L.w("Failed to read compilation directory index", e);
+        }
+        return new CompilationDirectoryIndex(file, listings == null
+                ? new HashMap<String, Listing>() : listings);
+    }
+
+    /**
+     * @return The listing of dir, from the index if dir is unchanged since it was last listed, or
+     *         null if dir cannot be listed.
+     */
+    @Nullable Listing list(@NonNull File dir) {
+        String path = dir.getAbsolutePath();
+        visited.add(path);
+        long lastModified = dir.lastModified();
+        Listing listing = listings.get(path);
+        if (listing != null && listing.lastModified == lastModified
+                && listing.listedAt - lastModified > RACY_MILLIS) {
+            return listing;
+        }
+
+        File[] files = dir.listFiles();
+        if (files == null) {
+            listings.remove(path);
+            return null;
+        }
+        listedCount++;
+        listing = new Listing(lastModified, System.currentTimeMillis());
+        for (File file : files) {
+            if (file.isDirectory()) {
+                listing.dirs.add(file.getName());
+            } else if (file.getName().toLowerCase(Locale.ROOT).endsWith(ZIM_EXTENSION)) {
+                listing.zims.add(file.getName());
+            }
+        }
+        listings.put(path, listing);
+        return listing;
+    }
+
+    /** Drops the listings of directories not listed since the index was loaded, such as those
+     * deleted or no longer reachable, and writes the index to its file. */
+    void save() {
+        listings.keySet().retainAll(visited);
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            out.write(GsonMarshaller.marshal(new Index(listings)).getBytes("UTF-8"));
+        } catch (IOException e) {
+            L.w("Failed to write compilation directory index", e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    /** @return The number of directories listed rather than read from the index. */
+    int listedCount() {
+        return listedCount;
+    }
+
+    private CompilationDirectoryIndex(@NonNull File file, @NonNull Map<String, Listing> listings) {
+        this.file = file;
+        this.listings = listings;
+    }
+
+    static class Listing {
+        private long lastModified;
+        private long listedAt;
+        @NonNull private List<String> dirs = new ArrayList<>();
+        @NonNull private List<String> zims = new ArrayList<>();
+
+        Listing(long lastModified, long listedAt) {
+            this.lastModified = lastModified;
+            this.listedAt = listedAt;
+        }
+
+        /** @return The names of the subdirectories. */
+        @NonNull List<String> dirs() {
+            return dirs;
+        }
+
+        /** @return The names of the files with a compilation extension. */
+        @NonNull List<String> zims() {
+            return zims;
+        }
+    }
+
+    private static class Index {
+        @Nullable private Map<String, Listing> listings;
+
+        Index(@NonNull Map<String, Listing> listings) {
+            this.listings = listings;
+        }
+    }
+}
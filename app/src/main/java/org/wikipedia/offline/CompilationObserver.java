@@ -0,0 +1,42 @@
+package org.wikipedia.offline;
+
+import android.os.FileObserver;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Watches a directory known to contain compilations for compilations being added, removed or
+ * rewritten, so that the next search for compilations runs without waiting out the search
+ * interval.
+ */
+class CompilationObserver extends FileObserver {
+    interface Listener {
+        void onCompilationsChanged(@NonNull String dir);
+    }
+
+    private static final int EVENTS = CLOSE_WRITE | MOVED_FROM | MOVED_TO | DELETE | DELETE_SELF
+            | MOVE_SELF;
+
+    @NonNull private final String dir;
+    @NonNull private final Listener listener;
+
+    CompilationObserver(@NonNull String dir, @NonNull Listener listener) {
+        super(dir, EVENTS);
+        this.dir = dir;
+        this.listener = listener;
+    }
+
+    @NonNull String dir() {
+        return dir;
+    }
+
+    // Called on the FileObserver thread.
+    @Override public void onEvent(int event, @Nullable String path) {
+        boolean self = (event & (DELETE_SELF | MOVE_SELF)) != 0;
+        if (self || path != null && path.toLowerCase(Locale.ROOT).endsWith(".zim")) {
+            listener.onCompilationsChanged(dir);
+        }
+    }
+}
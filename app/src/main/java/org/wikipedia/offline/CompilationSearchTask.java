@@ -6,18 +6,38 @@ import android.os.storage.StorageManager;
 import android.support.annotation.NonNull;
 
 import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.Priority;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.util.log.L;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 
 class CompilationSearchTask extends SaneAsyncTask<List<Compilation>> {
+    private static final String DIRECTORY_INDEX_FILE = "offline_directory_index.json";
+    private static final int MAX_DEPTH = 10;
+    // ZIM files start with this little-endian magic number.
+    private static final int ZIM_MAGIC = 72173914;
+
     private List<Compilation> compilations = new ArrayList<>();
+    @NonNull private final List<Compilation> openCompilations;
+    private CompilationDirectoryIndex index;
+
+    /** @param openCompilations Compilations to reuse rather than reopen if unchanged. */
+    CompilationSearchTask(@NonNull List<Compilation> openCompilations) {
+        this.openCompilations = new ArrayList<>(openCompilations);
+    }
+
+    @NonNull @Override protected Priority priority() {
+        return Priority.LOW;
+    }
 
     @Override
     public List<Compilation> performTask() throws Throwable {
@@ -34,38 +54,49 @@ class CompilationSearchTask extends SaneAsyncTask<List<Compilation>> {
         if (pathList.size() == 0 && Environment.getExternalStorageDirectory() != null) {
             pathList.add(Environment.getExternalStorageDirectory().getAbsolutePath());
         }
+        index = CompilationDirectoryIndex.load(new File(WikipediaApp.getInstance().getFilesDir(),
+                DIRECTORY_INDEX_FILE));
         for (String path : pathList) {
             findCompilations(new File(path), 0);
             if (isCancelled()) {
-                break;
+                return compilations;
             }
         }
+        // An incomplete search would drop the listings of the directories it did not reach.
+        index.save();
+        L.d("Listed " + index.listedCount() + " changed directories searching for compilations");
         return compilations;
     }
 
-    private void findCompilations(@NonNull File parentDir, int level) {
-        if (level > 10) {
+    private void findCompilations(@NonNull File dir, int level) {
+        if (level > MAX_DEPTH) {
             return;
         }
-        File[] files = parentDir.listFiles();
-        if (files == null) {
+        CompilationDirectoryIndex.Listing listing = index.list(dir);
+        if (listing == null) {
             return;
         }
-        for (File file : files) {
+        for (String name : listing.zims()) {
+            add(new File(dir, name));
+        }
+        for (String name : listing.dirs()) {
             if (isCancelled()) {
                 return;
             }
-            if (file.isDirectory()) {
-                findCompilations(file, level + 1);
-            } else {
-                if (isCompilation(file)) {
-                    add(file);
-                }
-            }
+            findCompilations(new File(dir, name), level + 1);
         }
     }
 
     private void add(@NonNull File file) {
+        for (Compilation c : openCompilations) {
+            if (c.isOpenedFrom(file)) {
+                compilations.add(c);
+                return;
+            }
+        }
+        if (!isCompilation(file)) {
+            return;
+        }
         try {
             compilations.add(new Compilation(file));
             L.d("Found compilation: " + file.getAbsolutePath());
@@ -75,7 +106,26 @@ class CompilationSearchTask extends SaneAsyncTask<List<Compilation>> {
         }
     }
 
+    /** @return True if f is a file starting with the ZIM magic number, which is checked before
+     *          opening a reader on it. */
     private boolean isCompilation(@NonNull File f) {
-        return f.getName().toLowerCase(Locale.ROOT).endsWith(".zim");
+        InputStream in = null;
+        try {
+            in = new FileInputStream(f);
+            byte[] magic = new byte[Integer.SIZE / Byte.SIZE];
+            if (in.read(magic) != magic.length) {
+                return false;
+            }
+            return ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == ZIM_MAGIC;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
     }
 }
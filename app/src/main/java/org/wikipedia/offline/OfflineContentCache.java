@@ -0,0 +1,123 @@
+package org.wikipedia.offline;
+
+import android.content.ComponentCallbacks2;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memory cache of decompressed compilation content shared by all compilations and bounded by its
+ * total size in bytes. An article and its images are requested again and again as the article is
+ * rendered, reloaded and navigated back to, and each miss costs an LZMA decompression of the
+ * cluster containing the content.
+ *
+ * Content is held as arrays owned by the cache and handed out as streams over them, so that no
+ * reader of shared content can modify it.
+ */
+public final class OfflineContentCache {
+    private static final long MAX_SIZE_BYTES = Math.min(Runtime.getRuntime().maxMemory() / 16,
+            8 * 1024 * 1024);
+    private static final float LOAD_FACTOR = 0.75f;
+
+    @NonNull private static final OfflineContentCache INSTANCE
+            = new OfflineContentCache(MAX_SIZE_BYTES);
+
+    // Key to content in least recently used order.
+    @NonNull private final LinkedHashMap<String, byte[]> entries
+            = new LinkedHashMap<>(0, LOAD_FACTOR, true);
+    private final long maxSize;
+    private long size;
+    private int hits;
+    private int misses;
+
+    @NonNull public static OfflineContentCache instance() {
+        return INSTANCE;
+    }
+
+    /** @return A stream of the content, or null if it is not cached. */
+    @Nullable synchronized InputStream get(@NonNull String key) {
+        byte[] data = entries.get(key);
+        if (data == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ByteArrayInputStream(data);
+    }
+
+    /**
+     * Content larger than the cache is not cached.
+     * @param data Content no longer written to by the caller, which the cache takes ownership of.
+     * @return A stream of the content.
+     */
+    @NonNull synchronized InputStream put(@NonNull String key, @NonNull byte[] data) {
+        remove(key);
+        if (data.length <= maxSize) {
+            entries.put(key, data);
+            size += data.length;
+            trimToSize(maxSize);
+        }
+        return new ByteArrayInputStream(data);
+    }
+
+    /** Removes the content of keys starting with prefix, such as those of a closed compilation. */
+    synchronized void removeAll(@NonNull String prefix) {
+        for (Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+             it.hasNext();) {
+            Map.Entry<String, byte[]> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                size -= entry.getValue().length;
+                it.remove();
+            }
+        }
+    }
+
+    /** @param level A ComponentCallbacks2 trim memory level. */
+    public synchronized void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimToSize(0);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            trimToSize(maxSize / 2);
+        }
+    }
+
+    public synchronized int hitCount() {
+        return hits;
+    }
+
+    public synchronized int missCount() {
+        return misses;
+    }
+
+    @VisibleForTesting synchronized long size() {
+        return size;
+    }
+
+    @VisibleForTesting OfflineContentCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    private void remove(@NonNull String key) {
+        byte[] data = entries.remove(key);
+        if (data != null) {
+            size -= data.length;
+        }
+    }
+
+    private void trimToSize(long maxSize) {
+        Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            size -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package org.wikipedia.offline;
 
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 import android.support.annotation.NonNull;
 
 import com.dmitrybrant.zimdroid.ZimContentProvider;
 
 import org.wikipedia.BuildConfig;
+import org.wikipedia.util.log.L;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 public class OfflineContentProvider extends ZimContentProvider {
+    private static final int BUFFER_SIZE = 16 * 1024;
 
     @NonNull public static String getBaseUrl() {
         return "content://" + BuildConfig.APPLICATION_ID + ".offline/";
@@ -20,7 +26,71 @@ public class OfflineContentProvider extends ZimContentProvider {
         return Uri.parse(getBaseUrl());
     }
 
+    /** Not used by {@link #openFile}. Returns a copy of the content, which may be shared. */
     @Override protected ByteArrayOutputStream getDataForUrl(String url) throws IOException {
-        return OfflineManager.instance().getDataForUrl(url);
+        InputStream in = OfflineManager.instance().getDataForUrl(url);
+        if (in == null) {
+            return null;
+        }
+        ByteArrayOutputStream data = new ByteArrayOutputStream(in.available());
+        copy(in, data);
+        return data;
+    }
+
+    /**
+     * Streams the content to the reader through a pipe. The content is written in chunks from the
+     * cached array rather than copied whole into another array first, and the reader may start
+     * consuming it while it is being written.
+     *
+     * Each pipe is written by a thread of its own. A write blocks until the reader consumes the
+     * content, which the WebView may defer, so transfers must neither wait on nor hold up the
+     * threads of a shared pool.
+     */
+    @Override public ParcelFileDescriptor openFile(@NonNull Uri uri, @NonNull String mode)
+            throws FileNotFoundException {
+        String uriString = uri.toString();
+        String url = uriString.startsWith(getBaseUrl())
+                ? uriString.substring(getBaseUrl().length()) : uri.getPath();
+
+        final InputStream data;
+        final ParcelFileDescriptor[] pipe;
+        try {
+            data = OfflineManager.instance().getDataForUrl(url);
+            if (data == null) {
+                throw new FileNotFoundException("Content not found for " + uri);
+            }
+            pipe = ParcelFileDescriptor.createPipe();
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            L.w("Failed to read offline content for " + uri, e);
+            throw new FileNotFoundException(e.getMessage());
+        }
+
+        new Thread(new Runnable() {
+            @Override public void run() {
+                OutputStream out = new ParcelFileDescriptor.AutoCloseOutputStream(pipe[1]);
+                try {
+                    copy(data, out);
+                } catch (IOException e) {
+                    // The reader closed the pipe before consuming all of the content.
+                    L.d("Offline content stream closed early: " + e.getMessage());
+                } finally {
+                    try {
+                        out.close();
+                    } catch (IOException ignore) {
+                    }
+                }
+            }
+        }, "OfflineContentTransfer").start();
+        return pipe[0];
+    }
+
+    private static void copy(@NonNull InputStream in, @NonNull OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
     }
 }
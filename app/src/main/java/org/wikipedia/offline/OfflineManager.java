@@ -4,22 +4,39 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
+import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.CallbackTask;
+import org.wikipedia.concurrency.CancellationToken;
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
+import org.wikipedia.concurrency.PriorityExecutor;
 import org.wikipedia.settings.Prefs;
+import org.wikipedia.util.FileUtil;
 import org.wikipedia.util.log.L;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 public final class OfflineManager {
+    private static final String TITLE_INDEX_DIR = "offline_title_index";
     private static OfflineManager INSTANCE;
     @Nullable private CompilationSearchTask searchTask;
-    private long lastSearchTime;
+    private volatile long lastSearchTime;
+    // Observers must be referenced to keep watching.
+    @NonNull private final List<CompilationObserver> observers = new ArrayList<>();
     @NonNull private List<Compilation> compilations = new ArrayList<>();
     @NonNull private List<Compilation> remoteCompilationCache = Collections.emptyList();
 
@@ -54,7 +71,7 @@ public final class OfflineManager {
             searchTask.cancel();
         }
         lastSearchTime = System.currentTimeMillis();
-        searchTask = new CompilationSearchTask() {
+        searchTask = new CompilationSearchTask(compilations) {
             @Override public void onFinish(List<Compilation> results) {
                 searchTask = null;
                 if (isCancelled()) {
@@ -66,7 +83,9 @@ public final class OfflineManager {
                             result.copyMetadataFrom(c);
                         }
                     }
-                    c.close();
+                    if (!results.contains(c)) {
+                        c.close();
+                    }
                 }
                 for (Compilation result : results) {
                     for (Compilation remote : remoteCompilationCache) {
@@ -78,6 +97,8 @@ public final class OfflineManager {
                 compilations.clear();
                 compilations.addAll(results);
                 Prefs.setCompilationCache(compilations);
+                openTitleIndexes();
+                observeCompilations();
                 callback.onCompilationsFound(results);
             }
 
@@ -111,12 +132,87 @@ public final class OfflineManager {
         return false;
     }
 
-    @NonNull public List<String> searchByPrefix(@NonNull String prefix, int maxResults) throws IOException {
-        List<String> results = new ArrayList<>();
-        for (Compilation c : compilations) {
-            results.addAll(c.searchByPrefix(prefix, maxResults));
+    /**
+     * Searches all compilations in parallel on the IO lane and delivers up to maxResults distinct
+     * titles starting with prefix, in order, to the callback on the main thread. Compilations that
+     * fail to be searched are left out of the results.
+     *
+     * Call on the main thread.
+     */
+    @NonNull public CancellationToken searchByPrefix(@NonNull final String prefix, final int maxResults,
+                                                     @NonNull final CallbackTask.Callback<List<String>> callback) {
+        final List<Compilation> compilations = new ArrayList<>(this.compilations);
+        if (compilations.isEmpty()) {
+            return CallbackTask.execute(Lane.IO, Priority.HIGH, new CallbackTask.Task<List<String>>() {
+                @Override public List<String> execute() {
+                    return Collections.emptyList();
+                }
+            }, callback);
         }
-        return results;
+
+        final CancellationToken token = new CancellationToken();
+        // Accessed on the main thread only, where the results of each compilation are delivered.
+        final List<List<String>> results = new ArrayList<>(compilations.size());
+        final int[] pending = {compilations.size()};
+        for (final Compilation c : compilations) {
+            CallbackTask.execute(Lane.IO, Priority.HIGH, new CallbackTask.Task<List<String>>() {
+                @Override public List<String> execute() throws IOException {
+                    return token.isCancelled()
+                            ? Collections.<String>emptyList() : c.searchByPrefix(prefix, maxResults);
+                }
+            }, new CallbackTask.Callback<List<String>>() {
+                @Override public void success(List<String> result) {
+                    results.add(result);
+                    onSearched();
+                }
+
+                @Override public void failure(Throwable caught) {
+                    L.w("Failed to search compilation " + c.path(), caught);
+                    onSearched();
+                }
+
+                private void onSearched() {
+                    if (--pending[0] == 0 && !token.isCancelled()) {
+                        callback.success(TitleIndex.merge(results, maxResults));
+                    }
+                }
+            });
+        }
+        return token;
+    }
+
+    /** @return Up to maxResults distinct titles starting with prefix from all compilations, in
+     *          order. Compilations are searched in parallel on the IO lane while the calling
+     *          thread blocks, so it must be neither the main thread nor an IO lane thread. */
+    @NonNull public List<String> searchByPrefix(@NonNull final String prefix, final int maxResults) throws IOException {
+        List<Compilation> compilations = new ArrayList<>(this.compilations);
+        if (compilations.size() == 1) {
+            return compilations.get(0).searchByPrefix(prefix, maxResults);
+        }
+
+        List<FutureTask<List<String>>> tasks = new ArrayList<>(compilations.size());
+        for (final Compilation c : compilations) {
+            FutureTask<List<String>> task = new FutureTask<>(new Callable<List<String>>() {
+                @Override public List<String> call() throws IOException {
+                    return c.searchByPrefix(prefix, maxResults);
+                }
+            });
+            PriorityExecutor.execute(Lane.IO, Priority.HIGH, task);
+            tasks.add(task);
+        }
+
+        List<List<String>> results = new ArrayList<>(tasks.size());
+        for (FutureTask<List<String>> task : tasks) {
+            try {
+                results.add(task.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+                L.w("Failed to search compilation", e.getCause());
+            }
+        }
+        return TitleIndex.merge(results, maxResults);
     }
 
     @Nullable public String getNormalizedTitle(@NonNull String title) {
@@ -135,20 +231,20 @@ public final class OfflineManager {
 
     @NonNull public HtmlResult getHtmlForTitle(@NonNull String title) throws IOException {
         for (Compilation c : compilations) {
-            ByteArrayOutputStream stream = c.getDataForTitle(title);
+            InputStream stream = c.getDataForTitle(title);
             if (stream != null) {
-                return new HtmlResult(c, stream.toString("utf-8"));
+                return new HtmlResult(c, FileUtil.readFile(stream));
             }
         }
         throw new IOException("Content not found in any compilation for " + title);
     }
 
-    @Nullable public ByteArrayOutputStream getDataForUrl(@NonNull String url) throws IOException {
+    @Nullable public InputStream getDataForUrl(@NonNull String url) throws IOException {
         if (url.startsWith("A/") || url.startsWith("I/")) {
             url = url.substring(2);
         }
         for (Compilation c : compilations) {
-            ByteArrayOutputStream stream = c.getDataForUrl(url);
+            InputStream stream = c.getDataForUrl(url);
             if (stream != null) {
                 return stream;
             }
@@ -188,6 +284,52 @@ public final class OfflineManager {
         }
     }
 
+    /** Watches the directories of the compilations so that changes to them are searched for
+     * without waiting out the search interval. */
+    private void observeCompilations() {
+        Set<String> dirs = new HashSet<>();
+        for (Compilation c : compilations) {
+            String dir = new File(c.path()).getParent();
+            if (dir != null) {
+                dirs.add(dir);
+            }
+        }
+
+        for (Iterator<CompilationObserver> it = observers.iterator(); it.hasNext();) {
+            CompilationObserver observer = it.next();
+            if (!dirs.remove(observer.dir())) {
+                observer.stopWatching();
+                it.remove();
+            }
+        }
+        for (String dir : dirs) {
+            CompilationObserver observer = new CompilationObserver(dir, new CompilationObserver.Listener() {
+                @Override public void onCompilationsChanged(@NonNull String dir) {
+                    L.d("Compilations changed in " + dir);
+                    lastSearchTime = 0;
+                }
+            });
+            observer.startWatching();
+            observers.add(observer);
+        }
+    }
+
+    /** Opens or builds the title index of each compilation in the background. */
+    private void openTitleIndexes() {
+        final File directory = new File(WikipediaApp.getInstance().getFilesDir(), TITLE_INDEX_DIR);
+        for (final Compilation c : compilations) {
+            PriorityExecutor.execute(Lane.IO, Priority.LOW, new Runnable() {
+                @Override public void run() {
+                    try {
+                        c.openTitleIndex(directory);
+                    } catch (IOException e) {
+                        L.w("Failed to open title index for " + c.path(), e);
+                    }
+                }
+            });
+        }
+    }
+
     private void restoreFromCache() {
         for (Compilation cached : Prefs.getCompilationCache()) {
             try {
@@ -199,6 +341,8 @@ public final class OfflineManager {
                 L.w("Cached compilation no longer available: " + cached.path(), e);
             }
         }
+        openTitleIndexes();
+        observeCompilations();
     }
 
     @VisibleForTesting
@@ -0,0 +1,418 @@
+package org.wikipedia.offline;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import org.wikipedia.util.log.L;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * A sorted array of the titles of a compilation stored in a sidecar file and memory-mapped for
+ * prefix search. Searching the index is a binary search over the mapped file, which costs no heap
+ * beyond the results and no reads of the compilation itself.
+ *
+ * Titles are sorted by {@link #ORDER}, case-insensitively, so that the results of each compilation
+ * can be merged in order. The file records the size and modification time of the compilation it
+ * was built from and is rebuilt when either changes.
+ *
+ * The index is built by external sorting so that compilations of any number of titles are indexed
+ * in bounded memory: titles are read in chunks which are sorted and spilled to temporary files,
+ * then merged into the index.
+ *
+ * File format, big-endian: magic, version, compilation size, compilation modification time, title
+ * count n, n + 1 offsets of the titles relative to the start of the title data, and the UTF-8 title
+ * data.
+ */
+final class TitleIndex {
+    /** A sequence of titles read one at a time. */
+    interface Titles {
+        /** @return The next title, or null past the last. */
+        @Nullable String next() throws IOException;
+    }
+
+    @NonNull static final Comparator<String> ORDER = new Comparator<String>() {
+        @Override public int compare(String lhs, String rhs) {
+            int result = key(lhs).compareTo(key(rhs));
+            return result == 0 ? lhs.compareTo(rhs) : result;
+        }
+    };
+
+    private static final int MAGIC = 0x5A544958;
+    private static final int VERSION = 3;
+    private static final int OFFSET_SIZE = 4;
+    // Bounds the heap taken by the titles held to build an index.
+    private static final int MAX_CHUNK_TITLES = 1 << 15;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+    @NonNull private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @NonNull private final ByteBuffer buffer;
+    private final int count;
+    private final int dataStart;
+
+    /** @return The index in file if it was built from a compilation of size and lastModified, or
+     *          null if it is missing or stale. */
+    @Nullable static TitleIndex open(@NonNull File file, long size, long lastModified)
+            throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            if (raf.length() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+                    raf.length());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getLong() != size || buffer.getLong() != lastModified) {
+                return null;
+            }
+            int count = buffer.getInt();
+            if (count < 0 || HEADER_SIZE + (count + 1) * (long) OFFSET_SIZE > raf.length()) {
+                return null;
+            }
+            return new TitleIndex(buffer, count);
+        } finally {
+            // The mapping remains valid after the file is closed.
+            raf.close();
+        }
+    }
+
+    /** Writes an index of titles, which need not be sorted or distinct, for a compilation of size
+     * and lastModified. The file is replaced atomically. */
+    static void write(@NonNull File file, long size, long lastModified,
+                      @NonNull Titles titles) throws IOException {
+        write(file, size, lastModified, titles, MAX_CHUNK_TITLES);
+    }
+
+    @VisibleForTesting static void write(@NonNull File file, long size, long lastModified,
+                                         @NonNull Titles titles, int maxChunkTitles)
+            throws IOException {
+        List<File> chunks = new ArrayList<>();
+        try {
+            List<String> chunk = new ArrayList<>();
+            for (String title = titles.next(); title != null; title = titles.next()) {
+                chunk.add(title);
+                if (chunk.size() == maxChunkTitles) {
+                    chunks.add(writeChunk(file, chunks.size(), chunk));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(writeChunk(file, chunks.size(), chunk));
+            }
+            writeMerged(file, size, lastModified, chunks);
+        } finally {
+            for (File chunk : chunks) {
+                deleteQuietly(chunk);
+            }
+        }
+    }
+
+    /** Merges lists sorted by {@link #ORDER} into one sorted list of at most max distinct titles. */
+    @NonNull static List<String> merge(@NonNull List<List<String>> lists, int max) {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, lists.size()));
+        for (List<String> list : lists) {
+            Iterator<String> it = list.iterator();
+            if (it.hasNext()) {
+                queue.add(new Cursor(it));
+            }
+        }
+
+        List<String> results = new ArrayList<>();
+        while (results.size() < max && !queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            if (results.isEmpty() || !results.get(results.size() - 1).equals(cursor.title)) {
+                results.add(cursor.title);
+            }
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return results;
+    }
+
+    /** @return Up to max titles starting with prefix, ignoring case, in {@link #ORDER}. */
+    @NonNull List<String> searchByPrefix(@NonNull String prefix, int max) {
+        String key = key(prefix);
+        List<String> results = new ArrayList<>();
+        for (int i = lowerBound(key); i < count && results.size() < max; i++) {
+            String title = title(i);
+            if (!key(title).startsWith(key)) {
+                break;
+            }
+            results.add(title);
+        }
+        return results;
+    }
+
+    boolean contains(@NonNull String title) {
+        int i = lowerBound(key(title));
+        for (; i < count; i++) {
+            String candidate = title(i);
+            if (!key(candidate).equals(key(title))) {
+                return false;
+            }
+            if (candidate.equals(title)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return count;
+    }
+
+    @NonNull private static String key(@NonNull String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
+    private TitleIndex(@NonNull ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+        dataStart = HEADER_SIZE + (count + 1) * OFFSET_SIZE;
+    }
+
+    // Sorts the titles of a chunk, drops duplicates, and writes them to a temporary file: the title
+    // count followed by the titles.
+    @NonNull private static File writeChunk(@NonNull File file, int number,
+                                            @NonNull List<String> titles) throws IOException {
+        Collections.sort(titles, ORDER);
+        // Duplicates are adjacent once sorted.
+        int distinct = 0;
+        for (String title : titles) {
+            if (distinct == 0 || !titles.get(distinct - 1).equals(title)) {
+                titles.set(distinct++, title);
+            }
+        }
+
+        File chunk = new File(file.getPath() + ".chunk" + number);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(chunk)));
+        try {
+            out.writeInt(distinct);
+            for (String title : titles.subList(0, distinct)) {
+                out.writeUTF(title);
+            }
+        } finally {
+            out.close();
+        }
+        return chunk;
+    }
+
+    // Merges the sorted chunks into the index. The offsets and title data are written to
+    // temporary files as the count preceding them is only known once merged.
+    private static void writeMerged(@NonNull File file, long size, long lastModified,
+                                    @NonNull List<File> chunks) throws IOException {
+        File offsetsFile = new File(file.getPath() + ".offsets");
+        File dataFile = new File(file.getPath() + ".data");
+        PriorityQueue<Chunk> queue = new PriorityQueue<>(Math.max(1, chunks.size()));
+        try {
+            for (File chunk : chunks) {
+                Chunk cursor = new Chunk(chunk);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+
+            int count = 0;
+            DataOutputStream offsets = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(offsetsFile)));
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(dataFile)));
+            try {
+                String last = null;
+                while (!queue.isEmpty()) {
+                    Chunk cursor = queue.poll();
+                    if (!cursor.title.equals(last)) {
+                        offsets.writeInt(data.size());
+                        data.write(cursor.title.getBytes(UTF_8));
+                        last = cursor.title;
+                        count++;
+                    }
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    } else {
+                        cursor.close();
+                    }
+                }
+                offsets.writeInt(data.size());
+            } finally {
+                offsets.close();
+                data.close();
+            }
+
+            DataOutputStream out = writeHeader(file, size, lastModified, count);
+            try {
+                copy(offsetsFile, out);
+                copy(dataFile, out);
+            } finally {
+                out.close();
+            }
+            commit(file);
+        } finally {
+            for (Chunk cursor : queue) {
+                cursor.close();
+            }
+            deleteQuietly(offsetsFile);
+            deleteQuietly(dataFile);
+        }
+    }
+
+    private static void copy(@NonNull File file, @NonNull OutputStream out) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void deleteQuietly(@NonNull File file) {
+        if (file.exists() && !file.delete()) {
+            L.w("Failed to delete " + file);
+        }
+    }
+
+    @NonNull private static DataOutputStream writeHeader(@NonNull File file, long size,
+                                                         long lastModified, int count)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tmpFile(file))));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            out.writeInt(count);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        return out;
+    }
+
+    private static void commit(@NonNull File file) throws IOException {
+        if (!tmpFile(file).renameTo(file)) {
+            throw new IOException("Failed to write title index " + file);
+        }
+    }
+
+    @NonNull private static File tmpFile(@NonNull File file) {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    /** @return The position of the first title whose key is not less than key. */
+    private int lowerBound(@NonNull String key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(title(mid)).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @NonNull private String title(int i) {
+        int start = buffer.getInt(HEADER_SIZE + i * OFFSET_SIZE);
+        int end = buffer.getInt(HEADER_SIZE + (i + 1) * OFFSET_SIZE);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(dataStart + start);
+        view.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    // A cursor over the titles of a chunk file.
+    private static class Chunk implements Comparable<Chunk> {
+        @NonNull private final DataInputStream in;
+        private int remaining;
+        private String title;
+
+        Chunk(@NonNull File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                remaining = in.readInt();
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            title = in.readUTF();
+            return true;
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException ignore) { }
+        }
+
+        @Override public int compareTo(@NonNull Chunk other) {
+            return ORDER.compare(title, other.title);
+        }
+    }
+
+    private static class Cursor implements Comparable<Cursor> {
+        @NonNull private final Iterator<String> it;
+        @NonNull private String title;
+
+        Cursor(@NonNull Iterator<String> it) {
+            this.it = it;
+            title = it.next();
+        }
+
+        boolean advance() {
+            if (!it.hasNext()) {
+                return false;
+            }
+            title = it.next();
+            return true;
+        }
+
+        @Override public int compareTo(@NonNull Cursor other) {
+            return ORDER.compare(title, other.title);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.wikipedia.offline;
+
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A bounded pool of readers of one compilation. A ZimReader seeks a single file handle and is not
+ * safe for concurrent use, so each read borrows a reader of its own. This lets the WebView load
+ * the images of an article in parallel rather than one at a time through a single reader.
+ * Readers are opened on demand, up to the maximum, and kept open until the pool is closed.
+ */
+class ZimReaderPool<R> {
+    interface Factory<R> {
+        @NonNull R open() throws IOException;
+        void close(@NonNull R reader) throws IOException;
+    }
+
+    interface Read<R, T> {
+        T read(@NonNull R reader) throws IOException;
+    }
+
+    @NonNull private final Factory<R> factory;
+    private final int maxReaders;
+    @NonNull private final Deque<R> idle = new ArrayDeque<>();
+    private int open;
+    private boolean closed;
+
+    /** @param reader An open reader to add to the pool, such as the one the compilation was
+     *                validated with. */
+    ZimReaderPool(@NonNull Factory<R> factory, int maxReaders, @NonNull R reader) {
+        this.factory = factory;
+        this.maxReaders = maxReaders;
+        idle.push(reader);
+        open = 1;
+    }
+
+    /** Runs read with a reader borrowed from the pool, waiting for one if all are in use. */
+    <T> T read(@NonNull Read<R, T> read) throws IOException {
+        R reader = acquire();
+        try {
+            return read.read(reader);
+        } finally {
+            release(reader);
+        }
+    }
+
+    /** Closes the idle readers. Readers in use are closed when they are returned. */
+    void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        closeIdle();
+    }
+
+    synchronized int openCount() {
+        return open;
+    }
+
+    @NonNull private R acquire() throws IOException {
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    throw new IOException("Compilation closed");
+                }
+                if (!idle.isEmpty()) {
+                    return idle.pop();
+                }
+                if (open < maxReaders) {
+                    // Reserve the slot and open the reader outside of the lock.
+                    open++;
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+
+        try {
+            return factory.open();
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                open--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void release(@NonNull R reader) throws IOException {
+        boolean close;
+        synchronized (this) {
+            close = closed;
+            if (close) {
+                open--;
+            } else {
+                // The most recently used reader is reused first so that the others stay idle.
+                idle.push(reader);
+                notifyAll();
+            }
+        }
+        if (close) {
+            factory.close(reader);
+        }
+    }
+
+    private void closeIdle() throws IOException {
+        IOException error = null;
+        while (true) {
+            R reader;
+            synchronized (this) {
+                reader = idle.poll();
+                if (reader == null) {
+                    break;
+                }
+                open--;
+            }
+            try {
+                factory.close(reader);
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.wikipedia.offline;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Reads the titles of the articles of a compilation one at a time, in the order of the title
+ * pointer list of the ZIM file, so that all titles can be listed without holding them in memory.
+ * The reader has no enumeration of titles, so the file is read directly. Redirects are listed as
+ * they are by a search of the reader.
+ *
+ * ZIM header, little-endian: magic, version, UUID, article count, cluster count, URL pointer list
+ * position, title pointer list position. The title pointer list holds the index in the URL pointer
+ * list of each entry, sorted by namespace and title. A directory entry holds the MIME type,
+ * parameter length, namespace, revision, cluster and blob numbers or the redirect index for a
+ * redirect, and the null terminated UTF-8 URL and title. An empty title is the URL.
+ */
+final class ZimTitleReader implements TitleIndex.Titles, Closeable {
+    private static final int MAGIC = 0x044D495A;
+    private static final int ARTICLE_COUNT_POSITION = 24;
+    private static final int URL_POINTERS_POSITION = 32;
+    private static final int TITLE_POINTERS_POSITION = 40;
+    private static final int URL_POINTER_SIZE = 8;
+    private static final int NAMESPACE_POSITION = 3;
+    private static final int ENTRY_SIZE = 16;
+    private static final int REDIRECT_ENTRY_SIZE = 12;
+    private static final int REDIRECT_MIME_TYPE = 0xFFFF;
+    private static final int UNSIGNED_SHORT = 0xFFFF;
+    private static final long UNSIGNED_INT = 0xFFFFFFFFL;
+    private static final byte ARTICLE_NAMESPACE = 'A';
+    private static final int MIN_ENTRY_READ = 512;
+    @NonNull private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @NonNull private final RandomAccessFile entries;
+    @NonNull private final DataInputStream titlePointers;
+    private final long urlPointers;
+    private long remaining;
+    @NonNull private byte[] entry = new byte[MIN_ENTRY_READ];
+
+    ZimTitleReader(@NonNull File file) throws IOException {
+        entries = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer header = read(0, TITLE_POINTERS_POSITION + URL_POINTER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a ZIM file: " + file);
+            }
+            remaining = header.getInt(ARTICLE_COUNT_POSITION) & UNSIGNED_INT;
+            urlPointers = header.getLong(URL_POINTERS_POSITION);
+            titlePointers = new DataInputStream(new BufferedInputStream(
+                    skip(new FileInputStream(file), header.getLong(TITLE_POINTERS_POSITION))));
+        } catch (IOException e) {
+            entries.close();
+            throw e;
+        }
+    }
+
+    /** @return The next title in the article namespace, or null past the last. */
+    @Nullable @Override public String next() throws IOException {
+        while (remaining > 0) {
+            remaining--;
+            int index = Integer.reverseBytes(titlePointers.readInt());
+            long position = read(urlPointers + (index & UNSIGNED_INT) * URL_POINTER_SIZE,
+                    URL_POINTER_SIZE).getLong(0);
+            int length = readEntry(position);
+
+            byte namespace = entry[NAMESPACE_POSITION];
+            if (namespace > ARTICLE_NAMESPACE) {
+                // The list is sorted by namespace.
+                remaining = 0;
+            } else if (namespace == ARTICLE_NAMESPACE) {
+                return title(length);
+            }
+        }
+        return null;
+    }
+
+    @Override public void close() throws IOException {
+        try {
+            titlePointers.close();
+        } finally {
+            entries.close();
+        }
+    }
+
+    // Reads the directory entry at position into entry, growing it until it holds the URL and
+    // title.
+    // @return The number of bytes read.
+    private int readEntry(long position) throws IOException {
+        while (true) {
+            entries.seek(position);
+            int length = Math.max(0, entries.read(entry));
+            if (length < REDIRECT_ENTRY_SIZE) {
+                throw new EOFException("Truncated directory entry at " + position);
+            }
+            int end = indexOf(entry, length, indexOf(entry, length, start()) + 1);
+            if (end >= 0) {
+                return length;
+            }
+            if (length < entry.length) {
+                throw new EOFException("Unterminated directory entry at " + position);
+            }
+            entry = new byte[entry.length * 2];
+        }
+    }
+
+    @NonNull private String title(int length) {
+        int urlStart = start();
+        int urlEnd = indexOf(entry, length, urlStart);
+        int titleEnd = indexOf(entry, length, urlEnd + 1);
+        return titleEnd == urlEnd + 1
+                ? new String(entry, urlStart, urlEnd - urlStart, UTF_8)
+                : new String(entry, urlEnd + 1, titleEnd - urlEnd - 1, UTF_8);
+    }
+
+    // @return The position of the URL in entry.
+    private int start() {
+        int mimeType = ByteBuffer.wrap(entry).order(ByteOrder.LITTLE_ENDIAN).getShort(0)
+                & UNSIGNED_SHORT;
+        return mimeType == REDIRECT_MIME_TYPE ? REDIRECT_ENTRY_SIZE : ENTRY_SIZE;
+    }
+
+    @NonNull private ByteBuffer read(long position, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        entries.seek(position);
+        entries.readFully(bytes);
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // @return The position of the first null byte in bytes from start, or -1 if none.
+    private static int indexOf(@NonNull byte[] bytes, int length, int start) {
+        if (start < 0) {
+            return -1;
+        }
+        for (int i = start; i < length; i++) {
+            if (bytes[i] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @NonNull private static InputStream skip(@NonNull InputStream in, long count)
+            throws IOException {
+        try {
+            long skipped = 0;
+            while (skipped < count) {
+                long n = in.skip(count - skipped);
+                if (n <= 0) {
+                    throw new EOFException();
+                }
+                skipped += n;
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+}
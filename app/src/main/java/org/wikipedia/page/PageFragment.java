@@ -50,6 +50,7 @@ import org.wikipedia.bridge.DarkModeMarshaller;
 import org.wikipedia.concurrency.CallbackTask;
 import org.wikipedia.dataclient.WikiSite;
 import org.wikipedia.dataclient.okhttp.OkHttpWebViewClient;
+import org.wikipedia.dataclient.page.PageCache;
 import org.wikipedia.descriptions.DescriptionEditActivity;
 import org.wikipedia.edit.EditHandler;
 import org.wikipedia.gallery.GalleryActivity;
@@ -65,6 +66,7 @@ import org.wikipedia.page.leadimages.PageHeaderView;
 import org.wikipedia.page.snippet.CompatActionMode;
 import org.wikipedia.page.snippet.ShareHandler;
 import org.wikipedia.page.tabs.Tab;
+import org.wikipedia.page.tabs.TabStore;
 import org.wikipedia.page.tabs.TabsProvider;
 import org.wikipedia.readinglist.AddToReadingListDialog;
 import org.wikipedia.readinglist.ReadingList;
@@ -544,7 +546,7 @@ public class PageFragment extends Fragment implements BackPressedHandler {
         @Override
         public void onCloseAllTabs() {
             tabList.clear();
-            Prefs.clearTabs();
+            TabStore.instance().clear();
             getActivity().finish();
         }
     };
@@ -557,7 +559,7 @@ public class PageFragment extends Fragment implements BackPressedHandler {
         addTimeSpentReading(activeTimer.getElapsedSec());
 
         pageFragmentLoadState.updateCurrentBackStackItem();
-        Prefs.setTabs(tabList);
+        TabStore.instance().save(tabList);
         closePageScrollFunnel();
 
         long time = tabList.size() >= 1 && !pageFragmentLoadState.backStackEmpty()
@@ -674,6 +676,12 @@ public class PageFragment extends Fragment implements BackPressedHandler {
         updateBookmark();
     }
 
+    /** @return True if the page being loaded was refreshed by the user and must not be served
+     *          from memory. */
+    boolean isPageRefreshed() {
+        return pageRefreshed;
+    }
+
     public Bitmap getLeadImageBitmap() {
         return leadImagesHandler.getLeadImageBitmap();
     }
@@ -720,6 +728,10 @@ public class PageFragment extends Fragment implements BackPressedHandler {
             && resultCode == EditHandler.RESULT_REFRESH_PAGE) {
             pageFragmentLoadState.backFromEditing(data);
             FeedbackUtil.showMessage(getActivity(), R.string.edit_saved_successfully);
+            // the content in memory predates the edit, whether cached under the title requested or
+            // the one it resolved to...
+            PageCache.instance().invalidate(model.getTitleOriginal());
+            PageCache.instance().invalidate(model.getTitle());
             // and reload the page...
             loadPage(model.getTitleOriginal(), model.getCurEntry(), false);
         } else if (requestCode == Constants.ACTIVITY_REQUEST_DESCRIPTION_EDIT_TUTORIAL
@@ -912,6 +924,20 @@ public class PageFragment extends Fragment implements BackPressedHandler {
         }
     }
 
+    public void onPageFirstMeaningfulPaint(long elapsedMillis) {
+        L.d("First meaningful paint after " + elapsedMillis + " ms");
+        if (getPageLoadCallbacks() != null) {
+            getPageLoadCallbacks().onFirstMeaningfulPaint(elapsedMillis);
+        }
+    }
+
+    public void onPageLoadRendered(long elapsedMillis) {
+        L.d("Page rendered after " + elapsedMillis + " ms");
+        if (getPageLoadCallbacks() != null) {
+            getPageLoadCallbacks().onLoadRendered(elapsedMillis);
+        }
+    }
+
     public void onPageLoadError(@NonNull Throwable caught) {
         if (!isAdded()) {
             return;
@@ -1228,9 +1254,7 @@ public class PageFragment extends Fragment implements BackPressedHandler {
     }
 
     private void initTabs() {
-        if (Prefs.hasTabs()) {
-            tabList.addAll(Prefs.getTabs());
-        }
+        tabList.addAll(TabStore.instance().load());
 
         if (tabList.isEmpty()) {
             tabList.add(new Tab());
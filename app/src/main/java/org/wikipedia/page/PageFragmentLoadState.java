@@ -3,6 +3,9 @@ package org.wikipedia.page;
 import android.content.Intent;
 import android.content.res.Resources;
 import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.support.annotation.DimenRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
@@ -27,6 +30,7 @@ import org.wikipedia.dataclient.ServiceError;
 import org.wikipedia.dataclient.mwapi.MwException;
 import org.wikipedia.dataclient.mwapi.MwQueryResponse;
 import org.wikipedia.dataclient.mwapi.MwServiceError;
+import org.wikipedia.dataclient.page.PageCache;
 import org.wikipedia.dataclient.page.PageClient;
 import org.wikipedia.dataclient.page.PageClientFactory;
 import org.wikipedia.dataclient.page.PageLead;
@@ -44,6 +48,7 @@ import org.wikipedia.pageimages.PageImagesClient;
 import org.wikipedia.readinglist.ReadingList;
 import org.wikipedia.readinglist.page.ReadingListPage;
 import org.wikipedia.readinglist.page.database.ReadingListDaoProxy;
+import org.wikipedia.savedpages.SavedPageSyncService;
 import org.wikipedia.util.DateUtil;
 import org.wikipedia.util.DeviceUtil;
 import org.wikipedia.util.DimenUtil;
@@ -103,6 +108,10 @@ public class PageFragmentLoadState {
     private int sectionTargetFromIntent;
     private String sectionTargetFromTitle;
 
+    @NonNull private final SectionBatcher sectionBatcher = new SectionBatcher();
+    private long loadStartMillis;
+    private boolean firstMeaningfulPaintReported;
+
     private ErrorCallback networkErrorCallback;
 
     // copied fields
@@ -152,6 +161,8 @@ public class PageFragmentLoadState {
         }
 
         loading = true;
+        loadStartMillis = SystemClock.elapsedRealtime();
+        firstMeaningfulPaintReported = false;
 
         // increment our sequence number, so that any async tasks that depend on the sequence
         // will invalidate themselves upon completion.
@@ -290,7 +301,11 @@ public class PageFragmentLoadState {
                     if (!sequenceNumber.inSync(payload.getInt("sequence"))) {
                         return;
                     }
-                    pageLoadDisplayNonLeadSection(payload.getInt("index"));
+                    boolean viewportFilled = payload.optBoolean("viewportFilled");
+                    if (viewportFilled) {
+                        onPageFirstMeaningfulPaint();
+                    }
+                    pageLoadDisplaySections(payload.getInt("index"), viewportFilled);
                 } catch (JSONException e) {
                     L.logRemoteErrorIfProd(e);
                 }
@@ -305,6 +320,8 @@ public class PageFragmentLoadState {
                     }
 
                     // Do any other stuff that should happen upon page load completion...
+                    onPageFirstMeaningfulPaint();
+                    fragment.onPageLoadRendered(SystemClock.elapsedRealtime() - loadStartMillis);
                     if (fragment.callback() != null) {
                         fragment.callback().onPageUpdateProgressBar(false, true, 0);
                     }
@@ -340,6 +357,14 @@ public class PageFragmentLoadState {
                 bottomContentHandler.beginLayout();
             }
         });
+        bridge.addListener("pageLoadError", new SynchronousBridgeListener() {
+            @Override
+            public void onMessage(JSONObject payload) {
+                // Content streamed to the page could not be fetched.
+                commonSectionFetchOnCatch(new IOException(payload.optString("message")),
+                        sequenceNumber.get());
+            }
+        });
         bridge.addListener("pageInfo", new CommunicationBridge.JSEventListener() {
             @Override
             public void onMessage(String message, JSONObject payload) {
@@ -362,6 +387,9 @@ public class PageFragmentLoadState {
                         model.setReadingListPage(page);
                         fragment.updateBookmark();
                         pageLoadPrepareWebView();
+                        if (page != null) {
+                            SavedPageSyncService.updateImageDensity(page);
+                        }
                     }
 
                     @Override
@@ -418,14 +446,29 @@ public class PageFragmentLoadState {
     @VisibleForTesting
     protected void pageLoadLeadSection(final int startSequenceNum) {
         app.getSessionFunnel().leadSectionFetchStart();
+        final PageTitle title = model.getTitle();
+        final int leadImageWidth = calculateLeadImageWidth();
+        final boolean noImages = !app.isImageDownloadEnabled();
+        PageLead cachedLead = fragment.isPageRefreshed() ? null
+                : PageCache.instance().lead(title, leadImageWidth, noImages);
+        if (cachedLead != null) {
+            app.getSessionFunnel().leadSectionFetchEnd();
+            pageLoadLeadSectionComplete(cachedLead, startSequenceNum);
+            return;
+        }
+
         PageClientFactory
-                .create(model.getTitle().getWikiSite(), model.getTitle().namespace())
+                .create(title.getWikiSite(), title.namespace())
                 .lead(null, model.shouldSaveOffline() ? PageClient.CacheOption.SAVE : PageClient.CacheOption.CACHE,
-                        model.getTitle().getPrefixedText(), calculateLeadImageWidth(), !app.isImageDownloadEnabled())
+                        title.getPrefixedText(), leadImageWidth, noImages)
                 .enqueue(new retrofit2.Callback<PageLead>() {
                     @Override public void onResponse(@NonNull Call<PageLead> call, @NonNull Response<PageLead> rsp) {
                         app.getSessionFunnel().leadSectionFetchEnd();
                         PageLead lead = rsp.body();
+                        if (lead != null && !lead.hasError()) {
+                            PageCache.instance().putLead(title, leadImageWidth, noImages,
+                                    rsp.raw().request().url().toString(), lead);
+                        }
                         pageLoadLeadSectionComplete(lead, startSequenceNum);
                         if (rsp.raw().cacheResponse() != null) {
                             showPageOfflineMessage(rsp.raw().header("date", ""));
@@ -498,7 +541,7 @@ public class PageFragmentLoadState {
 
             //give it our expected scroll position, in case we need the page to be pre-scrolled upon loading.
             zimPayload.put("scrollY", (int) (stagedScrollY / DimenUtil.getDensityScalar()));
-            bridge.sendMessage("displayFromZim", zimPayload);
+            bridge.sendMessage("displayFromZim", zimPayload, "zimhtml");
             showOfflineCompilationMessage(downloadDate);
         } catch (JSONException e) {
             throw new RuntimeException(e);
@@ -565,7 +608,7 @@ public class PageFragmentLoadState {
 
     private void sendLeadSectionPayload(Page page) {
         JSONObject leadSectionPayload = leadSectionPayload(page);
-        bridge.sendMessage("displayLeadSection", leadSectionPayload);
+        bridge.sendMessage("displayLeadSection", leadSectionPayload, "section.text");
         L.d("Sent message 'displayLeadSection' for page: " + page.getDisplayTitle());
     }
 
@@ -657,45 +700,99 @@ public class PageFragmentLoadState {
         return app.getRemoteConfig().getConfig();
     }
 
-    private void pageLoadDisplayNonLeadSection(int index) {
+    /**
+     * Sends the batch of sections starting at index, immediately while the viewport is being
+     * filled and otherwise once the main thread is idle so that the remaining sections do not
+     * compete with user interaction.
+     */
+    private void pageLoadDisplaySections(final int index, boolean viewportFilled) {
+        if (viewportFilled) {
+            final int sequence = sequenceNumber.get();
+            Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                @Override public boolean queueIdle() {
+                    if (fragment.isAdded() && sequenceNumber.inSync(sequence)) {
+                        sendSections(index, true);
+                    }
+                    return false;
+                }
+            });
+        } else {
+            sendSections(index, false);
+        }
+    }
+
+    private void sendSections(int index, boolean viewportFilled) {
+        Page page = model.getPage();
+        List<Section> sections = page.getSections();
+        String fragmentAnchor = targetFragment(page);
+        int end = index >= sections.size() ? index
+                : sectionBatcher.end(sections, index, targetIndex(page, fragmentAnchor),
+                viewportFilled);
         if (fragment.callback() != null) {
             fragment.callback().onPageUpdateProgressBar(true, false,
-                    Constants.PROGRESS_BAR_MAX_VALUE / model.getPage()
-                            .getSections().size() * index);
+                    Constants.PROGRESS_BAR_MAX_VALUE / sections.size() * index);
         }
         try {
-            final Page page = model.getPage();
             JSONObject wrapper = new JSONObject();
             wrapper.put("sequence", sequenceNumber.get());
-            boolean lastSection = index == page.getSections().size();
-            if (!lastSection) {
-                JSONObject section = page.getSections().get(index).toJSON();
-                wrapper.put("section", section);
-                wrapper.put("index", index);
-                if (sectionTargetFromIntent > 0 && sectionTargetFromIntent < page.getSections().size()) {
-                    //if we have a section to scroll to (from our Intent):
-                    wrapper.put("fragment",
-                            page.getSections().get(sectionTargetFromIntent).getAnchor());
-                } else if (sectionTargetFromTitle != null) {
-                    //if we have a section to scroll to (from our PageTitle):
-                    wrapper.put("fragment", sectionTargetFromTitle);
-                } else if (!TextUtils.isEmpty(model.getTitle().getFragment())) {
-                    // It's possible, that the link was a redirect and the new title has a fragment
-                    // scroll to it, if there was no fragment so far
-                    wrapper.put("fragment", model.getTitle().getFragment());
-                }
-            } else {
+            JSONArray batch = new JSONArray();
+            String[] streamedFields = new String[end - index];
+            for (int i = index; i < end; i++) {
+                batch.put(sections.get(i).toJSON());
+                streamedFields[i - index] = "sections." + (i - index) + ".text";
+            }
+            wrapper.put("sections", batch);
+            wrapper.put("index", index);
+            if (fragmentAnchor != null) {
+                wrapper.put("fragment", fragmentAnchor);
+            }
+            if (end == sections.size()) {
                 wrapper.put("noMore", true);
             }
             //give it our expected scroll position, in case we need the page to be pre-scrolled upon loading.
             wrapper.put("scrollY",
                     (int) (stagedScrollY / DimenUtil.getDensityScalar()));
-            bridge.sendMessage("displaySection", wrapper);
+            bridge.sendMessage("displaySections", wrapper, streamedFields);
         } catch (JSONException e) {
             L.logRemoteErrorIfProd(e);
         }
     }
 
+    @Nullable private String targetFragment(@NonNull Page page) {
+        if (sectionTargetFromIntent > 0 && sectionTargetFromIntent < page.getSections().size()) {
+            //if we have a section to scroll to (from our Intent):
+            return page.getSections().get(sectionTargetFromIntent).getAnchor();
+        } else if (sectionTargetFromTitle != null) {
+            //if we have a section to scroll to (from our PageTitle):
+            return sectionTargetFromTitle;
+        } else if (!TextUtils.isEmpty(model.getTitle().getFragment())) {
+            // It's possible, that the link was a redirect and the new title has a fragment
+            // scroll to it, if there was no fragment so far
+            return model.getTitle().getFragment();
+        }
+        return null;
+    }
+
+    /** @return The index of the section with anchor or zero if none. */
+    private int targetIndex(@NonNull Page page, @Nullable String anchor) {
+        if (anchor != null) {
+            List<Section> sections = page.getSections();
+            for (int i = 1; i < sections.size(); i++) {
+                if (anchor.equals(sections.get(i).getAnchor())) {
+                    return i;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void onPageFirstMeaningfulPaint() {
+        if (!firstMeaningfulPaintReported) {
+            firstMeaningfulPaintReported = true;
+            fragment.onPageFirstMeaningfulPaint(SystemClock.elapsedRealtime() - loadStartMillis);
+        }
+    }
+
     private void pageLoadLeadSectionComplete(PageLead pageLead, int startSequenceNum) {
         if (!fragment.isAdded() || !sequenceNumber.inSync(startSequenceNum)) {
             return;
@@ -757,14 +854,29 @@ public class PageFragmentLoadState {
 
     private void pageLoadRemainingSections(final int startSequenceNum) {
         app.getSessionFunnel().restSectionsFetchStart();
+        final PageTitle title = model.getTitle();
+        final long revision = model.getPage().getPageProperties().getRevisionId();
+        final boolean noImages = !app.isImageDownloadEnabled();
+        PageRemaining cachedSections = fragment.isPageRefreshed() ? null
+                : PageCache.instance().sections(title, revision, noImages);
+        if (cachedSections != null) {
+            app.getSessionFunnel().restSectionsFetchEnd();
+            pageLoadRemainingSectionsComplete(cachedSections, startSequenceNum);
+            return;
+        }
+
         PageClientFactory
-                .create(model.getTitle().getWikiSite(), model.getTitle().namespace())
+                .create(title.getWikiSite(), title.namespace())
                 .sections(null, model.shouldSaveOffline() ? PageClient.CacheOption.SAVE : PageClient.CacheOption.CACHE,
-                        model.getTitle().getPrefixedText(), !app.isImageDownloadEnabled())
+                        title.getPrefixedText(), noImages)
                 .enqueue(new retrofit2.Callback<PageRemaining>() {
                     @Override public void onResponse(@NonNull Call<PageRemaining> call, @NonNull Response<PageRemaining> rsp) {
                         app.getSessionFunnel().restSectionsFetchEnd();
                         PageRemaining sections = rsp.body();
+                        if (sections != null) {
+                            PageCache.instance().putSections(title, revision, noImages,
+                                    rsp.raw().request().url().toString(), sections);
+                        }
                         pageLoadRemainingSectionsComplete(sections, startSequenceNum);
                     }
 
@@ -783,7 +895,7 @@ public class PageFragmentLoadState {
 
         pageRemaining.mergeInto(model.getPage());
 
-        pageLoadDisplayNonLeadSection(1);
+        pageLoadDisplaySections(1, false);
         loading = false;
         fragment.onPageLoadComplete();
     }
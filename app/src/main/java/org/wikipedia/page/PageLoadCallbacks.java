@@ -8,5 +8,11 @@ import android.support.annotation.NonNull;
 public interface PageLoadCallbacks {
     /** Called when page has finished loading */
     void onLoadComplete();
+    /** Called when the sections at the initial scroll position have been rendered.
+     * @param elapsedMillis Time since the page load began. */
+    void onFirstMeaningfulPaint(long elapsedMillis);
+    /** Called when all sections of the page have been rendered.
+     * @param elapsedMillis Time since the page load began. */
+    void onLoadRendered(long elapsedMillis);
     void onLoadError(@NonNull Throwable e);
 }
@@ -96,12 +96,19 @@ public class PageTitle implements Parcelable {
     }
 
     public PageTitle(@Nullable final String namespace, @NonNull String text, @Nullable String fragment, @Nullable String thumbUrl, @NonNull WikiSite wiki) {
+        this(namespace, text, fragment, thumbUrl, null, null, wiki);
+    }
+
+    public PageTitle(@Nullable String namespace, @NonNull String text, @Nullable String fragment,
+                     @Nullable String thumbUrl, @Nullable String description,
+                     @Nullable PageProperties properties, @NonNull WikiSite wiki) {
         this.namespace = namespace;
         this.text = text;
         this.fragment = fragment;
         this.wiki = wiki;
         this.thumbUrl = thumbUrl;
-        properties = null;
+        this.description = description;
+        this.properties = properties;
     }
 
     public PageTitle(@Nullable String text, @NonNull WikiSite wiki, @Nullable String thumbUrl, @Nullable String description, @Nullable PageProperties properties) {
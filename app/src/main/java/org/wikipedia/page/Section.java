@@ -2,10 +2,18 @@ package org.wikipedia.page;
 
 import android.support.annotation.NonNull;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.stream.JsonReader;
+
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.wikipedia.json.GsonUtil;
+import org.wikipedia.json.StreamingTypeAdapter;
+
+import java.io.IOException;
 
 import static org.apache.commons.lang3.StringUtils.defaultString;
 
@@ -111,4 +119,46 @@ public class Section {
     @NonNull public String getContent() {
         return defaultString(text);
     }
+
+    @NonNull public static TypeAdapterFactory typeAdapterFactory() {
+        return StreamingTypeAdapter.factory(Section.class, new StreamingTypeAdapter.Creator<Section>() {
+            @NonNull @Override public StreamingTypeAdapter<Section> create(@NonNull Gson gson,
+                                                                           @NonNull TypeAdapter<Section> delegate) {
+                return new Adapter(delegate);
+            }
+        });
+    }
+
+    private static final class Adapter extends StreamingTypeAdapter<Section> {
+        Adapter(@NonNull TypeAdapter<Section> delegate) {
+            super(delegate);
+        }
+
+        @NonNull @Override protected Section newInstance() {
+            return new Section();
+        }
+
+        @Override protected boolean readField(@NonNull JsonReader in, @NonNull String name,
+                                              @NonNull Section value) throws IOException {
+            switch (name) {
+                case "id":
+                    value.id = nextInt(in, value.id);
+                    return true;
+                case "toclevel":
+                    value.toclevel = nextInt(in, value.toclevel);
+                    return true;
+                case "line":
+                    value.line = nextString(in);
+                    return true;
+                case "anchor":
+                    value.anchor = nextString(in);
+                    return true;
+                case "text":
+                    value.text = nextString(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package org.wikipedia.page;
+
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Groups the non-lead sections of a page into the batches sent to the WebView by a single
+ * displaySections message. Until the viewport is filled, batches are kept small so the first
+ * screen renders quickly, except that the first batch extends to the section being scrolled to.
+ * The remaining sections are coalesced into large chunks.
+ */
+class SectionBatcher {
+    /** Chars of section HTML rendered before the viewport is filled, about a screen or two. */
+    static final int VIEWPORT_BATCH_LENGTH = 32 * 1024;
+    static final int CHUNK_LENGTH = 256 * 1024;
+    static final int MAX_CHUNK_SECTIONS = 50;
+
+    /**
+     * @param start Index of the first section of the batch.
+     * @param target Index of the section to scroll to, or zero if none.
+     * @param viewportFilled True if the sections already rendered fill the viewport at the
+     *                       initial scroll position.
+     * @return Index following the last section of the batch.
+     */
+    int end(@NonNull List<Section> sections, int start, int target, boolean viewportFilled) {
+        int budget = viewportFilled ? CHUNK_LENGTH : VIEWPORT_BATCH_LENGTH;
+        int end = start;
+        int length = 0;
+        while (end < sections.size()
+                && (end == start || end <= target
+                || (length < budget && end - start < MAX_CHUNK_SECTIONS))) {
+            length += sections.get(end).getContent().length();
+            end++;
+        }
+        return end;
+    }
+}
@@ -7,6 +7,7 @@ import android.net.Uri;
 import android.os.RemoteException;
 
 import org.wikipedia.R;
+import org.wikipedia.concurrency.Lane;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.database.contract.PageHistoryContract;
 import org.wikipedia.database.contract.PageImageHistoryContract;
@@ -30,6 +31,10 @@ public class MainPageReadMoreTopicTask extends SaneAsyncTask<HistoryEntry> {
         this.age = age;
     }
 
+    @Override protected Lane lane() {
+        return Lane.DB;
+    }
+
     @Override
     public HistoryEntry performTask() throws Throwable {
         Cursor c = getInterestedHistoryEntry();
@@ -25,6 +25,8 @@ import org.wikipedia.activity.FragmentUtil;
 import org.wikipedia.analytics.GalleryFunnel;
 import org.wikipedia.analytics.LinkPreviewFunnel;
 import org.wikipedia.concurrency.CallbackTask;
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
 import org.wikipedia.dataclient.ServiceError;
 import org.wikipedia.dataclient.page.PageClientFactory;
 import org.wikipedia.dataclient.page.PageSummary;
@@ -124,7 +126,7 @@ public class LinkPreviewDialog extends ExtendedBottomSheetDialogFragment
 
         thumbnailGallery = (GalleryThumbnailScrollView) rootView.findViewById(R.id.link_preview_thumbnail_gallery);
         if (app.isImageDownloadEnabled()) {
-            CallbackTask.execute(new CallbackTask.Task<Map<String, ImageInfo>>() {
+            CallbackTask.execute(Lane.IO, Priority.HIGH, new CallbackTask.Task<Map<String, ImageInfo>>() {
                 @Override public Map<String, ImageInfo> execute() throws Throwable {
                     return client.request(pageTitle.getWikiSite(), pageTitle, true);
 
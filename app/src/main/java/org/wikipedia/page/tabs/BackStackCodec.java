@@ -0,0 +1,148 @@
+package org.wikipedia.page.tabs;
+
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.history.HistoryEntry;
+import org.wikipedia.page.PageBackStackItem;
+import org.wikipedia.page.PageProperties;
+import org.wikipedia.page.PageTitle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Encodes a back stack in the binary format of the tab files of {@link TabStore}. Titles are
+ * written field by field and the title of a history entry is omitted when it is the title of its
+ * item, as it usually is. The rarely present page properties are written in their JSON form.
+ */
+final class BackStackCodec {
+    private static final int VERSION = 1;
+
+    @NonNull static byte[] encode(@NonNull List<PageBackStackItem> backStack) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(VERSION);
+            out.writeInt(backStack.size());
+            for (PageBackStackItem item : backStack) {
+                writeTitle(out, item.getTitle());
+                HistoryEntry entry = item.getHistoryEntry();
+                boolean sameTitle = sameFields(entry.getTitle(), item.getTitle());
+                out.writeBoolean(sameTitle);
+                if (!sameTitle) {
+                    writeTitle(out, entry.getTitle());
+                }
+                out.writeLong(entry.getTimestamp().getTime());
+                out.writeInt(entry.getSource());
+                out.writeInt(entry.getTimeSpentSec());
+                out.writeInt(item.getScrollY());
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Not thrown by a ByteArrayOutputStream.
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @NonNull static List<PageBackStackItem> decode(@NonNull byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unknown back stack version " + version);
+        }
+        int size = in.readInt();
+        List<PageBackStackItem> backStack = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PageTitle title = readTitle(in);
+            PageTitle entryTitle = in.readBoolean() ? title : readTitle(in);
+            HistoryEntry entry = new HistoryEntry(entryTitle, new Date(in.readLong()), in.readInt(),
+                    in.readInt());
+            PageBackStackItem item = new PageBackStackItem(title, entry);
+            item.setScrollY(in.readInt());
+            backStack.add(item);
+        }
+        return backStack;
+    }
+
+    private static void writeTitle(@NonNull DataOutputStream out, @NonNull PageTitle title)
+            throws IOException {
+        writeString(out, title.getNamespace());
+        out.writeUTF(title.getText());
+        writeString(out, title.getFragment());
+        writeString(out, title.getThumbUrl());
+        writeString(out, title.getDescription());
+        writeString(out, propertiesJson(title));
+        out.writeUTF(title.getWikiSite().url());
+        out.writeUTF(title.getWikiSite().languageCode());
+    }
+
+    // @return True if the titles write the same fields, so that either can be read in place of the
+    // other. PageTitle.equals() compares only the prefixed text and the wiki.
+    private static boolean sameFields(@NonNull PageTitle a, @NonNull PageTitle b) {
+        return a == b || StringUtils.equals(a.getNamespace(), b.getNamespace())
+                && a.getText().equals(b.getText())
+                && StringUtils.equals(a.getFragment(), b.getFragment())
+                && StringUtils.equals(a.getThumbUrl(), b.getThumbUrl())
+                && StringUtils.equals(a.getDescription(), b.getDescription())
+                && a.getWikiSite().url().equals(b.getWikiSite().url())
+                && a.getWikiSite().languageCode().equals(b.getWikiSite().languageCode())
+                && StringUtils.equals(propertiesJson(a), propertiesJson(b));
+    }
+
+    @Nullable private static String propertiesJson(@NonNull PageTitle title) {
+        PageProperties properties = title.getProperties();
+        return properties == null ? null : properties.toJSON().toString();
+    }
+
+    @NonNull private static PageTitle readTitle(@NonNull DataInputStream in) throws IOException {
+        String namespace = readString(in);
+        String text = in.readUTF();
+        String fragment = readString(in);
+        String thumbUrl = readString(in);
+        String description = readString(in);
+        String properties = readString(in);
+        WikiSite wiki = new WikiSite(Uri.parse(in.readUTF()), in.readUTF());
+        try {
+            return new PageTitle(namespace, text, fragment, thumbUrl, description,
+                    properties == null ? null : new PageProperties(new JSONObject(properties)), wiki);
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // writeUTF() is limited to 64 KiB, which titles and descriptions are well within but the JSON
+    // of page properties may not be.
+    private static void writeString(@NonNull DataOutputStream out, @Nullable String str)
+            throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null) {
+            byte[] utf8 = str.getBytes("UTF-8");
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    @Nullable private static String readString(@NonNull DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] utf8 = new byte[in.readInt()];
+        in.readFully(utf8);
+        return new String(utf8, "UTF-8");
+    }
+
+    private BackStackCodec() { }
+}
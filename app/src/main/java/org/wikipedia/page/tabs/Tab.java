@@ -1,6 +1,7 @@
 package org.wikipedia.page.tabs;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import org.wikipedia.model.BaseModel;
 import org.wikipedia.page.PageBackStackItem;
@@ -9,10 +10,32 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Tab extends BaseModel {
+    interface Loader {
+        void load(@NonNull List<PageBackStackItem> backStack);
+    }
+
     @NonNull private final List<PageBackStackItem> backStack = new ArrayList<>();
+    // Reads the back stack of a tab restored by TabStore on first use.
+    @Nullable private transient Loader loader;
+
+    public Tab() {
+    }
+
+    Tab(@NonNull Loader loader) {
+        this.loader = loader;
+    }
 
     @NonNull
     public List<PageBackStackItem> getBackStack() {
+        if (loader != null) {
+            Loader pending = loader;
+            loader = null;
+            pending.load(backStack);
+        }
         return backStack;
     }
+
+    boolean isLoaded() {
+        return loader == null;
+    }
 }
@@ -0,0 +1,445 @@
+package org.wikipedia.page.tabs;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
+import org.wikipedia.concurrency.PriorityExecutor;
+import org.wikipedia.page.PageBackStackItem;
+import org.wikipedia.settings.Prefs;
+import org.wikipedia.util.log.L;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Persists the tabs in binary files: one per tab holding its back stack, see
+ * {@link BackStackCodec}, and an index of the tabs in order with the size of each back stack.
+ *
+ * Saving encodes the tabs on the calling thread, which is cheap, and writes only the files that
+ * changed on the executor. Saves made while a write is pending are coalesced into it. The index
+ * and the back stack of the current tab are read on the executor, ahead of use by preload(). The
+ * back stacks of all other tabs are read on first use.
+ *
+ * Tabs are loaded and saved on the main thread.
+ */
+public class TabStore {
+    private static final int VERSION = 1;
+    private static final String INDEX = "index";
+    private static final String TAB_EXTENSION = ".tab";
+
+    @Nullable private static TabStore INSTANCE;
+
+    @NonNull private final File dir;
+    @NonNull private final Executor executor;
+
+    // The state of the tabs as last saved, kept on the main thread.
+    @NonNull private final Map<Tab, Long> ids = new IdentityHashMap<>();
+    @NonNull private final Map<Long, byte[]> saved = new HashMap<>();
+    @NonNull private final Map<Long, Integer> savedSizes = new HashMap<>();
+    // The sizes of the back stacks in the order of the tabs, once read or saved.
+    @Nullable private int[] backStackSizes;
+    private long nextId;
+    // The tabs being read or read by preload(), until taken by load() or outdated by a save.
+    @Nullable private Preload preload;
+
+    // The writes yet to be made by flush(). Writes are made outside the lock so that saving on
+    // the main thread never waits for them, and one at a time under writeLock so that a write
+    // never overtakes an earlier one.
+    @NonNull private final Object lock = new Object();
+    @Nullable private byte[] pendingIndex;
+    @NonNull private final Map<Long, byte[]> pendingTabs = new LinkedHashMap<>();
+    @NonNull private final Set<Long> pendingDeletes = new HashSet<>();
+    @NonNull private final Object writeLock = new Object();
+
+    @NonNull public static synchronized TabStore instance() {
+        if (INSTANCE == null) {
+            INSTANCE = new TabStore(new File(WikipediaApp.getInstance().getFilesDir(), "tabs"),
+                    PriorityExecutor.executor(Lane.IO, Priority.NORMAL));
+        }
+        return INSTANCE;
+    }
+
+    @VisibleForTesting TabStore(@NonNull File dir, @NonNull Executor executor) {
+        this.dir = dir;
+        this.executor = executor;
+    }
+
+    /**
+     * Reads the saved tabs on the executor unless already being read, so that load() and count()
+     * need not wait for or make the read on the main thread.
+     *
+     * @param callback Called on the main thread once the tabs are read, or null.
+     */
+    public void preload(@Nullable Runnable callback) {
+        if (preload == null) {
+            preload = new Preload();
+            executor.execute(preload);
+        }
+        if (callback != null) {
+            if (preload.isDone()) {
+                callback.run();
+            } else {
+                preload.callbacks.add(callback);
+            }
+        }
+    }
+
+    /**
+     * @return The saved tabs, or those saved by earlier versions in preferences, which are moved to
+     *         the store. Only the back stack of the last tab is read. Waits for the read started
+     *         by preload(), or starts it.
+     */
+    @NonNull public List<Tab> load() {
+        preload(null);
+        //noinspection ConstantConditions
+        Saved read = preload.await();
+        preload = null;
+        ids.clear();
+        saved.clear();
+        savedSizes.clear();
+        backStackSizes = read.sizes;
+        nextId = 0;
+
+        List<Tab> tabs = new ArrayList<>();
+        if (read.ids == null) {
+            if (Prefs.hasTabs()) {
+                tabs.addAll(Prefs.getTabs());
+                save(tabs);
+                Prefs.clearTabs();
+            }
+            return tabs;
+        }
+
+        for (int i = 0; i < read.ids.length; i++) {
+            final long id = read.ids[i];
+            final boolean last = i == read.ids.length - 1;
+            final byte[] lastTab = last ? read.lastTab : null;
+            Tab tab = new Tab(new Tab.Loader() {
+                @Override public void load(@NonNull List<PageBackStackItem> backStack) {
+                    loadBackStack(id, lastTab, backStack);
+                }
+            });
+            if (last) {
+                tab.getBackStack();
+            }
+            ids.put(tab, id);
+            savedSizes.put(id, read.sizes[i]);
+            nextId = Math.max(nextId, id + 1);
+            tabs.add(tab);
+        }
+        return tabs;
+    }
+
+    /** Saves tabs, writing the index and the back stacks that changed since the last save. */
+    public void save(@NonNull List<Tab> tabs) {
+        Map<Long, byte[]> changed = new LinkedHashMap<>();
+        Set<Long> deleted = new HashSet<>(ids.values());
+        Map<Tab, Long> tabIds = new IdentityHashMap<>();
+        long[] indexIds = new long[tabs.size()];
+        int[] sizes = new int[tabs.size()];
+        for (int i = 0; i < tabs.size(); i++) {
+            Tab tab = tabs.get(i);
+            Long id = ids.get(tab);
+            if (id == null) {
+                id = nextId++;
+            }
+            tabIds.put(tab, id);
+            deleted.remove(id);
+            indexIds[i] = id;
+
+            if (tab.isLoaded()) {
+                byte[] backStack = BackStackCodec.encode(tab.getBackStack());
+                if (!Arrays.equals(backStack, saved.get(id))) {
+                    changed.put(id, backStack);
+                    saved.put(id, backStack);
+                }
+                savedSizes.put(id, tab.getBackStack().size());
+            }
+            // An unloaded back stack is as saved.
+            Integer size = savedSizes.get(id);
+            sizes[i] = size == null ? 0 : size;
+        }
+        for (Long id : deleted) {
+            saved.remove(id);
+            savedSizes.remove(id);
+        }
+        ids.clear();
+        ids.putAll(tabIds);
+        backStackSizes = sizes;
+        preload = null;
+
+        boolean schedule;
+        synchronized (lock) {
+            schedule = pendingIndex == null;
+            pendingIndex = encodeIndex(indexIds, sizes);
+            for (Map.Entry<Long, byte[]> entry : changed.entrySet()) {
+                pendingTabs.put(entry.getKey(), entry.getValue());
+                pendingDeletes.remove(entry.getKey());
+            }
+            for (Long id : deleted) {
+                pendingTabs.remove(id);
+                pendingDeletes.add(id);
+            }
+        }
+        if (schedule) {
+            executor.execute(new Runnable() {
+                @Override public void run() {
+                    flush();
+                }
+            });
+        }
+    }
+
+    /** Deletes all tabs. */
+    public void clear() {
+        save(new ArrayList<Tab>());
+    }
+
+    /**
+     * @return The number of tabs, or 0 if there is a single tab with an empty back stack, which
+     *         does not count as a tab. Before the index is read by preload(), which this starts,
+     *         it is 0.
+     */
+    public int count() {
+        if (backStackSizes == null) {
+            preload(null);
+            //noinspection ConstantConditions
+            if (!preload.isDone()) {
+                return 0;
+            }
+            Saved read = preload.await();
+            if (read.ids == null && Prefs.hasTabs()) {
+                load();
+            } else {
+                backStackSizes = read.sizes;
+            }
+        }
+        //noinspection ConstantConditions
+        return backStackSizes.length == 1 && backStackSizes[0] == 0 ? 0 : backStackSizes.length;
+    }
+
+    // Makes the pending writes. Called on the executor.
+    @VisibleForTesting void flush() {
+        synchronized (writeLock) {
+            byte[] index;
+            Map<Long, byte[]> tabs;
+            Set<Long> deletes;
+            synchronized (lock) {
+                if (pendingIndex == null) {
+                    return;
+                }
+                index = pendingIndex;
+                tabs = new LinkedHashMap<>(pendingTabs);
+                deletes = new HashSet<>(pendingDeletes);
+                pendingIndex = null;
+                pendingTabs.clear();
+                pendingDeletes.clear();
+            }
+
+            try {
+                if (!dir.exists() && !dir.mkdirs()) {
+                    throw new IOException("Cannot create " + dir);
+                }
+                for (Map.Entry<Long, byte[]> entry : tabs.entrySet()) {
+                    writeFile(tabFile(entry.getKey()), entry.getValue());
+                }
+                // The index is written last so that it never refers to a missing tab file.
+                writeFile(new File(dir, INDEX), index);
+                for (Long id : deletes) {
+                    //noinspection ResultOfMethodCallIgnored
+                    tabFile(id).delete();
+                }
+            } catch (IOException e) {
+                L.e("Failed to save tabs", e);
+            }
+        }
+    }
+
+    // Reads the index and the back stack of the last tab. Called on the executor.
+    @NonNull private Saved read() {
+        synchronized (writeLock) {
+            // A write pending from an earlier instance of the tabs must land before they are read.
+            flush();
+            try {
+                byte[] index = readFile(new File(dir, INDEX));
+                if (index == null) {
+                    return new Saved(null, new int[0], null);
+                }
+                DataInputStream in = indexInput(index);
+                long[] tabIds = new long[in.readInt()];
+                int[] sizes = new int[tabIds.length];
+                for (int i = 0; i < tabIds.length; i++) {
+                    tabIds[i] = in.readLong();
+                    sizes[i] = in.readInt();
+                }
+                byte[] lastTab = tabIds.length == 0 ? null : readFile(tabFile(tabIds[tabIds.length - 1]));
+                return new Saved(tabIds, sizes, lastTab);
+            } catch (IOException e) {
+                L.w("Discarding unreadable tabs", e);
+                return new Saved(new long[0], new int[0], null);
+            }
+        }
+    }
+
+    // @param bytes The back stack if already read, else null.
+    private void loadBackStack(long id, @Nullable byte[] bytes,
+                               @NonNull List<PageBackStackItem> backStack) {
+        try {
+            if (bytes == null) {
+                bytes = readFile(tabFile(id));
+            }
+            if (bytes == null) {
+                throw new IOException("Missing tab " + id);
+            }
+            backStack.addAll(BackStackCodec.decode(bytes));
+            saved.put(id, bytes);
+        } catch (IOException e) {
+            L.w("Discarding unreadable tab " + id, e);
+        }
+    }
+
+    @NonNull private static DataInputStream indexInput(@NonNull byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unknown tab index version " + version);
+        }
+        return in;
+    }
+
+    @NonNull private static byte[] encodeIndex(@NonNull long[] tabIds, @NonNull int[] sizes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(VERSION);
+            out.writeInt(tabIds.length);
+            for (int i = 0; i < tabIds.length; i++) {
+                out.writeLong(tabIds[i]);
+                out.writeInt(sizes[i]);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Not thrown by a ByteArrayOutputStream.
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @NonNull private File tabFile(long id) {
+        return new File(dir, id + TAB_EXTENSION);
+    }
+
+    @Nullable private static byte[] readFile(@NonNull File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) file.length()];
+        InputStream in = new FileInputStream(file);
+        try {
+            new DataInputStream(in).readFully(bytes);
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+
+    // Written aside and renamed so that a file is never read half written.
+    private static void writeFile(@NonNull File file, @NonNull byte[] bytes) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        OutputStream out = new FileOutputStream(tmp);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+    }
+
+    // The saved tabs as read on the executor.
+    private static final class Saved {
+        // The ids of the tabs in order, or null if no tabs were ever saved.
+        @Nullable private final long[] ids;
+        @NonNull private final int[] sizes;
+        @Nullable private final byte[] lastTab;
+
+        Saved(@Nullable long[] ids, @NonNull int[] sizes, @Nullable byte[] lastTab) {
+            this.ids = ids;
+            this.sizes = sizes;
+            this.lastTab = lastTab;
+        }
+    }
+
+    private final class Preload extends FutureTask<Saved> {
+        // Called on the main thread once done; accessed only on the main thread.
+        @NonNull private final List<Runnable> callbacks = new ArrayList<>();
+
+        Preload() {
+            super(new Callable<Saved>() {
+                @Override public Saved call() {
+                    return read();
+                }
+            });
+        }
+
+        // Waits for the read on the main thread, where it is seldom still running.
+        @NonNull Saved await() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        // read() throws nothing.
+                        throw new RuntimeException(e.getCause());
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override protected void done() {
+            WikipediaApp.getInstance().runOnMainThread(new Runnable() {
+                @Override public void run() {
+                    for (Runnable callback : callbacks) {
+                        callback.run();
+                    }
+                    callbacks.clear();
+                }
+            });
+        }
+    }
+}
@@ -9,6 +9,7 @@ import android.text.TextUtils;
 import org.wikipedia.WikipediaApp;
 import org.wikipedia.concurrency.CallbackTask;
 import org.wikipedia.database.DatabaseClient;
+import org.wikipedia.database.FtsTable;
 import org.wikipedia.database.contract.ReadingListContract;
 import org.wikipedia.readinglist.database.ReadingListRow;
 import org.wikipedia.readinglist.page.ReadingListPage;
@@ -52,10 +53,13 @@ public final class ReadingListData {
         String[] selectionArgs = null;
         String searchStr = searchQuery;
         if (!TextUtils.isEmpty(searchStr)) {
+            // There are few lists but there may be many pages, which are searched by the full-text
+            // index.
             String titleCol = ReadingListContract.List.TITLE.qualifiedName();
             searchStr = searchStr.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
-            selection = "UPPER(" + titleCol + ") LIKE UPPER(?) ESCAPE '\\'";
-            selectionArgs = new String[]{"%" + searchStr + "%"};
+            selection = "UPPER(" + titleCol + ") LIKE UPPER(?) ESCAPE '\\' OR "
+                    + ReadingListContract.ListWithPagesAndDisk.SELECTION_PAGE_SEARCH;
+            selectionArgs = new String[]{"%" + searchStr + "%", FtsTable.matchQuery(searchQuery)};
         }
         String order = ReadingListContract.ListWithPagesAndDisk.ORDER_KEY + ','
                 + ReadingListContract.ListWithPagesAndDisk.ORDER_MRU;
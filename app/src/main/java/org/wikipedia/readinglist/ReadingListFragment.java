@@ -620,7 +620,8 @@ public class ReadingListFragment extends Fragment implements ReadingListItemActi
             this.page = page;
             getView().setItem(page);
             getView().setTitle(page.title());
-            getView().setDescription(page.description());
+            getView().setDescription(page.isSaveRefused()
+                    ? getString(R.string.reading_list_article_save_refused) : page.description());
             getView().setImageUrl(page.thumbnailUrl());
             getView().setSelected(page.isSelected());
             getView().setActionIcon(R.drawable.ic_more_vert_white_24dp);
@@ -36,6 +36,12 @@ public final class ReadingListPage extends ReadingListPageRow {
         return diskStatus.saving();
     }
 
+    /** @return True if the page was not saved for lack of room in the saved page storage
+     *          budget. */
+    public boolean isSaveRefused() {
+        return diskStatus.refused();
+    }
+
     public void setOffline(boolean offline) {
         if (offline) {
             diskStatus = diskStatus == DiskStatus.SAVED ? DiskStatus.SAVED : DiskStatus.OUTDATED;
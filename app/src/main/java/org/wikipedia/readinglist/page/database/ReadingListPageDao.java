@@ -3,12 +3,15 @@ package org.wikipedia.readinglist.page.database;
 import android.database.Cursor;
 import android.net.Uri;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
 import org.wikipedia.WikipediaApp;
 import org.wikipedia.concurrency.CallbackTask;
 import org.wikipedia.concurrency.CallbackTask.Task;
 import org.wikipedia.database.BaseDao;
+import org.wikipedia.database.DatabaseBatch;
+import org.wikipedia.database.DatabaseClient;
 import org.wikipedia.database.async.AsyncConstant;
 import org.wikipedia.database.contract.ReadingListPageContract;
 import org.wikipedia.database.http.HttpRowDao;
@@ -18,6 +21,7 @@ import org.wikipedia.readinglist.page.ReadingListPageRow;
 import org.wikipedia.readinglist.page.database.disk.DiskRowDao;
 import org.wikipedia.readinglist.page.database.disk.DiskStatus;
 import org.wikipedia.readinglist.page.database.disk.ReadingListPageDiskRow;
+import org.wikipedia.savedpages.SavedPageStorage;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,6 +35,14 @@ public final class ReadingListPageDao extends BaseDao<ReadingListPageRow> {
 
     @NonNull private final HttpRowDao<ReadingListPageRow, ReadingListPageHttpRow> httpDao;
     @NonNull private final DiskRowDao<ReadingListPageRow, ReadingListPageDiskRow> diskDao;
+    @NonNull private final DatabaseClient<ReadingListPageListRow> listClient;
+
+    // Transaction IDs are only meaningful to the process that started them. A transaction that
+    // was in progress when a previous process died is never completed or failed so the first
+    // query in each process also picks up rows left with a stale transaction ID and a pending
+    // status and resumes them from their manifests. Saved and online rows with a stale ID are
+    // settled and are not picked up.
+    private boolean interruptedDiskTransactionsQueried;
 
     public static ReadingListPageDao instance() {
         return INSTANCE;
@@ -49,10 +61,10 @@ public final class ReadingListPageDao extends BaseDao<ReadingListPageRow> {
     }
 
     @NonNull public Cursor pages(@NonNull String listKey) {
-        Uri uri = ReadingListPageContract.PageWithDisk.URI;
-        String selection = Sql.SELECT_ROWS_WITH_LIST_KEY;
+        Uri uri = ReadingListPageContract.ListPageWithDisk.URI;
+        String selection = ReadingListPageContract.ListPageWithDisk.SELECTION;
         String[] selectionArgs = new String[] {listKey};
-        String order = ReadingListPageContract.PageWithDisk.ORDER_MRU;
+        String order = ReadingListPageContract.ListPageWithDisk.ORDER_MRU;
         return client().select(uri, selection, selectionArgs, order);
     }
 
@@ -96,43 +108,88 @@ public final class ReadingListPageDao extends BaseDao<ReadingListPageRow> {
     }
 
     public synchronized void upsert(@NonNull ReadingListPage row) {
-        if (row.listKeys().isEmpty()) {
-            httpDao.markDeleted(new ReadingListPageHttpRow(row));
-            diskDao.markDeleted(new ReadingListPageDiskRow(row));
-            delete(row);
-        } else {
-            httpDao.markUpserted(new ReadingListPageHttpRow(row));
-            if (row.diskStatus() == DiskStatus.OUTDATED) {
-                diskDao.markOutdated(new ReadingListPageDiskRow(row));
-            } else if (row.diskStatus() == DiskStatus.ONLINE || row.diskStatus() == DiskStatus.UNSAVED) {
-                diskDao.markOnline(new ReadingListPageDiskRow(row));
+        // The page, HTTP, and disk rows are committed together.
+        DatabaseBatch batch = DatabaseBatch.begin();
+        try {
+            deletePageLists(row);
+            if (row.listKeys().isEmpty()) {
+                httpDao.markDeleted(new ReadingListPageHttpRow(row));
+                diskDao.markDeleted(new ReadingListPageDiskRow(row));
+                delete(row);
+            } else {
+                httpDao.markUpserted(new ReadingListPageHttpRow(row));
+                if (row.diskStatus() == DiskStatus.OUTDATED) {
+                    diskDao.markOutdated(new ReadingListPageDiskRow(row));
+                } else if (row.diskStatus() == DiskStatus.ONLINE || row.diskStatus() == DiskStatus.UNSAVED) {
+                    diskDao.markOnline(new ReadingListPageDiskRow(row));
+                }
+                super.upsert(row);
+                listClient.persistAll(pageLists(row));
             }
-            super.upsert(row);
+            batch.commit();
+        } finally {
+            batch.end();
         }
+        SavedPageStorage.instance().update(row);
     }
 
     public synchronized void markOutdated(@NonNull ReadingListPage row) {
         diskDao.markOutdated(new ReadingListPageDiskRow(row));
     }
 
+    /** Marks a saved page outdated if it was last saved before timestamp so that it is saved again.
+     * @return The row marked, or null if not marked. */
+    @Nullable public synchronized ReadingListPageDiskRow markOutdatedIfSavedBefore(@NonNull ReadingListPage row,
+                                                                                 long timestamp) {
+        ReadingListPageDiskRow diskRow = new ReadingListPageDiskRow(row);
+        return diskDao.markOutdatedIfSavedBefore(diskRow, timestamp) ? diskRow : null;
+    }
+
     @NonNull public synchronized Collection<ReadingListPageDiskRow> startDiskTransaction() {
         Collection<ReadingListPageDiskRow> rows = queryPendingDiskTransactions();
+        // Written in a single transaction.
         diskDao.startTransaction(rows);
         return rows;
     }
 
     public synchronized void completeDiskTransaction(@NonNull ReadingListPageDiskRow row) {
-        diskDao.completeTransaction(row);
+        boolean completed;
+        DatabaseBatch batch = DatabaseBatch.begin();
+        try {
+            completed = diskDao.completeTransaction(row, System.currentTimeMillis());
+
+            if (row.dat() != null) {
+                super.upsert(row.dat());
+            }
+            batch.commit();
+        } finally {
+            batch.end();
+        }
 
-        if (row.dat() != null) {
-            super.upsert(row.dat());
+        if (completed) {
+            // The row is now saved or online.
+            if (row.status() == DiskStatus.SAVED && row.dat() != null && row.dat().logicalSize() != null) {
+                SavedPageStorage.instance().putPage(row.key(), row.dat().listKeys(), row.dat().logicalSize());
+            } else {
+                SavedPageStorage.instance().removePage(row.key());
+            }
         }
     }
 
+    public synchronized void checkpointDiskTransaction(@NonNull ReadingListPageDiskRow row) {
+        diskDao.checkpointTransaction(row);
+    }
+
     public synchronized void failDiskTransaction(@NonNull ReadingListPageDiskRow row) {
         diskDao.failTransaction(row);
     }
 
+    public synchronized void refuseDiskTransaction(@NonNull ReadingListPageDiskRow row) {
+        if (diskDao.refuseTransaction(row)) {
+            SavedPageStorage.instance().removePage(row.key());
+        }
+    }
+
     public void clearAsync() {
         CallbackTask.execute(new Task<Void>() {
             @Override public Void execute() {
@@ -145,12 +202,29 @@ public final class ReadingListPageDao extends BaseDao<ReadingListPageRow> {
     @Override public synchronized void clear() {
         httpDao.clear();
         diskDao.clear();
+        listClient.deleteAll();
         super.clear();
+        SavedPageStorage.instance().clear();
+    }
+
+    private void deletePageLists(@NonNull ReadingListPage row) {
+        listClient.deleteWhere(Sql.SELECT_PAGE_LISTS_WITH_PAGE_KEY, new String[] {row.key()});
+    }
+
+    @NonNull private Collection<ReadingListPageListRow> pageLists(@NonNull ReadingListPage row) {
+        Collection<ReadingListPageListRow> rows = new ArrayList<>();
+        for (String listKey : row.listKeys()) {
+            rows.add(new ReadingListPageListRow(row.key(), listKey));
+        }
+        return rows;
     }
 
     @NonNull private Collection<ReadingListPageDiskRow> queryPendingDiskTransactions() {
         Uri uri = ReadingListPageContract.DiskWithPage.URI;
-        String selection = Sql.SELECT_ROWS_PENDING_DISK_TRANSACTION;
+        String selection = interruptedDiskTransactionsQueried
+                ? Sql.SELECT_ROWS_PENDING_DISK_TRANSACTION
+                : Sql.SELECT_ROWS_PENDING_OR_INTERRUPTED_DISK_TRANSACTION;
+        interruptedDiskTransactionsQueried = true;
         final String[] selectionArgs = null;
         final String order = null;
         Cursor cursor = client().select(uri, selection,
@@ -173,6 +247,7 @@ public final class ReadingListPageDao extends BaseDao<ReadingListPageRow> {
         super(WikipediaApp.getInstance().getDatabaseClient(ReadingListPageRow.class));
         httpDao = new HttpRowDao<>(WikipediaApp.getInstance().getDatabaseClient(ReadingListPageHttpRow.class));
         diskDao = new DiskRowDao<>(WikipediaApp.getInstance().getDatabaseClient(ReadingListPageDiskRow.class));
+        listClient = WikipediaApp.getInstance().getDatabaseClient(ReadingListPageListRow.class);
     }
 
     @VisibleForTesting static class Sql {
@@ -191,11 +266,20 @@ public final class ReadingListPageDao extends BaseDao<ReadingListPageRow> {
             return result.toString().replaceAll(":keyCol", ReadingListPageContract.Page.KEY.qualifiedName());
         }
 
-        private static final String SELECT_ROWS_WITH_LIST_KEY = "',' || :listKeyCol || ',' like '%,' || ? || ',%'"
-            .replaceAll(":listKeyCol", ReadingListPageContract.Page.LIST_KEYS.qualifiedName());
+        private static final String SELECT_PAGE_LISTS_WITH_PAGE_KEY = ":pageKeyCol == ?"
+            .replaceAll(":pageKeyCol", ReadingListPageContract.PageList.PAGE_KEY.qualifiedName());
 
         private static String SELECT_ROWS_PENDING_DISK_TRANSACTION = ":transactionIdCol == :noTransactionId"
             .replaceAll(":transactionIdCol", ReadingListPageContract.DiskWithPage.DISK_TRANSACTION_ID.qualifiedName())
             .replaceAll(":noTransactionId", String.valueOf(AsyncConstant.NO_TRANSACTION_ID));
+
+        private static final String SELECT_ROWS_PENDING_OR_INTERRUPTED_DISK_TRANSACTION
+            = ":transactionIdCol == :noTransactionId or :statusCol in (:outdated, :unsaved, :deleted)"
+            .replaceAll(":transactionIdCol", ReadingListPageContract.DiskWithPage.DISK_TRANSACTION_ID.qualifiedName())
+            .replaceAll(":noTransactionId", String.valueOf(AsyncConstant.NO_TRANSACTION_ID))
+            .replaceAll(":statusCol", ReadingListPageContract.DiskWithPage.DISK_STATUS.qualifiedName())
+            .replaceAll(":outdated", String.valueOf(DiskStatus.OUTDATED.code()))
+            .replaceAll(":unsaved", String.valueOf(DiskStatus.UNSAVED.code()))
+            .replaceAll(":deleted", String.valueOf(DiskStatus.DELETED.code()));
     }
 }
@@ -15,6 +15,7 @@ import org.wikipedia.readinglist.page.database.disk.ReadingListPageDiskRow;
 public class ReadingListPageDiskTable
         extends AsyncTable<DiskStatus, ReadingListPageRow, DiskRow<ReadingListPageRow>> {
     private static final int DATABASE_VERSION = 12;
+    private static final int DB_VER_MANIFEST_ADDED = 18;
 
     public ReadingListPageDiskTable() {
         super(ReadingListPageContract.TABLE_DISK, ReadingListPageContract.Disk.URI,
@@ -34,6 +35,8 @@ public class ReadingListPageDiskTable
                 System.arraycopy(diskCols, 0, cols, 0, diskCols.length);
                 cols[diskCols.length] = ReadingListPageContract.DiskCol.FILENAME;
                 return cols;
+            case DB_VER_MANIFEST_ADDED:
+                return new Column<?>[] {ReadingListPageContract.DiskCol.MANIFEST};
             default:
                 return super.getColumnsAdded(version);
         }
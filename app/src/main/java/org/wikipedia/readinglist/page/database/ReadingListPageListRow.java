@@ -0,0 +1,24 @@
+package org.wikipedia.readinglist.page.database;
+
+import android.support.annotation.NonNull;
+
+import org.wikipedia.model.BaseModel;
+
+/** Membership of a page in a reading list. */
+public class ReadingListPageListRow extends BaseModel {
+    @NonNull private final String pageKey;
+    @NonNull private final String listKey;
+
+    public ReadingListPageListRow(@NonNull String pageKey, @NonNull String listKey) {
+        this.pageKey = pageKey;
+        this.listKey = listKey;
+    }
+
+    @NonNull public String pageKey() {
+        return pageKey;
+    }
+
+    @NonNull public String listKey() {
+        return listKey;
+    }
+}
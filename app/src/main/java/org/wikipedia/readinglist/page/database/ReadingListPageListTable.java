@@ -0,0 +1,68 @@
+package org.wikipedia.readinglist.page.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+
+import org.wikipedia.database.DatabaseTable;
+import org.wikipedia.database.column.Column;
+import org.wikipedia.database.contract.ReadingListPageContract;
+import org.wikipedia.database.contract.ReadingListPageContract.PageListCol;
+
+public class ReadingListPageListTable extends DatabaseTable<ReadingListPageListRow> {
+    private static final int DB_VER_INTRODUCED = 19;
+
+    public ReadingListPageListTable() {
+        super(ReadingListPageContract.TABLE_PAGE_LIST, ReadingListPageContract.PageList.URI);
+    }
+
+    @Override public ReadingListPageListRow fromCursor(@NonNull Cursor cursor) {
+        return new ReadingListPageListRow(PageListCol.PAGE_KEY.val(cursor),
+                PageListCol.LIST_KEY.val(cursor));
+    }
+
+    @NonNull @Override public Column<?>[] getColumnsAdded(int version) {
+        switch (version) {
+            case DB_VER_INTRODUCED:
+                return new Column<?>[] {PageListCol.ID, PageListCol.PAGE_KEY, PageListCol.LIST_KEY};
+            default:
+                return super.getColumnsAdded(version);
+        }
+    }
+
+    @Override public void upgradeSchema(@NonNull SQLiteDatabase db, int fromVersion, int toVersion) {
+        super.upgradeSchema(db, fromVersion, toVersion);
+        if (fromVersion < DB_VER_INTRODUCED && toVersion >= DB_VER_INTRODUCED) {
+            // The pages of a list are selected by list key and the lists of a page by page key.
+            db.execSQL("CREATE UNIQUE INDEX :tbl_listKey_pageKey ON :tbl (:listKeyCol, :pageKeyCol)"
+                    .replaceAll(":listKeyCol", PageListCol.LIST_KEY.getName())
+                    .replaceAll(":pageKeyCol", PageListCol.PAGE_KEY.getName())
+                    .replaceAll(":tbl", getTableName()));
+            db.execSQL("CREATE INDEX :tbl_pageKey ON :tbl (:pageKeyCol)"
+                    .replaceAll(":pageKeyCol", PageListCol.PAGE_KEY.getName())
+                    .replaceAll(":tbl", getTableName()));
+        }
+    }
+
+    @Override protected ContentValues toContentValues(ReadingListPageListRow row) {
+        ContentValues contentValues = new ContentValues();
+        contentValues.put(PageListCol.PAGE_KEY.getName(), row.pageKey());
+        contentValues.put(PageListCol.LIST_KEY.getName(), row.listKey());
+        return contentValues;
+    }
+
+    @Override
+    protected String getPrimaryKeySelection(@NonNull ReadingListPageListRow row,
+                                            @NonNull String[] selectionArgs) {
+        return super.getPrimaryKeySelection(row, PageListCol.SELECTION);
+    }
+
+    @Override protected String[] getUnfilteredPrimaryKeySelectionArgs(@NonNull ReadingListPageListRow row) {
+        return new String[] {row.pageKey(), row.listKey()};
+    }
+
+    @Override protected int getDBVersionIntroducedAt() {
+        return DB_VER_INTRODUCED;
+    }
+}
@@ -2,21 +2,37 @@ package org.wikipedia.readinglist.page.database;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.support.annotation.NonNull;
+import android.text.TextUtils;
 
 import org.wikipedia.database.DatabaseTable;
+import org.wikipedia.database.DbUtil;
+import org.wikipedia.database.FtsTable;
 import org.wikipedia.database.column.Column;
+import org.wikipedia.database.column.StrColumn;
 import org.wikipedia.database.contract.ReadingListPageContract;
 import org.wikipedia.database.contract.ReadingListPageContract.PageCol;
+import org.wikipedia.database.contract.ReadingListPageContract.PageListCol;
 import org.wikipedia.dataclient.WikiSite;
 import org.wikipedia.readinglist.page.ReadingListPageRow;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class ReadingListPageTable extends DatabaseTable<ReadingListPageRow> {
     private static final int DB_VER_INTRODUCED = 12;
     private static final int DB_VER_SIZE_ADDED = 17;
+    private static final int DB_VER_LIST_KEYS_NORMALIZED = 19;
+    private static final int DB_VER_FTS_ADDED = 20;
+
+    private static final FtsTable FTS_TABLE = new FtsTable(ReadingListPageContract.TABLE_PAGE_FTS,
+            ReadingListPageContract.TABLE_PAGE, DB_VER_FTS_ADDED, PageCol.TITLE, PageCol.DESCRIPTION);
+
+    // The comma separated keys of the lists containing the page. Replaced by the page list table.
+    private static final StrColumn LEGACY_LIST_KEYS = new StrColumn(ReadingListPageContract.TABLE_PAGE,
+            "listKeys", "text not null");
 
     public ReadingListPageTable() {
         super(ReadingListPageContract.TABLE_PAGE, ReadingListPageContract.Page.URI);
@@ -48,7 +64,7 @@ public class ReadingListPageTable extends DatabaseTable<ReadingListPageRow> {
                 List<Column<?>> cols = new ArrayList<>();
                 cols.add(PageCol.ID);
                 cols.add(PageCol.KEY);
-                cols.add(PageCol.LIST_KEYS);
+                cols.add(LEGACY_LIST_KEYS);
                 cols.add(PageCol.SITE);
                 cols.add(PageCol.LANG);
                 cols.add(PageCol.NAMESPACE);
@@ -69,7 +85,6 @@ public class ReadingListPageTable extends DatabaseTable<ReadingListPageRow> {
     @Override protected ContentValues toContentValues(ReadingListPageRow row) {
         ContentValues contentValues = new ContentValues();
         contentValues.put(PageCol.KEY.getName(), row.key());
-        PageCol.LIST_KEYS.put(contentValues, row.listKeys());
         contentValues.put(PageCol.SITE.getName(), row.wikiSite().authority());
         contentValues.put(PageCol.LANG.getName(), row.wikiSite().languageCode());
         contentValues.put(PageCol.NAMESPACE.getName(), row.namespace().code());
@@ -84,6 +99,13 @@ public class ReadingListPageTable extends DatabaseTable<ReadingListPageRow> {
         return contentValues;
     }
 
+    @Override protected void upgradeSchema(@NonNull SQLiteDatabase db, int toVersion) {
+        if (toVersion == DB_VER_LIST_KEYS_NORMALIZED) {
+            copyListKeysToPageListTable(db);
+            dropListKeys(db);
+        }
+    }
+
     @Override
     protected String getPrimaryKeySelection(@NonNull ReadingListPageRow row,
                                             @NonNull String[] selectionArgs) {
@@ -97,4 +119,43 @@ public class ReadingListPageTable extends DatabaseTable<ReadingListPageRow> {
     @Override protected int getDBVersionIntroducedAt() {
         return DB_VER_INTRODUCED;
     }
+
+    @Override public FtsTable getFtsTable() {
+        return FTS_TABLE;
+    }
+
+    private void copyListKeysToPageListTable(@NonNull SQLiteDatabase db) {
+        Cursor cursor = db.query(getTableName(), new String[] {PageCol.KEY.getName(),
+                LEGACY_LIST_KEYS.getName()}, null, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                String key = PageCol.KEY.val(cursor);
+                // List keys are Base64 encoded and never contain a comma or need CSV escaping.
+                for (String listKey : TextUtils.split(LEGACY_LIST_KEYS.val(cursor), ",")) {
+                    ContentValues values = new ContentValues();
+                    values.put(PageListCol.PAGE_KEY.getName(), key);
+                    values.put(PageListCol.LIST_KEY.getName(), listKey);
+                    db.insertWithOnConflict(ReadingListPageContract.TABLE_PAGE_LIST, null, values,
+                            SQLiteDatabase.CONFLICT_IGNORE);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /** SQLite cannot drop columns so the table is rebuilt without the legacy list keys column. */
+    private void dropListKeys(@NonNull SQLiteDatabase db) {
+        List<Column<?>> cols = new ArrayList<>(Arrays.asList(getColumnsAdded(DB_VER_INTRODUCED)));
+        cols.remove(LEGACY_LIST_KEYS);
+        cols.addAll(Arrays.asList(getColumnsAdded(DB_VER_SIZE_ADDED)));
+
+        String tmpTableName = getTableName() + "_tmp";
+        String names = DbUtil.namesCsv(cols);
+        db.execSQL("CREATE TABLE " + tmpTableName + " ( " + TextUtils.join(", ", cols) + " )");
+        db.execSQL("INSERT INTO " + tmpTableName + " (" + names + ") SELECT " + names + " FROM "
+                + getTableName());
+        db.execSQL("DROP TABLE " + getTableName());
+        db.execSQL("ALTER TABLE " + tmpTableName + " RENAME TO " + getTableName());
+    }
 }
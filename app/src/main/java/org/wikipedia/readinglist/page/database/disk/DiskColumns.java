@@ -1,16 +1,45 @@
 package org.wikipedia.readinglist.page.database.disk;
 
+import android.content.ContentValues;
 import android.database.Cursor;
 import android.support.annotation.NonNull;
 
 import org.wikipedia.database.async.AsyncColumns;
+import org.wikipedia.database.column.CsvColumn;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 public class DiskColumns<T> extends AsyncColumns<DiskStatus, T, DiskRow<T>> {
+    /** The URLs of resources already written to disk by the transaction in progress, if any. */
+    @NonNull private final CsvColumn<Set<String>> manifest;
+
     public DiskColumns(@NonNull String tbl) {
         super(tbl, "disk", DiskStatus.CODE_ENUM);
+        manifest = new CsvColumn<Set<String>>(tbl, "diskManifest", "text") {
+            @NonNull @Override protected Set<String> val(@NonNull Collection<String> strs) {
+                return new HashSet<>(strs);
+            }
+
+            @NonNull @Override protected Collection<String> put(@NonNull Set<String> row) {
+                return row;
+            }
+        };
+    }
+
+    @NonNull public CsvColumn<Set<String>> manifest() {
+        return manifest;
+    }
+
+    @NonNull @Override public ContentValues toContentValues(@NonNull DiskRow<T> row) {
+        ContentValues values = super.toContentValues(row);
+        manifest.put(values, row.manifest());
+        return values;
     }
 
     @NonNull @Override public DiskRow<T> val(@NonNull Cursor cursor) {
-        return new DiskRow<>(key(cursor), status(cursor), timestamp(cursor), transactionId(cursor));
+        return new DiskRow<>(key(cursor), status(cursor), timestamp(cursor), transactionId(cursor),
+                manifest.val(cursor));
     }
 }
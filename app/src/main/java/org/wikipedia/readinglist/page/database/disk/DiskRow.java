@@ -5,15 +5,25 @@ import android.support.annotation.Nullable;
 
 import org.wikipedia.database.async.AsyncRow;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
 public class DiskRow<T> extends AsyncRow<DiskStatus, T> {
     private static final DiskStatus DEFAULT_STATUS = DiskStatus.ONLINE;
 
+    /** The URLs of the resources already written to disk by the pending transaction. The manifest
+     * survives failed and interrupted transactions so that a retry only requests what is missing,
+     * and is discarded when the transaction completes or is reset. */
+    @NonNull private final Set<String> manifest = new HashSet<>();
+
     public DiskRow(@NonNull String key, @Nullable T dat) {
         super(key, DEFAULT_STATUS, dat);
     }
 
     public DiskRow(@NonNull DiskRow<T> diskRow, @Nullable T dat) {
         super(diskRow, dat);
+        manifest.addAll(diskRow.manifest());
     }
 
     public DiskRow(@NonNull String key, @NonNull DiskStatus status, long timestamp,
@@ -21,11 +31,52 @@ public class DiskRow<T> extends AsyncRow<DiskStatus, T> {
         super(key, status, timestamp, transactionId);
     }
 
+    public DiskRow(@NonNull String key, @NonNull DiskStatus status, long timestamp,
+                   long transactionId, @NonNull Collection<String> manifest) {
+        this(key, status, timestamp, transactionId);
+        this.manifest.addAll(manifest);
+    }
+
+    @NonNull public synchronized Set<String> manifest() {
+        return new HashSet<>(manifest);
+    }
+
+    public synchronized boolean committed(@NonNull String url) {
+        return manifest.contains(url);
+    }
+
+    /** Records a resource as written to disk by the pending transaction. */
+    public synchronized void commit(@NonNull String url) {
+        manifest.add(url);
+    }
+
+    /** Records a resource of the pending transaction as removed from disk. */
+    public synchronized void uncommit(@NonNull String url) {
+        manifest.remove(url);
+    }
+
+    @Override public void resetTransaction(@NonNull DiskStatus status) {
+        super.resetTransaction(status);
+        synchronized (this) {
+            manifest.clear();
+        }
+    }
+
+    @Override public void failTransaction() {
+        // Keep the manifest for the next attempt.
+        super.resetTransaction(status());
+    }
+
     @Override public boolean completable(@Nullable AsyncRow<DiskStatus, T> query) {
         boolean recordable = !(query == null && (status() == DiskStatus.DELETED));
         return super.completable(query) && recordable;
     }
 
+    /** Ends the pending transaction without saving, its downloads removed. */
+    public void refuseTransaction() {
+        resetTransaction(DiskStatus.REFUSED);
+    }
+
     @Override public void completeTransaction(long timestamp) {
         super.completeTransaction(timestamp);
         resetTransaction(next(status()));
@@ -41,6 +92,8 @@ public class DiskRow<T> extends AsyncRow<DiskStatus, T> {
                 return DiskStatus.SAVED;
             case DELETED:
                 return DiskStatus.DELETED;
+            case REFUSED:
+                return DiskStatus.REFUSED;
             default:
                 throw new RuntimeException("current=" + current);
         }
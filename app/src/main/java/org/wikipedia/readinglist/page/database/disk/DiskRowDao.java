@@ -23,6 +23,10 @@ public class DiskRowDao<Dat, Row extends DiskRow<Dat>> extends AsyncDao<DiskStat
             case ONLINE:
             case UNSAVED:
                 break;
+            case REFUSED:
+                // Nothing was kept on disk.
+                resetTransaction(row, DiskStatus.ONLINE);
+                break;
             default:
                 throw new RuntimeException("status=" + row.status());
         }
@@ -35,6 +39,7 @@ public class DiskRowDao<Dat, Row extends DiskRow<Dat>> extends AsyncDao<DiskStat
             case SAVED:
             case UNSAVED:
             case DELETED:
+            case REFUSED:
                 resetTransaction(row, DiskStatus.OUTDATED);
                 break;
             case OUTDATED:
@@ -44,6 +49,17 @@ public class DiskRowDao<Dat, Row extends DiskRow<Dat>> extends AsyncDao<DiskStat
         }
     }
 
+    /** Marks a row outdated if it was saved before the given time.
+     * @return true if marked. */
+    public synchronized boolean markOutdatedIfSavedBefore(@NonNull Row row, long timestamp) {
+        Row query = queryPrimaryKey(row);
+        if (query != null && query.status() == DiskStatus.SAVED && query.timestamp() < timestamp) {
+            resetTransaction(row, DiskStatus.OUTDATED);
+            return true;
+        }
+        return false;
+    }
+
     public synchronized void markDeleted(@NonNull Row row) {
         Row query = queryPrimaryKey(row);
         switch (query == null ? DiskStatus.DELETED : query.status()) {
@@ -51,6 +67,7 @@ public class DiskRowDao<Dat, Row extends DiskRow<Dat>> extends AsyncDao<DiskStat
             case SAVED:
             case OUTDATED:
             case UNSAVED:
+            case REFUSED:
                 resetTransaction(row, DiskStatus.DELETED);
                 break;
             case DELETED:
@@ -60,6 +77,30 @@ public class DiskRowDao<Dat, Row extends DiskRow<Dat>> extends AsyncDao<DiskStat
         }
     }
 
+    /** Persists the manifest of a transaction in progress.
+     * @return true if the transaction is still current. */
+    public synchronized boolean checkpointTransaction(@NonNull Row row) {
+        Row query = queryPrimaryKey(row);
+        if (query != null && query.transactionId() == row.transactionId()) {
+            upsert(row);
+            return true;
+        }
+        return false;
+    }
+
+    /** Ends a transaction to save a row without saving it, so that it is not attempted again until
+     * marked outdated.
+     * @return true if the transaction is still current. */
+    public synchronized boolean refuseTransaction(@NonNull Row row) {
+        Row query = queryPrimaryKey(row);
+        if (row.completable(query)) {
+            row.refuseTransaction();
+            upsert(row);
+            return true;
+        }
+        return false;
+    }
+
     @Override public synchronized boolean completeTransaction(@NonNull Row row, long timestamp) {
         if (super.completeTransaction(row, timestamp)) {
             if (row.status() == DiskStatus.DELETED) {
@@ -23,7 +23,12 @@ public enum DiskStatus implements EnumCode {
 
     /** Possibly downloaded previously and delete from disk pending. When complete, row is
      * removed. */
-    DELETED(4);
+    DELETED(4),
+
+    /** Download refused as the page did not fit in the saved page storage budget and whatever was
+     * downloaded removed. No transaction pending. Saved again only when marked {@link #OUTDATED},
+     * such as when the user saves the page again. */
+    REFUSED(5);
 
     public static final CodeEnum<DiskStatus> CODE_ENUM = new CodeEnum<DiskStatus>() {
         @NonNull @Override public DiskStatus enumeration(int code) {
@@ -47,6 +52,10 @@ public enum DiskStatus implements EnumCode {
         return this == OUTDATED;
     }
 
+    public boolean refused() {
+        return this == REFUSED;
+    }
+
     @Override public int code() {
         return code;
     }
@@ -8,6 +8,9 @@ import android.support.annotation.Nullable;
 import org.wikipedia.WikipediaApp;
 import org.wikipedia.auth.AccountUtil;
 import org.wikipedia.concurrency.CallbackTask;
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
+import org.wikipedia.database.DatabaseBatch;
 import org.wikipedia.dataclient.WikiSite;
 import org.wikipedia.json.GsonMarshaller;
 import org.wikipedia.json.GsonUnmarshaller;
@@ -67,13 +70,14 @@ public class ReadingListSynchronizer {
         UserOptionDataClientSingleton.instance().get(new UserOptionDataClient.UserInfoCallback() {
             @Override
             public void success(@NonNull final UserInfo info) {
-                CallbackTask.execute(new CallbackTask.Task<Void>() {
+                // Syncing makes requests to the server, so it runs on the IO lane rather than the DB lane.
+                CallbackTask.execute(Lane.IO, Priority.NORMAL, new CallbackTask.Task<Void>() {
                     @Override public Void execute() throws Throwable {
                         syncFromRemote(info);
                         syncSavedPages();
                         return null;
                     }
-                });
+                }, null);
             }
         });
     }
@@ -122,7 +126,7 @@ public class ReadingListSynchronizer {
     }
 
     private void deleteRemoteReadingLists() {
-        CallbackTask.execute(new CallbackTask.Task<Void>() {
+        CallbackTask.execute(Lane.IO, Priority.NORMAL, new CallbackTask.Task<Void>() {
             @Override public Void execute() throws Throwable {
                 UserOptionDataClientSingleton.instance().post(new UserOption(READING_LISTS_SYNC_OPTION, null),
                         new UserOptionDataClient.UserOptionPostCallback() {
@@ -135,7 +139,7 @@ public class ReadingListSynchronizer {
                         });
                 return null;
             }
-        });
+        }, null);
     }
 
     private class SyncRunnable implements Runnable {
@@ -150,6 +154,17 @@ public class ReadingListSynchronizer {
     }
 
     private void reconcileAsRightJoin(@Nullable RemoteReadingLists remoteReadingLists) {
+        // Commit all list and page changes in a single transaction rather than one per row.
+        DatabaseBatch batch = DatabaseBatch.begin();
+        try {
+            reconcileListsAsRightJoin(remoteReadingLists);
+            batch.commit();
+        } finally {
+            batch.end();
+        }
+    }
+
+    private void reconcileListsAsRightJoin(@Nullable RemoteReadingLists remoteReadingLists) {
         List<ReadingList> localLists = ReadingListData.instance().queryMruLists(null);
         List<RemoteReadingList> remoteLists = remoteReadingLists == null
                 ? Collections.<RemoteReadingList>emptyList() : remoteReadingLists.lists();
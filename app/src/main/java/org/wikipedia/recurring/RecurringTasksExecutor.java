@@ -2,6 +2,7 @@ package org.wikipedia.recurring;
 
 import org.wikipedia.WikipediaApp;
 import org.wikipedia.alphaupdater.AlphaUpdateChecker;
+import org.wikipedia.concurrency.Priority;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.page.snippet.SharedImageCleanupTask;
 import org.wikipedia.settings.RemoteConfigRefreshTask;
@@ -16,6 +17,10 @@ public class RecurringTasksExecutor {
 
     public void run() {
         SaneAsyncTask<Void> task = new SaneAsyncTask<Void>() {
+            @Override protected Priority priority() {
+                return Priority.LOW;
+            }
+
             @Override
             public Void performTask() throws Throwable {
                 RecurringTask[] allTasks = new RecurringTask[] {
@@ -1,16 +1,14 @@
 package org.wikipedia.savedpages;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.wikipedia.dataclient.page.PageLead;
 import org.wikipedia.dataclient.page.PageRemaining;
 import org.wikipedia.html.ImageElement;
 import org.wikipedia.html.ImageTagParser;
+import org.wikipedia.html.ImageTagTokenizer;
 import org.wikipedia.html.ParseException;
 import org.wikipedia.html.PixelDensityDescriptorParser;
 import org.wikipedia.page.Section;
@@ -24,11 +22,22 @@ import java.util.List;
 public class PageImageUrlParser {
     @NonNull private final ImageTagParser imageParser;
     @NonNull private final PixelDensityDescriptorParser descriptorParser;
+    @NonNull private final ImageTagTokenizer tokenizer = new ImageTagTokenizer();
+    // When nonnull, only the source best suited to this display density is returned for each
+    // image. Otherwise, every source is returned.
+    @Nullable private final Float density;
 
     public PageImageUrlParser(@NonNull ImageTagParser imageParser,
                               @NonNull PixelDensityDescriptorParser descriptorParser) {
+        this(imageParser, descriptorParser, null);
+    }
+
+    public PageImageUrlParser(@NonNull ImageTagParser imageParser,
+                              @NonNull PixelDensityDescriptorParser descriptorParser,
+                              @Nullable Float density) {
         this.imageParser = imageParser;
         this.descriptorParser = descriptorParser;
+        this.density = density;
     }
 
     @NonNull public List<String> parse(@NonNull PageLead lead) {
@@ -40,15 +49,18 @@ public class PageImageUrlParser {
     }
 
     @NonNull public List<String> parse(@NonNull List<Section> sections) {
-        return parse(toHtml(sections));
+        // Each section is scanned separately to avoid concatenating the HTML of the whole page.
+        List<String> urls = new ArrayList<>();
+        for (Section section : sections) {
+            parse(section.getContent(), urls);
+        }
+        return Collections.unmodifiableList(urls);
     }
 
     @NonNull public List<String> parse(@NonNull String html) {
-        Document doc = Jsoup.parseBodyFragment(html);
-        try {
-            return imageElementsToUrls(querySelectorAllImage(doc));
-        } catch (ParseException ignore) { }
-        return Collections.emptyList();
+        List<String> urls = new ArrayList<>();
+        parse(html, urls);
+        return Collections.unmodifiableList(urls);
     }
 
     @VisibleForTesting @NonNull List<String> parse(@NonNull PageLead lead, int leadImageWidth) {
@@ -67,10 +79,7 @@ public class PageImageUrlParser {
             urls.add(thumbUrl);
         }
 
-        String html = toHtml(lead);
-        try {
-            urls.addAll(parse(html));
-        } catch (ParseException ignore) { }
+        parse(toHtml(lead), urls);
 
         return urls;
     }
@@ -79,36 +88,21 @@ public class PageImageUrlParser {
         return lead.getLeadSectionContent();
     }
 
-    @NonNull private String toHtml(@NonNull List<Section> sections) {
-        StringBuilder html = new StringBuilder();
-        for (Section section : sections) {
-            html.append(section.getContent());
-        }
-        return html.toString();
-    }
-
-    @NonNull private List<ImageElement> querySelectorAllImage(@NonNull Document doc) {
-        List<ImageElement> imgs = new ArrayList<>();
-
-        Elements elements = doc.getElementsByTag(imageParser.tagName());
-        for (Element el : elements) {
-            try {
-                imgs.add(imageParser.parse(descriptorParser, el));
-            } catch (ParseException ignore) { }
-        }
-
-        return Collections.unmodifiableList(imgs);
-    }
-
-    @NonNull private List<String> imageElementsToUrls(@NonNull List<ImageElement> imgs) {
-        List<String> urls = new ArrayList<>(imgs.size());
-        for (ImageElement img : imgs) {
-            urls.addAll(imageElementToUrls(img));
-        }
-        return Collections.unmodifiableList(urls);
+    private void parse(@NonNull String html, @NonNull final List<String> urls) {
+        tokenizer.tokenize(html, new ImageTagTokenizer.Callback() {
+            @Override public void onImageTag(@Nullable String src, @Nullable String srcSet) {
+                try {
+                    urls.addAll(imageElementToUrls(imageParser.parse(descriptorParser, src, srcSet)));
+                } catch (ParseException ignore) { }
+            }
+        });
     }
 
     @NonNull private Collection<String> imageElementToUrls(@NonNull ImageElement img) {
-        return img.srcs().values();
+        if (density == null) {
+            return img.srcs().values();
+        }
+        String src = img.bestSrc(density);
+        return src == null ? Collections.<String>emptyList() : Collections.singletonList(src);
     }
 }
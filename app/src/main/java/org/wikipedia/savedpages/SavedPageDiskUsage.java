@@ -0,0 +1,44 @@
+package org.wikipedia.savedpages;
+
+import android.support.annotation.NonNull;
+
+import org.wikipedia.dataclient.okhttp.cache.DiskLruCacheUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+import okhttp3.CacheDelegate;
+import okhttp3.Request;
+import okhttp3.internal.Util;
+import okhttp3.internal.cache.DiskLruCache;
+
+import static org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory.SAVE_BLOBS;
+import static org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory.SAVE_CACHE;
+
+/** Measures the content of the save cache and its blobs as stored on disk. */
+class SavedPageDiskUsage implements SavedPageStorage.DiskUsage {
+    @Override public long bytes() throws IOException {
+        return SAVE_CACHE.size() + SAVE_BLOBS.size();
+    }
+
+    @Override public long bytes(@NonNull Collection<String> urls) {
+        CacheDelegate cacheDelegate = new CacheDelegate(SAVE_CACHE);
+        long size = 0;
+        for (String url : urls) {
+            Request req = new Request.Builder().url(url).build();
+            DiskLruCache.Snapshot snapshot = cacheDelegate.entry(req);
+            try {
+                size += DiskLruCacheUtil.okHttpResponseMetadataSize(snapshot)
+                        + DiskLruCacheUtil.okHttpResponseBodySize(snapshot);
+            } finally {
+                Util.closeQuietly(snapshot);
+            }
+            File blob = SAVE_BLOBS.blob(req.url());
+            if (blob != null) {
+                size += blob.length();
+            }
+        }
+        return size;
+    }
+}
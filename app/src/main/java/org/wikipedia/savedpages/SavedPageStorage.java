@@ -0,0 +1,309 @@
+package org.wikipedia.savedpages;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import org.wikipedia.WikipediaApp;
+import org.wikipedia.database.contract.ReadingListPageContract.DiskCol;
+import org.wikipedia.readinglist.page.ReadingListPage;
+import org.wikipedia.readinglist.page.database.ReadingListPageDao;
+import org.wikipedia.settings.Prefs;
+import org.wikipedia.util.log.L;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accounts for the storage used by saved pages and enforces the saved page storage budget. The
+ * save cache is sized so that it never evicts entries itself, as saved pages must only be removed
+ * by the user, so the budget is enforced here instead.
+ *
+ * Storage belongs to one of two tiers. Saved pages are pinned: they are never evicted and no more
+ * pages are saved once they fill the budget. Evictable content, such as the responses of an
+ * interrupted save that are kept to resume it, is evicted least recently used first to make room.
+ * The budget is enforced on the size of the content stored on disk, in which a blob shared by
+ * several pages counts once, rather than on the sum of the sizes of the pages.
+ *
+ * The logical size of each saved page is tracked with the reading lists containing it so that the
+ * size of a list and the storage freed by removing it are known without querying the database.
+ */
+public final class SavedPageStorage {
+    /** Removes the content of an evictable entry from storage. */
+    public interface Evictor {
+        void evict(@NonNull String key);
+    }
+
+    /** Measures the content stored on disk. */
+    public interface DiskUsage {
+        /** @return The size of all stored content, counting each shared blob once. */
+        long bytes() throws IOException;
+
+        /** @return The size of the stored responses for the URLs. */
+        long bytes(@NonNull Collection<String> urls);
+    }
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    @NonNull private static final SavedPageStorage INSTANCE
+            = new SavedPageStorage(false, new SavedPageDiskUsage());
+
+    @NonNull private final DiskUsage diskUsage;
+
+    // Page key to the size and lists of a pinned page.
+    @NonNull private final Map<String, PageUsage> pages = new HashMap<>();
+    // List key to the sizes of the pinned pages in the list.
+    @NonNull private final Map<String, ListUsage> lists = new HashMap<>();
+    // Evictable key to size in least recently used order.
+    @NonNull private final LinkedHashMap<String, Long> evictable
+            = new LinkedHashMap<>(0, LOAD_FACTOR, true);
+    private long pinnedBytes;
+    private long evictableBytes;
+    private boolean loaded;
+
+    @NonNull public static SavedPageStorage instance() {
+        return INSTANCE;
+    }
+
+    /** Tracks the page as pinned if it is saved or saving and its size is known, or stops
+     * tracking it otherwise. */
+    public synchronized void update(@NonNull ReadingListPage page) {
+        load();
+        if (page.isOffline() && page.logicalSize() != null) {
+            putPage(page.key(), page.listKeys(), page.logicalSize());
+        } else {
+            removePage(page.key());
+        }
+    }
+
+    /** Pins the page, replacing any previous size and lists, and drops evictable content under the
+     * same key. */
+    public synchronized void putPage(@NonNull String key, @NonNull Collection<String> listKeys,
+                                     long bytes) {
+        load();
+        unpin(key);
+        removeEvictable(key);
+
+        PageUsage page = new PageUsage(bytes, listKeys);
+        pages.put(key, page);
+        pinnedBytes += bytes;
+        for (String listKey : page.listKeys) {
+            ListUsage list = lists.get(listKey);
+            if (list == null) {
+                list = new ListUsage();
+                lists.put(listKey, list);
+            }
+            list.add(page, 1);
+        }
+    }
+
+    public synchronized void removePage(@NonNull String key) {
+        load();
+        unpin(key);
+        removeEvictable(key);
+    }
+
+    public synchronized void putEvictable(@NonNull String key, long bytes) {
+        load();
+        removeEvictable(key);
+        if (!pages.containsKey(key)) {
+            evictable.put(key, bytes);
+            evictableBytes += bytes;
+        }
+    }
+
+    public synchronized void removeEvictable(@NonNull String key) {
+        Long bytes = evictable.remove(key);
+        if (bytes != null) {
+            evictableBytes -= bytes;
+        }
+    }
+
+    /**
+     * Evicts content, least recently used first, until the content stored on disk fits in the
+     * budget.
+     *
+     * @return True if the stored content fits in the budget, false if it does not even with all
+     *         evictable content evicted.
+     */
+    public boolean makeRoom(@NonNull Evictor evictor) {
+        long budget = budget();
+        while (true) {
+            long used = usedBytes();
+            String key;
+            synchronized (this) {
+                load();
+                if (used <= budget || evictable.isEmpty()) {
+                    return used <= budget;
+                }
+                Iterator<Map.Entry<String, Long>> it = evictable.entrySet().iterator();
+                Map.Entry<String, Long> eldest = it.next();
+                key = eldest.getKey();
+                evictableBytes -= eldest.getValue();
+                it.remove();
+            }
+            // Storage is modified outside of the lock.
+            evictor.evict(key);
+        }
+    }
+
+    /** @return True if the content that is not evictable leaves room in the budget for more
+     *          pages. */
+    public boolean hasRoom() {
+        return hasRoom(1);
+    }
+
+    /** @return True if the content that is not evictable leaves room in the budget for bytes
+     *          more. */
+    public boolean hasRoom(long bytes) {
+        long used = usedBytes();
+        synchronized (this) {
+            load();
+            return used - evictableBytes + bytes <= budget();
+        }
+    }
+
+    /** @return The size of the content stored on disk, counting each shared blob once. */
+    public long usedBytes() {
+        try {
+            return diskUsage.bytes();
+        } catch (IOException e) {
+            L.w("Failed to measure saved page storage", e);
+            synchronized (this) {
+                load();
+                return pinnedBytes + evictableBytes;
+            }
+        }
+    }
+
+    public synchronized long pinnedBytes() {
+        load();
+        return pinnedBytes;
+    }
+
+    public synchronized long evictableBytes() {
+        load();
+        return evictableBytes;
+    }
+
+    /** @return The size of the saved pages in the list. */
+    public synchronized long listBytes(@NonNull String listKey) {
+        load();
+        ListUsage list = lists.get(listKey);
+        return list == null ? 0 : list.bytes;
+    }
+
+    /** @return The storage freed by removing the list: the size of the saved pages in no other
+     *          list. */
+    public synchronized long freedByRemoving(@NonNull String listKey) {
+        load();
+        ListUsage list = lists.get(listKey);
+        return list == null ? 0 : list.exclusiveBytes;
+    }
+
+    /** @return The configured budget or, by default, half of the storage volume. */
+    public long budget() {
+        long budget = Prefs.getSavedPageStorageBudget();
+        return budget > 0 ? budget : WikipediaApp.getInstance().getFilesDir().getTotalSpace() / 2;
+    }
+
+    public synchronized void clear() {
+        pages.clear();
+        lists.clear();
+        evictable.clear();
+        pinnedBytes = 0;
+        evictableBytes = 0;
+        loaded = true;
+    }
+
+    @VisibleForTesting SavedPageStorage(boolean loaded, @NonNull DiskUsage diskUsage) {
+        this.loaded = loaded;
+        this.diskUsage = diskUsage;
+    }
+
+    private void unpin(@NonNull String key) {
+        PageUsage page = pages.remove(key);
+        if (page == null) {
+            return;
+        }
+
+        pinnedBytes -= page.bytes;
+        for (String listKey : page.listKeys) {
+            ListUsage list = lists.get(listKey);
+            if (list != null) {
+                list.add(page, -1);
+                if (list.pages == 0) {
+                    lists.remove(listKey);
+                }
+            }
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        // The content of interrupted saves is evictable, least recently accessed pages first.
+        List<ReadingListPage> interrupted = new ArrayList<>();
+        Map<String, Set<String>> manifests = new HashMap<>();
+        Cursor cursor = ReadingListPageDao.instance().allPages();
+        try {
+            while (cursor.moveToNext()) {
+                ReadingListPage page = ReadingListPage.fromCursor(cursor);
+                update(page);
+                Set<String> manifest = DiskCol.MANIFEST.val(cursor);
+                if (page.isOffline() && !pages.containsKey(page.key()) && !manifest.isEmpty()) {
+                    interrupted.add(page);
+                    manifests.put(page.key(), manifest);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        Collections.sort(interrupted, new Comparator<ReadingListPage>() {
+            @Override public int compare(ReadingListPage lhs, ReadingListPage rhs) {
+                return Long.valueOf(lhs.atime()).compareTo(rhs.atime());
+            }
+        });
+        for (ReadingListPage page : interrupted) {
+            putEvictable(page.key(), diskUsage.bytes(manifests.get(page.key())));
+        }
+    }
+
+    private static class PageUsage {
+        private final long bytes;
+        @NonNull private final Set<String> listKeys;
+
+        PageUsage(long bytes, @NonNull Collection<String> listKeys) {
+            this.bytes = bytes;
+            this.listKeys = new HashSet<>(listKeys);
+        }
+    }
+
+    private static class ListUsage {
+        private int pages;
+        private long bytes;
+        private long exclusiveBytes;
+
+        void add(@NonNull PageUsage page, int sign) {
+            pages += sign;
+            bytes += sign * page.bytes;
+            if (page.listKeys.size() == 1) {
+                exclusiveBytes += sign * page.bytes;
+            }
+        }
+    }
+}
@@ -4,12 +4,16 @@ import android.app.IntentService;
 import android.content.Intent;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
 import android.text.TextUtils;
 
 import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.CallbackTask;
 import org.wikipedia.database.contract.PageImageHistoryContract;
 import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.dataclient.okhttp.HttpStatusException;
 import org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory;
+import org.wikipedia.dataclient.okhttp.cache.BlobStore;
 import org.wikipedia.dataclient.okhttp.cache.DiskLruCacheUtil;
 import org.wikipedia.dataclient.okhttp.cache.SaveHeader;
 import org.wikipedia.dataclient.page.PageClient;
@@ -20,10 +24,14 @@ import org.wikipedia.html.ImageTagParser;
 import org.wikipedia.html.PixelDensityDescriptorParser;
 import org.wikipedia.page.PageTitle;
 import org.wikipedia.pageimages.PageImage;
+import org.wikipedia.readinglist.page.ReadingListPage;
 import org.wikipedia.readinglist.page.ReadingListPageRow;
 import org.wikipedia.readinglist.page.database.ReadingListPageDao;
+import org.wikipedia.readinglist.page.database.disk.DiskStatus;
 import org.wikipedia.readinglist.page.database.disk.ReadingListPageDiskRow;
 import org.wikipedia.readinglist.sync.ReadingListSyncEvent;
+import org.wikipedia.readinglist.sync.ReadingListSynchronizer;
+import org.wikipedia.settings.Prefs;
 import org.wikipedia.util.DimenUtil;
 import org.wikipedia.util.FileUtil;
 import org.wikipedia.util.ThrowableUtil;
@@ -31,26 +39,60 @@ import org.wikipedia.util.UriUtil;
 import org.wikipedia.util.log.L;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import okhttp3.CacheControl;
 import okhttp3.CacheDelegate;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.internal.cache.DiskLruCache;
 import retrofit2.Call;
 
+import static org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory.SAVE_BLOBS;
 import static org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory.SAVE_CACHE;
 
 public class SavedPageSyncService extends IntentService {
+    // Number of pages saved concurrently. Each page in flight also holds one connection for its
+    // sections request while the lead request is outstanding.
+    private static final int MAX_CONCURRENT_PAGES = 4;
+    // Image requests from all pages in flight share these limits.
+    private static final int MAX_CONCURRENT_IMAGE_REQUESTS = 8;
+    private static final int MAX_CONCURRENT_IMAGE_REQUESTS_PER_HOST = 4;
+    // The number of images committed between manifest checkpoints.
+    private static final int IMAGES_PER_CHECKPOINT = 10;
+
+    @NonNull private static final OkHttpClient IMAGE_CLIENT = createImageClient();
+
     @NonNull private ReadingListPageDao dao;
+    @NonNull private final SavedPageStorage storage = SavedPageStorage.instance();
+    @NonNull private final SavedPageStorage.DiskUsage diskUsage = new SavedPageDiskUsage();
     @NonNull private final CacheDelegate cacheDelegate = new CacheDelegate(SAVE_CACHE);
+    // Pages saved before images were selected by density hold every image variant. All of them
+    // are considered when deleting.
     @NonNull private final PageImageUrlParser pageImageUrlParser
             = new PageImageUrlParser(new ImageTagParser(), new PixelDensityDescriptorParser());
+    @NonNull private final PageImageUrlParser saveImageUrlParser
+            = new PageImageUrlParser(new ImageTagParser(), new PixelDensityDescriptorParser(),
+            DimenUtil.getDensityScalar());
+    @NonNull private final ExecutorService pageExecutor
+            = Executors.newFixedThreadPool(MAX_CONCURRENT_PAGES);
+    @NonNull private final ExecutorService sectionsExecutor
+            = Executors.newFixedThreadPool(MAX_CONCURRENT_PAGES);
     private long blockSize;
 
     public SavedPageSyncService() {
@@ -60,6 +102,8 @@ public class SavedPageSyncService extends IntentService {
     }
 
     @Override protected void onHandleIntent(@Nullable Intent intent) {
+        updateImageDensity();
+
         List<ReadingListPageDiskRow> queue = new ArrayList<>();
         Collection<ReadingListPageDiskRow> rows = dao.startDiskTransaction();
 
@@ -74,8 +118,9 @@ public class SavedPageSyncService extends IntentService {
                     break;
                 case ONLINE:
                 case SAVED:
+                case REFUSED:
                     // SavedPageSyncService observes all list changes. No transaction is pending
-                    // when the row is online or saved.
+                    // when the row is online, saved, or refused.
                     break;
                 default:
                     throw new UnsupportedOperationException("Invalid disk row status: "
@@ -85,6 +130,93 @@ public class SavedPageSyncService extends IntentService {
         saveNewEntries(queue);
     }
 
+    @Override public void onDestroy() {
+        super.onDestroy();
+        pageExecutor.shutdownNow();
+        sectionsExecutor.shutdownNow();
+    }
+
+    /**
+     * Saves a page again if its images were selected for a display density other than the current
+     * one. Only the image variant best suited to the display density is saved. When the density
+     * changes, such as when the user changes the display size, each saved page fetches the
+     * variants for the new density when it is next opened rather than the whole library at once.
+     * Images already on disk for the new density are kept rather than requested again.
+     */
+    public static void updateImageDensity(@NonNull final ReadingListPage page) {
+        if (page.diskStatus() != DiskStatus.SAVED) {
+            return;
+        }
+        updateImageDensity();
+        final long changedMillis = Prefs.getSavedPageImageDensityChangedMillis();
+        if (changedMillis == 0) {
+            return;
+        }
+        CallbackTask.execute(new CallbackTask.Task<Void>() {
+            @Override public Void execute() {
+                ReadingListPageDao dao = ReadingListPageDao.instance();
+                ReadingListPageDiskRow row = dao.markOutdatedIfSavedBefore(page, changedMillis);
+                if (row != null) {
+                    for (String url : savedImageUrls(row)) {
+                        row.commit(url);
+                    }
+                    dao.checkpointDiskTransaction(row);
+                    ReadingListSynchronizer.instance().syncSavedPages();
+                }
+                return null;
+            }
+        });
+    }
+
+    // Records when the display density changes. Pages saved before then hold the image variants
+    // for the previous density.
+    private static synchronized void updateImageDensity() {
+        int densityDpi = DimenUtil.getDensityDpi();
+        int savedDensityDpi = Prefs.getSavedPageImageDensityDpi();
+        if (savedDensityDpi != densityDpi) {
+            if (savedDensityDpi != 0) {
+                Prefs.setSavedPageImageDensityChangedMillis(System.currentTimeMillis());
+            }
+            Prefs.setSavedPageImageDensityDpi(densityDpi);
+        }
+    }
+
+    // The images of a saved page selected for the current display density that are already on
+    // disk, such as images without variants or shared with a page saved since the density
+    // changed. They are recorded in the manifest of the save so that only the missing variants
+    // are requested, as when an interrupted save is resumed.
+    @NonNull private static Set<String> savedImageUrls(@NonNull ReadingListPageDiskRow row) {
+        Set<String> urls = new HashSet<>();
+        PageTitle pageTitle = makeTitleFrom(row);
+        if (pageTitle == null) {
+            return urls;
+        }
+        PageImageUrlParser parser = new PageImageUrlParser(new ImageTagParser(),
+                new PixelDensityDescriptorParser(), DimenUtil.getDensityScalar());
+        List<String> selected = new ArrayList<>();
+        try {
+            PageLead lead = reqPageLead(CacheControl.FORCE_CACHE, pageTitle).execute().body();
+            if (lead != null) {
+                selected.addAll(parser.parse(lead));
+            }
+            PageRemaining sections = reqPageSections(CacheControl.FORCE_CACHE, pageTitle).execute().body();
+            if (sections != null) {
+                selected.addAll(parser.parse(sections));
+            }
+        } catch (IOException ignore) { }
+
+        CacheDelegate cache = new CacheDelegate(SAVE_CACHE);
+        for (String url : selected) {
+            try {
+                String resolved = saveImageReq(pageTitle.getWikiSite(), url).url().toString();
+                if (cache.isCached(resolved)) {
+                    urls.add(resolved);
+                }
+            } catch (IllegalArgumentException ignore) { }
+        }
+        return urls;
+    }
+
     private void sendSyncEvent() {
         // Note: this method posts from a background thread but subscribers expect events to be
         // received on the main thread.
@@ -92,6 +224,12 @@ public class SavedPageSyncService extends IntentService {
     }
 
     private void deleteRow(@NonNull ReadingListPageDiskRow row) {
+        removeSavedContent(row);
+        dao.completeDiskTransaction(row);
+    }
+
+    // Removes the content of the page saved by a previous transaction.
+    private void removeSavedContent(@NonNull ReadingListPageDiskRow row) {
         ReadingListPageRow dat = row.dat();
         PageTitle pageTitle = makeTitleFrom(row);
         if (dat != null && pageTitle != null) {
@@ -103,7 +241,7 @@ public class SavedPageSyncService extends IntentService {
 
             if (lead != null) {
                 for (String url : pageImageUrlParser.parse(lead)) {
-                    cacheDelegate.remove(saveImageReq(pageTitle.getWikiSite(), url));
+                    removeResource(row, saveImageReq(pageTitle.getWikiSite(), url));
                 }
                 cacheDelegate.remove(leadCall.request());
             }
@@ -116,71 +254,250 @@ public class SavedPageSyncService extends IntentService {
 
             if (sections != null) {
                 for (String url : pageImageUrlParser.parse(sections)) {
-                    cacheDelegate.remove(saveImageReq(pageTitle.getWikiSite(), url));
+                    removeResource(row, saveImageReq(pageTitle.getWikiSite(), url));
                 }
                 cacheDelegate.remove(sectionsCall.request());
             }
         }
-        dao.completeDiskTransaction(row);
     }
 
-    private void saveNewEntries(List<ReadingListPageDiskRow> queue) {
-        sendSyncEvent();
-        while (!queue.isEmpty()) {
-            ReadingListPageDiskRow row = queue.remove(0);
-            PageTitle pageTitle = makeTitleFrom(row);
-            if (pageTitle == null) {
-                // todo: won't this fail forever or until the page is marked unsaved / removed somehow?
-                dao.failDiskTransaction(row);
+    private void removeResource(@NonNull ReadingListPageDiskRow row, @NonNull Request req) {
+        removeResource(SAVE_BLOBS, cacheDelegate, row.key(), req);
+    }
+
+    // Resources may be shared with other saved pages. The cache entry and its blob are only removed
+    // with the last page referencing them. Resources of pages saved before references were
+    // journaled are unknown to the blob store and are removed with the page, or they would never
+    // be.
+    @VisibleForTesting static void removeResource(@NonNull BlobStore blobs,
+                                                  @NonNull CacheDelegate cache,
+                                                  @NonNull String owner, @NonNull Request req) {
+        if (blobs.release(owner, req.url()) != BlobStore.Release.REFERENCED) {
+            cache.remove(req);
+        }
+    }
+
+    // Releases the image variants not selected for the current display density, such as those
+    // saved for a previous density. A variant still referenced by another page is kept.
+    private void releaseImageVariants(@NonNull ReadingListPageDiskRow row, @NonNull WikiSite wiki,
+                                      @NonNull PageLead lead, @NonNull PageRemaining sections) {
+        Set<String> selected = new HashSet<>(saveImageUrlParser.parse(lead));
+        selected.addAll(saveImageUrlParser.parse(sections));
+        List<String> variants = new ArrayList<>(pageImageUrlParser.parse(lead));
+        variants.addAll(pageImageUrlParser.parse(sections));
+        for (String url : variants) {
+            if (selected.contains(url)) {
                 continue;
             }
-
-            AggregatedResponseSize size;
             try {
-                size = savePageFor(row, pageTitle);
-            } catch (Exception e) {
-                // This can be an IOException from the storage media, or several types
-                // of network exceptions from malformed URLs, timeouts, etc.
-                e.printStackTrace();
-                if (!ThrowableUtil.isOffline(e)) {
-                    // If it's anything but a transient network error, let's log it aggressively,
-                    // to make sure we've fixed any other errors with saving pages.
-                    L.logRemoteError(e);
+                removeResource(row, saveImageReq(wiki, url));
+            } catch (IllegalArgumentException ignore) { }
+        }
+    }
+
+    // Removes the content recorded in the manifest of an interrupted save and drops it from the
+    // manifest, so that it is requested again when the save is resumed.
+    private void removeResources(@NonNull ReadingListPageDiskRow row) {
+        // The lead and sections belong to the page alone and are not interned.
+        Set<String> pageUrls = new HashSet<>();
+        PageTitle pageTitle = makeTitleFrom(row);
+        if (pageTitle != null) {
+            pageUrls.add(reqPageLead(null, pageTitle).request().url().toString());
+            pageUrls.add(reqPageSections(null, pageTitle).request().url().toString());
+        }
+
+        for (String url : row.manifest()) {
+            Request req = new Request.Builder().url(url).build();
+            if (pageUrls.contains(url)) {
+                cacheDelegate.remove(req);
+            } else {
+                removeResource(row, req);
+            }
+            row.uncommit(url);
+        }
+        dao.checkpointDiskTransaction(row);
+    }
+
+    // The size of the content recorded in the manifest of an interrupted save.
+    private long storedSize(@NonNull ReadingListPageDiskRow row) {
+        return diskUsage.bytes(row.manifest());
+    }
+
+    // Removes the evictable content of the rows of pending saves.
+    @NonNull private SavedPageStorage.Evictor evictor(@NonNull List<ReadingListPageDiskRow> queue) {
+        final Map<String, ReadingListPageDiskRow> rows = new HashMap<>();
+        for (ReadingListPageDiskRow row : queue) {
+            rows.put(row.key(), row);
+        }
+        return new SavedPageStorage.Evictor() {
+            @Override public void evict(@NonNull String key) {
+                ReadingListPageDiskRow row = rows.get(key);
+                if (row != null) {
+                    removeResources(row);
                 }
-                dao.failDiskTransaction(row);
-                continue;
             }
+        };
+    }
+
+    private void saveNewEntries(List<ReadingListPageDiskRow> queue) {
+        sendSyncEvent();
+
+        // Every interrupted save is pending again and in the queue. Its content is only evicted
+        // when the budget is exceeded, before any page is saved or when a saved page would not
+        // fit otherwise.
+        final SavedPageStorage.Evictor evictor = evictor(queue);
+        storage.makeRoom(evictor);
+
+        List<Future<?>> pages = new ArrayList<>(queue.size());
+        for (final ReadingListPageDiskRow row : queue) {
+            pages.add(pageExecutor.submit(new Runnable() {
+                @Override public void run() {
+                    saveNewEntry(row, evictor);
+                }
+            }));
+        }
+
+        // Block the IntentService worker until every page has completed or failed its disk
+        // transaction so that subsequent intents observe a settled database.
+        for (Future<?> page : pages) {
+            try {
+                page.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                L.logRemoteError(e.getCause());
+            }
+        }
+    }
+
+    private void saveNewEntry(@NonNull ReadingListPageDiskRow row,
+                              @NonNull SavedPageStorage.Evictor evictor) {
+        PageTitle pageTitle = makeTitleFrom(row);
+        if (pageTitle == null) {
+            // todo: won't this fail forever or until the page is marked unsaved / removed somehow?
+            dao.failDiskTransaction(row);
+            return;
+        }
+
+        // Saved pages are never evicted to make room for another. A page saved before and being
+        // refreshed already has its room.
+        boolean refresh = isSaved(row, pageTitle);
+        if (!refresh && !storage.hasRoom()) {
+            L.w("Saved page storage budget exhausted. Not saving " + pageTitle.getPrefixedText());
+            refuse(row);
+            return;
+        }
+        storage.removeEvictable(row.key());
+
+        if (!refresh && !fitsEstimate(row)) {
+            L.w("Saved page storage budget too small. Not saving " + pageTitle.getPrefixedText());
+            refuse(row);
+            return;
+        }
+
+        AggregatedResponseSize size;
+        try {
+            size = savePageFor(row, pageTitle);
+        } catch (Exception e) {
+            // This can be an IOException from the storage media, or several types
+            // of network exceptions from malformed URLs, timeouts, etc.
+            e.printStackTrace();
+            if (!ThrowableUtil.isOffline(e)) {
+                // If it's anything but a transient network error, let's log it aggressively,
+                // to make sure we've fixed any other errors with saving pages.
+                L.logRemoteError(e);
+            }
+            dao.failDiskTransaction(row);
+            // The content saved so far is kept to resume the save but may be evicted.
+            storage.putEvictable(row.key(), storedSize(row));
+            return;
+        }
 
-            ReadingListPageDiskRow rowWithUpdatedSize = new ReadingListPageDiskRow(row,
-                    ReadingListPageRow.builder().copy(row.dat()).logicalSize(size.logicalSize()).physicalSize(size.physicalSize()).build());
-            dao.completeDiskTransaction(rowWithUpdatedSize);
-            sendSyncEvent();
+        // A page that does not fit in the budget, even with the evictable content evicted, is
+        // refused rather than overshoot it.
+        if (!storage.makeRoom(evictor)) {
+            L.w("Saved page storage budget exceeded. Not saving " + pageTitle.getPrefixedText());
+            refuse(row);
+            return;
         }
+
+        ReadingListPageDiskRow rowWithUpdatedSize = new ReadingListPageDiskRow(row,
+                ReadingListPageRow.builder().copy(row.dat()).logicalSize(size.logicalSize()).physicalSize(size.physicalSize()).build());
+        dao.completeDiskTransaction(rowWithUpdatedSize);
+        sendSyncEvent();
+    }
+
+    // A page refused is not attempted again until the user saves it again, rather than downloaded
+    // and removed on every sync.
+    // Nothing of the page is kept, including the content of a previous save being refreshed.
+    private void refuse(@NonNull ReadingListPageDiskRow row) {
+        removeResources(row);
+        removeSavedContent(row);
+        dao.refuseDiskTransaction(row);
+        sendSyncEvent();
     }
 
-    @NonNull private AggregatedResponseSize savePageFor(@NonNull ReadingListPageDiskRow row,
+    // @return True if the content of a previous save of the page is on disk, rather than only
+    //         the content of an interrupted save.
+    private boolean isSaved(@NonNull ReadingListPageDiskRow row, @NonNull PageTitle pageTitle) {
+        String url = reqPageLead(null, pageTitle).request().url().toString();
+        return !row.committed(url) && cacheDelegate.isCached(url);
+    }
+
+    // The size of a page when last saved, such as before it was removed from the device and
+    // synced back, estimates the room it needs. Shared content counts as the page's own so the
+    // estimate may refuse a page that would have just fit.
+    private boolean fitsEstimate(@NonNull ReadingListPageDiskRow row) {
+        Long estimate = row.dat() == null ? null : row.dat().logicalSize();
+        return estimate == null || storage.hasRoom(Math.max(0, estimate - storedSize(row)));
+    }
+
+    @NonNull private AggregatedResponseSize savePageFor(@NonNull final ReadingListPageDiskRow row,
                                                         @NonNull PageTitle pageTitle) throws IOException {
         AggregatedResponseSize size = new AggregatedResponseSize(0, 0, 0);
 
         Call<PageLead> leadCall = reqPageLead(null, pageTitle);
-        Call<PageRemaining> sectionsCall = reqPageSections(null, pageTitle);
+        final Call<PageRemaining> sectionsCall = reqPageSections(null, pageTitle);
+        final Call<PageRemaining> cachedSectionsCall = reqPageSections(CacheControl.FORCE_CACHE, pageTitle);
+
+        // The sections are requested alongside the lead rather than after it.
+        Future<retrofit2.Response<PageRemaining>> sectionsFuture = sectionsExecutor.submit(
+                new Callable<retrofit2.Response<PageRemaining>>() {
+                    @Override public retrofit2.Response<PageRemaining> call() throws IOException {
+                        return executeResumable(row, sectionsCall, cachedSectionsCall);
+                    }
+                });
+
+        SaveImageBatch images = new SaveImageBatch(row, pageTitle.getWikiSite());
+        try {
+            retrofit2.Response<PageLead> leadRsp = executeResumable(row, leadCall,
+                    reqPageLead(CacheControl.FORCE_CACHE, pageTitle));
+            size = size.add(responseSize(leadRsp));
+
+            if (!TextUtils.isEmpty(leadRsp.body().getThumbUrl())) {
+                persistPageThumbnail(pageTitle, leadRsp.body().getThumbUrl());
+                row.dat().setThumbnailUrl(UriUtil.resolveProtocolRelativeUrl(pageTitle.getWikiSite(),
+                        leadRsp.body().getThumbUrl()));
+            }
+            row.dat().setDescription(leadRsp.body().getDescription());
 
-        retrofit2.Response<PageLead> leadRsp = leadCall.execute();
-        size = size.add(responseSize(leadRsp));
-        retrofit2.Response<PageRemaining> sectionsRsp = sectionsCall.execute();
-        size = size.add(responseSize(sectionsRsp));
+            // Lead images start downloading while the sections are still in flight.
+            images.enqueue(saveImageUrlParser.parse(leadRsp.body()));
 
-        if (!TextUtils.isEmpty(leadRsp.body().getThumbUrl())) {
-            persistPageThumbnail(pageTitle, leadRsp.body().getThumbUrl());
-            row.dat().setThumbnailUrl(UriUtil.resolveProtocolRelativeUrl(pageTitle.getWikiSite(),
-                    leadRsp.body().getThumbUrl()));
-        }
-        row.dat().setDescription(leadRsp.body().getDescription());
+            retrofit2.Response<PageRemaining> sectionsRsp = awaitResponse(sectionsFuture);
+            size = size.add(responseSize(sectionsRsp));
+            dao.checkpointDiskTransaction(row);
 
-        Set<String> imageUrls = new HashSet<>(pageImageUrlParser.parse(leadRsp.body()));
-        imageUrls.addAll(pageImageUrlParser.parse(sectionsRsp.body()));
+            images.enqueue(saveImageUrlParser.parse(sectionsRsp.body()));
+            size = size.add(images.await());
 
-        size = size.add(reqSaveImage(pageTitle.getWikiSite(), imageUrls));
+            releaseImageVariants(row, pageTitle.getWikiSite(), leadRsp.body(), sectionsRsp.body());
+        } catch (IOException | RuntimeException e) {
+            sectionsCall.cancel();
+            images.cancel();
+            throw e;
+        }
 
         String title = pageTitle.getPrefixedText();
         L.i("Saved page " + title + " (" + size + ")");
@@ -188,8 +505,49 @@ public class SavedPageSyncService extends IntentService {
         return size;
     }
 
-    @NonNull private Call<PageLead> reqPageLead(@Nullable CacheControl cacheControl,
-                                                @NonNull PageTitle pageTitle) {
+    // Responses already recorded in the manifest of an earlier, interrupted attempt are read from
+    // the cache. If the entry has since been evicted, it is requested again.
+    @NonNull private <T> retrofit2.Response<T> executeResumable(@NonNull ReadingListPageDiskRow row,
+                                                                @NonNull Call<T> call,
+                                                                @NonNull Call<T> cachedCall)
+            throws IOException {
+        String url = call.request().url().toString();
+        if (row.committed(url)) {
+            try {
+                retrofit2.Response<T> rsp = cachedCall.execute();
+                if (rsp.isSuccessful() && rsp.body() != null) {
+                    return rsp;
+                }
+            } catch (IOException ignore) { }
+        }
+
+        retrofit2.Response<T> rsp = call.execute();
+        if (rsp.isSuccessful() && rsp.body() != null && cacheDelegate.isCached(url)) {
+            row.commit(url);
+        }
+        return rsp;
+    }
+
+    @NonNull private <T> retrofit2.Response<T> awaitResponse(@NonNull Future<retrofit2.Response<T>> future)
+            throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @NonNull private static Call<PageLead> reqPageLead(@Nullable CacheControl cacheControl,
+                                                       @NonNull PageTitle pageTitle) {
         PageClient client = newPageClient(pageTitle);
 
         String title = pageTitle.getPrefixedText();
@@ -200,8 +558,8 @@ public class SavedPageSyncService extends IntentService {
         return client.lead(cacheControl, cacheOption, title, thumbnailWidth, noImages);
     }
 
-    @NonNull private Call<PageRemaining> reqPageSections(@Nullable CacheControl cacheControl,
-                                                         @NonNull PageTitle pageTitle) {
+    @NonNull private static Call<PageRemaining> reqPageSections(@Nullable CacheControl cacheControl,
+                                                                @NonNull PageTitle pageTitle) {
         PageClient client = newPageClient(pageTitle);
 
         String title = pageTitle.getPrefixedText();
@@ -211,34 +569,7 @@ public class SavedPageSyncService extends IntentService {
         return client.sections(cacheControl, cacheOption, title, noImages);
     }
 
-    private AggregatedResponseSize reqSaveImage(@NonNull WikiSite wiki, @NonNull Iterable<String> urls) throws IOException {
-        AggregatedResponseSize size = new AggregatedResponseSize(0, 0, 0);
-        for (String url : urls) {
-            try {
-                size = size.add(reqSaveImage(wiki, url));
-            } catch (Exception e) {
-                if (isRetryable(e)) {
-                    throw e;
-                }
-            }
-        }
-        return size;
-    }
-
-    @NonNull private ResponseSize reqSaveImage(@NonNull WikiSite wiki, @NonNull String url) throws IOException {
-        Request request = saveImageReq(wiki, url);
-
-        Response rsp = OkHttpConnectionFactory.getClient().newCall(request).execute();
-
-        // Note: raw non-Retrofit usage of OkHttp Requests requires that the Response body is read
-        // for the cache to be written.
-        rsp.body().close();
-
-        // Size must be checked after the body has been written.
-        return responseSize(rsp);
-    }
-
-    @NonNull private Request saveImageReq(@NonNull WikiSite wiki, @NonNull String url) {
+    @NonNull private static Request saveImageReq(@NonNull WikiSite wiki, @NonNull String url) {
         return new Request
                 .Builder()
                 .addHeader(SaveHeader.FIELD, SaveHeader.VAL_ENABLED)
@@ -265,6 +596,23 @@ public class SavedPageSyncService extends IntentService {
                 || ThrowableUtil.is404(t));
     }
 
+    // Moves the body of a saved image into the content addressed blob store so that identical
+    // images saved under different URLs are stored once. A page is charged once for each body it
+    // references, however many of its URLs share it.
+    @Nullable private ResponseSize internImage(@NonNull ReadingListPageDiskRow row,
+                                               @NonNull Request req) throws IOException {
+        DiskLruCache.Snapshot snapshot = cacheDelegate.entry(req);
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            long metadataSize = DiskLruCacheUtil.okHttpResponseMetadataSize(snapshot);
+            return new ResponseSize(metadataSize, SAVE_BLOBS.intern(row.key(), req.url()));
+        } finally {
+            snapshot.close();
+        }
+    }
+
     @NonNull private ResponseSize responseSize(@NonNull Response rsp) {
         return responseSize(rsp.request());
     }
@@ -283,7 +631,7 @@ public class SavedPageSyncService extends IntentService {
         return new ResponseSize(metadataSize, bodySize);
     }
 
-    @Nullable private PageTitle makeTitleFrom(@NonNull ReadingListPageDiskRow row) {
+    @Nullable private static PageTitle makeTitleFrom(@NonNull ReadingListPageDiskRow row) {
         ReadingListPageRow pageRow = row.dat();
         if (pageRow == null) {
             return null;
@@ -292,10 +640,159 @@ public class SavedPageSyncService extends IntentService {
         return new PageTitle(namespace, pageRow.title(), pageRow.wikiSite());
     }
 
-    @NonNull private PageClient newPageClient(@NonNull PageTitle title) {
+    @NonNull private static PageClient newPageClient(@NonNull PageTitle title) {
         return PageClientFactory.create(title.getWikiSite(), title.namespace());
     }
 
+    // Image requests are queued on a dedicated dispatcher so that the total number of concurrent
+    // image downloads, and the number per host, stay bounded no matter how many pages are in
+    // flight. The client otherwise shares its interceptors, connection pool, and caches with the
+    // default client.
+    @NonNull private static OkHttpClient createImageClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_CONCURRENT_IMAGE_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_CONCURRENT_IMAGE_REQUESTS_PER_HOST);
+        return OkHttpConnectionFactory.getClient().newBuilder().dispatcher(dispatcher).build();
+    }
+
+    // The images of a single page. URLs may be enqueued in several passes; duplicates are
+    // requested only once.
+    private class SaveImageBatch implements Callback {
+        @NonNull private final ReadingListPageDiskRow row;
+        @NonNull private final WikiSite wiki;
+        @NonNull private final Set<String> requestedUrls = new HashSet<>();
+        @NonNull private final List<okhttp3.Call> calls = new ArrayList<>();
+        @NonNull private final List<ResponseSize> sizes = new ArrayList<>();
+        @Nullable private IOException failure;
+        private int pending;
+        private int uncheckpointed;
+
+        SaveImageBatch(@NonNull ReadingListPageDiskRow row, @NonNull WikiSite wiki) {
+            this.row = row;
+            this.wiki = wiki;
+        }
+
+        synchronized void enqueue(@NonNull Iterable<String> urls) {
+            for (String url : urls) {
+                if (failure != null || !requestedUrls.add(url)) {
+                    continue;
+                }
+
+                Request request;
+                try {
+                    request = saveImageReq(wiki, url);
+                } catch (IllegalArgumentException e) {
+                    // Malformed URLs are not retryable.
+                    continue;
+                }
+
+                if (row.committed(request.url().toString())) {
+                    try {
+                        ResponseSize size = internImage(row, request);
+                        if (size != null) {
+                            sizes.add(size);
+                            continue;
+                        }
+                    } catch (IOException ignore) { }
+                }
+
+                okhttp3.Call call = IMAGE_CLIENT.newCall(request);
+                calls.add(call);
+                pending++;
+                call.enqueue(this);
+            }
+        }
+
+        @NonNull synchronized AggregatedResponseSize await() throws IOException {
+            while (pending > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    throw new InterruptedIOException();
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+
+            AggregatedResponseSize size = new AggregatedResponseSize(0, 0, 0);
+            for (ResponseSize responseSize : sizes) {
+                size = size.add(responseSize);
+            }
+            return size;
+        }
+
+        synchronized void cancel() {
+            for (okhttp3.Call call : calls) {
+                call.cancel();
+            }
+        }
+
+        @Override public void onResponse(okhttp3.Call call, Response rsp) throws IOException {
+            if (!rsp.isSuccessful()) {
+                rsp.body().close();
+                onFailure(call, new HttpStatusException(rsp));
+                return;
+            }
+            try {
+                // Note: raw non-Retrofit usage of OkHttp Requests requires that the Response body
+                // is read for the cache to be written.
+                rsp.body().close();
+
+                // Size must be checked after the body has been written.
+                ResponseSize size = null;
+                try {
+                    size = internImage(row, rsp.request());
+                } catch (IOException e) {
+                    // The image remains in the cache as is.
+                    L.w(e);
+                }
+                if (size == null) {
+                    size = responseSize(rsp);
+                }
+                // Only a body that reached the cache can be read back on resume.
+                String url = call.request().url().toString();
+                if (cacheDelegate.isCached(url)) {
+                    row.commit(url);
+                }
+                boolean checkpoint;
+                synchronized (this) {
+                    sizes.add(size);
+                    uncheckpointed++;
+                    checkpoint = uncheckpointed >= IMAGES_PER_CHECKPOINT;
+                    if (checkpoint) {
+                        uncheckpointed = 0;
+                    }
+                }
+                if (checkpoint) {
+                    dao.checkpointDiskTransaction(row);
+                }
+            } finally {
+                complete();
+            }
+        }
+
+        @Override public void onFailure(okhttp3.Call call, IOException e) {
+            synchronized (this) {
+                if (failure == null && isRetryable(e)) {
+                    // Fail the page as soon as possible; the remaining images will be requested
+                    // again on the next pass of the sync service.
+                    failure = e;
+                    cancel();
+                }
+            }
+            complete();
+        }
+
+        private synchronized void complete() {
+            pending--;
+            notifyAll();
+        }
+    }
+
     private static class AggregatedResponseSize {
         private final long physicalSize;
         private final long logicalSize;
@@ -3,6 +3,7 @@ package org.wikipedia.search;
 import android.content.Context;
 
 import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.Lane;
 import org.wikipedia.concurrency.SaneAsyncTask;
 
 /** AsyncTask to clear out recent search entries. */
@@ -13,6 +14,10 @@ public class DeleteAllRecentSearchesTask extends SaneAsyncTask<Void> {
         app = (WikipediaApp) context.getApplicationContext();
     }
 
+    @Override protected Lane lane() {
+        return Lane.DB;
+    }
+
     @Override
     public Void performTask() throws Throwable {
         app.getDatabaseClient(RecentSearch.class).deleteAll();
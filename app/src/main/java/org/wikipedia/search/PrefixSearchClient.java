@@ -29,7 +29,7 @@ public class PrefixSearchClient {
     @Nullable private Call<PrefixSearchResponse> call;
 
     // TODO: Seems arbitrary, consider updating
-    private static final int MAX_RESULTS = 20;
+    static final int MAX_RESULTS = 20;
 
     public Call<PrefixSearchResponse> request(@NonNull WikiSite wiki, @NonNull String title,
                                               @NonNull Callback cb) {
@@ -5,6 +5,7 @@ import android.database.Cursor;
 import android.support.annotation.NonNull;
 
 import org.wikipedia.database.DatabaseTable;
+import org.wikipedia.database.FtsTable;
 import org.wikipedia.database.column.Column;
 import org.wikipedia.database.contract.SearchHistoryContract;
 import org.wikipedia.database.contract.SearchHistoryContract.Col;
@@ -13,6 +14,10 @@ import java.util.Date;
 
 public class RecentSearchDatabaseTable extends DatabaseTable<RecentSearch> {
     private static final int DB_VER_INTRODUCED = 5;
+    private static final int DB_VER_FTS_ADDED = 20;
+
+    private static final FtsTable FTS_TABLE = new FtsTable(SearchHistoryContract.TABLE_FTS,
+            SearchHistoryContract.TABLE, DB_VER_FTS_ADDED, Col.TEXT);
 
     public RecentSearchDatabaseTable() {
         super(SearchHistoryContract.TABLE, SearchHistoryContract.Query.URI);
@@ -38,6 +43,11 @@ public class RecentSearchDatabaseTable extends DatabaseTable<RecentSearch> {
         return DB_VER_INTRODUCED;
     }
 
+    @Override
+    public FtsTable getFtsTable() {
+        return FTS_TABLE;
+    }
+
     @NonNull
     @Override
     public Column<?>[] getColumnsAdded(int version) {
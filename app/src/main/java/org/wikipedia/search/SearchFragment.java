@@ -26,6 +26,7 @@ import org.wikipedia.R;
 import org.wikipedia.WikipediaApp;
 import org.wikipedia.activity.FragmentUtil;
 import org.wikipedia.analytics.SearchFunnel;
+import org.wikipedia.concurrency.Lane;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.database.contract.SearchHistoryContract;
 import org.wikipedia.history.HistoryEntry;
@@ -443,6 +444,10 @@ public class SearchFragment extends Fragment implements BackPressedHandler,
             this.entry = entry;
         }
 
+        @NonNull @Override protected Lane lane() {
+            return Lane.DB;
+        }
+
         @Override
         public Void performTask() throws Throwable {
             app.getDatabaseClient(RecentSearch.class).upsert(entry, SearchHistoryContract.Query.SELECTION);
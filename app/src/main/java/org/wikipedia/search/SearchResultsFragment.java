@@ -23,6 +23,11 @@ import org.wikipedia.R;
 import org.wikipedia.WikipediaApp;
 import org.wikipedia.activity.FragmentUtil;
 import org.wikipedia.analytics.SearchFunnel;
+import org.wikipedia.concurrency.CallbackTask;
+import org.wikipedia.concurrency.CancellationToken;
+import org.wikipedia.concurrency.Lane;
+import org.wikipedia.concurrency.Priority;
+import org.wikipedia.concurrency.PriorityExecutor;
 import org.wikipedia.dataclient.mwapi.MwQueryResponse;
 import org.wikipedia.history.HistoryEntry;
 import org.wikipedia.offline.OfflineManager;
@@ -40,6 +45,7 @@ import java.text.Collator;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
@@ -83,15 +89,33 @@ public class SearchResultsFragment extends Fragment {
     private final LruCache<String, List<SearchResult>> searchResultsCache = new LruCache<>(MAX_CACHE_SIZE_SEARCH_RESULTS);
     private Handler searchHandler;
     private String currentSearchTerm = "";
+    private long searchStartNanos;
     @Nullable private SearchResults lastFullTextResults;
     @NonNull private final List<SearchResult> totalResults = new ArrayList<>();
-    private PrefixSearchClient prefixSearchClient = new PrefixSearchClient();
+    private TypeaheadEngine typeaheadEngine;
     private FullTextSearchClient fullTextSearchClient = new FullTextSearchClient();
+    @Nullable private CancellationToken offlineSearchToken;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         app = WikipediaApp.getInstance();
+        final Handler mainHandler = new Handler();
+        typeaheadEngine = new TypeaheadEngine(new PrefixSearchClient(), TypeaheadSources.history(),
+                TypeaheadSources.offline(), PriorityExecutor.executor(Lane.DB, Priority.HIGH),
+                new Executor() {
+                    @Override public void execute(@NonNull Runnable runnable) {
+                        mainHandler.post(runnable);
+                    }
+                });
+    }
+
+    @Override
+    public void onDestroy() {
+        if (typeaheadEngine.searchCount() > 0) {
+            L.d("Typeahead: " + typeaheadEngine.stats());
+        }
+        super.onDestroy();
     }
 
     @Override
@@ -174,6 +198,7 @@ public class SearchResultsFragment extends Fragment {
 
         cancelSearchTask();
         currentSearchTerm = term;
+        searchStartNanos = System.nanoTime();
 
         if (isBlank(term)) {
             clearResults();
@@ -187,6 +212,11 @@ public class SearchResultsFragment extends Fragment {
             return;
         }
 
+        // Results available without a request are shown without waiting for typing to pause.
+        if (typeaheadEngine.canAnswerLocally(app.getWikiSite(), term)) {
+            force = true;
+        }
+
         Message searchMessage = Message.obtain();
         searchMessage.what = MESSAGE_SEARCH;
         searchMessage.obj = term;
@@ -219,18 +249,21 @@ public class SearchResultsFragment extends Fragment {
         searchErrorView.setVisibility(View.GONE);
         updateProgressBar(false);
 
-        List<SearchResult> resultList = new ArrayList<>();
-        try {
-            List<String> results = OfflineManager.instance().searchByPrefix(searchTerm, BATCH_SIZE);
-            for (String title : results) {
-                resultList.add(new SearchResult(new PageTitle(title, app.getWikiSite())));
-            }
-        } catch (IOException e) {
-            L.d(e);
-        }
-
-        clearResults();
-        displayResults(resultList);
+        offlineSearchToken = OfflineManager.instance().searchByPrefix(searchTerm, BATCH_SIZE,
+                new CallbackTask.DefaultCallback<List<String>>() {
+                    @Override public void success(List<String> results) {
+                        offlineSearchToken = null;
+                        if (!isAdded()) {
+                            return;
+                        }
+                        List<SearchResult> resultList = new ArrayList<>();
+                        for (String title : results) {
+                            resultList.add(new SearchResult(new PageTitle(title, app.getWikiSite())));
+                        }
+                        clearResults();
+                        displayResults(resultList);
+                    }
+                });
     }
 
     private void doTitlePrefixSearch(final String searchTerm) {
@@ -238,9 +271,9 @@ public class SearchResultsFragment extends Fragment {
         final long startTime = System.nanoTime();
         updateProgressBar(true);
 
-        prefixSearchClient.request(app.getWikiSite(), searchTerm, new PrefixSearchClient.Callback() {
+        typeaheadEngine.search(app.getWikiSite(), searchTerm, searchStartNanos, new TypeaheadEngine.Callback() {
             @Override
-            public void success(@NonNull Call<PrefixSearchResponse> call, @NonNull SearchResults results) {
+            public void success(@NonNull String term, @NonNull SearchResults results) {
                 if (!isAdded()) {
                     return;
                 }
@@ -250,7 +283,7 @@ public class SearchResultsFragment extends Fragment {
             }
 
             @Override
-            public void failure(@NonNull Call<PrefixSearchResponse> call, @NonNull Throwable caught) {
+            public void failure(@NonNull String term, @NonNull Throwable caught) {
                 if (callCanceledIoException(caught)) {
                     return;
                 }
@@ -319,8 +352,12 @@ public class SearchResultsFragment extends Fragment {
     private void cancelSearchTask() {
         updateProgressBar(false);
         searchHandler.removeMessages(MESSAGE_SEARCH);
-        prefixSearchClient.cancel();
+        typeaheadEngine.cancel();
         fullTextSearchClient.cancel();
+        if (offlineSearchToken != null) {
+            offlineSearchToken.cancel();
+            offlineSearchToken = null;
+        }
     }
 
     private void doFullTextSearch(final String searchTerm,
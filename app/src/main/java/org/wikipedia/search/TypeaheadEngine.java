@@ -0,0 +1,330 @@
+package org.wikipedia.search;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.util.LruCache;
+
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.page.PageTitle;
+import org.wikipedia.util.log.L;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+
+/**
+ * Answers title prefix searches as the user types. Recent responses are kept per wiki and prefix.
+ * A response that the server did not continue holds every match of its prefix, so a longer prefix
+ * is answered by filtering it without a request. Typing a word therefore usually costs one or two
+ * requests rather than one per keystroke.
+ *
+ * The server matches prefixes more loosely than a filter can, folding accents and punctuation and
+ * tolerating typos. A response is only filtered if the filter accounts for every result it holds,
+ * and only for longer prefixes extended by ASCII letters and digits, whose matches the filter and
+ * the server agree on. Other searches go to the network.
+ *
+ * Results are merged with titles matching the prefix from local sources, such as the history and
+ * offline compilations. Each search supersedes the previous one, whose request is canceled and
+ * whose results are never delivered.
+ *
+ * Methods must be called and callbacks are made on the thread whose executor is passed to the
+ * constructor, normally the main thread.
+ */
+public class TypeaheadEngine {
+    public interface Callback {
+        void success(@NonNull String term, @NonNull SearchResults results);
+        void failure(@NonNull String term, @NonNull Throwable caught);
+    }
+
+    /** Titles matching a prefix stored on the device. Called on a background thread. */
+    public interface LocalSource {
+        @NonNull List<PageTitle> search(@NonNull WikiSite wiki, @NonNull String prefix, int max);
+    }
+
+    @VisibleForTesting static final int MAX_CACHED_PREFIXES = 32;
+    @VisibleForTesting static final int MAX_LOCAL_RESULTS = 3;
+    // The continuation parameter of the prefix search generator, present if it has more results.
+    @VisibleForTesting static final String CONTINUE_OFFSET = "gpsoffset";
+
+    @NonNull private final PrefixSearchClient client;
+    @NonNull private final LocalSource leadingSource;
+    @NonNull private final LocalSource trailingSource;
+    @NonNull private final Executor backgroundExecutor;
+    @NonNull private final Executor callbackExecutor;
+    @NonNull private final LruCache<String, Entry> cache = new LruCache<>(MAX_CACHED_PREFIXES);
+    private int generation;
+
+    private int searchCount;
+    private int localHitCount;
+    private int latencyCount;
+    private long latencySumNanos;
+    private long latencyMaxNanos;
+
+    /**
+     * @param leadingSource Source of matches shown before the search results, such as history.
+     * @param trailingSource Source of matches shown after the search results.
+     */
+    public TypeaheadEngine(@NonNull PrefixSearchClient client, @NonNull LocalSource leadingSource,
+                           @NonNull LocalSource trailingSource, @NonNull Executor backgroundExecutor,
+                           @NonNull Executor callbackExecutor) {
+        this.client = client;
+        this.leadingSource = leadingSource;
+        this.trailingSource = trailingSource;
+        this.backgroundExecutor = backgroundExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /** @return True if term would be answered without a request, such that it need not be
+     *          debounced. */
+    public boolean canAnswerLocally(@NonNull WikiSite wiki, @NonNull String term) {
+        return lookup(wiki, term) != null;
+    }
+
+    /**
+     * Searches for titles starting with term, canceling the previous search.
+     *
+     * @param startNanos The System.nanoTime() of the keystroke the search is for, from which the
+     *                   latency of the results is measured.
+     */
+    public void search(@NonNull final WikiSite wiki, @NonNull final String term, long startNanos,
+                       @NonNull Callback callback) {
+        cancel();
+        searchCount++;
+        final Search search = new Search(generation, term, startNanos, callback);
+
+        Entry entry = lookup(wiki, term);
+        if (entry != null) {
+            localHitCount++;
+            search.setRemote(entry.results);
+        } else {
+            client.request(wiki, term, new PrefixSearchClient.Callback() {
+                @Override public void success(@NonNull Call<PrefixSearchResponse> call,
+                                              @NonNull SearchResults results) {
+                    if (search.isCurrent()) {
+                        cache.put(key(wiki, term), new Entry(results,
+                                isComplete(results, normalize(term))));
+                        search.setRemote(results);
+                    }
+                }
+
+                @Override public void failure(@NonNull Call<PrefixSearchResponse> call,
+                                              @NonNull Throwable caught) {
+                    search.fail(caught);
+                }
+            });
+        }
+
+        backgroundExecutor.execute(new Runnable() {
+            @Override public void run() {
+                final List<PageTitle> leading = searchQuietly(leadingSource, wiki, term);
+                final List<PageTitle> trailing = searchQuietly(trailingSource, wiki, term);
+                callbackExecutor.execute(new Runnable() {
+                    @Override public void run() {
+                        search.setLocal(leading, trailing);
+                    }
+                });
+            }
+        });
+    }
+
+    /** Cancels the current search, whose results are not delivered. */
+    public void cancel() {
+        generation++;
+        client.cancel();
+    }
+
+    public int searchCount() {
+        return searchCount;
+    }
+
+    /** @return The fraction of searches answered without a request. */
+    public float localHitRatio() {
+        return searchCount == 0 ? 0 : (float) localHitCount / searchCount;
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    @NonNull public String stats() {
+        return String.format(Locale.ROOT, "%d searches, %.0f%% answered locally, keystroke to"
+                        + " results %d ms mean, %d ms max", searchCount, localHitRatio() * 100,
+                latencyCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latencySumNanos / latencyCount),
+                TimeUnit.NANOSECONDS.toMillis(latencyMaxNanos));
+    }
+
+    /** @return The cached results for term, filtered from the complete results of a shorter
+     *          prefix if need be, or null if a request is needed. */
+    @Nullable private Entry lookup(@NonNull WikiSite wiki, @NonNull String term) {
+        String prefix = normalize(term);
+        Entry entry = cache.get(key(wiki, prefix));
+        if (entry != null) {
+            return entry;
+        }
+        for (int length = prefix.length() - 1; length > 0 && isFilterable(prefix.charAt(length));
+             length--) {
+            entry = cache.get(key(wiki, prefix.substring(0, length)));
+            if (entry != null && entry.complete) {
+                Entry filtered = entry.filter(prefix);
+                cache.put(key(wiki, prefix), filtered);
+                return filtered;
+            }
+        }
+        return null;
+    }
+
+    private void deliver(@NonNull Search search, @NonNull SearchResults remote,
+                         @NonNull List<PageTitle> leading, @NonNull List<PageTitle> trailing) {
+        long latency = System.nanoTime() - search.startNanos;
+        latencyCount++;
+        latencySumNanos += latency;
+        latencyMaxNanos = Math.max(latencyMaxNanos, latency);
+        search.callback.success(search.term, merge(remote, leading, trailing));
+    }
+
+    @VisibleForTesting @NonNull static SearchResults merge(@NonNull SearchResults remote,
+                                                           @NonNull List<PageTitle> leading,
+                                                           @NonNull List<PageTitle> trailing) {
+        if (leading.isEmpty() && trailing.isEmpty()) {
+            return remote;
+        }
+
+        Set<String> titles = new HashSet<>();
+        for (SearchResult result : remote.getResults()) {
+            titles.add(result.getPageTitle().getPrefixedText());
+        }
+        List<SearchResult> results = new ArrayList<>();
+        for (PageTitle title : leading) {
+            if (titles.add(title.getPrefixedText())) {
+                results.add(new SearchResult(title));
+            }
+        }
+        results.addAll(remote.getResults());
+        for (PageTitle title : trailing) {
+            if (titles.add(title.getPrefixedText())) {
+                results.add(new SearchResult(title));
+            }
+        }
+        return new SearchResults(results, remote.getContinuation(), remote.getSuggestion());
+    }
+
+    @NonNull private static List<PageTitle> searchQuietly(@NonNull LocalSource source,
+                                                          @NonNull WikiSite wiki,
+                                                          @NonNull String term) {
+        try {
+            return source.search(wiki, term, MAX_LOCAL_RESULTS);
+        } catch (RuntimeException e) {
+            L.w("Failed to search local titles", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /** @return True if results hold every match of prefix: the server has no more of them and
+     *          each is a match the filter would have kept. */
+    private static boolean isComplete(@NonNull SearchResults results, @NonNull String prefix) {
+        Map<String, String> continuation = results.getContinuation();
+        if (results.getResults().size() >= PrefixSearchClient.MAX_RESULTS
+                || continuation != null && continuation.containsKey(CONTINUE_OFFSET)) {
+            return false;
+        }
+        for (SearchResult result : results.getResults()) {
+            if (!matches(result, prefix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Letters and digits outside ASCII may be folded by the server into others.
+    private static boolean isFilterable(char c) {
+        return c >= 'a' && c <= 'z' || c >= '0' && c <= '9';
+    }
+
+    private static boolean matches(@NonNull SearchResult result, @NonNull String prefix) {
+        String redirect = result.getRedirectFrom();
+        return normalize(result.getPageTitle().getDisplayText()).startsWith(prefix)
+                || redirect != null && normalize(redirect).startsWith(prefix);
+    }
+
+    @NonNull private static String key(@NonNull WikiSite wiki, @NonNull String prefix) {
+        return wiki.authority() + "|" + normalize(prefix);
+    }
+
+    // Prefix search ignores case and treats underscores as spaces.
+    @NonNull private static String normalize(@NonNull String text) {
+        return text.replace('_', ' ').toLowerCase(Locale.ROOT);
+    }
+
+    private static class Entry {
+        @NonNull private final SearchResults results;
+        // True if the results hold every match of the prefix.
+        private final boolean complete;
+
+        Entry(@NonNull SearchResults results, boolean complete) {
+            this.results = results;
+            this.complete = complete;
+        }
+
+        @NonNull Entry filter(@NonNull String prefix) {
+            List<SearchResult> filtered = new ArrayList<>();
+            for (SearchResult result : results.getResults()) {
+                if (matches(result, prefix)) {
+                    filtered.add(result);
+                }
+            }
+            return new Entry(new SearchResults(filtered, null, null), true);
+        }
+    }
+
+    private class Search {
+        private final int generation;
+        @NonNull private final String term;
+        private final long startNanos;
+        @NonNull private final Callback callback;
+        @Nullable private SearchResults remote;
+        @Nullable private List<PageTitle> leading;
+        @Nullable private List<PageTitle> trailing;
+
+        Search(int generation, @NonNull String term, long startNanos, @NonNull Callback callback) {
+            this.generation = generation;
+            this.term = term;
+            this.startNanos = startNanos;
+            this.callback = callback;
+        }
+
+        boolean isCurrent() {
+            return generation == TypeaheadEngine.this.generation;
+        }
+
+        void setRemote(@NonNull SearchResults remote) {
+            this.remote = remote;
+            deliverIfDone();
+        }
+
+        void setLocal(@NonNull List<PageTitle> leading, @NonNull List<PageTitle> trailing) {
+            this.leading = leading;
+            this.trailing = trailing;
+            deliverIfDone();
+        }
+
+        void fail(@NonNull Throwable caught) {
+            if (isCurrent()) {
+                // Later results of this search are dropped.
+                cancel();
+                callback.failure(term, caught);
+            }
+        }
+
+        private void deliverIfDone() {
+            if (isCurrent() && remote != null && leading != null && trailing != null) {
+                deliver(this, remote, leading, trailing);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.wikipedia.search;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+import org.wikipedia.WikipediaApp;
+import org.wikipedia.database.FtsTable;
+import org.wikipedia.database.contract.PageHistoryContract;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.history.HistoryEntry;
+import org.wikipedia.offline.Compilation;
+import org.wikipedia.offline.OfflineManager;
+import org.wikipedia.page.PageTitle;
+import org.wikipedia.util.log.L;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/** The {@link TypeaheadEngine.LocalSource}s of titles on the device. */
+final class TypeaheadSources {
+    /** @return A source of the most recently viewed history titles starting with the prefix. */
+    @NonNull static TypeaheadEngine.LocalSource history() {
+        return new TypeaheadEngine.LocalSource() {
+            @NonNull @Override public List<PageTitle> search(@NonNull WikiSite wiki,
+                                                             @NonNull String prefix, int max) {
+                // The full-text index matches titles with a word starting with each word of the
+                // prefix. Those starting with the prefix rank first.
+                String selection = PageHistoryContract.PageWithImageSearch.SELECTION + " and "
+                        + PageHistoryContract.Page.SITE.qualifiedName() + " = ?";
+                String[] selectionArgs = {FtsTable.matchQuery(prefix), wiki.authority()};
+
+                Cursor cursor = WikipediaApp.getInstance().getContentResolver()
+                        .query(PageHistoryContract.PageWithImageSearch.URI, null, selection,
+                                selectionArgs, PageHistoryContract.PageWithImageSearch.ORDER_RANK);
+                if (cursor == null) {
+                    return Collections.emptyList();
+                }
+                String normalizedPrefix = prefix.replace('_', ' ').toLowerCase(Locale.ROOT);
+                // A title is in the history once per view.
+                Set<String> titles = new LinkedHashSet<>();
+                List<PageTitle> results = new ArrayList<>();
+                try {
+                    while (results.size() < max && cursor.moveToNext()) {
+                        PageTitle title = HistoryEntry.DATABASE_TABLE.fromCursor(cursor).getTitle();
+                        if (title.getText().replace('_', ' ').toLowerCase(Locale.ROOT)
+                                .startsWith(normalizedPrefix)
+                                && titles.add(title.getPrefixedText())) {
+                            results.add(title);
+                        }
+                    }
+                } finally {
+                    cursor.close();
+                }
+                return results;
+            }
+        };
+    }
+
+    /** @return A source of the titles of offline compilations in the language of the wiki
+     *          starting with the prefix. */
+    @NonNull static TypeaheadEngine.LocalSource offline() {
+        return new TypeaheadEngine.LocalSource() {
+            @NonNull @Override public List<PageTitle> search(@NonNull WikiSite wiki,
+                                                             @NonNull String prefix, int max) {
+                if (!hasCompilation(wiki)) {
+                    return Collections.emptyList();
+                }
+                List<PageTitle> results = new ArrayList<>();
+                try {
+                    for (String title : OfflineManager.instance().searchByPrefix(prefix, max)) {
+                        results.add(new PageTitle(title, wiki));
+                    }
+                } catch (IOException e) {
+                    L.w("Failed to search offline titles", e);
+                }
+                return results;
+            }
+        };
+    }
+
+    private static boolean hasCompilation(@NonNull WikiSite wiki) {
+        for (Compilation c : OfflineManager.instance().compilations()) {
+            if (c.langCodes() == null || c.langCodes().contains(wiki.languageCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TypeaheadSources() { }
+}
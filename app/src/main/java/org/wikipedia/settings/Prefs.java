@@ -200,10 +200,7 @@ public final class Prefs {
         setString(R.string.preference_key_remote_config, json);
     }
 
-    public static void setTabs(@NonNull List<Tab> tabs) {
-        setString(R.string.preference_key_tabs, GsonMarshaller.marshal(tabs));
-    }
-
+    // Tabs were saved here before TabStore, which moves them out on first load.
     @NonNull
     public static List<Tab> getTabs() {
         return hasTabs()
@@ -234,13 +231,6 @@ public final class Prefs {
         return contains(R.string.preference_key_feed_hidden_cards);
     }
 
-    public static int getTabCount() {
-        List<Tab> tabs = getTabs();
-        // handle the case where we have a single tab with an empty backstack,
-        // which shouldn't count as a valid tab:
-        return tabs.isEmpty() ? 0 : tabs.get(0).getBackStack().isEmpty() ? 0 : tabs.size();
-    }
-
     public static void setSessionData(@NonNull SessionData data) {
         setString(R.string.preference_key_session_data, GsonMarshaller.marshal(data));
     }
@@ -549,5 +539,35 @@ public final class Prefs {
         setString(R.string.preference_key_compilation_cache, GsonMarshaller.marshal(compilations));
     }
 
+    /** @return The display density, in dpi, that saved page images were last selected for, or 0 if
+     *          never saved. */
+    public static int getSavedPageImageDensityDpi() {
+        return getInt(R.string.preference_key_saved_page_image_density_dpi, 0);
+    }
+
+    public static void setSavedPageImageDensityDpi(int densityDpi) {
+        setInt(R.string.preference_key_saved_page_image_density_dpi, densityDpi);
+    }
+
+    /** @return The time in milliseconds at which the display density last changed from the one
+     *          saved page images were selected for, or 0 if never. Pages saved earlier hold images
+     *          for another density. */
+    public static long getSavedPageImageDensityChangedMillis() {
+        return getLong(R.string.preference_key_saved_page_image_density_changed_millis, 0);
+    }
+
+    public static void setSavedPageImageDensityChangedMillis(long millis) {
+        setLong(R.string.preference_key_saved_page_image_density_changed_millis, millis);
+    }
+
+    /** @return The maximum size of saved page content in bytes, or 0 if sized automatically. */
+    public static long getSavedPageStorageBudget() {
+        return getLong(R.string.preference_key_saved_page_storage_budget, 0);
+    }
+
+    public static void setSavedPageStorageBudget(long bytes) {
+        setLong(R.string.preference_key_saved_page_storage_budget, bytes);
+    }
+
     private Prefs() { }
 }
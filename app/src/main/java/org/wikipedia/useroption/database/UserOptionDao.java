@@ -5,6 +5,7 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import org.wikipedia.WikipediaApp;
+import org.wikipedia.concurrency.Lane;
 import org.wikipedia.concurrency.SaneAsyncTask;
 import org.wikipedia.database.BaseDao;
 import org.wikipedia.database.async.AsyncConstant;
@@ -144,6 +145,10 @@ public final class UserOptionDao extends BaseDao<UserOption> {
             this.row = row;
         }
 
+        @NonNull @Override protected Lane lane() {
+            return Lane.DB;
+        }
+
         @Override
         public Void performTask() throws Throwable {
             markUpserted(row);
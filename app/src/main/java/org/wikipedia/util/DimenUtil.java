@@ -35,6 +35,10 @@ public final class DimenUtil {
         return getDisplayMetrics().density;
     }
 
+    public static int getDensityDpi() {
+        return getDisplayMetrics().densityDpi;
+    }
+
     public static float getFloat(@DimenRes int id) {
         return getValue(id).getFloat();
     }
@@ -0,0 +1,64 @@
+package org.wikipedia.bridge;
+
+import android.support.annotation.NonNull;
+import android.webkit.WebResourceResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.test.TestRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+@RunWith(TestRunner.class) public class PayloadChannelTest {
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_NOT_FOUND = 404;
+
+    @NonNull private final PayloadChannel subject = PayloadChannel.instance();
+
+    @Test public void testServe() throws Throwable {
+        String text = "ascii \u00fc \u20ac \uD83D\uDE00 \uD800";
+        String url = subject.put(this, text);
+        assertThat(PayloadChannel.isPayloadUrl(url), is(true));
+
+        WebResourceResponse rsp = subject.serve(url);
+        assertThat(rsp.getStatusCode(), is(HTTP_OK));
+        assertThat(rsp.getResponseHeaders().get("Access-Control-Allow-Origin"), is("*"));
+        assertThat(read(rsp), is("ascii \u00fc \u20ac \uD83D\uDE00 ?"));
+    }
+
+    @Test public void testServeOnce() throws Throwable {
+        String url = subject.put(this, "text");
+        read(subject.serve(url));
+        assertThat(subject.serve(url).getStatusCode(), is(HTTP_NOT_FOUND));
+    }
+
+    @Test public void testServeReusedBuffer() throws Throwable {
+        read(subject.serve(subject.put(this, "a longer payload")));
+        assertThat(read(subject.serve(subject.put(this, "short"))), is("short"));
+    }
+
+    @Test public void testReleaseAll() throws Throwable {
+        String url = subject.put(this, "text");
+        String other = subject.put(new Object(), "other");
+        subject.releaseAll(this);
+        assertThat(subject.serve(url).getStatusCode(), is(HTTP_NOT_FOUND));
+        assertThat(read(subject.serve(other)), is("other"));
+    }
+
+    @Test public void testUrl() {
+        assertThat(subject.put(this, "text"), startsWith(PayloadChannel.URL_PREFIX));
+        assertThat(PayloadChannel.isPayloadUrl("https://en.wikipedia.org/"), is(false));
+        subject.releaseAll(this);
+    }
+
+    @NonNull private String read(@NonNull WebResourceResponse rsp) throws Throwable {
+        try {
+            return IOUtils.toString(rsp.getData(), rsp.getEncoding());
+        } finally {
+            rsp.getData().close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.wikipedia.concurrency;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.test.TestRunner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(TestRunner.class) public class LaneExecutorTest {
+    private static final int TIMEOUT_SECONDS = 5;
+
+    @Test public void testExecutePriorityOrder() throws Throwable {
+        LaneExecutor subject = new LaneExecutor("test", 1, 1);
+        CountDownLatch blocked = block(subject);
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        subject.execute(Priority.LOW, null, add(order, "low"));
+        subject.execute(Priority.NORMAL, null, add(order, "normal1"));
+        subject.execute(Priority.HIGH, null, add(order, "high"));
+        subject.execute(Priority.NORMAL, null, add(order, "normal2"));
+        blocked.countDown();
+        await(subject);
+
+        assertThat(order, contains("high", "normal1", "normal2", "low"));
+    }
+
+    @Test public void testExecuteCancelled() throws Throwable {
+        LaneExecutor subject = new LaneExecutor("test", 1, 1);
+        CountDownLatch blocked = block(subject);
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CancellationToken token = new CancellationToken();
+        subject.execute(Priority.NORMAL, token, add(order, "cancelled"));
+        subject.execute(Priority.NORMAL, null, add(order, "run"));
+        token.cancel();
+        blocked.countDown();
+        await(subject);
+
+        assertThat(order, contains("run"));
+    }
+
+    @Test public void testExecuteOverCapacity() throws Throwable {
+        LaneExecutor subject = new LaneExecutor("test", 1, 1);
+        CountDownLatch blocked = block(subject);
+
+        // The main thread is never blocked so the queue grows past capacity instead.
+        List<String> order = new CopyOnWriteArrayList<>();
+        subject.execute(Priority.NORMAL, null, add(order, "a"));
+        subject.execute(Priority.NORMAL, null, add(order, "b"));
+        assertThat(subject.queued(), is(2));
+        blocked.countDown();
+        await(subject);
+
+        assertThat(order, contains("a", "b"));
+    }
+
+    @NonNull private CountDownLatch block(@NonNull LaneExecutor subject) throws Throwable {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        subject.execute(Priority.NORMAL, null, new Runnable() {
+            @Override public void run() {
+                started.countDown();
+                try {
+                    blocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException ignore) { }
+            }
+        });
+        started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return blocked;
+    }
+
+    private void await(@NonNull LaneExecutor subject) throws Throwable {
+        final CountDownLatch done = new CountDownLatch(1);
+        subject.execute(Priority.LOW, null, new Runnable() {
+            @Override public void run() {
+                done.countDown();
+            }
+        });
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+    }
+
+    @NonNull private Runnable add(@NonNull final List<String> list, @NonNull final String str) {
+        return new Runnable() {
+            @Override public void run() {
+                list.add(str);
+            }
+        };
+    }
+}
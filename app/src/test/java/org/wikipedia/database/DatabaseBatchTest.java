@@ -0,0 +1,170 @@
+package org.wikipedia.database;
+
+import android.content.ContentProviderOperation;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.wikipedia.database.contract.AppContentProviderContract;
+import org.wikipedia.test.TestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(TestRunner.class) public class DatabaseBatchTest {
+    private static final Uri URI = Uri.withAppendedPath(AppContentProviderContract.AUTHORITY_BASE, "table");
+
+    @NonNull private DatabaseClient<String> client;
+
+    @SuppressWarnings("unchecked") @Before public void setUp() {
+        client = mock(DatabaseClient.class);
+        when(client.uri()).thenReturn(URI);
+        when(client.getPrimaryKeySelectionArgs(anyString())).thenAnswer(new Answer<String[]>() {
+            @Override public String[] answer(InvocationOnMock invocation) {
+                return new String[] {(String) invocation.getArguments()[0]};
+            }
+        });
+        ContentProviderOperation operation = ContentProviderOperation.newDelete(URI).build();
+        when(client.persistOperation(anyString())).thenReturn(operation);
+        when(client.deleteOperation(anyString(), any(String[].class))).thenReturn(operation);
+    }
+
+    @Test public void testBegin() {
+        DatabaseBatch batch = DatabaseBatch.begin();
+        assertThat(DatabaseBatch.current(), sameInstance(batch));
+        batch.end();
+        assertThat(DatabaseBatch.current(), nullValue());
+    }
+
+    @SuppressWarnings("unchecked") @Test public void testCommit() {
+        DatabaseBatch batch = DatabaseBatch.begin();
+        batch.persist(client, "a");
+        batch.persist(client, "b");
+        batch.commit();
+        batch.end();
+        verify(client, times(1)).applyBatch(any(ArrayList.class));
+    }
+
+    @SuppressWarnings("unchecked") @Test public void testCommitEmpty() {
+        DatabaseBatch batch = DatabaseBatch.begin();
+        batch.commit();
+        batch.end();
+        verify(client, never()).applyBatch(any(ArrayList.class));
+    }
+
+    @SuppressWarnings("unchecked") @Test public void testEndWithoutCommit() {
+        DatabaseBatch batch = DatabaseBatch.begin();
+        batch.persist(client, "a");
+        batch.end();
+        verify(client, never()).applyBatch(any(ArrayList.class));
+        assertThat(DatabaseBatch.current(), nullValue());
+    }
+
+    @SuppressWarnings("unchecked") @Test public void testNested() {
+        DatabaseBatch outer = DatabaseBatch.begin();
+        DatabaseBatch inner = DatabaseBatch.begin();
+        assertThat(inner, sameInstance(outer));
+
+        inner.persist(client, "a");
+        inner.commit();
+        inner.end();
+        verify(client, never()).applyBatch(any(ArrayList.class));
+        assertThat(DatabaseBatch.current(), sameInstance(outer));
+
+        outer.commit();
+        outer.end();
+        verify(client, times(1)).applyBatch(any(ArrayList.class));
+    }
+
+    @Test public void testRowPersisted() {
+        DatabaseBatch batch = DatabaseBatch.begin();
+        batch.persist(client, "a");
+        assertThat(batch.contains(client, "a"), is(true));
+        assertThat(batch.row(client, "a"), is("a"));
+        assertThat(batch.contains(client, "b"), is(false));
+        batch.end();
+    }
+
+    @Test public void testRowDeleted() {
+        DatabaseBatch batch = DatabaseBatch.begin();
+        batch.persist(client, "a");
+        batch.delete(client, "a", new String[] {});
+        assertThat(batch.contains(client, "a"), is(true));
+        assertThat(batch.row(client, "a"), nullValue());
+        batch.end();
+    }
+
+    @SuppressWarnings("unchecked") @Test public void testUpsertMixed() {
+        ContentProviderOperation insert = ContentProviderOperation.newInsert(URI).build();
+        ContentProviderOperation update = ContentProviderOperation.newUpdate(URI).build();
+        ContentProviderOperation delete = ContentProviderOperation.newDelete(URI).build();
+        when(client.persistOperation(anyString())).thenReturn(insert);
+        when(client.updateOperation(anyString(), any(String[].class))).thenReturn(update);
+        when(client.deleteOperation(anyString(), any(String[].class))).thenReturn(delete);
+        when(client.exists(eq("stored"), any(String[].class))).thenReturn(true);
+
+        DatabaseBatch batch = DatabaseBatch.begin();
+        batch.persist(client, "a");
+        batch.upsert(client, "a", new String[] {});
+        batch.delete(client, "a", new String[] {});
+        batch.upsert(client, "a", new String[] {});
+        batch.upsert(client, "stored", new String[] {});
+        batch.upsert(client, "new", new String[] {});
+        assertThat(batch.row(client, "a"), is("a"));
+        assertThat(batch.row(client, "new"), is("new"));
+        batch.commit();
+        batch.end();
+
+        ArgumentCaptor<ArrayList> operations = ArgumentCaptor.forClass(ArrayList.class);
+        verify(client, times(1)).applyBatch(operations.capture());
+        assertThat((List<ContentProviderOperation>) operations.getValue(),
+                contains(insert, update, delete, insert, update, insert));
+    }
+
+    @SuppressWarnings("unchecked") @Test public void testUpsertAfterDeleteWhere() {
+        ContentProviderOperation insert = ContentProviderOperation.newInsert(URI).build();
+        ContentProviderOperation delete = ContentProviderOperation.newDelete(URI).build();
+        when(client.persistOperation(anyString())).thenReturn(insert);
+        when(client.deleteOperation(anyString(), any(String[].class))).thenReturn(delete);
+        when(client.deleteWhereOperation(anyString(), any(String[].class))).thenReturn(delete);
+
+        DatabaseBatch batch = DatabaseBatch.begin();
+        batch.deleteWhere(client, "selection", new String[] {});
+        batch.upsert(client, "a", new String[] {});
+        batch.commit();
+        batch.end();
+
+        ArgumentCaptor<ArrayList> operations = ArgumentCaptor.forClass(ArrayList.class);
+        verify(client, times(1)).applyBatch(operations.capture());
+        assertThat((List<ContentProviderOperation>) operations.getValue(),
+                contains(delete, delete, insert));
+        verify(client, never()).exists(anyString(), any(String[].class));
+    }
+
+    @Test public void testAccepts() {
+        DatabaseBatch batch = DatabaseBatch.begin();
+        assertThat(batch.accepts(client), is(true));
+        when(client.uri()).thenReturn(Uri.parse("content://other/table"));
+        assertThat(batch.accepts(client), is(false));
+        batch.end();
+    }
+}
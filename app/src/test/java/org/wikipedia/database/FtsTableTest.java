@@ -0,0 +1,112 @@
+package org.wikipedia.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.database.column.LongColumn;
+import org.wikipedia.database.column.StrColumn;
+import org.wikipedia.test.TestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(TestRunner.class) public class FtsTableTest {
+    private static final String TABLE = "page";
+    private static final String TABLE_FTS = "pagefts";
+    private static final LongColumn ID = new LongColumn(TABLE, "_id", "integer primary key");
+    private static final StrColumn KEY = new StrColumn(TABLE, "key", "text not null unique");
+    private static final StrColumn TITLE = new StrColumn(TABLE, "title", "text");
+    private static final StrColumn DESCRIPTION = new StrColumn(TABLE, "description", "text");
+
+    private SQLiteDatabase db;
+
+    @Before public void setUp() {
+        db = SQLiteDatabase.create(null);
+        db.execSQL("PRAGMA recursive_triggers = ON");
+        db.execSQL("CREATE TABLE " + TABLE + " (" + ID + ", " + KEY + ", " + TITLE + ", "
+                + DESCRIPTION + ")");
+        insert("a", "Ray_Charles", "American musician");
+        new FtsTable(TABLE_FTS, TABLE, 1, TITLE, DESCRIPTION).create(db);
+    }
+
+    @After public void tearDown() {
+        db.close();
+    }
+
+    @Test public void testMatchQuery() {
+        assertThat(FtsTable.matchQuery("Ray ch"), is("ray* ch*"));
+        assertThat(FtsTable.matchQuery("  cats OR \"dogs\" -NOT"), is("cats* or* dogs* not*"));
+        assertThat(FtsTable.matchQuery("Über"), is("Über*"));
+        assertThat(FtsTable.matchQuery(" *- "), is(""));
+    }
+
+    @Test public void testSearchExistingRow() {
+        assertThat(search("ray"), contains("a"));
+        assertThat(search("charl mus"), contains("a"));
+        assertThat(search("rays"), empty());
+        assertThat(search(""), empty());
+    }
+
+    @Test public void testSearchInsertUpdateDelete() {
+        insert("b", "Rayon", "Fibre");
+        assertThat(search("ray"), contains("a", "b"));
+
+        ContentValues values = new ContentValues();
+        values.put(TITLE.getName(), "Viscose");
+        db.update(TABLE, values, KEY.getName() + " = ?", new String[] {"b"});
+        assertThat(search("ray"), contains("a"));
+        assertThat(search("viscose"), contains("b"));
+
+        db.delete(TABLE, KEY.getName() + " = ?", new String[] {"a"});
+        assertThat(search("ray"), empty());
+    }
+
+    @Test public void testSearchReplace() {
+        insert("a", "Banana", "Fruit");
+        assertThat(search("ray"), empty());
+        assertThat(search("banana"), contains("a"));
+    }
+
+    @Test public void testSearchRank() {
+        insert("b", "Ray_Charles_Robinson", "Singer");
+        insert("c", "Genius", "Ray Charles' nickname");
+        insert("d", "The_Ray", "Film");
+        assertThat(search("ray"), contains("a", "b", "d", "c"));
+    }
+
+    private void insert(@NonNull String key, @NonNull String title, @NonNull String description) {
+        ContentValues values = new ContentValues();
+        values.put(KEY.getName(), key);
+        values.put(TITLE.getName(), title);
+        values.put(DESCRIPTION.getName(), description);
+        db.replaceOrThrow(TABLE, null, values);
+    }
+
+    @NonNull private List<String> search(@NonNull String text) {
+        String sql = "SELECT " + KEY.qualifiedName() + ", " + FtsTable.rank(TABLE_FTS, "rank")
+                + " FROM " + TABLE_FTS + " JOIN " + TABLE + " ON " + TABLE_FTS + ".docid = "
+                + ID.qualifiedName() + " WHERE " + TABLE_FTS + " MATCH ? ORDER BY rank, "
+                + KEY.qualifiedName();
+        List<String> keys = new ArrayList<>();
+        Cursor cursor = db.rawQuery(sql, new String[] {FtsTable.matchQuery(text)});
+        try {
+            while (cursor.moveToNext()) {
+                keys.add(KEY.val(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return keys;
+    }
+}
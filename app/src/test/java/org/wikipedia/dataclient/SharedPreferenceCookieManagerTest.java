@@ -0,0 +1,99 @@
+package org.wikipedia.dataclient;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.settings.Prefs;
+import org.wikipedia.test.TestRunner;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+@RunWith(TestRunner.class) public class SharedPreferenceCookieManagerTest {
+    private static final URI EN_WIKI = URI.create("https://en.wikipedia.org/w/api.php");
+    private static final URI COMMONS = URI.create("https://commons.wikimedia.org/w/api.php");
+    private static final URI OTHER = URI.create("https://example.org/");
+
+    @NonNull private final SharedPreferenceCookieManager subject
+            = SharedPreferenceCookieManager.getInstance();
+
+    @Before public void setUp() {
+        subject.clearAllCookies();
+    }
+
+    @Test public void testGetMatchingDomains() throws Throwable {
+        setCookies(EN_WIKI, "session=1; Domain=.wikipedia.org", "lang=en");
+
+        assertThat(cookies(EN_WIKI), containsInAnyOrder("session=1", "lang=en"));
+        assertThat(cookies(COMMONS), containsInAnyOrder("session=1"));
+        assertThat(cookies(OTHER), empty());
+        assertThat(subject.getCookieByName("session"), is("1"));
+    }
+
+    @Test public void testGetCached() throws Throwable {
+        setCookies(EN_WIKI, "session=1");
+
+        assertThat(get(EN_WIKI), sameInstance(get(EN_WIKI)));
+    }
+
+    @Test public void testPutReplacesHeaders() throws Throwable {
+        setCookies(EN_WIKI, "session=1");
+        Map<String, List<String>> before = get(EN_WIKI);
+        setCookies(EN_WIKI, "session=2");
+
+        assertThat(get(EN_WIKI), not(sameInstance(before)));
+        assertThat(cookies(EN_WIKI), containsInAnyOrder("session=2"));
+        assertThat(before.get("Cookie"), containsInAnyOrder("session=1"));
+    }
+
+    @Test public void testPutDeleted() throws Throwable {
+        setCookies(EN_WIKI, "session=1", "lang=en");
+        setCookies(EN_WIKI, "session=deleted");
+
+        assertThat(cookies(EN_WIKI), containsInAnyOrder("lang=en"));
+        assertThat(subject.getCookieByName("session"), nullValue());
+    }
+
+    @Test public void testPutAuthSavedAtOnce() throws Throwable {
+        setCookies(EN_WIKI, "enwikiSession=1");
+        assertThat(Prefs.getCookiesForDomain(EN_WIKI.getAuthority()), is("enwikiSession=1"));
+
+        setCookies(EN_WIKI, "centralauth_User=Ray");
+        assertThat(Prefs.getCookiesForDomain(EN_WIKI.getAuthority()),
+                anyOf(is("enwikiSession=1;centralauth_User=Ray"),
+                        is("centralauth_User=Ray;enwikiSession=1")));
+    }
+
+    @Test public void testClearAllCookies() throws Throwable {
+        setCookies(EN_WIKI, "session=1");
+        subject.clearAllCookies();
+
+        assertThat(cookies(EN_WIKI), empty());
+    }
+
+    private void setCookies(@NonNull URI uri, @NonNull String... cookies) throws Throwable {
+        subject.put(uri, Collections.singletonMap("Set-Cookie", Arrays.asList(cookies)));
+    }
+
+    @NonNull private Map<String, List<String>> get(@NonNull URI uri) throws Throwable {
+        return subject.get(uri, Collections.<String, List<String>>emptyMap());
+    }
+
+    @NonNull private List<String> cookies(@NonNull URI uri) throws Throwable {
+        return get(uri).get("Cookie");
+    }
+}
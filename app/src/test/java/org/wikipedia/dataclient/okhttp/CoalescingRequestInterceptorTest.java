@@ -0,0 +1,127 @@
+package org.wikipedia.dataclient.okhttp;
+
+import android.support.annotation.NonNull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.wikipedia.test.MockWebServerTest;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class CoalescingRequestInterceptorTest extends MockWebServerTest {
+    private static final String BODY = "body";
+    private static final long MAX_JOIN_LENGTH = 16;
+    private static final long READ_TIMEOUT_MILLIS = 100;
+
+    @NonNull private final CoalescingRequestInterceptor subject
+            = new CoalescingRequestInterceptor(MAX_JOIN_LENGTH, READ_TIMEOUT_MILLIS);
+    private OkHttpClient client;
+
+    @Before @Override public void setUp() throws Throwable {
+        super.setUp();
+        client = new OkHttpClient.Builder().addInterceptor(subject).build();
+    }
+
+    @Test public void testCoalesce() throws Throwable {
+        server().enqueue(BODY);
+        Response leader = execute(newRequest());
+        Response follower = execute(newRequest());
+
+        assertThat(follower.body().string(), is(BODY));
+        assertThat(leader.body().string(), is(BODY));
+        assertThat(server().getRequestCount(), is(1));
+        assertThat(subject.requestCount(), is(2));
+        assertThat(subject.coalescedCount(), is(1));
+    }
+
+    @Test public void testCoalesceLongBody() throws Throwable {
+        String body = StringUtils.repeat('x', (int) MAX_JOIN_LENGTH * 2);
+        server().enqueue(body);
+        Response leader = execute(newRequest());
+        Response follower = execute(newRequest());
+
+        assertThat(leader.body().string(), is(body));
+        assertThat(follower.body().string(), is(body));
+        assertThat(subject.coalescedCount(), is(1));
+    }
+
+    @Test public void testIdleFollowerDetached() throws Throwable {
+        String body = StringUtils.repeat('x', (int) MAX_JOIN_LENGTH * 2);
+        server().enqueue(body);
+        Response leader = execute(newRequest());
+        Response follower = execute(newRequest());
+        Thread.sleep(READ_TIMEOUT_MILLIS * 2);
+
+        assertThat(leader.body().string(), is(body));
+        try {
+            follower.body().string();
+            fail();
+        } catch (IOException e) {
+            // Expected.
+        }
+        follower.close();
+    }
+
+    @Test public void testNoCoalesceAfterBodyRead() throws Throwable {
+        server().enqueue(BODY);
+        server().enqueue(BODY);
+        execute(newRequest()).body().string();
+        execute(newRequest()).body().string();
+
+        assertThat(server().getRequestCount(), is(2));
+        assertThat(subject.coalescedCount(), is(0));
+    }
+
+    @Test public void testNoCoalesceAfterBodyClosed() throws Throwable {
+        server().enqueue(BODY);
+        server().enqueue(BODY);
+        execute(newRequest()).close();
+
+        assertThat(execute(newRequest()).body().string(), is(BODY));
+        assertThat(subject.coalescedCount(), is(0));
+    }
+
+    @Test public void testNoCoalesceDifferentHeaders() throws Throwable {
+        server().enqueue(BODY);
+        server().enqueue(BODY);
+        Response rsp = execute(newRequest());
+        execute(newRequest().newBuilder().header("Cache-Control", "no-cache").build()).close();
+        rsp.close();
+
+        assertThat(server().getRequestCount(), is(2));
+        assertThat(subject.coalescedCount(), is(0));
+    }
+
+    @Test public void testNoCoalescePost() throws Throwable {
+        server().enqueue(BODY);
+        server().enqueue(BODY);
+        Request req = newRequest().newBuilder()
+                .post(RequestBody.create(MediaType.parse("text/plain"), BODY))
+                .build();
+        Response rsp = execute(req);
+        execute(req).close();
+        rsp.close();
+
+        assertThat(server().getRequestCount(), is(2));
+        assertThat(subject.requestCount(), is(0));
+    }
+
+    @NonNull private Response execute(@NonNull Request req) throws Throwable {
+        return client.newCall(req).execute();
+    }
+
+    @NonNull private Request newRequest() {
+        return new Request.Builder().url(server().getUrl("path")).build();
+    }
+}
@@ -0,0 +1,163 @@
+package org.wikipedia.dataclient.okhttp.cache;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory;
+import org.wikipedia.test.ImmediateExecutorService;
+import org.wikipedia.test.MockWebServerTest;
+
+import java.io.File;
+
+import okhttp3.CacheControl;
+import okhttp3.CacheDelegate;
+import okhttp3.Dispatcher;
+import okhttp3.Request;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory.SAVE_BLOBS;
+
+public class BlobStoreTest extends MockWebServerTest {
+    private static final String BODY = "body";
+    private static final String OWNER = "owner";
+    private static final String OTHER_OWNER = "other";
+
+    @NonNull private final CacheDelegate saveCache = new CacheDelegate(OkHttpConnectionFactory.SAVE_CACHE);
+
+    @Before public void setUp() throws Throwable {
+        super.setUp();
+
+        for (Request req : new Request[] {newRequest("a"), newRequest("b")}) {
+            SAVE_BLOBS.release(OWNER, req.url());
+            SAVE_BLOBS.release(OTHER_OWNER, req.url());
+            saveCache.remove(req);
+        }
+    }
+
+    @Test public void testInternMovesBodyToBlob() throws Throwable {
+        Request req = newRequest("a");
+        requestResponse(BODY, req);
+
+        assertThat(SAVE_BLOBS.intern(OWNER, req.url()), is((long) BODY.length()));
+        assertThat(SAVE_BLOBS.blob(req.url()), notNullValue());
+        assertThat(DiskLruCacheUtil.okHttpResponseBodySize(saveCache.entry(req)), is(0L));
+    }
+
+    @Test public void testInternIdenticalBodiesShareBlob() throws Throwable {
+        Request a = newRequest("a");
+        Request b = newRequest("b");
+        requestResponse(BODY, a);
+        requestResponse(BODY, b);
+
+        SAVE_BLOBS.intern(OWNER, a.url());
+        assertThat(SAVE_BLOBS.intern(OTHER_OWNER, b.url()), is((long) BODY.length()));
+        assertThat(SAVE_BLOBS.blob(a.url()), is(SAVE_BLOBS.blob(b.url())));
+    }
+
+    @Test public void testInternChargesOwnerOnce() throws Throwable {
+        Request a = newRequest("a");
+        Request b = newRequest("b");
+        requestResponse(BODY, a);
+        requestResponse(BODY, b);
+
+        assertThat(SAVE_BLOBS.intern(OWNER, a.url()), is((long) BODY.length()));
+        assertThat(SAVE_BLOBS.intern(OWNER, a.url()), is(0L));
+        assertThat(SAVE_BLOBS.intern(OWNER, b.url()), is(0L));
+        assertThat(SAVE_BLOBS.intern(OTHER_OWNER, a.url()), is((long) BODY.length()));
+    }
+
+    @Test public void testSizeCountsSharedBlobOnce() throws Throwable {
+        Request a = newRequest("a");
+        Request b = newRequest("b");
+        requestResponse(BODY, a);
+        requestResponse(BODY, b);
+        long size = SAVE_BLOBS.size();
+
+        SAVE_BLOBS.intern(OWNER, a.url());
+        SAVE_BLOBS.intern(OTHER_OWNER, b.url());
+        assertThat(SAVE_BLOBS.size(), is(size + BODY.length()));
+
+        SAVE_BLOBS.release(OWNER, a.url());
+        assertThat(SAVE_BLOBS.size(), is(size + BODY.length()));
+        SAVE_BLOBS.release(OTHER_OWNER, b.url());
+        assertThat(SAVE_BLOBS.size(), is(size));
+    }
+
+    @Test public void testInternedResponseIsServed() throws Throwable {
+        Request req = newRequest("a");
+        requestResponse(BODY, req);
+        SAVE_BLOBS.intern(OWNER, req.url());
+
+        Request cachedReq = req.newBuilder().cacheControl(CacheControl.FORCE_CACHE).build();
+        assertThat(executeRequest(cachedReq), is(BODY));
+    }
+
+    @Test public void testReleaseKeepsSharedBlob() throws Throwable {
+        Request a = newRequest("a");
+        Request b = newRequest("b");
+        requestResponse(BODY, a);
+        requestResponse(BODY, b);
+        SAVE_BLOBS.intern(OWNER, a.url());
+        SAVE_BLOBS.intern(OTHER_OWNER, b.url());
+        File blob = SAVE_BLOBS.blob(a.url());
+
+        assertThat(SAVE_BLOBS.release(OWNER, a.url()), is(BlobStore.Release.UNREFERENCED));
+        assertThat(SAVE_BLOBS.blob(a.url()), nullValue());
+        assertThat(blob.exists(), is(true));
+
+        assertThat(SAVE_BLOBS.release(OTHER_OWNER, b.url()), is(BlobStore.Release.UNREFERENCED));
+        assertThat(blob.exists(), is(false));
+    }
+
+    @Test public void testReleaseKeepsEntryReferencedByOtherOwner() throws Throwable {
+        Request req = newRequest("a");
+        requestResponse(BODY, req);
+        SAVE_BLOBS.intern(OWNER, req.url());
+        SAVE_BLOBS.intern(OTHER_OWNER, req.url());
+
+        assertThat(SAVE_BLOBS.release(OWNER, req.url()), is(BlobStore.Release.REFERENCED));
+        assertThat(SAVE_BLOBS.blob(req.url()).exists(), is(true));
+    }
+
+    @Test public void testReleaseUnreferenced() throws Throwable {
+        Request req = newRequest("a");
+        requestResponse(BODY, req);
+        SAVE_BLOBS.intern(OWNER, req.url());
+
+        assertThat(SAVE_BLOBS.release(OTHER_OWNER, req.url()), is(BlobStore.Release.REFERENCED));
+        assertThat(SAVE_BLOBS.blob(req.url()).exists(), is(true));
+    }
+
+    @Test public void testReleaseUnknown() throws Throwable {
+        Request req = newRequest("a");
+        requestResponse(BODY, req);
+
+        assertThat(SAVE_BLOBS.release(OWNER, req.url()), is(BlobStore.Release.UNKNOWN));
+        assertThat(SAVE_BLOBS.release(OWNER, newRequest("b").url()), is(BlobStore.Release.UNKNOWN));
+    }
+
+    private void requestResponse(@NonNull String body, @NonNull Request req) throws Throwable {
+        server().enqueue(body);
+        assertThat(executeRequest(req), is(body));
+        server().takeRequest();
+    }
+
+    private String executeRequest(@NonNull Request req) throws Throwable {
+        return OkHttpConnectionFactory.getClient()
+                .newBuilder()
+                .dispatcher(new Dispatcher(new ImmediateExecutorService()))
+                .build()
+                .newCall(req).execute().body().string();
+    }
+
+    @NonNull private Request newRequest(@NonNull String path) {
+        return new Request.Builder()
+                .url(server().getUrl(path))
+                .header(SaveHeader.FIELD, SaveHeader.VAL_ENABLED)
+                .build();
+    }
+}
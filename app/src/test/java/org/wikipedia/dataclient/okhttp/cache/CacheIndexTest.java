@@ -0,0 +1,124 @@
+package org.wikipedia.dataclient.okhttp.cache;
+
+import android.support.annotation.NonNull;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.wikipedia.test.TestRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(TestRunner.class) public class CacheIndexTest {
+    private static final String HEADER = "libcore.io.DiskLruCache\n1\n201105\n2\n\n";
+    private static final long MAX_SIZE = 100;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @SuppressWarnings("checkstyle:magicnumber") @Test public void testLoad() throws Throwable {
+        CacheIndex subject = index("CLEAN a 1 2\nCLEAN b 3 4\nREMOVE a\n");
+
+        assertThat(subject.contains("a"), is(false));
+        assertThat(subject.contains("b"), is(true));
+        assertThat(subject.size(), is(7L));
+    }
+
+    @Test public void testLoadDirty() throws Throwable {
+        CacheIndex subject = index("CLEAN a 1 2\nDIRTY a\nDIRTY b\nCLEAN b 3 4\n");
+
+        assertThat(subject.contains("a"), is(false));
+        assertThat(subject.contains("b"), is(true));
+    }
+
+    @Test public void testLoadNoJournal() throws Throwable {
+        CacheIndex subject = new CacheIndex(folder.getRoot(), MAX_SIZE);
+
+        assertThat(subject.contains("a"), is(false));
+        assertThat(subject.size(), is(0L));
+    }
+
+    @Test public void testLoadAhead() throws Throwable {
+        CacheIndex subject = index("CLEAN a 1 2\n");
+        assertThat(subject.isLoaded(), is(false));
+
+        subject.load();
+        assertThat(subject.isLoaded(), is(true));
+        assertThat(subject.contains("a"), is(true));
+    }
+
+    @Test public void testLoadKeepsOrder() throws Throwable {
+        CacheIndex subject = index("CLEAN a 20 20\nCLEAN b 20 20\nREAD a\n");
+        subject.load();
+        subject.put("c", MAX_SIZE / 2);
+
+        assertThat(subject.contains("a"), is(true));
+        assertThat(subject.contains("b"), is(false));
+    }
+
+    @Test public void testClearBeforeLoad() throws Throwable {
+        CacheIndex subject = index("CLEAN a 1 2\n");
+        subject.clear();
+        subject.load();
+
+        assertThat(subject.contains("a"), is(false));
+        assertThat(subject.size(), is(0L));
+    }
+
+    @Test public void testPutTrimsLeastRecentlyUsed() throws Throwable {
+        CacheIndex subject = index("CLEAN a 20 20\nCLEAN b 20 20\nREAD a\n");
+        subject.put("c", MAX_SIZE / 2);
+
+        assertThat(subject.contains("a"), is(true));
+        assertThat(subject.contains("b"), is(false));
+        assertThat(subject.contains("c"), is(true));
+    }
+
+    @Test public void testTouch() throws Throwable {
+        CacheIndex subject = index("CLEAN a 20 20\nCLEAN b 20 20\n");
+        subject.touch("a");
+        subject.put("c", MAX_SIZE / 2);
+
+        assertThat(subject.contains("a"), is(true));
+        assertThat(subject.contains("b"), is(false));
+    }
+
+    @Test public void testContainsLeavesOrder() throws Throwable {
+        CacheIndex subject = index("CLEAN a 20 20\nCLEAN b 20 20\n");
+        subject.contains("a");
+        subject.put("c", MAX_SIZE / 2);
+
+        assertThat(subject.contains("a"), is(false));
+        assertThat(subject.contains("b"), is(true));
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber") @Test public void testCommit() throws Throwable {
+        CacheIndex subject = new CacheIndex(folder.getRoot(), MAX_SIZE);
+        FileUtils.writeStringToFile(new File(folder.getRoot(), "a.0"), "ab", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(folder.getRoot(), "a.1"), "c", StandardCharsets.UTF_8);
+        subject.commit("a");
+
+        assertThat(subject.contains("a"), is(true));
+        assertThat(subject.size(), is(3L));
+    }
+
+    @Test public void testRemove() throws Throwable {
+        CacheIndex subject = index("CLEAN a 1 2\n");
+        subject.remove("a");
+
+        assertThat(subject.contains("a"), is(false));
+        assertThat(subject.size(), is(0L));
+    }
+
+    @NonNull private CacheIndex index(@NonNull String ops) throws IOException {
+        FileUtils.writeStringToFile(new File(folder.getRoot(), "journal"), HEADER + ops,
+                StandardCharsets.UTF_8);
+        return new CacheIndex(folder.getRoot(), MAX_SIZE);
+    }
+}
@@ -0,0 +1,106 @@
+package org.wikipedia.dataclient.page;
+
+import android.content.ComponentCallbacks2;
+import android.support.annotation.NonNull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.page.PageTitle;
+import org.wikipedia.page.Section;
+import org.wikipedia.test.TestRunner;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(TestRunner.class) public class PageCacheTest {
+    private static final int MAX_SIZE = 1000;
+    private static final int WIDTH = 640;
+    private static final long REVISION = 100;
+    private static final String LEAD_URL = "https://en.wikipedia.org/lead/Test";
+    private static final String SECTIONS_URL = "https://en.wikipedia.org/sections/Test";
+
+    @NonNull private final PageTitle title = new PageTitle("Test", WikiSite.forLanguageCode("en"));
+    private PageCache subject;
+    private PageLead lead;
+    private PageRemaining sections;
+
+    @Before public void setUp() {
+        subject = new PageCache(MAX_SIZE);
+        lead = lead(1);
+        sections = mock(PageRemaining.class);
+        when(sections.sections()).thenReturn(Collections.singletonList(section(1)));
+    }
+
+    @Test public void testLead() {
+        assertThat(subject.lead(title, WIDTH, false), nullValue());
+        subject.putLead(title, WIDTH, false, LEAD_URL, lead);
+        assertThat(subject.lead(title, WIDTH, false), sameInstance(lead));
+        assertThat(subject.lead(title, WIDTH + 1, false), nullValue());
+        assertThat(subject.lead(title, WIDTH, true), nullValue());
+        assertThat(subject.hitCount(), is(1));
+        assertThat(subject.missCount(), is(3));
+    }
+
+    @Test public void testSections() {
+        subject.putSections(title, REVISION, false, SECTIONS_URL, sections);
+        assertThat(subject.sections(title, REVISION, false), sameInstance(sections));
+        assertThat(subject.sections(title, REVISION + 1, false), nullValue());
+    }
+
+    @Test public void testInvalidate() {
+        subject.putLead(title, WIDTH, false, LEAD_URL, lead);
+        subject.putSections(title, REVISION, false, SECTIONS_URL, sections);
+        subject.invalidate(SECTIONS_URL);
+        assertThat(subject.sections(title, REVISION, false), nullValue());
+        assertThat(subject.lead(title, WIDTH, false), sameInstance(lead));
+    }
+
+    @Test public void testInvalidateTitle() {
+        PageTitle other = new PageTitle("Test 2", WikiSite.forLanguageCode("en"));
+        subject.putLead(title, WIDTH, false, LEAD_URL, lead);
+        subject.putLead(title, WIDTH + 1, true, LEAD_URL, lead);
+        subject.putSections(title, REVISION, false, SECTIONS_URL, sections);
+        subject.putLead(other, WIDTH, false, LEAD_URL, lead);
+        subject.invalidate(title);
+        assertThat(subject.lead(title, WIDTH, false), nullValue());
+        assertThat(subject.lead(title, WIDTH + 1, true), nullValue());
+        assertThat(subject.sections(title, REVISION, false), nullValue());
+        assertThat(subject.lead(other, WIDTH, false), sameInstance(lead));
+    }
+
+    @Test public void testTrimMemory() {
+        subject.putLead(title, WIDTH, false, LEAD_URL, lead);
+        subject.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertThat(subject.size(), is(2));
+        subject.trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        assertThat(subject.size(), is(0));
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber") @Test public void testMaxSize() {
+        // Each lead takes 600 of the 1000 bytes.
+        PageLead newer = lead(300);
+        subject.putLead(title, WIDTH, false, LEAD_URL, lead(300));
+        subject.putLead(title, WIDTH + 1, false, LEAD_URL, newer);
+        assertThat(subject.lead(title, WIDTH, false), nullValue());
+        assertThat(subject.lead(title, WIDTH + 1, false), sameInstance(newer));
+    }
+
+    @NonNull private PageLead lead(int length) {
+        PageLead lead = mock(PageLead.class);
+        when(lead.getLeadSectionContent()).thenReturn(StringUtils.repeat('x', length));
+        return lead;
+    }
+
+    @NonNull private Section section(int length) {
+        return new Section(0, 1, "", "", StringUtils.repeat('x', length));
+    }
+}
@@ -0,0 +1,186 @@
+package org.wikipedia.feed;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.feed.dataclient.FeedClient;
+import org.wikipedia.feed.dataclient.SnapshotFeedClient;
+import org.wikipedia.feed.model.Card;
+import org.wikipedia.feed.model.CardType;
+import org.wikipedia.feed.offline.OfflineCard;
+import org.wikipedia.test.TestRunner;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@RunWith(TestRunner.class) public class FeedCoordinatorBaseTest {
+    private static final WikiSite WIKI = new WikiSite("en.wikipedia.org");
+
+    @NonNull private final List<TestClient> clients = new ArrayList<>();
+    private TestCoordinator subject;
+
+    @Before public void setUp() {
+        subject = new TestCoordinator(RuntimeEnvironment.application);
+    }
+
+    @Test public void testMoreRequestsAllClients() {
+        script(3);
+        subject.more(WIKI);
+
+        for (TestClient client : clients) {
+            assertThat(client.cb, notNullValue());
+        }
+    }
+
+    @Test public void testMoreInsertsInScriptOrder() {
+        script(3);
+        subject.more(WIKI);
+
+        clients.get(2).success("c");
+        clients.get(1).success("b");
+        assertThat(titles(), contains(CardType.PROGRESS.name()));
+
+        clients.get(0).success("a");
+        assertThat(titles(), contains("a", "b", "c"));
+        assertThat(subject.finished(), is(true));
+    }
+
+    @Test public void testMoreSkipsFailedAndTimedOutClients() {
+        script(3);
+        subject.more(WIKI);
+
+        clients.get(0).cb.error(new IOException());
+        clients.get(2).success("c");
+        ShadowLooper.idleMainLooper(TimeUnit.MINUTES.toMillis(1));
+        clients.get(1).success("b");
+
+        assertThat(titles(), contains("c"));
+        assertThat(clients.get(1).cancelled, is(true));
+    }
+
+    @Test public void testMoreOfflineRetry() {
+        script(2);
+        subject.more(WIKI);
+
+        clients.get(1).success("b");
+        clients.get(0).cb.error(new UnknownHostException());
+        assertThat(subject.getCards().size(), is(1));
+        assertThat(subject.getCards().get(0), instanceOf(OfflineCard.class));
+
+        subject.retryFromOffline(WIKI);
+        clients.get(0).success("a");
+        assertThat(titles(), contains("a", "b"));
+    }
+
+    @Test public void testMoreReplacesSnapshot() {
+        script(1);
+        TestSnapshotClient snapshotClient = new TestSnapshotClient();
+        clients.add(snapshotClient);
+        subject.more(WIKI);
+
+        snapshotClient.snapshotCb.success(Arrays.asList(new TestCard("x"), new TestCard("y")));
+        assertThat(titles(), contains("x", "y", CardType.PROGRESS.name()));
+
+        clients.get(0).success("a");
+        assertThat(titles(), contains("a", "x", "y", CardType.PROGRESS.name()));
+
+        snapshotClient.success("b");
+        assertThat(titles(), contains("a", "b"));
+    }
+
+    @Test public void testMoreKeepsSnapshotOnError() {
+        TestSnapshotClient snapshotClient = new TestSnapshotClient();
+        clients.add(snapshotClient);
+        subject.more(WIKI);
+
+        snapshotClient.snapshotCb.success(Collections.singletonList(new TestCard("x")));
+        snapshotClient.cb.error(new IOException());
+        assertThat(titles(), contains("x"));
+    }
+
+    private void script(int count) {
+        for (int i = 0; i < count; i++) {
+            clients.add(new TestClient());
+        }
+    }
+
+    @NonNull private List<String> titles() {
+        List<String> titles = new ArrayList<>();
+        for (Card card : subject.getCards()) {
+            titles.add(card instanceof TestCard ? card.title() : card.type().name());
+        }
+        return titles;
+    }
+
+    private class TestCoordinator extends FeedCoordinatorBase {
+        TestCoordinator(@NonNull Context context) {
+            super(context);
+        }
+
+        @Override protected void buildScript(int age) {
+            for (TestClient client : clients) {
+                addPendingClient(client);
+            }
+        }
+    }
+
+    private static class TestClient implements FeedClient {
+        private Callback cb;
+        private boolean cancelled;
+
+        @Override public void request(@NonNull Context context, @NonNull WikiSite wiki, int age,
+                                      @NonNull Callback cb) {
+            this.cb = cb;
+        }
+
+        @Override public void cancel() {
+            cancelled = true;
+        }
+
+        void success(@NonNull String title) {
+            cb.success(Collections.singletonList(new TestCard(title)));
+        }
+    }
+
+    private static class TestSnapshotClient extends TestClient implements SnapshotFeedClient {
+        private Callback snapshotCb;
+
+        @Override public void requestSnapshot(@NonNull Context context, @NonNull WikiSite wiki,
+                                              int age, @NonNull Callback cb) {
+            snapshotCb = cb;
+        }
+    }
+
+    private static class TestCard extends Card {
+        @NonNull private final String title;
+
+        TestCard(@NonNull String title) {
+            this.title = title;
+        }
+
+        @NonNull @Override public String title() {
+            return title;
+        }
+
+        @NonNull @Override public CardType type() {
+            return CardType.SEARCH_BAR;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.wikipedia.feed.dataclient;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.feed.aggregated.AggregatedFeedContent;
+import org.wikipedia.feed.model.UtcDate;
+import org.wikipedia.json.GsonUtil;
+import org.wikipedia.test.TestRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.wikipedia.test.TestFileUtil.readRawFile;
+
+@RunWith(TestRunner.class) public class FeedSnapshotStoreTest {
+    private static final WikiSite WIKI = new WikiSite("en.wikipedia.org");
+    private static final WikiSite OTHER_WIKI = new WikiSite("de.wikipedia.org");
+    private static final UtcDate TODAY = new UtcDate(0);
+    private static final UtcDate YESTERDAY = new UtcDate(1);
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+    private FeedSnapshotStore subject;
+    private AggregatedFeedContent content;
+
+    @Before public void setUp() throws Throwable {
+        subject = new FeedSnapshotStore(folder.newFolder(), "aggregated");
+        content = GsonUtil.getDefaultGson().fromJson("{\"tfa\": "
+                + readRawFile("featured_2016_11_07.json") + ", \"news\": "
+                + readRawFile("news_2016_11_07.json") + ", \"mostread\": "
+                + readRawFile("mostread_2016_11_07.json") + "}", AggregatedFeedContent.class);
+    }
+
+    @Test public void testReadWritten() throws Throwable {
+        subject.write(WIKI, TODAY, content);
+        AggregatedFeedContent snapshot = subject.read(WIKI, TODAY, AggregatedFeedContent.class);
+
+        assertThat(snapshot, notNullValue());
+        assertThat(GsonUtil.getDefaultGson().toJson(snapshot),
+                is(GsonUtil.getDefaultGson().toJson(content)));
+    }
+
+    @Test public void testReadMissing() {
+        assertThat(subject.read(WIKI, TODAY, AggregatedFeedContent.class), nullValue());
+    }
+
+    @Test public void testWriteDeletesEarlierDays() throws Throwable {
+        subject.write(WIKI, YESTERDAY, content);
+        subject.write(OTHER_WIKI, YESTERDAY, content);
+        subject.write(WIKI, TODAY, content);
+
+        assertThat(subject.read(WIKI, YESTERDAY, AggregatedFeedContent.class), nullValue());
+        assertThat(subject.read(OTHER_WIKI, YESTERDAY, AggregatedFeedContent.class), notNullValue());
+    }
+
+    @Test public void testReadUnreadable() throws Throwable {
+        subject.write(WIKI, TODAY, "not a feed");
+
+        assertThat(subject.read(WIKI, TODAY, AggregatedFeedContent.class), nullValue());
+    }
+}
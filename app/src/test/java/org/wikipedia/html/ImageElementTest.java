@@ -5,6 +5,7 @@ import org.junit.runner.RunWith;
 import org.wikipedia.test.TestRunner;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -67,4 +68,38 @@ import static org.hamcrest.Matchers.nullValue;
         ImageElement subject = new ImageElement(src, srcSet);
         assertThat(subject.srcs().size(), is(2));
     }
+
+    @Test @SuppressWarnings("checkstyle:magicnumber") public void testBestSrcLowestAtOrAboveDensity() {
+        ImageElement subject = new ImageElement("src", srcSet());
+        assertThat(subject.bestSrc(1.25f), is("1.5x"));
+        assertThat(subject.bestSrc(2), is("2x"));
+    }
+
+    @Test @SuppressWarnings("checkstyle:magicnumber") public void testBestSrcHighestBelowDensity() {
+        ImageElement subject = new ImageElement("src", srcSet());
+        assertThat(subject.bestSrc(3), is("2x"));
+    }
+
+    @Test public void testBestSrcDefault() {
+        @SuppressWarnings("unchecked") Map<PixelDensityDescriptor, String> srcSet
+                = Collections.emptyMap();
+        ImageElement subject = new ImageElement("src", srcSet);
+        assertThat(subject.bestSrc(2), is("src"));
+    }
+
+    @Test public void testBestSrcEmpty() {
+        final String src = null;
+        @SuppressWarnings("unchecked") Map<PixelDensityDescriptor, String> srcSet
+                = Collections.emptyMap();
+        ImageElement subject = new ImageElement(src, srcSet);
+        assertThat(subject.bestSrc(1), nullValue());
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private Map<PixelDensityDescriptor, String> srcSet() {
+        Map<PixelDensityDescriptor, String> srcSet = new HashMap<>();
+        srcSet.put(new PixelDensityDescriptor(1.5f), "1.5x");
+        srcSet.put(new PixelDensityDescriptor(2), "2x");
+        return srcSet;
+    }
 }
@@ -0,0 +1,106 @@
+package org.wikipedia.html;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.dataclient.mwapi.page.MwMobileViewPageLead;
+import org.wikipedia.dataclient.restbase.page.RbPageLead;
+import org.wikipedia.test.TestFileUtil;
+import org.wikipedia.test.TestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.wikipedia.json.GsonUnmarshaller.unmarshal;
+
+@RunWith(TestRunner.class) public class ImageTagTokenizerTest {
+    @Test public void testTokenizeSrc() {
+        assertThat(tokenize("<img src='src'>"), contains("src|"));
+    }
+
+    @Test public void testTokenizeSrcSet() {
+        assertThat(tokenize("<IMG SRC=\"src\" SRCSET=\"url1 1x, url2 2x\"/>"),
+                contains("src|url1 1x, url2 2x"));
+    }
+
+    @Test public void testTokenizeNoAttributes() {
+        assertThat(tokenize("<img>"), contains("|"));
+    }
+
+    @Test public void testTokenizeUnquoted() {
+        assertThat(tokenize("<img alt = x src=src>"), contains("src|"));
+    }
+
+    @Test public void testTokenizeEntities() {
+        assertThat(tokenize("<img src='a?b=1&amp;c=2'>"), contains("a?b=1&c=2|"));
+    }
+
+    @Test public void testTokenizeDuplicateAttribute() {
+        assertThat(tokenize("<img src='a' src='b'>"), contains("a|"));
+    }
+
+    @Test public void testTokenizeMultiple() {
+        assertThat(tokenize("<p><img src='a'></p><span>text</span><img src='b'>"),
+                contains("a|", "b|"));
+    }
+
+    @Test public void testTokenizeOtherTags() {
+        assertThat(tokenize("<imgx src='a'><image src='b'><i src='c'>"), empty());
+    }
+
+    @Test public void testTokenizeComment() {
+        assertThat(tokenize("<!-- <img src='a'> --><img src='b'>"), contains("b|"));
+    }
+
+    @Test public void testTokenizeRawText() {
+        assertThat(tokenize("<script>'<img src=\"a\">'</script><img src='b'>"), contains("b|"));
+    }
+
+    @Test public void testTokenizeUnterminated() {
+        assertThat(tokenize("<img src='a'"), empty());
+    }
+
+    @Test public void testTokenizeEmpty() {
+        assertThat(tokenize(""), empty());
+    }
+
+    @Test public void testTokenizeMatchesJsoupMw() throws Throwable {
+        String json = TestFileUtil.readRawFile("page_lead_mw.json");
+        assertMatchesJsoup(unmarshal(MwMobileViewPageLead.class, json).getLeadSectionContent());
+    }
+
+    @Test public void testTokenizeMatchesJsoupRb() throws Throwable {
+        String json = TestFileUtil.readRawFile("page_lead_rb.json");
+        assertMatchesJsoup(unmarshal(RbPageLead.class, json).getLeadSectionContent());
+    }
+
+    private void assertMatchesJsoup(@NonNull String html) {
+        List<String> expected = new ArrayList<>();
+        for (Element el : Jsoup.parseBodyFragment(html).getElementsByTag("img")) {
+            expected.add(el.attr("src") + "|" + el.attr("srcset"));
+        }
+
+        assertThat(expected, not(empty()));
+        assertThat(tokenize(html), is(expected));
+    }
+
+    @NonNull private List<String> tokenize(@NonNull String html) {
+        final List<String> tags = new ArrayList<>();
+        new ImageTagTokenizer().tokenize(html, new ImageTagTokenizer.Callback() {
+            @Override public void onImageTag(@Nullable String src, @Nullable String srcSet) {
+                tags.add(defaultString(src) + "|" + defaultString(srcSet));
+            }
+        });
+        return tags;
+    }
+}
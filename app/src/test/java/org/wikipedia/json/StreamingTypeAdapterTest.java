@@ -0,0 +1,146 @@
+package org.wikipedia.json;
+
+import android.net.Uri;
+import android.support.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.dataclient.mwapi.MwQueryResponse;
+import org.wikipedia.dataclient.mwapi.page.MwMobileViewPageLead;
+import org.wikipedia.dataclient.restbase.page.RbPageLead;
+import org.wikipedia.dataclient.restbase.page.RbPageRemaining;
+import org.wikipedia.feed.aggregated.AggregatedFeedContent;
+import org.wikipedia.page.Namespace;
+import org.wikipedia.page.Section;
+import org.wikipedia.test.TestRunner;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+import static org.wikipedia.test.TestFileUtil.readRawFile;
+
+@RunWith(TestRunner.class) public class StreamingTypeAdapterTest {
+    // The default Gson without the streaming adapters.
+    @NonNull private final Gson reflective = new GsonBuilder()
+            .registerTypeHierarchyAdapter(Uri.class, new UriTypeAdapter().nullSafe())
+            .registerTypeHierarchyAdapter(Namespace.class, new NamespaceTypeAdapter().nullSafe())
+            .registerTypeAdapter(WikiSite.class, new WikiSiteTypeAdapter().nullSafe())
+            .registerTypeAdapterFactory(new RequiredFieldsCheckOnReadTypeAdapterFactory())
+            .create();
+
+    @Test public void testRbPageLead() throws Throwable {
+        assertSameAsReflective(RbPageLead.class, readRawFile("page_lead_rb.json"));
+    }
+
+    @Test public void testRbPageRemaining() throws Throwable {
+        assertSameAsReflective(RbPageRemaining.class, "{\"sections\": [{\"id\": 1, \"toclevel\": 2,"
+                + " \"line\": \"History\", \"anchor\": \"History\", \"text\": \"<p>Text</p>\"}]}");
+    }
+
+    @Test public void testMwMobileViewPageLead() throws Throwable {
+        assertSameAsReflective(MwMobileViewPageLead.class, readRawFile("page_lead_mw.json"));
+    }
+
+    @Test public void testMwQueryResponse() throws Throwable {
+        assertSameAsReflective(MwQueryResponse.class, readRawFile("full_text_search_results.json"));
+        assertSameAsReflective(MwQueryResponse.class, readRawFile("api_error.json"));
+    }
+
+    @Test public void testAggregatedFeedContent() throws Throwable {
+        assertSameAsReflective(AggregatedFeedContent.class, "{\"tfa\": "
+                + readRawFile("featured_2016_11_07.json") + ", \"news\": "
+                + readRawFile("news_2016_11_07.json") + ", \"mostread\": "
+                + readRawFile("mostread_2016_11_07.json") + ", \"unknown\": [1, {}]}");
+    }
+
+    @Test public void testRbPageLeadReadsAllFields() throws Throwable {
+        assertReadsAllFields(RbPageLead.class);
+    }
+
+    @Test public void testRbPageRemainingReadsAllFields() throws Throwable {
+        assertReadsAllFields(RbPageRemaining.class);
+    }
+
+    @Test public void testMwMobileViewPageLeadReadsAllFields() throws Throwable {
+        assertReadsAllFields(MwMobileViewPageLead.class);
+        assertReadsAllFields(MwMobileViewPageLead.Mobileview.class);
+    }
+
+    @Test public void testMwQueryResponseReadsAllFields() throws Throwable {
+        assertReadsAllFields(MwQueryResponse.class);
+    }
+
+    @Test public void testAggregatedFeedContentReadsAllFields() throws Throwable {
+        assertReadsAllFields(AggregatedFeedContent.class);
+    }
+
+    @Test public void testSectionReadsAllFields() throws Throwable {
+        assertReadsAllFields(Section.class);
+    }
+
+    @Test public void testReadNull() {
+        assertThat(GsonUtil.getDefaultGson().fromJson("null", Section.class), nullValue());
+        assertThat(GsonUtil.getDefaultGson().fromJson("{\"mobileview\": null}",
+                MwMobileViewPageLead.class).getMobileview(), nullValue());
+    }
+
+    @Test public void testReadConverted() {
+        Section section = GsonUtil.getDefaultGson().fromJson("{\"id\": \"3\", \"toclevel\": null,"
+                + " \"line\": 4, \"unknown\": {\"id\": 5}}", Section.class);
+        assertThat(section.getId(), is(3));
+        assertThat(section.getLevel(), is(1));
+        assertThat(section.getHeading(), is("4"));
+    }
+
+    @Test(expected = JsonSyntaxException.class) public void testReadMalformed() {
+        GsonUtil.getDefaultGson().fromJson("{\"id\": \"three\"}", Section.class);
+    }
+
+    // A field added to a streamed model without a case in its adapter would silently be dropped.
+    @SuppressWarnings("unchecked")
+    private <T> void assertReadsAllFields(@NonNull Class<T> clazz) throws IOException {
+        TypeAdapter<T> adapter = GsonUtil.getDefaultGson().getAdapter(clazz);
+        assertThat(adapter, instanceOf(StreamingTypeAdapter.class));
+        StreamingTypeAdapter<T> subject = (StreamingTypeAdapter<T>) adapter;
+
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                        || field.isSynthetic()) {
+                    continue;
+                }
+                SerializedName serializedName = field.getAnnotation(SerializedName.class);
+                String name = serializedName == null ? field.getName() : serializedName.value();
+                JsonReader in = new JsonReader(new StringReader("null"));
+                in.setLenient(true);
+                if (!subject.readField(in, name, subject.newInstance())) {
+                    fail(clazz.getName() + " adapter has no case for " + c.getSimpleName() + "."
+                            + field.getName() + " named \"" + name + "\"");
+                }
+            }
+        }
+    }
+
+    private <T> void assertSameAsReflective(@NonNull Class<T> clazz, @NonNull String json)
+            throws IOException {
+        T streamed = GsonUtil.getDefaultGson().fromJson(json, clazz);
+        T reflected = reflective.fromJson(json, clazz);
+        assertThat(reflective.toJson(streamed), is(reflective.toJson(reflected)));
+    }
+}
@@ -0,0 +1,93 @@
+package org.wikipedia.offline;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.wikipedia.test.TestRunner;
+
+import java.io.File;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(TestRunner.class) public class CompilationDirectoryIndexTest {
+    private static final long STALE_MILLIS = 10 * CompilationDirectoryIndex.RACY_MILLIS;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+    private File indexFile;
+    private File dir;
+
+    @Before public void setUp() throws Throwable {
+        indexFile = new File(folder.getRoot(), "index.json");
+        dir = folder.newFolder("volume");
+        assertThat(new File(dir, "wikipedia.ZIM").createNewFile(), is(true));
+        assertThat(new File(dir, "photo.jpg").createNewFile(), is(true));
+        assertThat(new File(dir, "sub").mkdir(), is(true));
+        setStale(dir);
+    }
+
+    @Test public void testList() {
+        CompilationDirectoryIndex.Listing listing = CompilationDirectoryIndex.load(indexFile).list(dir);
+
+        assertThat(listing.zims(), contains("wikipedia.ZIM"));
+        assertThat(listing.dirs(), contains("sub"));
+    }
+
+    @Test public void testListUnchanged() {
+        CompilationDirectoryIndex subject = CompilationDirectoryIndex.load(indexFile);
+        subject.list(dir);
+        subject.list(dir);
+
+        assertThat(subject.listedCount(), is(1));
+    }
+
+    @Test public void testListChanged() throws Throwable {
+        CompilationDirectoryIndex subject = CompilationDirectoryIndex.load(indexFile);
+        subject.list(dir);
+        assertThat(new File(dir, "wikipedia.ZIM").delete(), is(true));
+        assertThat(dir.setLastModified(System.currentTimeMillis() - STALE_MILLIS / 2), is(true));
+
+        assertThat(subject.list(dir).zims(), empty());
+        assertThat(subject.listedCount(), is(2));
+    }
+
+    @Test public void testListRacy() {
+        CompilationDirectoryIndex subject = CompilationDirectoryIndex.load(indexFile);
+        assertThat(dir.setLastModified(System.currentTimeMillis()), is(true));
+        subject.list(dir);
+        subject.list(dir);
+
+        assertThat(subject.listedCount(), is(2));
+    }
+
+    @Test public void testSaveLoad() {
+        CompilationDirectoryIndex subject = CompilationDirectoryIndex.load(indexFile);
+        subject.list(dir);
+        subject.save();
+
+        subject = CompilationDirectoryIndex.load(indexFile);
+        assertThat(subject.list(dir).zims(), contains("wikipedia.ZIM"));
+        assertThat(subject.listedCount(), is(0));
+    }
+
+    @Test public void testSaveDropsUnvisited() {
+        CompilationDirectoryIndex subject = CompilationDirectoryIndex.load(indexFile);
+        subject.list(dir);
+        subject.save();
+        CompilationDirectoryIndex.load(indexFile).save();
+
+        subject = CompilationDirectoryIndex.load(indexFile);
+        subject.list(dir);
+        assertThat(subject.listedCount(), is(1));
+    }
+
+    private void setStale(@NonNull File file) {
+        assertThat(file.setLastModified(System.currentTimeMillis() - STALE_MILLIS), is(true));
+    }
+}
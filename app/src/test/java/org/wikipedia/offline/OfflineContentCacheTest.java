@@ -0,0 +1,61 @@
+package org.wikipedia.offline;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class OfflineContentCacheTest {
+    private static final long MAX_SIZE = 4;
+
+    @NonNull private final OfflineContentCache subject = new OfflineContentCache(MAX_SIZE);
+
+    @Test public void testGetIndependentStreams() throws Throwable {
+        subject.put("a", new byte[] {1, 2});
+
+        InputStream first = subject.get("a");
+        assertThat(first.read(), is(1));
+        assertThat(read(subject.get("a")), is(new byte[] {1, 2}));
+        assertThat(first.read(), is(2));
+        assertThat(subject.hitCount(), is(2));
+    }
+
+    @Test public void testPutReturnsStream() throws Throwable {
+        assertThat(read(subject.put("a", new byte[] {1, 2})), is(new byte[] {1, 2}));
+        assertThat(read(subject.put("b", new byte[] {1, 2, 3, 4, 5})), is(new byte[] {1, 2, 3, 4, 5}));
+
+        assertThat(subject.get("b"), nullValue());
+        assertThat(subject.size(), is(2L));
+    }
+
+    @Test public void testPutEvictsLeastRecentlyUsed() {
+        subject.put("a", new byte[] {1, 2});
+        subject.put("b", new byte[] {1, 2});
+        subject.get("a");
+        subject.put("c", new byte[] {1, 2});
+
+        assertThat(subject.get("b"), nullValue());
+        assertThat(subject.size(), is(MAX_SIZE));
+    }
+
+    @Test public void testRemoveAll() {
+        subject.put("x|a", new byte[] {1});
+        subject.put("y|a", new byte[] {1, 2});
+        subject.removeAll("x|");
+
+        assertThat(subject.get("x|a"), nullValue());
+        assertThat(subject.size(), is(2L));
+    }
+
+    @NonNull private static byte[] read(@NonNull InputStream in) throws IOException {
+        byte[] bytes = new byte[in.available()];
+        assertThat(in.read(bytes), is(bytes.length));
+        return bytes;
+    }
+}
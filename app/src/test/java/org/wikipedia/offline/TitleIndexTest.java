@@ -0,0 +1,111 @@
+package org.wikipedia.offline;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TitleIndexTest {
+    private static final long SIZE = 100;
+    private static final long LAST_MODIFIED = 1000;
+    @NonNull private static final List<String> TITLES = Arrays.asList("Ray Charles", "Raelette",
+            "Banana", "ray", "Rayon", "Ray Charles", "Über");
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test public void testSearchByPrefix() throws Throwable {
+        TitleIndex subject = index();
+
+        assertThat(subject.size(), is(TITLES.size() - 1));
+        assertThat(subject.searchByPrefix("ra", Integer.MAX_VALUE),
+                contains("Raelette", "ray", "Ray Charles", "Rayon"));
+        assertThat(subject.searchByPrefix("RAY", 2), contains("ray", "Ray Charles"));
+        assertThat(subject.searchByPrefix("über", Integer.MAX_VALUE), contains("Über"));
+        assertThat(subject.searchByPrefix("x", Integer.MAX_VALUE), empty());
+    }
+
+    @Test public void testContains() throws Throwable {
+        TitleIndex subject = index();
+
+        assertThat(subject.contains("Ray Charles"), is(true));
+        assertThat(subject.contains("ray"), is(true));
+        assertThat(subject.contains("Ray"), is(false));
+        assertThat(subject.contains("Zebra"), is(false));
+    }
+
+    @Test public void testOpenStale() throws Throwable {
+        File file = folder.newFile();
+        TitleIndex.write(file, SIZE, LAST_MODIFIED, titles(TITLES));
+
+        assertThat(TitleIndex.open(file, SIZE, LAST_MODIFIED), notNullValue());
+        assertThat(TitleIndex.open(file, SIZE + 1, LAST_MODIFIED), nullValue());
+        assertThat(TitleIndex.open(file, SIZE, LAST_MODIFIED + 1), nullValue());
+    }
+
+    @Test public void testWriteChunks() throws Throwable {
+        // Each chunk holds two titles and the duplicates are in different chunks.
+        File file = folder.newFile();
+        TitleIndex.write(file, SIZE, LAST_MODIFIED, titles(TITLES), 2);
+        TitleIndex subject = TitleIndex.open(file, SIZE, LAST_MODIFIED);
+
+        assertThat(subject.size(), is(TITLES.size() - 1));
+        assertThat(subject.searchByPrefix("", Integer.MAX_VALUE),
+                contains("Banana", "Raelette", "ray", "Ray Charles", "Rayon", "Über"));
+        assertThat(folder.getRoot().list(), arrayContaining(file.getName()));
+    }
+
+    @Test public void testWriteEmpty() throws Throwable {
+        File file = folder.newFile();
+        TitleIndex.write(file, SIZE, LAST_MODIFIED, titles(Collections.<String>emptyList()));
+
+        TitleIndex subject = TitleIndex.open(file, SIZE, LAST_MODIFIED);
+        assertThat(subject.size(), is(0));
+        assertThat(subject.contains("Ray Charles"), is(false));
+    }
+
+    @Test public void testOpenMissing() throws Throwable {
+        assertThat(TitleIndex.open(new File(folder.getRoot(), "missing"), SIZE, LAST_MODIFIED),
+                nullValue());
+    }
+
+    @Test public void testMerge() {
+        List<String> a = Arrays.asList("Apple", "ray", "Rayon");
+        List<String> b = Arrays.asList("Banana", "Ray Charles", "Rayon");
+        List<String> c = Collections.emptyList();
+
+        assertThat(TitleIndex.merge(Arrays.asList(a, b, c), Integer.MAX_VALUE),
+                contains("Apple", "Banana", "ray", "Ray Charles", "Rayon"));
+        assertThat(TitleIndex.merge(Arrays.asList(a, b, c), 2), contains("Apple", "Banana"));
+    }
+
+    @NonNull private TitleIndex index() throws IOException {
+        File file = folder.newFile();
+        TitleIndex.write(file, SIZE, LAST_MODIFIED, titles(TITLES));
+        return TitleIndex.open(file, SIZE, LAST_MODIFIED);
+    }
+
+    @NonNull private static TitleIndex.Titles titles(@NonNull List<String> titles) {
+        final Iterator<String> it = titles.iterator();
+        return new TitleIndex.Titles() {
+            @Override public String next() {
+                return it.hasNext() ? it.next() : null;
+            }
+        };
+    }
+}
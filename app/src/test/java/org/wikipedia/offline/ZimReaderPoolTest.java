@@ -0,0 +1,134 @@
+package org.wikipedia.offline;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class ZimReaderPoolTest {
+    private static final int MAX_READERS = 2;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @NonNull private final List<String> closed = new ArrayList<>();
+    private int opened;
+    @NonNull private final ZimReaderPool.Factory<String> factory = new ZimReaderPool.Factory<String>() {
+        @NonNull @Override public String open() {
+            synchronized (ZimReaderPoolTest.this) {
+                return "reader" + ++opened;
+            }
+        }
+
+        @Override public void close(@NonNull String reader) {
+            synchronized (ZimReaderPoolTest.this) {
+                closed.add(reader);
+            }
+        }
+    };
+    @NonNull private final ZimReaderPool<String> subject = new ZimReaderPool<>(factory, MAX_READERS, "reader0");
+
+    @Test public void testReadReusesIdleReader() throws Throwable {
+        assertThat(read(), is("reader0"));
+        assertThat(read(), is("reader0"));
+        assertThat(subject.openCount(), is(1));
+    }
+
+    @Test public void testConcurrentReadsOpenReaders() throws Throwable {
+        final CountDownLatch borrowed = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread thread = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    subject.read(new ZimReaderPool.Read<String, Void>() {
+                        @Override public Void read(@NonNull String reader) throws IOException {
+                            borrowed.countDown();
+                            await(done);
+                            return null;
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        thread.start();
+        await(borrowed);
+
+        assertThat(read(), is("reader1"));
+        assertThat(subject.openCount(), is(MAX_READERS));
+        done.countDown();
+        thread.join();
+    }
+
+    @Test public void testReadWaitsForReaderAtMax() throws Throwable {
+        final CountDownLatch borrowed = new CountDownLatch(MAX_READERS);
+        final CountDownLatch done = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < MAX_READERS; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        subject.read(new ZimReaderPool.Read<String, Void>() {
+                            @Override public Void read(@NonNull String reader) throws IOException {
+                                borrowed.countDown();
+                                await(done);
+                                return null;
+                            }
+                        });
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        await(borrowed);
+        done.countDown();
+
+        read();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(subject.openCount(), is(MAX_READERS));
+    }
+
+    @Test public void testClose() throws Throwable {
+        read();
+        subject.close();
+
+        assertThat(closed, contains("reader0"));
+        assertThat(subject.openCount(), is(0));
+    }
+
+    @Test(expected = IOException.class) public void testReadAfterClose() throws Throwable {
+        subject.close();
+        read();
+    }
+
+    @NonNull private String read() throws IOException {
+        return subject.read(new ZimReaderPool.Read<String, String>() {
+            @Override public String read(@NonNull String reader) {
+                return reader;
+            }
+        });
+    }
+
+    private static void await(@NonNull CountDownLatch latch) {
+        try {
+            if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new RuntimeException("Timed out");
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.wikipedia.offline;
+
+import org.junit.Test;
+import org.wikipedia.test.TestFileUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ZimTitleReaderTest {
+    private static final String TEST_ZIM_FILE = "wikipedia_en_ray_charles_2015-06.zim";
+    private static final int ARTICLES = 236;
+
+    @Test public void testNext() throws Throwable {
+        ZimTitleReader subject = new ZimTitleReader(TestFileUtil.getRawFile(TEST_ZIM_FILE));
+        List<String> titles = new ArrayList<>();
+        try {
+            for (String title = subject.next(); title != null; title = subject.next()) {
+                titles.add(title);
+            }
+            assertThat(subject.next(), nullValue());
+        } finally {
+            subject.close();
+        }
+
+        // Articles and redirects to them, in the order of the compilation.
+        assertThat(titles.size(), is(ARTICLES));
+        assertThat(titles.get(0), is("(The Night Time Is) The Right Time"));
+        assertThat(titles, hasItems("Raelette", "Ray Charles", "You Got the Right One, Baby"));
+    }
+}
@@ -0,0 +1,64 @@
+package org.wikipedia.page;
+
+import android.support.annotation.NonNull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.test.TestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(TestRunner.class) public class SectionBatcherTest {
+    private static final int SECTIONS = 200;
+    private static final int SECTION_LENGTH = 8 * 1024;
+    private static final int TARGET = 20;
+
+    @NonNull private final SectionBatcher subject = new SectionBatcher();
+    @NonNull private final List<Section> sections = sections(SECTIONS, SECTION_LENGTH);
+
+    @Test public void testEndViewport() {
+        int expected = 1 + SectionBatcher.VIEWPORT_BATCH_LENGTH / SECTION_LENGTH;
+        assertThat(subject.end(sections, 1, 0, false), is(expected));
+    }
+
+    @Test public void testEndTarget() {
+        assertThat(subject.end(sections, 1, TARGET, false), is(TARGET + 1));
+    }
+
+    @Test public void testEndTargetPassed() {
+        int expected = TARGET + 1 + SectionBatcher.VIEWPORT_BATCH_LENGTH / SECTION_LENGTH;
+        assertThat(subject.end(sections, TARGET + 1, TARGET, false), is(expected));
+    }
+
+    @Test public void testEndChunk() {
+        int expected = 1 + SectionBatcher.CHUNK_LENGTH / SECTION_LENGTH;
+        assertThat(subject.end(sections, 1, 0, true), is(expected));
+    }
+
+    @Test public void testEndChunkMaxSections() {
+        List<Section> empty = sections(SECTIONS, 0);
+        assertThat(subject.end(empty, 1, 0, true), is(1 + SectionBatcher.MAX_CHUNK_SECTIONS));
+    }
+
+    @Test public void testEndOversizedSection() {
+        List<Section> large = sections(2, SectionBatcher.CHUNK_LENGTH * 2);
+        assertThat(subject.end(large, 1, 0, true), is(2));
+    }
+
+    @Test public void testEndLast() {
+        assertThat(subject.end(sections, SECTIONS - 1, 0, true), is(SECTIONS));
+    }
+
+    @NonNull private static List<Section> sections(int count, int length) {
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sections.add(new Section(i, 1, "heading", "anchor" + i, StringUtils.repeat('x', length)));
+        }
+        return sections;
+    }
+}
@@ -0,0 +1,226 @@
+package org.wikipedia.page.tabs;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.history.HistoryEntry;
+import org.wikipedia.page.PageBackStackItem;
+import org.wikipedia.page.PageTitle;
+import org.wikipedia.test.TestRunner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@RunWith(TestRunner.class) public class TabStoreTest {
+    private static final WikiSite WIKI = WikiSite.forLanguageCode("en");
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+    @NonNull private final List<Runnable> writes = new ArrayList<>();
+    @NonNull private final Executor executor = new Executor() {
+        @Override public void execute(@NonNull Runnable runnable) {
+            writes.add(runnable);
+        }
+    };
+    private File dir;
+
+    @Before public void setUp() throws Throwable {
+        dir = folder.newFolder();
+    }
+
+    @Test public void testLoadSaved() {
+        List<Tab> tabs = Arrays.asList(tab("Ray_Charles", "Rayon"), tab("Banana"));
+        tabs.get(0).getBackStack().get(1).setScrollY(100);
+        new TabStore(dir, executor).save(tabs);
+        write();
+
+        List<Tab> loaded = load(new TabStore(dir, executor));
+        assertThat(loaded.size(), is(2));
+        assertThat(loaded.get(0).isLoaded(), is(false));
+        assertThat(loaded.get(1).isLoaded(), is(true));
+        assertThat(loaded.get(0).getBackStack(), is(tabs.get(0).getBackStack()));
+        assertThat(loaded.get(1).getBackStack(), is(tabs.get(1).getBackStack()));
+    }
+
+    @Test public void testLoadTitleFields() {
+        PageTitle title = new PageTitle("Talk", "Ray_Charles", "Early_life", "thumb.jpg", WIKI);
+        title.setDescription("American musician");
+        Tab tab = new Tab();
+        tab.getBackStack().add(new PageBackStackItem(title, new HistoryEntry(
+                new PageTitle("Ray", WIKI), new Date(1000), HistoryEntry.SOURCE_SEARCH, 5)));
+        new TabStore(dir, executor).save(Collections.singletonList(tab));
+        write();
+
+        PageBackStackItem item = load(new TabStore(dir, executor)).get(0).getBackStack().get(0);
+        assertThat(item.getTitle().getNamespace(), is("Talk"));
+        assertThat(item.getTitle().getFragment(), is("Early_life"));
+        assertThat(item.getTitle().getThumbUrl(), is("thumb.jpg"));
+        assertThat(item.getTitle().getDescription(), is("American musician"));
+        assertThat(item.getTitle().getWikiSite(), is(WIKI));
+        assertThat(item.getHistoryEntry(), is(tab.getBackStack().get(0).getHistoryEntry()));
+        assertThat(item.getHistoryEntry().getTimeSpentSec(), is(5));
+    }
+
+    @Test public void testLoadEntryTitleFields() {
+        PageTitle title = new PageTitle(null, "Ray_Charles", "Early_life", null, WIKI);
+        PageTitle entryTitle = new PageTitle(null, "Ray_Charles", null, "thumb.jpg", WIKI);
+        entryTitle.setDescription("American musician");
+        Tab tab = new Tab();
+        tab.getBackStack().add(new PageBackStackItem(title, new HistoryEntry(entryTitle,
+                HistoryEntry.SOURCE_SEARCH)));
+        new TabStore(dir, executor).save(Collections.singletonList(tab));
+        write();
+
+        PageBackStackItem item = load(new TabStore(dir, executor)).get(0).getBackStack().get(0);
+        assertThat(item.getTitle().getFragment(), is("Early_life"));
+        assertThat(item.getTitle().getThumbUrl(), nullValue());
+        assertThat(item.getHistoryEntry().getTitle().getFragment(), nullValue());
+        assertThat(item.getHistoryEntry().getTitle().getThumbUrl(), is("thumb.jpg"));
+        assertThat(item.getHistoryEntry().getTitle().getDescription(), is("American musician"));
+    }
+
+    @Test public void testSaveWritesChangedTabs() {
+        TabStore subject = new TabStore(dir, executor);
+        List<Tab> tabs = new ArrayList<>(Arrays.asList(tab("Ray_Charles"), tab("Banana")));
+        subject.save(tabs);
+        write();
+        File unchanged = new File(dir, "0.tab");
+        long size = unchanged.length();
+        assertThat(unchanged.delete(), is(true));
+
+        tabs.get(1).getBackStack().add(item("Apple"));
+        subject.save(tabs);
+        write();
+        assertThat(unchanged.exists(), is(false));
+
+        assertThat(new File(dir, "1.tab").length() > size, is(true));
+    }
+
+    @Test public void testSaveCoalesced() {
+        TabStore subject = new TabStore(dir, executor);
+        List<Tab> tabs = new ArrayList<>(Arrays.asList(tab("Ray_Charles"), tab("Banana")));
+        subject.save(tabs);
+        tabs.remove(0);
+        subject.save(tabs);
+        assertThat(writes.size(), is(1));
+
+        write();
+        assertThat(new File(dir, "0.tab").exists(), is(false));
+        assertThat(load(new TabStore(dir, executor)).get(0).getBackStack(),
+                is(tabs.get(0).getBackStack()));
+    }
+
+    @Test public void testLoadUnloadedTabsKept() {
+        new TabStore(dir, executor).save(Arrays.asList(tab("Ray_Charles"), tab("Banana")));
+        write();
+
+        TabStore subject = new TabStore(dir, executor);
+        List<Tab> tabs = load(subject);
+        subject.save(tabs);
+        write();
+        assertThat(load(new TabStore(dir, executor)).get(0).getBackStack().get(0).getTitle().getText(),
+                is("Ray_Charles"));
+        assertThat(count(subject), is(2));
+    }
+
+    @Test public void testCount() {
+        assertThat(count(new TabStore(dir, executor)), is(0));
+
+        new TabStore(dir, executor).save(Collections.singletonList(new Tab()));
+        write();
+        assertThat(count(new TabStore(dir, executor)), is(0));
+
+        new TabStore(dir, executor).save(Arrays.asList(tab("Ray_Charles"), new Tab()));
+        write();
+        assertThat(count(new TabStore(dir, executor)), is(2));
+    }
+
+    @Test public void testCountBeforeRead() {
+        new TabStore(dir, executor).save(Arrays.asList(tab("Ray_Charles"), tab("Banana")));
+        write();
+
+        TabStore subject = new TabStore(dir, executor);
+        final boolean[] read = new boolean[1];
+        subject.preload(new Runnable() {
+            @Override public void run() {
+                read[0] = true;
+            }
+        });
+        assertThat(subject.count(), is(0));
+
+        write();
+        assertThat(read[0], is(true));
+        assertThat(subject.count(), is(2));
+    }
+
+    @Test public void testLoadPreloadOutdatedBySave() {
+        TabStore subject = new TabStore(dir, executor);
+        subject.save(Collections.singletonList(tab("Ray_Charles")));
+        write();
+        subject.preload(null);
+        write();
+
+        List<Tab> tabs = Arrays.asList(tab("Banana"), tab("Apple"));
+        subject.save(tabs);
+        List<Tab> loaded = load(subject);
+        assertThat(loaded.size(), is(2));
+        assertThat(loaded.get(1).getBackStack(), is(tabs.get(1).getBackStack()));
+    }
+
+    @Test public void testClear() {
+        TabStore subject = new TabStore(dir, executor);
+        subject.save(Collections.singletonList(tab("Ray_Charles")));
+        subject.clear();
+        write();
+
+        assertThat(load(new TabStore(dir, executor)), is(empty()));
+    }
+
+    // The read by the executor for load() or count() on the main thread.
+    @NonNull private List<Tab> load(@NonNull TabStore subject) {
+        subject.preload(null);
+        write();
+        return subject.load();
+    }
+
+    private int count(@NonNull TabStore subject) {
+        subject.preload(null);
+        write();
+        return subject.count();
+    }
+
+    private void write() {
+        for (Runnable write : writes) {
+            write.run();
+        }
+        writes.clear();
+    }
+
+    @NonNull private static Tab tab(@NonNull String... titles) {
+        Tab tab = new Tab();
+        for (String title : titles) {
+            tab.getBackStack().add(item(title));
+        }
+        return tab;
+    }
+
+    @NonNull private static PageBackStackItem item(@NonNull String title) {
+        PageTitle pageTitle = new PageTitle(title, WIKI);
+        return new PageBackStackItem(pageTitle, new HistoryEntry(pageTitle,
+                HistoryEntry.SOURCE_INTERNAL_LINK));
+    }
+}
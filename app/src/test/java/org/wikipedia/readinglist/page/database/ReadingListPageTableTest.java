@@ -0,0 +1,170 @@
+package org.wikipedia.readinglist.page.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.database.contract.ReadingListPageContract;
+import org.wikipedia.database.contract.ReadingListPageContract.DiskCol;
+import org.wikipedia.database.contract.ReadingListPageContract.PageCol;
+import org.wikipedia.page.Namespace;
+import org.wikipedia.readinglist.page.ReadingListPageRow;
+import org.wikipedia.readinglist.page.database.disk.DiskStatus;
+import org.wikipedia.test.TestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+@RunWith(TestRunner.class) public class ReadingListPageTableTest {
+    // The last version to store the list keys of a page as comma separated values.
+    private static final int DB_VER_CSV_LIST_KEYS = 18;
+    private static final int DB_VER_LATEST = 20;
+
+    private SQLiteDatabase db;
+
+    @Before public void setUp() {
+        db = SQLiteDatabase.create(null);
+        db.execSQL("PRAGMA recursive_triggers = ON");
+        ReadingListPageRow.DISK_DATABASE_TABLE.upgradeSchema(db, 0, DB_VER_CSV_LIST_KEYS);
+        ReadingListPageRow.DATABASE_TABLE.upgradeSchema(db, 0, DB_VER_CSV_LIST_KEYS);
+
+        insertLegacyPage("a", "list1,list2");
+        insertLegacyPage("b", "list2");
+        insertLegacyPage("c", "");
+    }
+
+    @After public void tearDown() {
+        db.close();
+    }
+
+    @Test public void testUpgradeCopiesListKeys() {
+        upgrade();
+
+        assertThat(listKeys("a"), containsInAnyOrder("list1", "list2"));
+        assertThat(listKeys("b"), contains("list2"));
+        assertThat(listKeys("c"), empty());
+    }
+
+    @Test public void testUpgradeDropsLegacyColumn() {
+        upgrade();
+
+        Cursor cursor = db.rawQuery("SELECT * FROM " + ReadingListPageContract.TABLE_PAGE, null);
+        try {
+            assertThat(cursor.getColumnIndex(PageCol.LIST_KEYS.getName()), is(-1));
+            assertThat(cursor.getCount(), is(3));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test public void testUpgradeListPages() {
+        upgrade();
+
+        assertThat(pagesInList("list1"), contains("a"));
+        assertThat(pagesInList("list2"), containsInAnyOrder("a", "b"));
+        assertThat(pagesInList("list3"), empty());
+    }
+
+    @Test public void testListKeysQueryPlan() {
+        upgrade();
+
+        // The list keys of each page are looked up through the page key index rather than grouped
+        // over the whole page list table.
+        for (String detail : queryPlan(ReadingListPageContract.PageWithDisk.TABLES, null)) {
+            assertThat(detail, not(containsString("MATERIALIZE")));
+            assertThat(detail, not(containsString("SCAN TABLE " + ReadingListPageContract.TABLE_PAGE_LIST)));
+        }
+        for (String detail : queryPlan(ReadingListPageContract.ListPageWithDisk.TABLES,
+                ReadingListPageContract.ListPageWithDisk.SELECTION)) {
+            assertThat(detail, not(containsString("MATERIALIZE")));
+            assertThat(detail, not(containsString("SCAN")));
+        }
+    }
+
+    private void upgrade() {
+        // In the order of Database.
+        ReadingListPageRow.DISK_DATABASE_TABLE.upgradeSchema(db, DB_VER_CSV_LIST_KEYS, DB_VER_LATEST);
+        ReadingListPageRow.LIST_DATABASE_TABLE.upgradeSchema(db, DB_VER_CSV_LIST_KEYS, DB_VER_LATEST);
+        ReadingListPageRow.DATABASE_TABLE.upgradeSchema(db, DB_VER_CSV_LIST_KEYS, DB_VER_LATEST);
+    }
+
+    private void insertLegacyPage(@NonNull String key, @NonNull String listKeys) {
+        ContentValues values = new ContentValues();
+        values.put(PageCol.KEY.getName(), key);
+        values.put(PageCol.LIST_KEYS.getName(), listKeys);
+        values.put(PageCol.SITE.getName(), "en.wikipedia.org");
+        values.put(PageCol.NAMESPACE.getName(), Namespace.MAIN.code());
+        values.put(PageCol.TITLE.getName(), key);
+        values.put(PageCol.MTIME.getName(), 0);
+        values.put(PageCol.ATIME.getName(), 0);
+        db.insertOrThrow(ReadingListPageContract.TABLE_PAGE, null, values);
+
+        values = new ContentValues();
+        values.put(DiskCol.KEY.getName(), key);
+        values.put(DiskCol.STATUS.getName(), DiskStatus.SAVED.code());
+        values.put(DiskCol.TIMESTAMP.getName(), 0);
+        values.put(DiskCol.TRANSACTION_ID.getName(), 0);
+        db.insertOrThrow(ReadingListPageContract.TABLE_DISK, null, values);
+    }
+
+    @NonNull private Set<String> listKeys(@NonNull String key) {
+        Cursor cursor = db.rawQuery("SELECT " + PageCol.LIST_KEYS.qualifiedName() + " FROM "
+                + ReadingListPageContract.PageWithDisk.TABLES + " WHERE "
+                + PageCol.KEY.qualifiedName() + " = ?", new String[] {key});
+        try {
+            assertThat(cursor.moveToFirst(), is(true));
+            return PageCol.LIST_KEYS.val(cursor);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @NonNull private List<String> queryPlan(@NonNull String tables, @Nullable String selection) {
+        String sql = "EXPLAIN QUERY PLAN SELECT "
+                + TextUtils.join(", ", ReadingListPageContract.PageWithDisk.PROJECTION) + " FROM "
+                + tables + (selection == null ? "" : " WHERE " + selection);
+        String[] args = selection == null ? null : new String[] {"list1"};
+        List<String> details = new ArrayList<>();
+        Cursor cursor = db.rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(cursor.getColumnIndexOrThrow("detail")));
+            }
+        } finally {
+            cursor.close();
+        }
+        assertThat(details, not(empty()));
+        return details;
+    }
+
+    @NonNull private List<String> pagesInList(@NonNull String listKey) {
+        List<String> keys = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT " + PageCol.KEY.qualifiedName() + " FROM "
+                + ReadingListPageContract.ListPageWithDisk.TABLES + " WHERE "
+                + ReadingListPageContract.ListPageWithDisk.SELECTION, new String[] {listKey});
+        try {
+            while (cursor.moveToNext()) {
+                keys.add(PageCol.KEY.val(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return keys;
+    }
+}
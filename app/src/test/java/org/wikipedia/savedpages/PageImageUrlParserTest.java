@@ -65,6 +65,19 @@ import static org.mockito.Mockito.when;
         assertThat(subject.parse("<img src='url'>"), contains("url"));
     }
 
+    @Test public void testParseHtmlDensity() {
+        PageImageUrlParser subject = new PageImageUrlParser(new ImageTagParser(),
+                new PixelDensityDescriptorParser(), 2f);
+        String html = "<img src='url' srcset='url15 1.5x, url2 2x'>";
+        assertThat(subject.parse(html), contains("url2"));
+    }
+
+    @Test public void testParseHtmlDensityDefault() {
+        PageImageUrlParser subject = new PageImageUrlParser(new ImageTagParser(),
+                new PixelDensityDescriptorParser(), 2f);
+        assertThat(subject.parse("<img src='url'>"), contains("url"));
+    }
+
     @Test public void testParseHtmlEmpty() {
         assertThat(subject.parse(""), empty());
     }
@@ -0,0 +1,177 @@
+package org.wikipedia.savedpages;
+
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wikipedia.settings.Prefs;
+import org.wikipedia.test.TestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(TestRunner.class) public class SavedPageStorageTest {
+    private static final long BUDGET = 100;
+    private static final long PAGE_SIZE = 10;
+    private static final long SHARED_PAGE_SIZE = 60;
+
+    // Key to the size of the content stored on disk for it.
+    @NonNull private final Map<String, Long> stored = new HashMap<>();
+    @NonNull private final SavedPageStorage.DiskUsage diskUsage = new SavedPageStorage.DiskUsage() {
+        @Override public long bytes() {
+            long bytes = 0;
+            for (long size : stored.values()) {
+                bytes += size;
+            }
+            return bytes;
+        }
+
+        @Override public long bytes(@NonNull Collection<String> urls) {
+            return 0;
+        }
+    };
+    @NonNull private final SavedPageStorage subject = new SavedPageStorage(true, diskUsage);
+    @NonNull private final List<String> evicted = new ArrayList<>();
+    @NonNull private final SavedPageStorage.Evictor evictor = new SavedPageStorage.Evictor() {
+        @Override public void evict(@NonNull String key) {
+            evicted.add(key);
+            stored.remove(key);
+        }
+    };
+
+    @Before public void setUp() {
+        Prefs.setSavedPageStorageBudget(BUDGET);
+    }
+
+    @After public void tearDown() {
+        Prefs.setSavedPageStorageBudget(0);
+    }
+
+    @Test public void testPutPage() {
+        subject.putPage("a", Arrays.asList("list1", "list2"), PAGE_SIZE);
+        subject.putPage("b", Collections.singletonList("list1"), PAGE_SIZE);
+
+        assertThat(subject.pinnedBytes(), is(2 * PAGE_SIZE));
+        assertThat(subject.listBytes("list1"), is(2 * PAGE_SIZE));
+        assertThat(subject.listBytes("list2"), is(PAGE_SIZE));
+        assertThat(subject.freedByRemoving("list1"), is(PAGE_SIZE));
+        assertThat(subject.freedByRemoving("list2"), is(0L));
+    }
+
+    @Test public void testPutPageReplaces() {
+        subject.putPage("a", Arrays.asList("list1", "list2"), PAGE_SIZE);
+        subject.putPage("a", Collections.singletonList("list2"), PAGE_SIZE * 2);
+
+        assertThat(subject.pinnedBytes(), is(PAGE_SIZE * 2));
+        assertThat(subject.listBytes("list1"), is(0L));
+        assertThat(subject.freedByRemoving("list2"), is(PAGE_SIZE * 2));
+    }
+
+    @Test public void testRemovePage() {
+        subject.putPage("a", Arrays.asList("list1", "list2"), PAGE_SIZE);
+        subject.putPage("b", Collections.singletonList("list1"), PAGE_SIZE);
+        subject.removePage("b");
+
+        assertThat(subject.pinnedBytes(), is(PAGE_SIZE));
+        assertThat(subject.freedByRemoving("list1"), is(0L));
+        subject.removePage("a");
+        assertThat(subject.pinnedBytes(), is(0L));
+        assertThat(subject.listBytes("list1"), is(0L));
+    }
+
+    @Test public void testMakeRoomEvictsLeastRecentlyUsed() {
+        putPage("a", BUDGET / 2);
+        putEvictable("b", BUDGET / 2);
+        putEvictable("c", BUDGET / 2);
+
+        assertThat(subject.makeRoom(evictor), is(true));
+        assertThat(evicted, contains("b"));
+        assertThat(subject.evictableBytes(), is(BUDGET / 2));
+    }
+
+    @Test public void testMakeRoomNeverEvictsPinned() {
+        putPage("a", BUDGET);
+
+        assertThat(subject.makeRoom(evictor), is(true));
+        assertThat(subject.hasRoom(), is(false));
+        assertThat(evicted, empty());
+        assertThat(subject.pinnedBytes(), is(BUDGET));
+    }
+
+    @Test public void testMakeRoomOvershoot() {
+        putPage("a", BUDGET / 2);
+        putEvictable("b", PAGE_SIZE);
+        // A page being saved, neither pinned nor evictable.
+        stored.put("c", BUDGET / 2 + PAGE_SIZE);
+
+        assertThat(subject.makeRoom(evictor), is(false));
+        assertThat(evicted, contains("b"));
+    }
+
+    @Test public void testHasRoomCountsSharedContentOnce() {
+        // Each page is charged in full for the content it shares with the other.
+        subject.putPage("a", Collections.singletonList("list"), SHARED_PAGE_SIZE);
+        subject.putPage("b", Collections.singletonList("list"), SHARED_PAGE_SIZE);
+        stored.put("a", SHARED_PAGE_SIZE);
+        stored.put("b", PAGE_SIZE);
+
+        assertThat(subject.pinnedBytes() > BUDGET, is(true));
+        assertThat(subject.usedBytes(), is(SHARED_PAGE_SIZE + PAGE_SIZE));
+        assertThat(subject.hasRoom(), is(true));
+    }
+
+    @Test public void testHasRoomExcludesEvictable() {
+        putPage("a", BUDGET / 2);
+        putEvictable("b", BUDGET);
+
+        assertThat(subject.hasRoom(), is(true));
+    }
+
+    @Test public void testHasRoomForEstimate() {
+        putPage("a", BUDGET - PAGE_SIZE);
+        putEvictable("b", PAGE_SIZE);
+
+        assertThat(subject.hasRoom(PAGE_SIZE), is(true));
+        assertThat(subject.hasRoom(PAGE_SIZE + 1), is(false));
+    }
+
+    @Test public void testPutPageRemovesEvictable() {
+        subject.putEvictable("a", PAGE_SIZE);
+        subject.putPage("a", Collections.singletonList("list"), PAGE_SIZE);
+
+        assertThat(subject.evictableBytes(), is(0L));
+        assertThat(subject.pinnedBytes(), is(PAGE_SIZE));
+    }
+
+    @Test public void testClear() {
+        subject.putPage("a", Collections.singletonList("list"), PAGE_SIZE);
+        subject.putEvictable("b", PAGE_SIZE);
+        subject.clear();
+
+        assertThat(subject.pinnedBytes(), is(0L));
+        assertThat(subject.evictableBytes(), is(0L));
+        assertThat(subject.listBytes("list"), is(0L));
+    }
+
+    private void putPage(@NonNull String key, long bytes) {
+        subject.putPage(key, Collections.singletonList("list"), bytes);
+        stored.put(key, bytes);
+    }
+
+    private void putEvictable(@NonNull String key, long bytes) {
+        subject.putEvictable(key, bytes);
+        stored.put(key, bytes);
+    }
+}
@@ -0,0 +1,79 @@
+package org.wikipedia.savedpages;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory;
+import org.wikipedia.dataclient.okhttp.cache.SaveHeader;
+import org.wikipedia.test.ImmediateExecutorService;
+import org.wikipedia.test.MockWebServerTest;
+
+import okhttp3.CacheDelegate;
+import okhttp3.Dispatcher;
+import okhttp3.Request;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.wikipedia.dataclient.okhttp.OkHttpConnectionFactory.SAVE_BLOBS;
+
+public class SavedPageSyncServiceTest extends MockWebServerTest {
+    private static final String BODY = "body";
+    private static final String OWNER = "owner";
+    private static final String OTHER_OWNER = "other";
+
+    @NonNull private final CacheDelegate saveCache = new CacheDelegate(OkHttpConnectionFactory.SAVE_CACHE);
+
+    @Before public void setUp() throws Throwable {
+        super.setUp();
+
+        Request req = newRequest();
+        SAVE_BLOBS.release(OWNER, req.url());
+        SAVE_BLOBS.release(OTHER_OWNER, req.url());
+        saveCache.remove(req);
+    }
+
+    @Test public void testRemoveResourceSavedBeforeJournal() throws Throwable {
+        // A page saved before references were journaled left its response in the cache without
+        // interning it.
+        Request req = newRequest();
+        requestResponse(req);
+        assertThat(saveCache.entry(req), notNullValue());
+
+        SavedPageSyncService.removeResource(SAVE_BLOBS, saveCache, OWNER, req);
+        assertThat(saveCache.entry(req), nullValue());
+    }
+
+    @Test public void testRemoveResourceReferencedByOtherPage() throws Throwable {
+        Request req = newRequest();
+        requestResponse(req);
+        SAVE_BLOBS.intern(OWNER, req.url());
+        SAVE_BLOBS.intern(OTHER_OWNER, req.url());
+
+        SavedPageSyncService.removeResource(SAVE_BLOBS, saveCache, OWNER, req);
+        assertThat(saveCache.entry(req), notNullValue());
+
+        SavedPageSyncService.removeResource(SAVE_BLOBS, saveCache, OTHER_OWNER, req);
+        assertThat(saveCache.entry(req), nullValue());
+    }
+
+    private void requestResponse(@NonNull Request req) throws Throwable {
+        server().enqueue(BODY);
+        String body = OkHttpConnectionFactory.getClient()
+                .newBuilder()
+                .dispatcher(new Dispatcher(new ImmediateExecutorService()))
+                .build()
+                .newCall(req).execute().body().string();
+        assertThat(body, is(BODY));
+        server().takeRequest();
+    }
+
+    @NonNull private Request newRequest() {
+        return new Request.Builder()
+                .url(server().getUrl("image"))
+                .header(SaveHeader.FIELD, SaveHeader.VAL_ENABLED)
+                .build();
+    }
+}
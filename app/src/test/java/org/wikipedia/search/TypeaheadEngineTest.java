@@ -0,0 +1,161 @@
+package org.wikipedia.search;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.wikipedia.dataclient.WikiSite;
+import org.wikipedia.page.PageTitle;
+import org.wikipedia.test.TestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(TestRunner.class) public class TypeaheadEngineTest {
+    private static final WikiSite WIKI = new WikiSite("en.wikipedia.org");
+    private static final Executor DIRECT = new Executor() {
+        @Override public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @NonNull private final PrefixSearchClient client = mock(PrefixSearchClient.class);
+    @NonNull private final TypeaheadEngine.Callback cb = mock(TypeaheadEngine.Callback.class);
+    @NonNull private List<PageTitle> leading = Collections.emptyList();
+    @NonNull private List<PageTitle> trailing = Collections.emptyList();
+    @NonNull private final TypeaheadEngine subject = new TypeaheadEngine(client,
+            new TypeaheadEngine.LocalSource() {
+                @NonNull @Override public List<PageTitle> search(@NonNull WikiSite wiki,
+                                                                 @NonNull String prefix, int max) {
+                    return leading;
+                }
+            },
+            new TypeaheadEngine.LocalSource() {
+                @NonNull @Override public List<PageTitle> search(@NonNull WikiSite wiki,
+                                                                 @NonNull String prefix, int max) {
+                    return trailing;
+                }
+            }, DIRECT, DIRECT);
+
+    @Test public void testSearchCompleteReused() {
+        subject.search(WIKI, "ra", 0, cb);
+        respond(results("Ray Charles", "Rayon", "Radio"));
+        subject.search(WIKI, "Ray", 0, cb);
+
+        verify(client, times(1)).request(eq(WIKI), anyString(), any(PrefixSearchClient.Callback.class));
+        assertThat(titles(lastResults(2)), contains("Ray Charles", "Rayon"));
+        assertThat(subject.canAnswerLocally(WIKI, "rayo"), is(true));
+        assertThat(subject.localHitRatio(), is(1f / 2));
+    }
+
+    @Test public void testSearchIncompleteNotReused() {
+        String[] titles = new String[PrefixSearchClient.MAX_RESULTS];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = "Ray " + i;
+        }
+        subject.search(WIKI, "ra", 0, cb);
+        respond(results(titles));
+
+        assertThat(subject.canAnswerLocally(WIKI, "ra"), is(true));
+        assertThat(subject.canAnswerLocally(WIKI, "ray"), is(false));
+    }
+
+    @Test public void testSearchContinuedNotReused() {
+        subject.search(WIKI, "ra", 0, cb);
+        respond(new SearchResults(results("Ray Charles").getResults(),
+                Collections.singletonMap(TypeaheadEngine.CONTINUE_OFFSET, "1"), null));
+
+        assertThat(subject.canAnswerLocally(WIKI, "ray"), is(false));
+    }
+
+    @Test public void testSearchLooseMatchNotReused() {
+        subject.search(WIKI, "ub", 0, cb);
+        respond(results("Uber", "Über"));
+
+        assertThat(subject.canAnswerLocally(WIKI, "ube"), is(false));
+    }
+
+    @Test public void testSearchNonAsciiExtensionNotReused() {
+        subject.search(WIKI, "ra", 0, cb);
+        respond(results("Ray Charles", "Rayon"));
+
+        assertThat(subject.canAnswerLocally(WIKI, "ray"), is(true));
+        assertThat(subject.canAnswerLocally(WIKI, "ray "), is(false));
+        assertThat(subject.canAnswerLocally(WIKI, "raé"), is(false));
+    }
+
+    @Test public void testSearchSuperseded() {
+        subject.search(WIKI, "a", 0, cb);
+        PrefixSearchClient.Callback first = requestCallback();
+        subject.search(WIKI, "ab", 0, cb);
+        first.success(null, results("Abc"));
+
+        verify(cb, never()).success(anyString(), any(SearchResults.class));
+        verify(client, times(2)).cancel();
+    }
+
+    @Test public void testSearchFailure() {
+        subject.search(WIKI, "a", 0, cb);
+        Throwable caught = new RuntimeException();
+        requestCallback().failure(null, caught);
+
+        verify(cb).failure("a", caught);
+    }
+
+    @Test public void testSearchMergesLocalSources() {
+        leading = Arrays.asList(new PageTitle("Rayon", WIKI), new PageTitle("Ray", WIKI));
+        trailing = Arrays.asList(new PageTitle("Radio", WIKI), new PageTitle("Ray", WIKI));
+        subject.search(WIKI, "ra", 0, cb);
+        respond(results("Ray Charles", "Rayon"));
+
+        assertThat(titles(lastResults(1)), contains("Ray", "Ray Charles", "Rayon", "Radio"));
+    }
+
+    @NonNull private PrefixSearchClient.Callback requestCallback() {
+        ArgumentCaptor<PrefixSearchClient.Callback> captor
+                = ArgumentCaptor.forClass(PrefixSearchClient.Callback.class);
+        verify(client, times(1)).request(eq(WIKI), anyString(), captor.capture());
+        return captor.getValue();
+    }
+
+    private void respond(@NonNull SearchResults results) {
+        requestCallback().success(null, results);
+    }
+
+    @NonNull private SearchResults lastResults(int count) {
+        ArgumentCaptor<SearchResults> captor = ArgumentCaptor.forClass(SearchResults.class);
+        verify(cb, times(count)).success(anyString(), captor.capture());
+        return captor.getValue();
+    }
+
+    @NonNull private static SearchResults results(@NonNull String... titles) {
+        List<SearchResult> results = new ArrayList<>();
+        for (String title : titles) {
+            results.add(new SearchResult(new PageTitle(title, WIKI)));
+        }
+        return new SearchResults(results, null, null);
+    }
+
+    @NonNull private static List<String> titles(@NonNull SearchResults results) {
+        List<String> titles = new ArrayList<>();
+        for (SearchResult result : results.getResults()) {
+            titles.add(result.getPageTitle().getDisplayText());
+        }
+        return titles;
+    }
+}
@@ -99,7 +99,10 @@ function setIssuesElement( parentNode ) {
     return issuesContainer;
 }
 
-bridge.registerListener( "displayLeadSection", function( payload ) {
+bridge.registerListener( "displayLeadSection", function( payload, error ) {
+    if ( reportLoadError( payload, error ) ) {
+        return;
+    }
     var lazyDocument;
 
     // This might be a refresh! Clear out all contents!
@@ -137,6 +140,17 @@ bridge.registerListener( "displayLeadSection", function( payload ) {
     scrolledOnLoad = false;
 });
 
+// Reports an error fetching the content of a page to the app, which shows its load error.
+function reportLoadError( payload, error ) {
+    if ( !error ) {
+        return false;
+    }
+    bridge.sendMessage( "pageLoadError", {
+      "sequence": payload.sequence,
+      "message": error.message });
+    return true;
+}
+
 function clearContents() {
     lazyLoadTransformer.deregister();
     document.getElementById( "content" ).innerHTML = "";
@@ -201,7 +215,26 @@ function applySectionTransforms( content, isLeadSection ) {
 
 var scrolledOnLoad = false;
 
-bridge.registerListener( "displaySection", function ( payload ) {
+bridge.registerListener( "displaySections", function ( payload, error ) {
+    if ( reportLoadError( payload, error ) ) {
+        return;
+    }
+    var contentWrapper = document.getElementById( "content" );
+    payload.sections.forEach( function( section ) {
+        elementsForSection(section).forEach(function (element) {
+            contentWrapper.appendChild(element);
+            // do we have a y-offset to scroll to?
+            if (payload.scrollY > 0 && payload.scrollY < element.offsetTop && !scrolledOnLoad) {
+                window.scrollTo( 0, payload.scrollY );
+                scrolledOnLoad = true;
+            }
+        });
+        // do we have a section to scroll to?
+        if ( typeof payload.fragment === "string" && payload.fragment.length > 0 && section.anchor === payload.fragment) {
+            scrollToSection( payload.fragment );
+        }
+    } );
+
     if ( payload.noMore ) {
         // if we still haven't scrolled to our target offset (if we have one),
         // then do it now.
@@ -214,26 +247,25 @@ bridge.registerListener( "displaySection", function ( payload ) {
         bridge.sendMessage( "pageLoadComplete", {
           "sequence": payload.sequence });
     } else {
-        var contentWrapper = document.getElementById( "content" );
-        elementsForSection(payload.section).forEach(function (element) {
-            contentWrapper.appendChild(element);
-            // do we have a y-offset to scroll to?
-            if (payload.scrollY > 0 && payload.scrollY < element.offsetTop && !scrolledOnLoad) {
-                window.scrollTo( 0, payload.scrollY );
-                scrolledOnLoad = true;
-            }
-        });
-        // do we have a section to scroll to?
-        if ( typeof payload.fragment === "string" && payload.fragment.length > 0 && payload.section.anchor === payload.fragment) {
-            scrollToSection( payload.fragment );
-        }
-        bridge.sendMessage( "requestSection", { "sequence": payload.sequence, "index": payload.section.id + 1 });
+        bridge.sendMessage( "requestSection", {
+          "sequence": payload.sequence,
+          "index": payload.index + payload.sections.length,
+          "viewportFilled": isViewportFilled( payload.scrollY ) });
     }
 });
 
+// Whether the sections rendered so far fill the viewport at the initial scroll position, after
+// which the app sends the remaining sections in larger chunks.
+function isViewportFilled( scrollY ) {
+    return document.body.scrollHeight >= Math.max( scrollY, window.scrollY ) + window.innerHeight;
+}
+
 // -- Begin custom processing of ZIM html data --
 
-bridge.registerListener( "displayFromZim", function( payload ) {
+bridge.registerListener( "displayFromZim", function( payload, error ) {
+    if ( reportLoadError( payload, error ) ) {
+        return;
+    }
     // This might be a refresh! Clear out all contents!
     clearContents();
     setWindowAttributes(payload);